@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks;
+
+import com.gigaspaces.annotation.pojo.SpaceClass;
+import com.gigaspaces.annotation.pojo.SpaceId;
+import com.gigaspaces.annotation.pojo.SpaceIndex;
+import com.gigaspaces.metadata.index.SpaceIndexType;
+
+/**
+ * The entry written to the space by the benchmarks, with an equality index and an ordered index.
+ *
+ * @since 16.5
+ */
+@SpaceClass
+public class BenchmarkEntry {
+    public static final int CATEGORIES = 100;
+
+    private Integer id;
+    private String category;
+    private Long price;
+    private String payload;
+
+    public BenchmarkEntry() {
+    }
+
+    public BenchmarkEntry(Integer id) {
+        this.id = id;
+        this.category = "category-" + (id % CATEGORIES);
+        this.price = (long) id;
+        this.payload = "payload-" + id;
+    }
+
+    @SpaceId
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    @SpaceIndex
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    @SpaceIndex(type = SpaceIndexType.ORDERED)
+    public Long getPrice() {
+        return price;
+    }
+
+    public void setPrice(Long price) {
+        this.price = price;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks;
+
+import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
+import com.gigaspaces.internal.server.space.SpaceEngine;
+import com.j_spaces.core.cache.TypeData;
+
+import org.openspaces.core.GigaSpace;
+import org.openspaces.core.GigaSpaceConfigurer;
+import org.openspaces.core.space.EmbeddedSpaceConfigurer;
+
+/**
+ * An embedded space populated with {@link BenchmarkEntry} instances, shared by the benchmarks
+ * which exercise the space engine.
+ *
+ * @since 16.5
+ */
+public class EmbeddedSpace {
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    private final EmbeddedSpaceConfigurer configurer;
+    private final GigaSpace gigaSpace;
+
+    public EmbeddedSpace(String name, int entries) {
+        this.configurer = new EmbeddedSpaceConfigurer(name).lookupGroups("xap-benchmarks-" + System.nanoTime());
+        this.gigaSpace = new GigaSpaceConfigurer(configurer).gigaSpace();
+        for (int i = 0; i < entries; i += WRITE_BATCH_SIZE) {
+            BenchmarkEntry[] batch = new BenchmarkEntry[Math.min(WRITE_BATCH_SIZE, entries - i)];
+            for (int j = 0; j < batch.length; j++)
+                batch[j] = new BenchmarkEntry(i + j);
+            gigaSpace.writeMultiple(batch);
+        }
+    }
+
+    public GigaSpace getGigaSpace() {
+        return gigaSpace;
+    }
+
+    public SpaceEngine getEngine() {
+        return gigaSpace.getSpace().getDirectProxy().getSpaceImplIfEmbedded().getEngine();
+    }
+
+    public TypeData getTypeData(Class<?> type) {
+        SpaceEngine engine = getEngine();
+        IServerTypeDesc serverTypeDesc = engine.getTypeManager().getServerTypeDesc(type.getName());
+        return engine.getCacheManager().getTypeData(serverTypeDesc);
+    }
+
+    public void close() {
+        configurer.close();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks;
+
+import com.gigaspaces.internal.io.IOUtils;
+import com.gigaspaces.internal.metadata.EntryType;
+import com.gigaspaces.internal.metadata.ITypeDesc;
+import com.gigaspaces.internal.transport.EntryPacket;
+import com.gigaspaces.metadata.SpaceTypeDescriptorBuilder;
+import com.gigaspaces.metadata.StorageType;
+
+import net.jini.core.lease.Lease;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of an {@link EntryPacket} through {@link IOUtils}, as done when entries are sent
+ * over the wire.
+ *
+ * @since 16.5
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntryPacketSerializationBenchmark {
+    private EntryPacket packet;
+    private byte[] serializedPacket;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        ITypeDesc typeDesc = (ITypeDesc) new SpaceTypeDescriptorBuilder("PacketEntry")
+                .addFixedProperty("id", String.class, StorageType.OBJECT)
+                .addFixedProperty("quantity", Integer.class, StorageType.OBJECT)
+                .addFixedProperty("amount", Long.class, StorageType.OBJECT)
+                .addFixedProperty("price", Double.class, StorageType.OBJECT)
+                .addFixedProperty("description", String.class, StorageType.OBJECT)
+                .idProperty("id")
+                .create();
+        Object[] values = new Object[typeDesc.getNumOfFixedProperties()];
+        values[typeDesc.getFixedPropertyPosition("id")] = "id-1";
+        values[typeDesc.getFixedPropertyPosition("quantity")] = 17;
+        values[typeDesc.getFixedPropertyPosition("amount")] = 123456789L;
+        values[typeDesc.getFixedPropertyPosition("price")] = 99.5d;
+        values[typeDesc.getFixedPropertyPosition("description")] = "a description of the entry";
+        packet = new EntryPacket(typeDesc, EntryType.DOCUMENT_JAVA, values, null /*dynamicProperties*/, "uid-1",
+                1 /*version*/, Lease.FOREVER, false /*isTransient*/);
+        serializedPacket = IOUtils.objectToByteBuffer(packet);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return IOUtils.objectToByteBuffer(packet);
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return IOUtils.objectFromByteBuffer(serializedPacket);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks;
+
+import com.gigaspaces.internal.metadata.ITypeDesc;
+import com.gigaspaces.internal.server.storage.HybridPropertiesHolder;
+import com.gigaspaces.metadata.ClassBinaryStorageLayout;
+import com.gigaspaces.metadata.SpaceTypeDescriptorBuilder;
+import com.gigaspaces.metadata.StorageType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Packing and unpacking of the binary stored properties of an entry by {@link
+ * HybridPropertiesHolder}, for each class binary storage layout.
+ *
+ * @since 16.5
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HybridPropertiesBenchmark {
+    @Param({"DEFAULT", "DIRECT"})
+    public ClassBinaryStorageLayout layout;
+
+    private ITypeDesc typeDesc;
+    private Object[] values;
+    private Object[] nonSerializedProperties;
+    private byte[] packedProperties;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        typeDesc = (ITypeDesc) new SpaceTypeDescriptorBuilder("HybridEntry")
+                .addFixedProperty("id", String.class, StorageType.OBJECT)
+                .addFixedProperty("quantity", int.class, StorageType.BINARY)
+                .addFixedProperty("amount", Long.class, StorageType.BINARY)
+                .addFixedProperty("price", double.class, StorageType.BINARY)
+                .addFixedProperty("description", String.class, StorageType.BINARY)
+                .idProperty("id")
+                .binaryStorage(layout)
+                .create();
+        values = new Object[typeDesc.getNumOfFixedProperties()];
+        values[typeDesc.getFixedPropertyPosition("id")] = "id-1";
+        values[typeDesc.getFixedPropertyPosition("quantity")] = 17;
+        values[typeDesc.getFixedPropertyPosition("amount")] = 123456789L;
+        values[typeDesc.getFixedPropertyPosition("price")] = 99.5d;
+        values[typeDesc.getFixedPropertyPosition("description")] = "a description of the entry";
+        HybridPropertiesHolder holder = new HybridPropertiesHolder(typeDesc, values);
+        nonSerializedProperties = holder.getNonSerializedProperties();
+        packedProperties = holder.getPackedSerializedProperties();
+    }
+
+    @Benchmark
+    public byte[] pack() {
+        return new HybridPropertiesHolder(typeDesc, values).getPackedSerializedProperties();
+    }
+
+    @Benchmark
+    public Object[] unpack() {
+        return new HybridPropertiesHolder(typeDesc, nonSerializedProperties, packedProperties).getFixedProperties(typeDesc);
+    }
+}
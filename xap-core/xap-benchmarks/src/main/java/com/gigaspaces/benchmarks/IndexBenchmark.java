@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks;
+
+import com.gigaspaces.internal.server.storage.IEntryHolder;
+import com.j_spaces.core.cache.CacheManager;
+import com.j_spaces.core.cache.IEntryCacheInfo;
+import com.j_spaces.core.cache.TypeData;
+import com.j_spaces.core.cache.TypeDataIndex;
+import com.j_spaces.core.client.TemplateMatchCodes;
+import com.j_spaces.core.sadapter.SAException;
+import com.j_spaces.kernel.IObjectInfo;
+import com.j_spaces.kernel.list.IScanListIterator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insertion to and removal from an equality index ({@link TypeDataIndex}), and range scans of an
+ * ordered index (the extended index of a {@link TypeDataIndex}).
+ *
+ * @since 16.5
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexBenchmark {
+    @Param({"100000"})
+    public int entries;
+
+    @Param({"10", "1000"})
+    public int rangeSize;
+
+    private EmbeddedSpace space;
+    private CacheManager cacheManager;
+    private TypeData typeData;
+    private TypeDataIndex<Object> categoryIndex;
+    private TypeDataIndex<Object> priceIndex;
+    private IEntryCacheInfo[] cacheEntries;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setup() {
+        //the entries are written here to keep their cache entries
+        space = new EmbeddedSpace("index-benchmark", 0);
+        cacheManager = space.getEngine().getCacheManager();
+        cacheEntries = new IEntryCacheInfo[entries];
+        for (int i = 0; i < entries; i++) {
+            String uid = space.getGigaSpace().write(new BenchmarkEntry(i)).getUID();
+            cacheEntries[i] = cacheManager.getPEntryByUid(uid);
+        }
+        typeData = space.getTypeData(BenchmarkEntry.class);
+        categoryIndex = (TypeDataIndex<Object>) typeData.getIndex("category");
+        priceIndex = (TypeDataIndex<Object>) typeData.getIndex("price");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        space.close();
+    }
+
+    /**
+     * Adds a reference to an existing entry under another value of the equality index, and removes
+     * it, leaving the index as it was.
+     */
+    @Benchmark
+    public int insertRemove() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        IEntryCacheInfo pEntry = cacheEntries[random.nextInt(entries)];
+        IEntryHolder entryHolder = pEntry.getEntryHolder(cacheManager);
+        Object value = "category-" + random.nextInt(BenchmarkEntry.CATEGORIES);
+        ArrayList<IObjectInfo<IEntryCacheInfo>> backRefs = new ArrayList<IObjectInfo<IEntryCacheInfo>>(1);
+        categoryIndex.insertEntryIndexedField(pEntry, value, typeData, backRefs);
+        return categoryIndex.removeEntryIndexedField(entryHolder, backRefs, value, 0 /*refpos*/, true /*removeIndexedValue*/, pEntry);
+    }
+
+    @Benchmark
+    public void rangeScan(Blackhole blackhole) throws SAException {
+        long start = ThreadLocalRandom.current().nextInt(entries - rangeSize);
+        IScanListIterator<IEntryCacheInfo> iterator = priceIndex.getExtendedIndexForScanning()
+                .establishScan(start, TemplateMatchCodes.GE, start + rangeSize, false /*endPosInclusive*/);
+        if (iterator == null)
+            return;
+        try {
+            while (iterator.hasNext())
+                blackhole.consume(iterator.next());
+        } finally {
+            iterator.releaseScan();
+        }
+    }
+}
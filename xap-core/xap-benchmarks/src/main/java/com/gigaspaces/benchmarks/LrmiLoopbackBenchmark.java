@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks;
+
+import com.gigaspaces.config.lrmi.nio.NIOConfiguration;
+import com.gigaspaces.internal.io.IOUtils;
+import com.gigaspaces.lrmi.GenericExporter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of LRMI remote calls to an object exported in the same JVM, through the loopback
+ * network.
+ *
+ * @since 16.5
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LrmiLoopbackBenchmark {
+    @Param({"16", "1024", "65536"})
+    public int payloadSize;
+
+    private GenericExporter exporter;
+    private EchoServiceImpl service;
+    private IEchoService stub;
+    private byte[] payload;
+
+    public interface IEchoService extends Remote {
+        byte[] echo(byte[] payload) throws RemoteException;
+    }
+
+    public static class EchoServiceImpl implements IEchoService {
+        @Override
+        public byte[] echo(byte[] payload) {
+            return payload;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        exporter = new GenericExporter(NIOConfiguration.create());
+        service = new EchoServiceImpl();
+        IEchoService localStub = (IEchoService) exporter.export(service);
+        //a deserialized stub calls the exported object over the network rather than directly
+        stub = (IEchoService) IOUtils.objectFromByteBuffer(IOUtils.objectToByteBuffer(localStub));
+        payload = new byte[payloadSize];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        exporter.unexport(service);
+    }
+
+    @Benchmark
+    public byte[] roundTrip() throws RemoteException {
+        return stub.echo(payload);
+    }
+}
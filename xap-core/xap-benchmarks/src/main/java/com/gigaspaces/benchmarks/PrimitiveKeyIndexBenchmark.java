@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks;
+
+import com.gigaspaces.internal.utils.collections.ConcurrentIntKeyHashMap;
+import com.gigaspaces.internal.utils.collections.ConcurrentLongKeyHashMap;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap footprint and allocation of the hash store of an equality index on a long or int property,
+ * with primitive keys ({@link ConcurrentLongKeyHashMap}, {@link ConcurrentIntKeyHashMap}) and with
+ * boxed keys ({@link ConcurrentHashMap}).
+ *
+ * <p>The {@code footprint} benchmark reports the heap retained by the store per key as the
+ * {@code retainedBytesPerKey} counter. The key objects are kept by the benchmark and not counted,
+ * the same as in an index where they are the property values of the entries. Run with {@code -prof
+ * gc} for the bytes allocated per operation ({@code gc.alloc.rate.norm}) and the collections caused
+ * by {@code putRemove} and {@code get}.
+ *
+ * @since 16.5
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PrimitiveKeyIndexBenchmark {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int CONCURRENCY_LEVEL = 16;
+
+    @Param({"1000000"})
+    public int entries;
+
+    @Param({"long", "int"})
+    public String keyType;
+
+    @Param({"primitive", "boxed"})
+    public String store;
+
+    private Object[] keys;
+    private Object[] absentKeys;
+    private Object value;
+    private Map<Object, Object> map;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        keys = new Object[entries];
+        absentKeys = new Object[entries];
+        // spread the keys the way ids and timestamps are, not as a dense sequence
+        for (int i = 0; i < entries; i++) {
+            keys[i] = toKey(i * 7919L);
+            absentKeys[i] = toKey(i * 7919L + 1);
+        }
+        value = new Object();
+        map = fill(createStore());
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytesPerKey;
+    }
+
+    /**
+     * Builds a store of all the keys and measures the heap it retains. A single measurement per
+     * iteration, since each builds a full store and collects twice.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 1)
+    public Map<Object, Object> footprint(Footprint footprint) {
+        long before = usedHeapAfterGc();
+        Map<Object, Object> result = fill(createStore());
+        footprint.retainedBytesPerKey = (usedHeapAfterGc() - before) / entries;
+        return result;
+    }
+
+    @Benchmark
+    public Object get() {
+        return map.get(keys[ThreadLocalRandom.current().nextInt(entries)]);
+    }
+
+    /**
+     * Adds a key which is not in the store and removes it, leaving the store as it was.
+     */
+    @Benchmark
+    public Object putRemove() {
+        Object key = absentKeys[ThreadLocalRandom.current().nextInt(entries)];
+        map.put(key, value);
+        return map.remove(key);
+    }
+
+    private Object toKey(long key) {
+        return "int".equals(keyType) ? (Object) (int) key : (Object) key;
+    }
+
+    private Map<Object, Object> createStore() {
+        if ("boxed".equals(store))
+            return new ConcurrentHashMap<Object, Object>(INITIAL_CAPACITY, 0.75f, CONCURRENCY_LEVEL);
+        if ("int".equals(keyType))
+            return new ConcurrentIntKeyHashMap<Object>(INITIAL_CAPACITY, CONCURRENCY_LEVEL);
+        return new ConcurrentLongKeyHashMap<Object>(INITIAL_CAPACITY, CONCURRENCY_LEVEL);
+    }
+
+    private Map<Object, Object> fill(Map<Object, Object> store) {
+        for (Object key : keys)
+            store.put(key, value);
+        return store;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
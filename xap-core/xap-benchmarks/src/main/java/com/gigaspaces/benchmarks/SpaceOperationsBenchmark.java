@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks;
+
+import com.gigaspaces.client.ChangeResult;
+import com.gigaspaces.client.ChangeSet;
+import com.gigaspaces.query.IdQuery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openspaces.core.GigaSpace;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write, read, take and change operations on an embedded space, by id and by template.
+ *
+ * @since 16.5
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpaceOperationsBenchmark {
+    @Param({"100000"})
+    public int entries;
+
+    private EmbeddedSpace space;
+    private GigaSpace gigaSpace;
+    private final ChangeSet incrementPrice = new ChangeSet().increment("price", 1L);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        space = new EmbeddedSpace("space-operations-benchmark", entries);
+        gigaSpace = space.getGigaSpace();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        space.close();
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(entries);
+    }
+
+    @Benchmark
+    public Object writeById() {
+        return gigaSpace.write(new BenchmarkEntry(randomId()));
+    }
+
+    @Benchmark
+    public BenchmarkEntry readById() {
+        return gigaSpace.readById(BenchmarkEntry.class, randomId());
+    }
+
+    @Benchmark
+    public BenchmarkEntry readByTemplate() {
+        BenchmarkEntry template = new BenchmarkEntry();
+        template.setCategory("category-" + (randomId() % BenchmarkEntry.CATEGORIES));
+        return gigaSpace.read(template);
+    }
+
+    /**
+     * Takes an entry and writes it back, so that the space keeps its size.
+     */
+    @Benchmark
+    public BenchmarkEntry takeById() {
+        BenchmarkEntry entry = gigaSpace.takeById(BenchmarkEntry.class, randomId());
+        if (entry != null)
+            gigaSpace.write(entry);
+        return entry;
+    }
+
+    /**
+     * Takes an entry matching a template and writes it back, so that the space keeps its size.
+     */
+    @Benchmark
+    public BenchmarkEntry takeByTemplate() {
+        BenchmarkEntry template = new BenchmarkEntry();
+        template.setCategory("category-" + (randomId() % BenchmarkEntry.CATEGORIES));
+        BenchmarkEntry entry = gigaSpace.take(template);
+        if (entry != null)
+            gigaSpace.write(entry);
+        return entry;
+    }
+
+    @Benchmark
+    public ChangeResult<BenchmarkEntry> changeById() {
+        return gigaSpace.change(new IdQuery<BenchmarkEntry>(BenchmarkEntry.class, randomId()), incrementPrice);
+    }
+
+    @Benchmark
+    public ChangeResult<BenchmarkEntry> changeByTemplate() {
+        BenchmarkEntry template = new BenchmarkEntry();
+        template.setId(randomId());
+        return gigaSpace.change(template, incrementPrice);
+    }
+}
@@ -88,11 +88,13 @@ public class LRMIInvocationContext {
     private boolean _livenessPriorityEnabled;
     private boolean _customPriorityEnabled;
     private boolean _directPriorityEnabled;
+    private boolean _replicationPriorityEnabled;
 
     private boolean _callbackMethodInNextInvocation;
     private boolean _livenessPriorityEnabledInNextInvocation;
     private boolean _customPriorityEnabledInNextInvocation;
     private boolean _directPriorityEnabledInNextInvocation;
+    private boolean _replicationPriorityEnabledInNextInvocation;
     private InetSocketAddress _clientEndPointAddress;
 
     public void setTrace(LRMIInvocationTrace trace) {
@@ -203,6 +205,7 @@ public class LRMIInvocationContext {
         _livenessPriorityEnabledInNextInvocation = false;
         _customPriorityEnabledInNextInvocation = false;
         _directPriorityEnabledInNextInvocation = false;
+        _replicationPriorityEnabledInNextInvocation = false;
         _callbackMethodInNextInvocation = false;
     }
 
@@ -217,6 +220,7 @@ public class LRMIInvocationContext {
         _livenessPriorityEnabled = false;
         _customPriorityEnabled = false;
         _directPriorityEnabled = false;
+        _replicationPriorityEnabled = false;
         _clientEndPointAddress = null;
         resetNextInvocationState();
     }
@@ -293,6 +297,8 @@ public class LRMIInvocationContext {
                 actualContext.setCustomPriorityEnabled(true);
             if (invocationContext._directPriorityEnabledInNextInvocation)
                 actualContext.setDirectPriorityEnabled(true);
+            if (invocationContext._replicationPriorityEnabledInNextInvocation)
+                actualContext.setReplicationPriorityEnabled(true);
             if (invocationContext._callbackMethodInNextInvocation)
                 actualContext.setCallbackMethod(true);
         }
@@ -327,6 +333,13 @@ public class LRMIInvocationContext {
         getCurrentContext()._directPriorityEnabledInNextInvocation = true;
     }
 
+    /**
+     * @since 16.5
+     */
+    public static void enableReplicationPriorityForNextInvocation() {
+        getCurrentContext()._replicationPriorityEnabledInNextInvocation = true;
+    }
+
     public static void enableCallbackModeForNextInvocation() {
         getCurrentContext()._callbackMethodInNextInvocation = true;
     }
@@ -372,6 +385,20 @@ public class LRMIInvocationContext {
         return _directPriorityEnabled;
     }
 
+    /**
+     * @since 16.5
+     */
+    public void setReplicationPriorityEnabled(boolean replicationPriorityEnabled) {
+        _replicationPriorityEnabled = replicationPriorityEnabled;
+    }
+
+    /**
+     * @since 16.5
+     */
+    public boolean isReplicationPriorityEnabled() {
+        return _replicationPriorityEnabled;
+    }
+
     public static InetSocketAddress getEndpointAddress() {
         LRMIInvocationContext currentContext = getCurrentContext();
         if (currentContext == null || currentContext.isEmpty())
@@ -97,6 +97,22 @@ public class DirectClassBinaryStorageAdapter extends ClassBinaryStorageAdapter {
         }
     }
 
+    /**
+     * Returns the offset of a field value in the given serialized fields without deserializing
+     * them, so that values with a fixed size encoding can be read in place.
+     *
+     * @return the offset of the field value, or -1 if the field has its default value
+     */
+    public static int getFieldOffset(byte[] serializedFields, int index) {
+        if (serializedFields[0] != VERSION)
+            throw new IllegalStateException("Unsupported version: " + serializedFields[0]);
+        int offset = index * POSITION_BYTES + HEADER_BYTES;
+        int position = (short) (((serializedFields[offset] & 0xff) << 8) | (serializedFields[offset + 1] & 0xff));
+        if (position < -1)
+            position = position & 0xffff;
+        return position;
+    }
+
     @Override
     public byte[] modifyField(SpaceTypeDescriptor typeDescriptor, byte[] serializedFields, int index, Object newValue) throws IOException, ClassNotFoundException {
         Object[] objects = fromBinary(typeDescriptor, serializedFields);
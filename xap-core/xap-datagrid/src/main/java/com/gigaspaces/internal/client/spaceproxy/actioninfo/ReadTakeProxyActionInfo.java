@@ -23,6 +23,7 @@ import com.gigaspaces.internal.transport.AbstractProjectionTemplate;
 import com.gigaspaces.internal.transport.IEntryPacket;
 import com.gigaspaces.internal.transport.ProjectionTemplate;
 import com.gigaspaces.internal.transport.TemplatePacketFactory;
+import com.j_spaces.core.IdQueryPacket;
 import com.j_spaces.core.UnknownTypeException;
 import com.j_spaces.core.client.Modifiers;
 import com.j_spaces.core.client.ReadModifiers;
@@ -41,6 +42,7 @@ public class ReadTakeProxyActionInfo extends QueryProxyActionInfo {
     public final boolean isTake;
     public final boolean returnOnlyUids;
     private boolean _returnPacket;
+    private Object _batchableId;
 
     public ReadTakeProxyActionInfo(ISpaceProxy spaceProxy, Object template, Transaction txn, long timeout, int modifiers, boolean ifExists, boolean isTake) {
         super(spaceProxy, template, txn, modifiers, isTake);
@@ -95,6 +97,8 @@ public class ReadTakeProxyActionInfo extends QueryProxyActionInfo {
         if (projections != null && projections.length > 0)
             projectionTemplate = ProjectionTemplate.create(projections, typeDesc);
         queryPacket = TemplatePacketFactory.createIdOrUidPacket(typeDesc, resultType, routing, id, version, projectionTemplate);
+        if (!isTake && version == 0 && projectionTemplate == null && queryPacket instanceof IdQueryPacket)
+            _batchableId = id;
 
         if (isTake) {
             initOperationId(spaceProxy, queryPacket);
@@ -131,6 +135,15 @@ public class ReadTakeProxyActionInfo extends QueryProxyActionInfo {
         return spaceProxy.getDirectProxy().getTypeManager().convertQueryResult(result, queryPacket, isReturnPacket(), projectionTemplate);
     }
 
+    /**
+     * @return the id of a plain read by id, which can be executed as part of a read by ids batch,
+     * or null if this is not such a read.
+     * @since 16.5
+     */
+    public Object getBatchableId() {
+        return _batchableId;
+    }
+
     public boolean isReturnPacket() {
         return _returnPacket || _query == queryPacket;
     }
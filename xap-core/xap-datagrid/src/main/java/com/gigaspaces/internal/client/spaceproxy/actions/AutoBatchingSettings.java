@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.client.spaceproxy.actions;
+
+import com.gigaspaces.internal.utils.concurrent.OperationsCoalescer;
+import com.j_spaces.kernel.SystemProperties;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of the coalescing of single operations into batches by the space proxy actions.
+ *
+ * @since 16.5
+ */
+class AutoBatchingSettings {
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(SystemProperties.CLIENT_AUTO_BATCHING,
+            String.valueOf(SystemProperties.CLIENT_AUTO_BATCHING_DEFAULT)));
+    private static final long MAX_DELAY = Long.getLong(SystemProperties.CLIENT_AUTO_BATCHING_MAX_DELAY,
+            SystemProperties.CLIENT_AUTO_BATCHING_MAX_DELAY_DEFAULT);
+    private static final int MAX_SIZE = Integer.getInteger(SystemProperties.CLIENT_AUTO_BATCHING_MAX_SIZE,
+            SystemProperties.CLIENT_AUTO_BATCHING_MAX_SIZE_DEFAULT);
+
+    private AutoBatchingSettings() {
+    }
+
+    static <K, T, R> OperationsCoalescer<K, T, R> createCoalescer(OperationsCoalescer.BatchExecutor<T, R> executor) {
+        return new OperationsCoalescer<K, T, R>(executor, MAX_DELAY, TimeUnit.MICROSECONDS, MAX_SIZE);
+    }
+}
@@ -17,26 +17,38 @@
 package com.gigaspaces.internal.client.spaceproxy.actions;
 
 import com.gigaspaces.async.AsyncFuture;
+import com.gigaspaces.client.ReadTakeByIdResult;
+import com.gigaspaces.client.ReadTakeByIdsException;
 import com.gigaspaces.cluster.replication.TakeConsistencyLevelCompromisedException;
 import com.gigaspaces.internal.client.spaceproxy.SpaceProxyImpl;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.ReadTakeAsyncProxyActionInfo;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.ReadTakeProxyActionInfo;
 import com.gigaspaces.internal.client.spaceproxy.metadata.SpaceProxyTypeManager;
+import com.gigaspaces.internal.client.spaceproxy.operations.ReadTakeEntriesByIdsSpaceOperationRequest;
 import com.gigaspaces.internal.client.spaceproxy.operations.ReadTakeEntrySpaceOperationRequest;
 import com.gigaspaces.internal.transport.IEntryPacket;
+import com.gigaspaces.internal.transport.ITemplatePacket;
+import com.gigaspaces.internal.transport.TemplatePacketFactory;
+import com.gigaspaces.internal.utils.concurrent.OperationsCoalescer;
+import com.j_spaces.core.AbstractIdsQueryPacket;
 import com.j_spaces.core.client.SQLQuery;
+import com.j_spaces.core.exception.internal.ProxyInternalSpaceException;
 import com.j_spaces.jdbc.builder.QueryTemplatePacket;
 
 import net.jini.core.entry.UnusableEntryException;
 import net.jini.core.transaction.TransactionException;
 
 import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * @author kimchy
  */
 @com.gigaspaces.api.InternalApi
 public class SpaceProxyImplReadTakeAction extends ReadTakeProxyAction<SpaceProxyImpl> {
+    private volatile OperationsCoalescer<List<Object>, ReadTakeProxyActionInfo, IEntryPacket> _readByIdCoalescer;
+
     @Override
     public Object read(SpaceProxyImpl spaceProxy, ReadTakeProxyActionInfo actionInfo)
             throws RemoteException, UnusableEntryException, TransactionException, InterruptedException {
@@ -57,23 +69,104 @@ public class SpaceProxyImplReadTakeAction extends ReadTakeProxyAction<SpaceProxy
 
         if (actionInfo.isSqlQuery)
             result = spaceProxy.getQueryManager().readTake(actionInfo);
-        else {
-            final ReadTakeEntrySpaceOperationRequest request = new ReadTakeEntrySpaceOperationRequest(
-                    actionInfo.queryPacket,
-                    actionInfo.txn,
-                    actionInfo.isTake,
-                    actionInfo.ifExists,
-                    actionInfo.timeout,
-                    actionInfo.modifiers,
-                    actionInfo.returnOnlyUids,
-                    actionInfo.getQuery());
-            spaceProxy.getProxyRouter().execute(request);
-            result = request.getFinalResult();
-            if (actionInfo.isTake && request.getRemoteOperationResult().getSyncReplicationLevel() + 1 < SpaceProxyTypeManager.requiredConsistencyLevel()) {
-                throw new TakeConsistencyLevelCompromisedException(request.getRemoteOperationResult().getSyncReplicationLevel() + 1, actionInfo.convertQueryResult(spaceProxy, result, null));
+        else if (isBatchable(actionInfo))
+            result = readByIdBatched(spaceProxy, actionInfo);
+        else
+            result = readTakeEntry(spaceProxy, actionInfo);
+        return actionInfo.convertQueryResult(spaceProxy, result, null);
+    }
+
+    private IEntryPacket readTakeEntry(SpaceProxyImpl spaceProxy, ReadTakeProxyActionInfo actionInfo)
+            throws RemoteException, UnusableEntryException, TransactionException, InterruptedException {
+        final ReadTakeEntrySpaceOperationRequest request = new ReadTakeEntrySpaceOperationRequest(
+                actionInfo.queryPacket,
+                actionInfo.txn,
+                actionInfo.isTake,
+                actionInfo.ifExists,
+                actionInfo.timeout,
+                actionInfo.modifiers,
+                actionInfo.returnOnlyUids,
+                actionInfo.getQuery());
+        spaceProxy.getProxyRouter().execute(request);
+        IEntryPacket result = request.getFinalResult();
+        if (actionInfo.isTake && request.getRemoteOperationResult().getSyncReplicationLevel() + 1 < SpaceProxyTypeManager.requiredConsistencyLevel()) {
+            throw new TakeConsistencyLevelCompromisedException(request.getRemoteOperationResult().getSyncReplicationLevel() + 1, actionInfo.convertQueryResult(spaceProxy, result, null));
+        }
+        return result;
+    }
+
+    private static boolean isBatchable(ReadTakeProxyActionInfo actionInfo) {
+        return AutoBatchingSettings.ENABLED && actionInfo.getBatchableId() != null && actionInfo.txn == null
+                && actionInfo.timeout == 0 && !actionInfo.queryPacket.isBroadcast()
+                && actionInfo.queryPacket.getRoutingFieldValue() != null;
+    }
+
+    private OperationsCoalescer<List<Object>, ReadTakeProxyActionInfo, IEntryPacket> getReadByIdCoalescer(final SpaceProxyImpl spaceProxy) {
+        OperationsCoalescer<List<Object>, ReadTakeProxyActionInfo, IEntryPacket> coalescer = _readByIdCoalescer;
+        if (coalescer == null) {
+            synchronized (this) {
+                if (_readByIdCoalescer == null)
+                    _readByIdCoalescer = AutoBatchingSettings.createCoalescer(
+                            new OperationsCoalescer.BatchExecutor<ReadTakeProxyActionInfo, IEntryPacket>() {
+                                @Override
+                                public void execute(List<OperationsCoalescer.Operation<ReadTakeProxyActionInfo, IEntryPacket>> operations)
+                                        throws Exception {
+                                    readByIds(spaceProxy, operations);
+                                }
+                            });
+                coalescer = _readByIdCoalescer;
+            }
+        }
+        return coalescer;
+    }
+
+    private IEntryPacket readByIdBatched(SpaceProxyImpl spaceProxy, ReadTakeProxyActionInfo actionInfo)
+            throws RemoteException, UnusableEntryException, TransactionException, InterruptedException {
+        final ITemplatePacket queryPacket = actionInfo.queryPacket;
+        final int partitionId = spaceProxy.isClustered() ? spaceProxy.getPartitionId(queryPacket.getRoutingFieldValue()) : 0;
+        final List<Object> key = Arrays.<Object>asList(queryPacket.getTypeName(), queryPacket.getQueryResultType(),
+                actionInfo.modifiers, partitionId);
+        try {
+            return getReadByIdCoalescer(spaceProxy).execute(key, actionInfo);
+        } catch (RemoteException | UnusableEntryException | TransactionException | InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ProxyInternalSpaceException(e.getMessage(), e);
+        }
+    }
+
+    private void readByIds(SpaceProxyImpl spaceProxy, List<OperationsCoalescer.Operation<ReadTakeProxyActionInfo, IEntryPacket>> operations)
+            throws RemoteException, UnusableEntryException, TransactionException, InterruptedException {
+        if (operations.size() == 1) {
+            operations.get(0).setResult(readTakeEntry(spaceProxy, operations.get(0).getInput()));
+            return;
+        }
+
+        final ReadTakeProxyActionInfo first = operations.get(0).getInput();
+        final Object[] ids = new Object[operations.size()];
+        final Object[] routings = new Object[operations.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = operations.get(i).getInput().getBatchableId();
+            routings[i] = operations.get(i).getInput().queryPacket.getRoutingFieldValue();
+        }
+        final AbstractIdsQueryPacket template = TemplatePacketFactory.createIdsPacket(ids, routings,
+                first.queryPacket.getTypeDescriptor(), first.queryPacket.getQueryResultType(), null);
+        final ReadTakeEntriesByIdsSpaceOperationRequest request = new ReadTakeEntriesByIdsSpaceOperationRequest(
+                template, false, first.modifiers, null);
+        spaceProxy.getProxyRouter().execute(request);
+        try {
+            final IEntryPacket[] packets = request.getFinalResult().getEntryPackets();
+            for (int i = 0; i < packets.length; i++)
+                operations.get(i).setResult(packets[i]);
+        } catch (ReadTakeByIdsException e) {
+            for (int i = 0; i < e.getResults().length; i++) {
+                ReadTakeByIdResult result = e.getResults()[i];
+                if (result.isError())
+                    operations.get(i).setError(result.getError());
+                else
+                    operations.get(i).setResult((IEntryPacket) result.getObject());
             }
         }
-        return actionInfo.convertQueryResult(spaceProxy, result, null);
     }
 
     @Override
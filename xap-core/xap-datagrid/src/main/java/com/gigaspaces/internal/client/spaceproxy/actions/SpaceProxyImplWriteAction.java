@@ -16,6 +16,7 @@
 
 package com.gigaspaces.internal.client.spaceproxy.actions;
 
+import com.gigaspaces.client.WriteMultipleException;
 import com.gigaspaces.internal.client.spaceproxy.SpaceProxyImpl;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.WriteMultipleProxyActionInfo;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.WriteProxyActionInfo;
@@ -23,21 +24,31 @@ import com.gigaspaces.internal.client.spaceproxy.operations.WriteEntriesSpaceOpe
 import com.gigaspaces.internal.client.spaceproxy.operations.WriteEntrySpaceOperationRequest;
 import com.gigaspaces.internal.client.spaceproxy.operations.WriteEntrySpaceOperationResult;
 import com.gigaspaces.internal.server.space.operations.WriteEntryResult;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.gigaspaces.internal.utils.concurrent.OperationsCoalescer;
 import com.j_spaces.core.LeaseContext;
 import com.j_spaces.core.client.Modifiers;
+import com.j_spaces.core.exception.internal.ProxyInternalSpaceException;
+import net.jini.core.lease.Lease;
 import net.jini.core.transaction.TransactionException;
 
 import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * @author kimchy
  */
 @com.gigaspaces.api.InternalApi
 public class SpaceProxyImplWriteAction extends WriteProxyAction<SpaceProxyImpl> {
+    private volatile OperationsCoalescer<List<Object>, WriteProxyActionInfo, LeaseContext<?>> _writeCoalescer;
+
     @Override
     public LeaseContext<?> write(SpaceProxyImpl spaceProxy, WriteProxyActionInfo actionInfo)
             throws RemoteException, TransactionException, InterruptedException {
         spaceProxy.beforeSpaceAction(actionInfo);
+        if (isBatchable(actionInfo))
+            return writeBatched(spaceProxy, actionInfo);
 
         WriteEntrySpaceOperationRequest request = new WriteEntrySpaceOperationRequest(actionInfo.entryPacket,
                 actionInfo.txn, actionInfo.lease, actionInfo.timeout, actionInfo.modifiers, actionInfo.isUpdate());
@@ -45,6 +56,11 @@ public class SpaceProxyImplWriteAction extends WriteProxyAction<SpaceProxyImpl>
             spaceProxy.getProxyRouter().executeOneway(request);
             return null;
         }
+        return writeEntry(spaceProxy, actionInfo, request);
+    }
+
+    private LeaseContext<?> writeEntry(SpaceProxyImpl spaceProxy, WriteProxyActionInfo actionInfo, WriteEntrySpaceOperationRequest request)
+            throws RemoteException, TransactionException, InterruptedException {
         spaceProxy.getProxyRouter().execute(request);
         WriteEntrySpaceOperationResult result = request.getRemoteOperationResult();
         result.processExecutionException();
@@ -52,6 +68,82 @@ public class SpaceProxyImplWriteAction extends WriteProxyAction<SpaceProxyImpl>
         return spaceProxy.getTypeManager().processWriteResult(writeResult, actionInfo.entry, actionInfo.entryPacket);
     }
 
+    private static boolean isBatchable(WriteProxyActionInfo actionInfo) {
+        return AutoBatchingSettings.ENABLED && actionInfo.txn == null && !actionInfo.isUpdate()
+                && !Modifiers.contains(actionInfo.modifiers, Modifiers.ONE_WAY)
+                && !actionInfo.entryPacket.getTypeDescriptor().isBroadcast()
+                && actionInfo.entryPacket.getRoutingFieldValue() != null;
+    }
+
+    private OperationsCoalescer<List<Object>, WriteProxyActionInfo, LeaseContext<?>> getWriteCoalescer(final SpaceProxyImpl spaceProxy) {
+        OperationsCoalescer<List<Object>, WriteProxyActionInfo, LeaseContext<?>> coalescer = _writeCoalescer;
+        if (coalescer == null) {
+            synchronized (this) {
+                if (_writeCoalescer == null)
+                    _writeCoalescer = AutoBatchingSettings.createCoalescer(
+                            new OperationsCoalescer.BatchExecutor<WriteProxyActionInfo, LeaseContext<?>>() {
+                                @Override
+                                public void execute(List<OperationsCoalescer.Operation<WriteProxyActionInfo, LeaseContext<?>>> operations)
+                                        throws Exception {
+                                    writeEntries(spaceProxy, operations);
+                                }
+                            });
+                coalescer = _writeCoalescer;
+            }
+        }
+        return coalescer;
+    }
+
+    private LeaseContext<?> writeBatched(SpaceProxyImpl spaceProxy, WriteProxyActionInfo actionInfo)
+            throws RemoteException, TransactionException, InterruptedException {
+        final int partitionId = spaceProxy.isClustered() ? spaceProxy.getPartitionId(actionInfo.entryPacket.getRoutingFieldValue()) : 0;
+        final List<Object> key = Arrays.<Object>asList(actionInfo.modifiers, actionInfo.timeout, partitionId);
+        try {
+            return getWriteCoalescer(spaceProxy).execute(key, actionInfo);
+        } catch (RemoteException | TransactionException | InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ProxyInternalSpaceException(e.getMessage(), e);
+        }
+    }
+
+    private void writeEntries(SpaceProxyImpl spaceProxy, List<OperationsCoalescer.Operation<WriteProxyActionInfo, LeaseContext<?>>> operations)
+            throws RemoteException, TransactionException, InterruptedException {
+        final WriteProxyActionInfo first = operations.get(0).getInput();
+        if (operations.size() == 1) {
+            WriteEntrySpaceOperationRequest request = new WriteEntrySpaceOperationRequest(first.entryPacket,
+                    first.txn, first.lease, first.timeout, first.modifiers, first.isUpdate());
+            operations.get(0).setResult(writeEntry(spaceProxy, first, request));
+            return;
+        }
+
+        final Object[] entries = new Object[operations.size()];
+        final IEntryPacket[] entryPackets = new IEntryPacket[operations.size()];
+        final long[] leases = new long[operations.size()];
+        for (int i = 0; i < entries.length; i++) {
+            WriteProxyActionInfo actionInfo = operations.get(i).getInput();
+            entries[i] = actionInfo.entry;
+            entryPackets[i] = actionInfo.entryPacket;
+            leases[i] = actionInfo.lease;
+        }
+        WriteEntriesSpaceOperationRequest request = new WriteEntriesSpaceOperationRequest(spaceProxy.getTypeManager(),
+                entries, entryPackets, null, Lease.FOREVER, leases, first.timeout, first.modifiers, false);
+        spaceProxy.getProxyRouter().execute(request);
+        try {
+            LeaseContext<?>[] results = request.getFinalResult();
+            for (int i = 0; i < results.length; i++)
+                operations.get(i).setResult(results[i]);
+        } catch (WriteMultipleException e) {
+            for (int i = 0; i < e.getResults().length; i++) {
+                WriteMultipleException.IWriteResult result = e.getResults()[i];
+                if (result.isError())
+                    operations.get(i).setError(result.getError());
+                else
+                    operations.get(i).setResult(result.getLeaseContext());
+            }
+        }
+    }
+
     @Override
     public LeaseContext<?>[] writeMultiple(SpaceProxyImpl spaceProxy, WriteMultipleProxyActionInfo actionInfo)
             throws RemoteException, TransactionException, InterruptedException {
@@ -39,6 +39,18 @@ public class AddEntryTypeIndexesSpaceOperationRequest extends SpaceOperationRequ
     private SpaceIndex[] _indexes;
     private boolean _isFromGateway;
 
+    /**
+     * Required for Externalizable
+     */
+    public AddEntryTypeIndexesSpaceOperationRequest() {
+    }
+
+    public AddEntryTypeIndexesSpaceOperationRequest(String typeName, SpaceIndex[] indexes, boolean isFromGateway) {
+        this._typeName = typeName;
+        this._indexes = indexes;
+        this._isFromGateway = isFromGateway;
+    }
+
     @Override
     public int getOperationCode() {
         return SpaceOperationsCodes.ADD_ENTRY_TYPE_INDEXES;
@@ -32,6 +32,8 @@ import com.gigaspaces.internal.cluster.node.handlers.IReplicationInNotifyTemplat
 import com.gigaspaces.internal.cluster.node.handlers.IReplicationInTransactionHandler;
 import com.gigaspaces.internal.cluster.node.impl.directPersistency.DirectPersistencyBackupSyncIteratorHandler;
 import com.gigaspaces.internal.cluster.node.impl.directPersistency.IDirectPersistencySyncHandler;
+import com.gigaspaces.internal.cluster.node.impl.groups.IReplicationCheckpointTask;
+import com.gigaspaces.internal.cluster.node.impl.groups.ReplicationCheckpoint;
 import com.gigaspaces.internal.cluster.node.replica.ISpaceCopyReplicaRequestContext;
 import com.gigaspaces.internal.cluster.node.replica.ISpaceCopyReplicaState;
 import com.gigaspaces.internal.cluster.node.replica.ISpaceCopyResult;
@@ -377,6 +379,32 @@ public interface IReplicationNode {
 
     void setDirectPersistencyBackupSyncIteratorHandler(DirectPersistencyBackupSyncIteratorHandler directPersistencyBackupSyncIteratorHandler);
 
+    /**
+     * Runs the given task while the incoming replication of this node is held at a checkpoint, once
+     * the task completed no further incoming replication is processed by this node
+     *
+     * @return the task result, or null if this node does not replicate from a single source it can
+     * later be resumed from
+     * @since 16.5
+     */
+    <T> T closeAtCheckpoint(IReplicationCheckpointTask<T> task) throws Exception;
+
+    /**
+     * Prepares this node to resume incoming replication from the given checkpoint, sources are
+     * refused until {@link #checkpointLoaded(ReplicationCheckpoint, boolean)} is called
+     *
+     * @return false if the checkpoint cannot be resumed from
+     * @since 16.5
+     */
+    boolean beginResumeFromCheckpoint(ReplicationCheckpoint checkpoint);
+
+    /**
+     * @param successful true if the checkpoint content was loaded and replication should resume
+     *                   from its key, false to fall back to a regular recovery
+     * @since 16.5
+     */
+    void checkpointLoaded(ReplicationCheckpoint checkpoint, boolean successful);
+
     /**
      * Closes the node, once closed the node is no longer usable.
      */
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl;
+
+/**
+ * Searches for the batch size with the best throughput. The size keeps moving in the same
+ * direction, doubling or halving within its bounds, as long as the throughput of full batches does
+ * not drop, and reverses direction once it does.
+ *
+ * Not thread safe, the owner is expected to synchronize the access.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class BatchSizeHillClimber {
+    private static final double TOLERANCE = 0.1;
+
+    private final int _minBatchSize;
+    private final int _maxBatchSize;
+    private int _batchSize;
+    private boolean _growing = true;
+    private double _lastRate = -1;
+
+    /**
+     * @param batchSize    the initial batch size
+     * @param minBatchSize lower bound of the batch size
+     * @param maxBatchSize upper bound of the batch size
+     */
+    public BatchSizeHillClimber(int batchSize, int minBatchSize, int maxBatchSize) {
+        _minBatchSize = minBatchSize;
+        _maxBatchSize = Math.max(minBatchSize, maxBatchSize);
+        _batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return _batchSize;
+    }
+
+    /**
+     * Reports a batch, batches which are smaller than the current batch size do not reflect the
+     * throughput of a full batch and are ignored
+     *
+     * @param items         number of items in the batch
+     * @param durationNanos time it took to handle the batch
+     * @return the next batch size
+     */
+    public int onBatch(int items, long durationNanos) {
+        if (items < _batchSize || durationNanos <= 0)
+            return _batchSize;
+
+        final double rate = (double) items / durationNanos;
+        if (_lastRate >= 0 && rate < _lastRate * (1 - TOLERANCE))
+            _growing = !_growing;
+        _lastRate = rate;
+
+        _batchSize = _growing ? (int) Math.min((long) _batchSize * 2, _maxBatchSize) : Math.max(_batchSize / 2, _minBatchSize);
+        return _batchSize;
+    }
+
+    /**
+     * Halves the batch size regardless of the throughput, and keeps shrinking until the throughput
+     * drops
+     *
+     * @return the next batch size
+     */
+    public int shrink() {
+        _batchSize = Math.max(_batchSize / 2, _minBatchSize);
+        _growing = false;
+        _lastRate = -1;
+        return _batchSize;
+    }
+}
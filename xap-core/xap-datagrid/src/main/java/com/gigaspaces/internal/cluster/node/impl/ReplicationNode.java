@@ -553,6 +553,35 @@ public class ReplicationNode
         }
     }
 
+    public <T> T closeAtCheckpoint(IReplicationCheckpointTask<T> task) throws Exception {
+        AbstractReplicationTargetGroup checkpointGroup = null;
+        for (IReplicationTargetGroup targetGroup : getReplicationTargetGroups()) {
+            AbstractReplicationTargetGroup typedGroup = (AbstractReplicationTargetGroup) targetGroup;
+            if (!typedGroup.hasChannels())
+                continue;
+            // The content replicated by several groups is not described by a single key
+            if (checkpointGroup != null)
+                return null;
+            checkpointGroup = typedGroup;
+        }
+        return checkpointGroup == null ? null : checkpointGroup.closeAtCheckpoint(task);
+    }
+
+    public boolean beginResumeFromCheckpoint(ReplicationCheckpoint checkpoint) {
+        for (IReplicationTargetGroup targetGroup : getReplicationTargetGroups()) {
+            if (targetGroup.getGroupName().equals(checkpoint.getGroupName()))
+                return ((AbstractReplicationTargetGroup) targetGroup).beginResumeFromCheckpoint(checkpoint);
+        }
+        return false;
+    }
+
+    public void checkpointLoaded(ReplicationCheckpoint checkpoint, boolean successful) {
+        for (IReplicationTargetGroup targetGroup : getReplicationTargetGroups()) {
+            if (targetGroup.getGroupName().equals(checkpoint.getGroupName()))
+                ((AbstractReplicationTargetGroup) targetGroup).checkpointLoaded(successful);
+        }
+    }
+
     public void close() {
         if (_closed)
             return;
@@ -611,6 +640,7 @@ public class ReplicationNode
                 isSynchronize,
                 progressTimeout,
                 targetGroup);
+        result.getProgress().registerWith(metricRegister.extend("recovery"));
 
         CyclicAtomicInteger orderProvider = new CyclicAtomicInteger(concurrentConsumers - 1);
         // Start copy
@@ -55,6 +55,7 @@ import com.gigaspaces.internal.server.space.redolog.storage.CacheLastRedoLogFile
 import com.gigaspaces.internal.server.space.redolog.storage.IRedoLogFileStorage;
 import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.*;
 import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.raf.RAFByteBufferStorageFactory;
+import com.gigaspaces.internal.server.space.redolog.storage.mapped.MappedSegmentRedoLogFileStorage;
 import com.gigaspaces.internal.utils.StringUtils;
 import com.gigaspaces.internal.utils.collections.CopyOnUpdateMap;
 import com.gigaspaces.internal.utils.collections.CopyOnUpdateSet;
@@ -388,10 +389,7 @@ public abstract class AbstractSingleFileGroupBacklog<T extends IReplicationOrder
             config.setPacketStreamSerializer(packetStreamSerializer);
             return new DBSwapRedoLogFile<>(config, this);
         }
-        else { // RedoLogSwapStorageType.BYTE_BUFFER
-            IByteBufferStorageFactory byteBufferStorageProvider = new RAFByteBufferStorageFactory("redolog_"
-                    + _name.replace(":", "_"));
-
+        else { // RedoLogSwapStorageType.BYTE_BUFFER or RedoLogSwapStorageType.MAPPED_SEGMENTS
             // Configure ByteBufferRedoLogFile
             ByteBufferRedoLogFileConfig<T> storageConfig = new ByteBufferRedoLogFileConfig<T>();
             storageConfig.setMaxSizePerSegment(swapBacklogConfig.getSegmentSize());
@@ -400,8 +398,16 @@ public abstract class AbstractSingleFileGroupBacklog<T extends IReplicationOrder
             storageConfig.setWriterMaxBufferSize(swapBacklogConfig.getWriterBufferSize());
             storageConfig.setPacketStreamSerializer(packetStreamSerializer);
 
-            IRedoLogFileStorage<T> externalRedoLogFileStorage = new ByteBufferRedoLogFileStorage<T>(byteBufferStorageProvider,
-                    storageConfig, backlogConfig.getBackLogWeightPolicy());
+            final String fileName = "redolog_" + _name.replace(":", "_");
+            IRedoLogFileStorage<T> externalRedoLogFileStorage;
+            if (RedoLogSwapStorageType.MAPPED_SEGMENTS.equals(swapBacklogConfig.getSwapStorageType())) {
+                externalRedoLogFileStorage = new MappedSegmentRedoLogFileStorage<T>(fileName, storageConfig,
+                        backlogConfig.getBackLogWeightPolicy());
+            } else {
+                IByteBufferStorageFactory byteBufferStorageProvider = new RAFByteBufferStorageFactory(fileName);
+                externalRedoLogFileStorage = new ByteBufferRedoLogFileStorage<T>(byteBufferStorageProvider,
+                        storageConfig, backlogConfig.getBackLogWeightPolicy());
+            }
             // Configure BufferedRedoLogFileStorageDecorator
             BufferedRedoLogFileStorageDecorator<T> bufferedRedoLogFileStorage = new BufferedRedoLogFileStorageDecorator<T>(swapBacklogConfig.getFlushBufferPacketsCount(),
                     externalRedoLogFileStorage);
@@ -1359,6 +1359,7 @@ public abstract class AbstractReplicationSourceChannel
                 delegatorDetails = null;
         }
 
+        ReplicationBatchController batchController = getBatchController();
         return new ReplicationSourceChannelStatistics(getMemberName(),
                 _channelType,
                 getConnection().getState(),
@@ -1377,7 +1378,19 @@ public abstract class AbstractReplicationSourceChannel
                 getChannelOpertingMode(),
                 endpointDetails,
                 delegatorDetails,
-                _tag);
+                _tag,
+                batchController != null ? batchController.getBatchSize() : 0,
+                batchController != null ? batchController.getIdleDelay() : 0,
+                batchController != null ? batchController.getAverageRoundTripMicros() : -1,
+                batchController != null && batchController.isAdaptive());
+    }
+
+    /**
+     * @return the controller which decides the batching of this channel, null if this channel
+     * does not replicate in batches
+     */
+    protected ReplicationBatchController getBatchController() {
+        return null;
     }
 
     public void registerWith(MetricRegistrator metricRegister) {
@@ -16,6 +16,7 @@
 
 package com.gigaspaces.internal.cluster.node.impl.groups;
 
+import com.gigaspaces.cluster.replication.IncomingReplicationOutOfSyncException;
 import com.gigaspaces.internal.cluster.node.handlers.IReplicationInFacade;
 import com.gigaspaces.internal.cluster.node.impl.EventsTracer;
 import com.gigaspaces.internal.cluster.node.impl.backlog.IBacklogHandshakeRequest;
@@ -28,6 +29,8 @@ import com.gigaspaces.internal.cluster.node.impl.groups.handshake.ConnectChannel
 import com.gigaspaces.internal.cluster.node.impl.groups.handshake.IHandshakeIteration;
 import com.gigaspaces.internal.cluster.node.impl.packets.IReplicationOrderedPacket;
 import com.gigaspaces.internal.cluster.node.impl.processlog.IProcessLogHandshakeResponse;
+import com.gigaspaces.internal.cluster.node.impl.processlog.IReplicationTargetProcessLog;
+import com.gigaspaces.internal.cluster.node.impl.processlog.globalorder.GlobalOrderTargetProcessLog;
 import com.gigaspaces.internal.cluster.node.impl.replica.SpaceReplicaState;
 import com.gigaspaces.internal.cluster.node.impl.router.IReplicationMonitoredConnection;
 import com.gigaspaces.internal.cluster.node.impl.router.IReplicationRouter;
@@ -42,6 +45,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -65,6 +69,8 @@ public abstract class AbstractReplicationTargetGroup
     private final EventsTracer<String> _groupHistory;
     private final Object _historyLock = new Object();
     private boolean _closed;
+    private ReplicationCheckpoint _resumeCheckpoint;
+    private boolean _loadingCheckpoint;
 
     public AbstractReplicationTargetGroup(TargetGroupConfig groupConfig,
                                           IReplicationRouter replicationRouter,
@@ -141,13 +147,104 @@ public abstract class AbstractReplicationTargetGroup
         AbstractReplicationTargetChannel channel = _channels.get(sourceRouterStubHolder.getMyEndpointDetails().getLookupName());
         if (channel == null
                 || !channel.getSourceUniqueId()
-                .equals(sourceRouterStubHolder.getMyEndpointDetails().getUniqueId()))
+                .equals(sourceRouterStubHolder.getMyEndpointDetails().getUniqueId())) {
+            // The space content is not complete until the checkpoint is loaded, the source keeps
+            // retrying to connect
+            if (_loadingCheckpoint)
+                throw new IllegalStateException("Replication group " + getGroupName()
+                        + " is loading a local checkpoint, connection is refused until it is loaded");
             channel = createNewChannel(handshakeRequest.getBacklogHandshakeRequest(), sourceRouterStubHolder);
+            ReplicationCheckpoint resumeCheckpoint = _resumeCheckpoint;
+            if (resumeCheckpoint != null) {
+                _resumeCheckpoint = null;
+                resumeFromCheckpoint(channel, resumeCheckpoint);
+            }
+        }
 
         IProcessLogHandshakeResponse processLogHandshakeResponse = channel.performHandshake(handshakeRequest.getBacklogHandshakeRequest());
         return new ConnectChannelHandshakeResponse(_replicationRouter.getMyEndpointDetails(), processLogHandshakeResponse);
     }
 
+    public synchronized boolean hasChannels() {
+        return !_channels.isEmpty();
+    }
+
+    /**
+     * Runs the given task while the single channel of this group processes no packets and closes
+     * the channel's process log once the task completed, see {@link GlobalOrderTargetProcessLog#closeAtCheckpoint(Callable)}
+     *
+     * @return the task result, or null if this group is not connected to a single synchronized
+     * source with a process log which can be resumed from a checkpoint
+     */
+    public <T> T closeAtCheckpoint(final IReplicationCheckpointTask<T> task) throws Exception {
+        final AbstractReplicationTargetChannel channel;
+        synchronized (this) {
+            validNotClosed();
+            // A synchronization in progress is not reflected by the process log key alone
+            if (_channels.size() != 1 || !_spaceReplicaStates.isEmpty())
+                return null;
+            channel = _channels.values().iterator().next();
+        }
+        IReplicationTargetProcessLog processLog = channel.getProcessLog();
+        // Reliable async keeper process logs also keep the source backlog, those are not restored
+        // by a checkpoint
+        if (processLog.getClass() != GlobalOrderTargetProcessLog.class)
+            return null;
+
+        final GlobalOrderTargetProcessLog typedProcessLog = (GlobalOrderTargetProcessLog) processLog;
+        return typedProcessLog.closeAtCheckpoint(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return task.execute(new ReplicationCheckpoint(getGroupName(),
+                        channel.getSourceLookupName(),
+                        channel.getSourceUniqueId(),
+                        typedProcessLog.getLastProcessedKey()));
+            }
+        });
+    }
+
+    /**
+     * Prepares this group to resume from the given checkpoint, connections are refused until
+     * {@link #checkpointLoaded(boolean)} is called and the first connected channel resumes from
+     * the checkpoint key
+     *
+     * @return false if a channel is already connected and the checkpoint cannot be resumed from
+     */
+    public synchronized boolean beginResumeFromCheckpoint(ReplicationCheckpoint checkpoint) {
+        validNotClosed();
+        if (!_channels.isEmpty())
+            return false;
+        _resumeCheckpoint = checkpoint;
+        _loadingCheckpoint = true;
+        return true;
+    }
+
+    public synchronized void checkpointLoaded(boolean successful) {
+        _loadingCheckpoint = false;
+        if (!successful)
+            _resumeCheckpoint = null;
+    }
+
+    private void resumeFromCheckpoint(AbstractReplicationTargetChannel channel, ReplicationCheckpoint checkpoint) {
+        IReplicationTargetProcessLog processLog = channel.getProcessLog();
+        if (checkpoint.isTakenFrom(channel.getSourceLookupName(), channel.getSourceUniqueId())
+                && processLog.getClass() == GlobalOrderTargetProcessLog.class) {
+            if (_specificLogger.isInfoEnabled())
+                _specificLogger.info("Resuming replication from " + checkpoint);
+            ((GlobalOrderTargetProcessLog) processLog).resumeFromCheckpoint(checkpoint.getLastProcessedKey());
+            return;
+        }
+
+        String message = "Replication out of sync, local " + checkpoint + " cannot be resumed from source ["
+                + channel.getSourceLookupName() + ", " + channel.getSourceUniqueId() + "]";
+        logEvent(channel.getSourceLookupName(), message);
+        IReplicationTargetGroupStateListener listener = _listener;
+        if (listener != null)
+            listener.onTargetChannelOutOfSync(getGroupName(),
+                    channel.getSourceLookupName(),
+                    new IncomingReplicationOutOfSyncException(message));
+    }
+
     public synchronized void onChannelBacklogDropped(
             String sourceMemberLookupName, Object sourceUniqueId,
             IBacklogMemberState memberState) {
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.groups;
+
+/**
+ * A task which captures the content of a space while its incoming replication is held at a
+ * {@link ReplicationCheckpoint}
+ *
+ * @since 16.5
+ */
+public interface IReplicationCheckpointTask<T> {
+    T execute(ReplicationCheckpoint checkpoint) throws Exception;
+}
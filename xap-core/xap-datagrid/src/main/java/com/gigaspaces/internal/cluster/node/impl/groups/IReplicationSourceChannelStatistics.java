@@ -65,4 +65,32 @@ public interface IReplicationSourceChannelStatistics {
      * @since 14.5
      */
     String getTag();
+
+    /**
+     * @return the maximal number of packets replicated in a single batch, 0 if this channel does
+     * not replicate in batches
+     * @since 16.5
+     */
+    int getBatchSize();
+
+    /**
+     * @return the delay in milliseconds before pending packets are replicated once the channel is
+     * idle, 0 if this channel does not replicate in batches
+     * @since 16.5
+     */
+    long getIdleDelay();
+
+    /**
+     * @return the average round trip of a replicated batch in microseconds, -1 if none was
+     * measured
+     * @since 16.5
+     */
+    long getAverageRoundTripMicros();
+
+    /**
+     * @return true if the batch size and idle delay of this channel adapt to its measured round
+     * trip
+     * @since 16.5
+     */
+    boolean isAdaptiveBatching();
 }
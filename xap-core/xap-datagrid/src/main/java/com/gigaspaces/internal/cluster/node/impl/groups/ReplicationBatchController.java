@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.groups;
+
+import com.gigaspaces.internal.cluster.node.impl.BatchSizeHillClimber;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides the batch size and idle delay of an asynchronous replication channel from the measured
+ * round trip of its batches.
+ *
+ * <p>When adaptive, the batch size follows the throughput of full batches, see {@link
+ * BatchSizeHillClimber}. A batch whose round trip exceeds the fastest recent round trip by more
+ * than the maximal apply time means the target falls behind, the batch size is halved so the
+ * target is not overloaded. The fastest round trip is taken over the last one to two windows of
+ * {@value #ROUND_TRIP_WINDOW} batches, so it follows a network or target which became slower.
+ *
+ * <p>While packets keep arriving the idle delay follows the average round trip, so packets are
+ * sent about as fast as the target confirms them, and it backs off towards the configured interval
+ * on every idle cycle. When not adaptive the configured values are kept and only the round trip is
+ * measured.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ReplicationBatchController {
+    static final int ROUND_TRIP_WINDOW = 64;
+    private static final long MIN_IDLE_DELAY = 1;
+
+    private final boolean _adaptive;
+    private final BatchSizeHillClimber _hillClimber;
+    private final long _maxIdleDelay;
+    private final long _maxApplyTimeNanos;
+    private long _idleDelay;
+    private long _averageRoundTripNanos = -1;
+    // minimal round trip of the current and of the previous window
+    private long _windowMinRoundTripNanos = Long.MAX_VALUE;
+    private long _previousWindowMinRoundTripNanos = Long.MAX_VALUE;
+    private int _windowBatches;
+
+    /**
+     * Creates a controller which keeps the configured values
+     */
+    public ReplicationBatchController(int batchSize, long idleDelayMilis) {
+        this(false, batchSize, batchSize, batchSize, idleDelayMilis, 0);
+    }
+
+    /**
+     * @param batchSize         the configured batch size, the initial batch size
+     * @param minBatchSize      lower bound of the batch size
+     * @param maxBatchSize      upper bound of the batch size
+     * @param idleDelayMilis    the configured interval, the upper bound of the idle delay
+     * @param maxApplyTimeMilis the time beyond the fastest round trip a batch may take before the
+     *                          target is considered overloaded
+     */
+    public ReplicationBatchController(boolean adaptive, int batchSize, int minBatchSize,
+                                      int maxBatchSize, long idleDelayMilis,
+                                      long maxApplyTimeMilis) {
+        _adaptive = adaptive;
+        _hillClimber = new BatchSizeHillClimber(batchSize,
+                Math.max(1, Math.min(minBatchSize, batchSize)), Math.max(batchSize, maxBatchSize));
+        _maxIdleDelay = idleDelayMilis;
+        _idleDelay = idleDelayMilis;
+        _maxApplyTimeNanos = TimeUnit.MILLISECONDS.toNanos(maxApplyTimeMilis);
+    }
+
+    public boolean isAdaptive() {
+        return _adaptive;
+    }
+
+    public synchronized int getBatchSize() {
+        return _hillClimber.getBatchSize();
+    }
+
+    public synchronized long getIdleDelay() {
+        return _idleDelay;
+    }
+
+    /**
+     * @return the average round trip of a replicated batch in microseconds, -1 if none was measured
+     */
+    public synchronized long getAverageRoundTripMicros() {
+        return _averageRoundTripNanos < 0
+                ? -1 : TimeUnit.NANOSECONDS.toMicros(_averageRoundTripNanos);
+    }
+
+    /**
+     * Reports a batch which was replicated and processed by the target
+     *
+     * @param packets         number of packets in the batch
+     * @param roundTripNanos  time from dispatching the batch until its result was received
+     */
+    public synchronized void onBatchReplicated(int packets, long roundTripNanos) {
+        if (roundTripNanos <= 0)
+            return;
+        _averageRoundTripNanos = _averageRoundTripNanos < 0
+                ? roundTripNanos : (_averageRoundTripNanos * 7 + roundTripNanos) / 8;
+        final long minRoundTripNanos = updateMinRoundTrip(roundTripNanos);
+        if (!_adaptive)
+            return;
+
+        if (roundTripNanos - minRoundTripNanos > _maxApplyTimeNanos) {
+            // The target falls behind, smaller batches bound the time it spends applying each one
+            _hillClimber.shrink();
+        } else {
+            _hillClimber.onBatch(packets, roundTripNanos);
+        }
+
+        final long averageRoundTripMillis = TimeUnit.NANOSECONDS.toMillis(_averageRoundTripNanos);
+        _idleDelay = Math.min(Math.max(averageRoundTripMillis, MIN_IDLE_DELAY), _maxIdleDelay);
+    }
+
+    /**
+     * @return the fastest round trip of the current and the previous window, including the given
+     * one
+     */
+    private long updateMinRoundTrip(long roundTripNanos) {
+        if (++_windowBatches > ROUND_TRIP_WINDOW) {
+            _previousWindowMinRoundTripNanos = _windowMinRoundTripNanos;
+            _windowMinRoundTripNanos = Long.MAX_VALUE;
+            _windowBatches = 1;
+        }
+        _windowMinRoundTripNanos = Math.min(_windowMinRoundTripNanos, roundTripNanos);
+        return Math.min(_windowMinRoundTripNanos, _previousWindowMinRoundTripNanos);
+    }
+
+    /**
+     * Reports a cycle which found no packets to replicate
+     */
+    public synchronized void onIdleCycle() {
+        if (_adaptive)
+            _idleDelay = Math.min(Math.max(_idleDelay * 2, MIN_IDLE_DELAY), _maxIdleDelay);
+    }
+}
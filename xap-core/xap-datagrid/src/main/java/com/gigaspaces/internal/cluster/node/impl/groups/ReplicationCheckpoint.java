@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.groups;
+
+import com.gigaspaces.internal.io.IOUtils;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * The incoming replication state a local checkpoint of a space is consistent with, the checkpoint
+ * holds exactly the packets up to and including the last processed key which were received from
+ * the specified incarnation of the source.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ReplicationCheckpoint {
+    private final String _groupName;
+    private final String _sourceLookupName;
+    private final Object _sourceUniqueId;
+    private final long _lastProcessedKey;
+
+    public ReplicationCheckpoint(String groupName, String sourceLookupName, Object sourceUniqueId, long lastProcessedKey) {
+        _groupName = groupName;
+        _sourceLookupName = sourceLookupName;
+        _sourceUniqueId = sourceUniqueId;
+        _lastProcessedKey = lastProcessedKey;
+    }
+
+    public String getGroupName() {
+        return _groupName;
+    }
+
+    public String getSourceLookupName() {
+        return _sourceLookupName;
+    }
+
+    public Object getSourceUniqueId() {
+        return _sourceUniqueId;
+    }
+
+    public long getLastProcessedKey() {
+        return _lastProcessedKey;
+    }
+
+    /**
+     * @return true if this checkpoint was taken from the given source incarnation, the keys of a
+     * restarted source are not related to the keys of its previous incarnation
+     */
+    public boolean isTakenFrom(String sourceLookupName, Object sourceUniqueId) {
+        return _sourceLookupName.equals(sourceLookupName) && _sourceUniqueId.equals(sourceUniqueId);
+    }
+
+    public void writeTo(ObjectOutput out) throws IOException {
+        IOUtils.writeString(out, _groupName);
+        IOUtils.writeString(out, _sourceLookupName);
+        IOUtils.writeObject(out, _sourceUniqueId);
+        out.writeLong(_lastProcessedKey);
+    }
+
+    public static ReplicationCheckpoint readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
+        String groupName = IOUtils.readString(in);
+        String sourceLookupName = IOUtils.readString(in);
+        Object sourceUniqueId = IOUtils.readObject(in);
+        long lastProcessedKey = in.readLong();
+        return new ReplicationCheckpoint(groupName, sourceLookupName, sourceUniqueId, lastProcessedKey);
+    }
+
+    @Override
+    public String toString() {
+        return "ReplicationCheckpoint [group=" + _groupName + ", source=" + _sourceLookupName
+                + ", sourceUniqueId=" + _sourceUniqueId + ", lastProcessedKey=" + _lastProcessedKey + "]";
+    }
+}
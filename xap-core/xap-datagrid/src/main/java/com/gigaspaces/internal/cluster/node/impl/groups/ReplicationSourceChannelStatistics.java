@@ -45,6 +45,10 @@ public class ReplicationSourceChannelStatistics
     private final ReplicationEndpointDetails _targetDetails;
     private final ConnectionEndpointDetails _delegatorDetails;
     private final String _tag;
+    private final int _batchSize;
+    private final long _idleDelay;
+    private final long _averageRoundTripMicros;
+    private final boolean _adaptiveBatching;
 
     public ReplicationSourceChannelStatistics(String name,
                                               ReplicationMode mode, ConnectionState state, boolean active,
@@ -56,7 +60,9 @@ public class ReplicationSourceChannelStatistics
                                               ReplicationOperatingMode operatingMode,
                                               ReplicationEndpointDetails targetDetails,
                                               ConnectionEndpointDetails delegatorDetails,
-                                              String tag) {
+                                              String tag,
+                                              int batchSize, long idleDelay,
+                                              long averageRoundTripMicros, boolean adaptiveBatching) {
         _name = name;
         _channelType = mode;
         _connectionState = state;
@@ -75,6 +81,10 @@ public class ReplicationSourceChannelStatistics
         _targetDetails = targetDetails;
         _delegatorDetails = delegatorDetails;
         _tag = tag;
+        _batchSize = batchSize;
+        _idleDelay = idleDelay;
+        _averageRoundTripMicros = averageRoundTripMicros;
+        _adaptiveBatching = adaptiveBatching;
     }
 
     public String getName() {
@@ -154,4 +164,24 @@ public class ReplicationSourceChannelStatistics
 
     @Override
     public String getTag() { return _tag; }
+
+    @Override
+    public int getBatchSize() {
+        return _batchSize;
+    }
+
+    @Override
+    public long getIdleDelay() {
+        return _idleDelay;
+    }
+
+    @Override
+    public long getAverageRoundTripMicros() {
+        return _averageRoundTripMicros;
+    }
+
+    @Override
+    public boolean isAdaptiveBatching() {
+        return _adaptiveBatching;
+    }
 }
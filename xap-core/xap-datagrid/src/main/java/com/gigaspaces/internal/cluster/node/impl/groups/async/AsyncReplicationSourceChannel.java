@@ -32,6 +32,7 @@ import com.gigaspaces.internal.cluster.node.impl.groups.IReplicationGroupHistory
 import com.gigaspaces.internal.cluster.node.impl.groups.IReplicationGroupOutContext;
 import com.gigaspaces.internal.cluster.node.impl.groups.IReplicationSourceGroupStateListener;
 import com.gigaspaces.internal.cluster.node.impl.groups.ReplicateFuture;
+import com.gigaspaces.internal.cluster.node.impl.groups.ReplicationBatchController;
 import com.gigaspaces.internal.cluster.node.impl.groups.ReplicatedDataPacketResource;
 import com.gigaspaces.internal.cluster.node.impl.packets.IReplicationOrderedPacket;
 import com.gigaspaces.internal.cluster.node.impl.packets.IdleStateDataReplicatedPacket;
@@ -39,6 +40,7 @@ import com.gigaspaces.internal.cluster.node.impl.processlog.IProcessResult;
 import com.gigaspaces.internal.cluster.node.impl.processlog.globalorder.GlobalOrderProcessResult;
 import com.gigaspaces.internal.cluster.node.impl.router.IReplicationMonitoredConnection;
 import com.gigaspaces.internal.cluster.node.impl.router.IReplicationRouter;
+import com.gigaspaces.internal.utils.GsEnv;
 import com.gigaspaces.internal.utils.StringUtils;
 import com.gigaspaces.internal.utils.concurrent.AsyncCallable;
 import com.gigaspaces.internal.utils.concurrent.IAsyncHandler;
@@ -47,6 +49,7 @@ import com.gigaspaces.internal.utils.concurrent.IAsyncHandlerProvider.CycleResul
 import com.j_spaces.core.filters.ReplicationStatistics.ReplicationMode;
 import com.j_spaces.core.filters.ReplicationStatistics.ReplicationOperatingMode;
 import com.j_spaces.kernel.JSpaceUtilities;
+import com.j_spaces.kernel.SystemProperties;
 
 import java.rmi.RemoteException;
 import java.util.List;
@@ -59,7 +62,7 @@ import java.util.concurrent.atomic.AtomicLong;
 public class AsyncReplicationSourceChannel
         extends AbstractReplicationSourceChannel {
 
-    private final int _batchSize;
+    private final ReplicationBatchController _batchController;
     private final long _intervalMilis;
     private final IAsyncHandlerProvider _asyncProvider;
     private final Object _pendingCountLock = new Object();
@@ -158,7 +161,7 @@ public class AsyncReplicationSourceChannel
                 channelType,
                 customBacklogMetadata,
                 tag, resetTarget);
-        _batchSize = batchSize;
+        _batchController = createBatchController(batchSize, intervalMilis);
         _intervalMilis = intervalMilis;
         _intervalOperations = intervalOperations;
         _asyncProvider = asyncHandlerProvider;
@@ -182,8 +185,24 @@ public class AsyncReplicationSourceChannel
                 false);
     }
 
+    private static ReplicationBatchController createBatchController(int batchSize, long intervalMilis) {
+        if (!GsEnv.propertyBoolean(SystemProperties.REPLICATION_ASYNC_ADAPTIVE).get(false))
+            return new ReplicationBatchController(batchSize, intervalMilis);
+
+        int maxBatchSize = GsEnv.propertyInt(SystemProperties.REPLICATION_ASYNC_ADAPTIVE_MAX_BATCH_SIZE).get(SystemProperties.REPLICATION_ASYNC_ADAPTIVE_MAX_BATCH_SIZE_DEFAULT);
+        if (maxBatchSize <= 0)
+            maxBatchSize = (int) Math.min((long) batchSize * 8, Integer.MAX_VALUE);
+        long maxApplyTime = GsEnv.propertyLong(SystemProperties.REPLICATION_ASYNC_ADAPTIVE_MAX_APPLY_TIME).get(SystemProperties.REPLICATION_ASYNC_ADAPTIVE_MAX_APPLY_TIME_DEFAULT);
+        return new ReplicationBatchController(true, batchSize, batchSize / 8, maxBatchSize, intervalMilis, maxApplyTime);
+    }
+
     public int getBatchSize() {
-        return _batchSize;
+        return _batchController.getBatchSize();
+    }
+
+    @Override
+    protected ReplicationBatchController getBatchController() {
+        return _batchController;
     }
 
     @Override
@@ -245,6 +264,7 @@ public class AsyncReplicationSourceChannel
 
         private List<IReplicationOrderedPacket> _currentCyclePackets;
         private IIdleStateData _currentCycleIdleStateData;
+        private long _currentCycleStartTime;
 
         public CycleResult call() throws Exception {
             if (!isActive()) {
@@ -285,6 +305,9 @@ public class AsyncReplicationSourceChannel
                 if (_specificVerboseLogger.isTraceEnabled())
                     _specificVerboseLogger.trace("AsyncDispatcher idle cycle. No pending packets to replicate.");
 
+                _batchController.onIdleCycle();
+                updateIdleDelay();
+
                 // If this channel is in synchronizing mode, this means it
                 // is done
                 if (isSynchronizing())
@@ -305,6 +328,7 @@ public class AsyncReplicationSourceChannel
             //Make sure resume is not called before suspend in case async invocation ends before the suspend is returned.
             synchronized (_asyncDispatcherLifeCycle) {
                 try {
+                    _currentCycleStartTime = System.nanoTime();
                     replicateBatchDelayedAsync(_currentCyclePackets, this);
 
                     return CycleResult.SUSPEND;
@@ -469,6 +493,11 @@ public class AsyncReplicationSourceChannel
                 _currentCyclePackets = null;
                 _currentCycleIdleStateData = null;
 
+                if (packets != null) {
+                    _batchController.onBatchReplicated(packets.size(), System.nanoTime() - _currentCycleStartTime);
+                    updateIdleDelay();
+                }
+
                 final long remainingWeight = getGroupBacklog().getWeight(getMemberName());
                 // If there are remaining unreplicated packets more than batch
                 // size, do another cycle
@@ -520,6 +549,12 @@ public class AsyncReplicationSourceChannel
         }
     }
 
+    private void updateIdleDelay() {
+        IAsyncHandler asyncHandler = _asyncHandler;
+        if (asyncHandler != null && _batchController.isAdaptive())
+            asyncHandler.setIdleDelay(_batchController.getIdleDelay());
+    }
+
     @Override
     public void flushPendingReplication() {
         IAsyncHandler asyncHandler = _asyncHandler;
@@ -37,6 +37,7 @@ import com.j_spaces.core.exception.ClosedResourceException;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -51,6 +52,7 @@ public abstract class AbstractGlobalOrderTargetProcessLog
     protected long _lastProcessedKey;
     private ProcessLogState _state = ProcessLogState.OPEN;
     private boolean _firstHandshakeForTarget;
+    private boolean _resumedFromCheckpoint;
 
     public AbstractGlobalOrderTargetProcessLog(
             IReplicationPacketDataConsumer dataConsumer,
@@ -88,16 +90,41 @@ public abstract class AbstractGlobalOrderTargetProcessLog
 
     public GlobalOrderProcessLogHandshakeResponse performHandshake(
             String memberName, IBacklogHandshakeRequest handshakeRequest) throws IncomingReplicationOutOfSyncException {
+        // The key may be reset, so no packet may be processed meanwhile. The lock is taken before
+        // the life cycle lock, as in closeAtCheckpoint
+        _lock.lock();
+        try {
+            return performHandshakeUnderLock(handshakeRequest);
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    private GlobalOrderProcessLogHandshakeResponse performHandshakeUnderLock(
+            IBacklogHandshakeRequest handshakeRequest) throws IncomingReplicationOutOfSyncException {
         synchronized (_lifeCycleLock) {
             if (!isOpen())
                 throw new ClosedResourceException("Process log is closed");
             GlobalOrderBacklogHandshakeRequest typedHandshakeRequest = (GlobalOrderBacklogHandshakeRequest) handshakeRequest;
+            // Handle first handshake after this target was resumed from a local checkpoint, the
+            // source must still hold every packet beyond the checkpoint key
+            if (_resumedFromCheckpoint) {
+                _resumedFromCheckpoint = false;
+                if (handshakeRequest.isFirstHandshake() || typedHandshakeRequest.getLastConfirmedKey() > _lastProcessedKey)
+                    throw new IncomingReplicationOutOfSyncException("Replication out of sync, cannot resume from local checkpoint at key "
+                            + _lastProcessedKey
+                            + ", received last confirmed key "
+                            + typedHandshakeRequest.getLastConfirmedKey()
+                            + (handshakeRequest.isFirstHandshake() ? " from a new source" : ""));
+                return new GlobalOrderProcessLogHandshakeResponse(_lastProcessedKey);
+            }
             // Handle first ever received handshake (target first connection,
             // can be
             // a restart of target as well)
             if (_firstHandshakeForTarget) {
                 _firstHandshakeForTarget = false;
                 _lastProcessedKey = typedHandshakeRequest.getLastConfirmedKey();
+                onLastProcessedKeyReset();
                 return new GlobalOrderProcessLogHandshakeResponse(_lastProcessedKey);
             }
             // Handle first receive handshake from this source
@@ -107,6 +134,7 @@ public abstract class AbstractGlobalOrderTargetProcessLog
                 // perspective it is the first
                 // connection (source is new)
                 _lastProcessedKey = typedHandshakeRequest.getLastConfirmedKey();
+                onLastProcessedKeyReset();
                 return new GlobalOrderProcessLogHandshakeResponse(_lastProcessedKey);
             }
             // This is a handshake probably due to disconnection of this
@@ -129,6 +157,51 @@ public abstract class AbstractGlobalOrderTargetProcessLog
         return true;
     }
 
+    /**
+     * Called under the lock when the last processed key is set by a handshake, a resync or a
+     * checkpoint rather than by processing packets
+     */
+    protected void onLastProcessedKeyReset() {
+    }
+
+    /**
+     * Runs the given task while no packet is being processed, the task observes the outcome of the
+     * packets up to and including {@link #getLastProcessedKey()} and none beyond it. Once the task
+     * completed this process log is closed, no further packet is processed or confirmed and the
+     * source keeps every packet beyond that key.
+     */
+    public <T> T closeAtCheckpoint(Callable<T> task) throws Exception {
+        _lock.lock();
+        try {
+            if (!isOpen())
+                throwClosedException();
+            T result = task.call();
+            synchronized (_lifeCycleLock) {
+                _state = ProcessLogState.CLOSED;
+            }
+            onClose();
+            return result;
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    /**
+     * Resumes this process log from a local checkpoint which holds the packets up to and including
+     * the given key, the next handshake is accepted only if the source can continue from that key
+     */
+    public void resumeFromCheckpoint(long lastProcessedKey) {
+        _lock.lock();
+        try {
+            _lastProcessedKey = lastProcessedKey;
+            onLastProcessedKeyReset();
+            _firstHandshakeForTarget = false;
+            _resumedFromCheckpoint = true;
+        } finally {
+            _lock.unlock();
+        }
+    }
+
     protected void throwClosedException() {
         throw new ClosedResourceException("Process log is closed");
     }
@@ -197,6 +270,7 @@ public abstract class AbstractGlobalOrderTargetProcessLog
             GlobalOrderBacklogHandshakeRequest typedHandshakeRequest = (GlobalOrderBacklogHandshakeRequest) handshakeRequest;
             _firstHandshakeForTarget = false;
             _lastProcessedKey = typedHandshakeRequest.getLastConfirmedKey();
+            onLastProcessedKeyReset();
             return new GlobalOrderProcessLogHandshakeResponse(_lastProcessedKey);
         } finally {
             _lock.unlock();
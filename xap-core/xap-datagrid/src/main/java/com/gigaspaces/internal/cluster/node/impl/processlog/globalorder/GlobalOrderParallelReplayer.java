@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.processlog.globalorder;
+
+import com.gigaspaces.internal.cluster.node.impl.ReplicationMultipleOperationType;
+import com.gigaspaces.internal.cluster.node.impl.ReplicationSingleOperationType;
+import com.gigaspaces.internal.cluster.node.impl.packets.IReplicationOrderedPacket;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketData;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketEntryData;
+import com.gigaspaces.internal.utils.concurrent.GSThreadFactory;
+import com.j_spaces.kernel.SystemProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Replays a run of consecutive replication packets over several lanes concurrently. Data packets
+ * are assigned to a lane by the hash of their entry uid, so all the packets of the same uid are
+ * replayed by the same lane in their original order. A one phase transaction is assigned to a lane
+ * only if all of its entries map to that lane, otherwise it acts as a barrier, as do type
+ * introduction and index packets and two phase transaction packets: the lanes are drained, the
+ * barrier packet is replayed alone and the lanes resume after it.
+ *
+ * The caller thread replays the first lane, the other lanes are replayed by a shared pool of
+ * daemon threads.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class GlobalOrderParallelReplayer {
+    private static final int BARRIER = -1;
+
+    private static final ExecutorService _executor = Executors.newCachedThreadPool(GSThreadFactory.daemon("ParallelReplay"));
+
+    private final int _lanes;
+    private final int _minPackets;
+
+    /**
+     * Consumes a single data packet using the resources of the given lane
+     */
+    public interface LaneConsumer {
+        void consume(int lane, IReplicationOrderedPacket packet) throws Exception;
+    }
+
+    public GlobalOrderParallelReplayer(int lanes, int minPackets) {
+        if (lanes < 2)
+            throw new IllegalArgumentException("Parallel replay requires at least 2 lanes, got " + lanes);
+        _lanes = lanes;
+        _minPackets = minPackets;
+    }
+
+    /**
+     * @return a replayer configured by the system properties, or null if parallel replay is
+     * disabled
+     */
+    public static GlobalOrderParallelReplayer create() {
+        int lanes = Integer.getInteger(SystemProperties.REPLICATION_PARALLEL_REPLAY_THREADS,
+                SystemProperties.REPLICATION_PARALLEL_REPLAY_THREADS_DEFAULT);
+        if (lanes < 2)
+            return null;
+        return new GlobalOrderParallelReplayer(lanes, Integer.getInteger(SystemProperties.REPLICATION_PARALLEL_REPLAY_MIN_PACKETS,
+                SystemProperties.REPLICATION_PARALLEL_REPLAY_MIN_PACKETS_DEFAULT));
+    }
+
+    public int getLanes() {
+        return _lanes;
+    }
+
+    public int getMinPackets() {
+        return _minPackets;
+    }
+
+    /**
+     * Replays the data packets of the given run, packets which are not data packets are skipped
+     * and left for the caller. Once a packet fails the remaining lanes stop at their next packet.
+     *
+     * @return the result of the replay, holding the number of packets from the start of the run
+     * which were all consumed
+     */
+    public Result replay(List<IReplicationOrderedPacket> packets, LaneConsumer consumer) {
+        final Run run = new Run(packets, consumer);
+        for (int i = 0; i < packets.size() && !run._aborted; i++) {
+            IReplicationOrderedPacket packet = packets.get(i);
+            if (!packet.isDataPacket()) {
+                run._consumed[i] = true;
+                continue;
+            }
+            int lane = laneOf(packet.getData());
+            if (lane == BARRIER) {
+                run.drain();
+                if (!run._aborted)
+                    run.consume(0, i);
+            } else {
+                run._laneIndexes[lane].add(i);
+            }
+        }
+        run.drain();
+        return run.toResult();
+    }
+
+    int laneOf(IReplicationPacketData<?> data) {
+        if (data.isMultiParticipantData())
+            return BARRIER;
+        if (data.isSingleEntryData())
+            return laneOf(data.getSingleEntryData());
+        // Two phase transaction packets share the state of the prepared transaction
+        if (data.getMultipleOperationType() != ReplicationMultipleOperationType.TRANSACTION_ONE_PHASE)
+            return BARRIER;
+        int lane = BARRIER;
+        for (IReplicationPacketEntryData entry : data) {
+            int entryLane = laneOf(entry);
+            if (entryLane == BARRIER || (lane != BARRIER && lane != entryLane))
+                return BARRIER;
+            lane = entryLane;
+        }
+        return lane;
+    }
+
+    private int laneOf(IReplicationPacketEntryData entry) {
+        if (entry == null)
+            return BARRIER;
+        ReplicationSingleOperationType operationType = entry.getOperationType();
+        if (operationType == ReplicationSingleOperationType.DATA_TYPE_INTRODUCE
+                || operationType == ReplicationSingleOperationType.DATA_TYPE_ADD_INDEX
+                || operationType == ReplicationSingleOperationType.DATA_TYPE_DROP)
+            return BARRIER;
+        String uid = entry.getUid();
+        if (uid == null)
+            return BARRIER;
+        return (uid.hashCode() & Integer.MAX_VALUE) % _lanes;
+    }
+
+    private class Run {
+        private final List<IReplicationOrderedPacket> _packets;
+        private final LaneConsumer _consumer;
+        private final boolean[] _consumed;
+        private final List<Integer>[] _laneIndexes;
+        private volatile boolean _aborted;
+        private int _failedIndex = Integer.MAX_VALUE;
+        private Throwable _error;
+
+        @SuppressWarnings("unchecked")
+        private Run(List<IReplicationOrderedPacket> packets, LaneConsumer consumer) {
+            _packets = packets;
+            _consumer = consumer;
+            _consumed = new boolean[packets.size()];
+            _laneIndexes = new List[GlobalOrderParallelReplayer.this._lanes];
+            for (int i = 0; i < _laneIndexes.length; i++)
+                _laneIndexes[i] = new ArrayList<Integer>();
+        }
+
+        private void consume(int lane, int index) {
+            try {
+                _consumer.consume(lane, _packets.get(index));
+                _consumed[index] = true;
+            } catch (Throwable t) {
+                onFailure(index, t);
+            }
+        }
+
+        private synchronized void onFailure(int index, Throwable t) {
+            _aborted = true;
+            if (index < _failedIndex) {
+                _failedIndex = index;
+                _error = t;
+            }
+        }
+
+        private void consumeLane(int lane) {
+            for (Integer index : _laneIndexes[lane]) {
+                if (_aborted)
+                    return;
+                consume(lane, index);
+            }
+        }
+
+        /**
+         * Replays all the lanes and waits for them to complete
+         */
+        private void drain() {
+            int pending = 0;
+            for (int lane = 1; lane < _laneIndexes.length; lane++)
+                if (!_laneIndexes[lane].isEmpty())
+                    pending++;
+            final CountDownLatch done = new CountDownLatch(pending);
+            for (int lane = 1; lane < _laneIndexes.length; lane++) {
+                if (_laneIndexes[lane].isEmpty())
+                    continue;
+                final int currentLane = lane;
+                _executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            consumeLane(currentLane);
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                });
+            }
+            consumeLane(0);
+
+            // the lanes use the resources of the caller, it must not return before they are done
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+
+            for (List<Integer> lane : _laneIndexes)
+                lane.clear();
+        }
+
+        private synchronized Result toResult() {
+            int consumedPackets = 0;
+            while (consumedPackets < _consumed.length && _consumed[consumedPackets])
+                consumedPackets++;
+            return new Result(consumedPackets, _consumed.clone(), _error);
+        }
+    }
+
+    public static class Result {
+        private final int _consumedPackets;
+        private final boolean[] _consumed;
+        private final Throwable _error;
+
+        private Result(int consumedPackets, boolean[] consumed, Throwable error) {
+            _consumedPackets = consumedPackets;
+            _consumed = consumed;
+            _error = error;
+        }
+
+        /**
+         * @return the number of packets from the start of the run which were all consumed
+         */
+        public int getConsumedPackets() {
+            return _consumedPackets;
+        }
+
+        /**
+         * @return true if the packet at the given index of the run was consumed, packets after the
+         * first failure may have been consumed by other lanes
+         */
+        public boolean isConsumed(int index) {
+            return _consumed[index];
+        }
+
+        /**
+         * @return the error of the earliest packet which failed, or null if all packets were
+         * consumed
+         */
+        public Throwable getError() {
+            return _error;
+        }
+    }
+}
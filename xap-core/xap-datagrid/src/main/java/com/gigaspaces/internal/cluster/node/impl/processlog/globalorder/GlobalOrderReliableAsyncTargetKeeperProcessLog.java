@@ -125,6 +125,12 @@ public class GlobalOrderReliableAsyncTargetKeeperProcessLog
         return true;
     }
 
+    @Override
+    protected boolean supportsParallelReplay() {
+        // The consumption of a packet uses the mediator state of the packets kept before it
+        return false;
+    }
+
     @Override
     protected void afterSuccessfulConsumption(String sourceLookupName,
                                               IReplicationOrderedPacket packet) {
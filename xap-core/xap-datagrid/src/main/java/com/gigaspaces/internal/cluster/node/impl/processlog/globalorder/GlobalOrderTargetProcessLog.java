@@ -26,6 +26,7 @@ import com.gigaspaces.internal.cluster.node.impl.filters.IReplicationInFilterCal
 import com.gigaspaces.internal.cluster.node.impl.groups.IReplicationGroupHistory;
 import com.gigaspaces.internal.cluster.node.impl.packets.IReplicationOrderedPacket;
 import com.gigaspaces.internal.cluster.node.impl.packets.data.IDataConsumeFix;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.BlobstoreReplicationPacketDataConsumer;
 import com.gigaspaces.internal.cluster.node.impl.packets.data.IDataConsumeResult;
 import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketData;
 import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketDataConsumer;
@@ -39,10 +40,13 @@ import com.gigaspaces.internal.collections.LongObjectMap;
 import com.gigaspaces.internal.utils.concurrent.ExchangeCountDownLatch;
 import com.j_spaces.core.exception.ClosedResourceException;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
@@ -58,6 +62,11 @@ public class GlobalOrderTargetProcessLog
     private final LongObjectMap<ExchangeCountDownLatch<Throwable>> _pendingPackets = CollectionsFactory.getInstance().createLongObjectMap();
 
     private final long _consumeTimeout;
+    private final GlobalOrderParallelReplayer _parallelReplayer;
+    private final ReplicationInContext[] _laneContexts;
+    // keys of data packets after a failed parallel replay which other lanes already consumed,
+    // they are not consumed again when the queue is processed after the failure
+    private final Set<Long> _consumedAheadKeys = new HashSet<Long>();
 
     public GlobalOrderTargetProcessLog(
             GlobalOrderProcessLogConfig processLogConfig,
@@ -97,6 +106,23 @@ public class GlobalOrderTargetProcessLog
                 groupHistory);
         _consumeTimeout = processLogConfig.getConsumeTimeout();
         _packetsQueue = new TreeSet<IReplicationOrderedPacket>(new SharedOrderedPacketComparator());
+        _parallelReplayer = supportsParallelReplay() ? GlobalOrderParallelReplayer.create() : null;
+        if (_parallelReplayer != null) {
+            _laneContexts = new ReplicationInContext[_parallelReplayer.getLanes()];
+            for (int i = 0; i < _laneContexts.length; i++)
+                _laneContexts[i] = createReplicationInContext();
+        } else {
+            _laneContexts = null;
+        }
+    }
+
+    /**
+     * @return true if packets of different uids can be replayed concurrently by this process log,
+     * blobstore bulks are kept in the single replication context and are therefore excluded
+     */
+    protected boolean supportsParallelReplay() {
+        IReplicationPacketDataConsumer<?> dataConsumer = getDataConsumer();
+        return !(dataConsumer instanceof BlobstoreReplicationPacketDataConsumer);
     }
 
     @Override
@@ -289,6 +315,12 @@ public class GlobalOrderTargetProcessLog
 
     protected boolean processPackets(String sourceLookupName, long myLastKey,
                                      IReplicationInFilterCallback filterInCallback) throws Exception {
+        if (!_consumedAheadKeys.isEmpty())
+            removeProcessedConsumedAheadKeys();
+        // In filters are not required to be thread safe
+        if (_parallelReplayer != null && filterInCallback == null)
+            replayInParallel(sourceLookupName);
+
         for (Iterator<IReplicationOrderedPacket> iterator = _packetsQueue.iterator(); iterator.hasNext(); ) {
             IReplicationOrderedPacket packet = iterator.next();
             // We have a missing packet, break loop
@@ -320,60 +352,141 @@ public class GlobalOrderTargetProcessLog
         return true;
     }
 
+    /**
+     * Replays the run of consecutive packets at the head of the queue over the lanes of the
+     * parallel replayer, the consumed packets are left in the queue to be released by the caller.
+     * On failure the last processed key only advances over the consumed prefix of the run, the
+     * packets after the failure which were consumed by other lanes stay in the queue and are
+     * remembered so they are not consumed again.
+     */
+    private void replayInParallel(String sourceLookupName) throws Exception {
+        List<IReplicationOrderedPacket> run = new ArrayList<IReplicationOrderedPacket>();
+        long nextKey = _lastProcessedKey + 1;
+        for (IReplicationOrderedPacket packet : _packetsQueue) {
+            if (packet.getKey() < nextKey)
+                continue;
+            if (packet.getKey() > nextKey)
+                break;
+            run.add(packet);
+            nextKey = packet.getEndKey() + 1;
+        }
+        if (run.size() < _parallelReplayer.getMinPackets())
+            return;
+
+        GlobalOrderParallelReplayer.Result result = _parallelReplayer.replay(run, new GlobalOrderParallelReplayer.LaneConsumer() {
+            @Override
+            public void consume(int lane, IReplicationOrderedPacket packet) throws Exception {
+                // only read while the lanes run, it is modified by the caller thread alone
+                if (_consumedAheadKeys.contains(packet.getKey()))
+                    return;
+                ReplicationInContext context = _laneContexts[lane];
+                context.setLastProcessedKey(packet.getKey() - 1);
+                consumePacket(null, context, packet, true);
+            }
+        });
+        // Only the consumed prefix of the run is acknowledged, the processing of the queue
+        // stops at the failed packet
+        for (int i = 0; i < result.getConsumedPackets(); i++) {
+            IReplicationOrderedPacket packet = run.get(i);
+            _consumedAheadKeys.remove(packet.getKey());
+            if (preprocess(packet))
+                _lastProcessedKey++;
+            afterSuccessfulConsumption(sourceLookupName, packet);
+        }
+        Throwable error = result.getError();
+        if (error != null) {
+            for (int i = result.getConsumedPackets() + 1; i < run.size(); i++) {
+                IReplicationOrderedPacket packet = run.get(i);
+                if (packet.isDataPacket() && result.isConsumed(i))
+                    _consumedAheadKeys.add(packet.getKey());
+            }
+        }
+        if (error instanceof Exception)
+            throw (Exception) error;
+        if (error instanceof Error)
+            throw (Error) error;
+    }
+
+    @Override
+    protected void onLastProcessedKeyReset() {
+        // the packets which will be received from now on are not the ones which were consumed ahead
+        _consumedAheadKeys.clear();
+    }
+
+    /**
+     * Drops the keys of packets consumed ahead which are no longer above the last processed key,
+     * such as packets which were discarded or deleted from the backlog before they were reached
+     */
+    private void removeProcessedConsumedAheadKeys() {
+        for (Iterator<Long> iterator = _consumedAheadKeys.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() <= _lastProcessedKey)
+                iterator.remove();
+        }
+    }
+
     private void processPacket(String sourceLookupName,
                                IReplicationInFilterCallback filterInCallback,
                                ReplicationInContext context, IReplicationOrderedPacket packet,
                                boolean throwOnClosed) throws Exception {
+        boolean consumedAhead = !_consumedAheadKeys.isEmpty() && _consumedAheadKeys.remove(packet.getKey());
         // We can process this packet, process and remove it.
         if (preprocess(packet)) {
-            context.setContextPacket(packet);
-            context.setLastProcessedKey(_lastProcessedKey);
-            try {
-                IReplicationPacketData<?> data = packet.getData();
-                // If there's a replication filter and should clone, clone the
-                // data
-                // packet before
-                // consumption
-                if (filterInCallback != null && shouldCloneOnFilter())
-                    data = data.clone();
-
-                IDataConsumeResult prevResult = null;
-
-                do {
-                    // If closed, reject immediately
-                    if (throwOnClosed && isClosed())
-                        throw new ClosedResourceException("Process log is closed");
-
-                    IDataConsumeResult consumeResult = getDataConsumer().consume(context,
-                            data,
-                            getReplicationInFacade(),
-                            filterInCallback);
-                    if (!consumeResult.isFailed())
-                        break;
-
-                    throwIfRepetitiveError(prevResult, consumeResult);
-                    if (_specificLogger.isDebugEnabled())
-                        _specificLogger.debug(
-                                "Encountered error while consuming packet ["
-                                        + packet
-                                        + "], trying to resolve issue",
-                                consumeResult.toException());
-                    IDataConsumeFix fix = getExceptionHandler().handleException(consumeResult, packet);
-                    data = getDataConsumer().applyFix(context, data, fix);
-                    if (_specificLogger.isDebugEnabled())
-                        _specificLogger.debug("Fix applied - retrying the operation [" + fix + "]");
-                    prevResult = consumeResult;
-                } while (true);
-                _lastProcessedKey++;
-            } finally {
-                //Clear packet from context
-                context.setContextPacket(null);
+            if (!consumedAhead) {
+                context.setLastProcessedKey(_lastProcessedKey);
+                consumePacket(filterInCallback, context, packet, throwOnClosed);
             }
+            _lastProcessedKey++;
         }
         // Trigger after successful consumption
         afterSuccessfulConsumption(sourceLookupName, packet);
     }
 
+    private void consumePacket(IReplicationInFilterCallback filterInCallback,
+                               ReplicationInContext context, IReplicationOrderedPacket packet,
+                               boolean throwOnClosed) throws Exception {
+        context.setContextPacket(packet);
+        try {
+            IReplicationPacketData<?> data = packet.getData();
+            // If there's a replication filter and should clone, clone the
+            // data
+            // packet before
+            // consumption
+            if (filterInCallback != null && shouldCloneOnFilter())
+                data = data.clone();
+
+            IDataConsumeResult prevResult = null;
+
+            do {
+                // If closed, reject immediately
+                if (throwOnClosed && isClosed())
+                    throw new ClosedResourceException("Process log is closed");
+
+                IDataConsumeResult consumeResult = getDataConsumer().consume(context,
+                        data,
+                        getReplicationInFacade(),
+                        filterInCallback);
+                if (!consumeResult.isFailed())
+                    break;
+
+                throwIfRepetitiveError(prevResult, consumeResult);
+                if (_specificLogger.isDebugEnabled())
+                    _specificLogger.debug(
+                            "Encountered error while consuming packet ["
+                                    + packet
+                                    + "], trying to resolve issue",
+                            consumeResult.toException());
+                IDataConsumeFix fix = getExceptionHandler().handleException(consumeResult, packet);
+                data = getDataConsumer().applyFix(context, data, fix);
+                if (_specificLogger.isDebugEnabled())
+                    _specificLogger.debug("Fix applied - retrying the operation [" + fix + "]");
+                prevResult = consumeResult;
+            } while (true);
+        } finally {
+            //Clear packet from context
+            context.setContextPacket(null);
+        }
+    }
+
     protected void afterSuccessfulConsumption(String sourceLookupName,
                                               IReplicationOrderedPacket packet) {
         // Default do nothing
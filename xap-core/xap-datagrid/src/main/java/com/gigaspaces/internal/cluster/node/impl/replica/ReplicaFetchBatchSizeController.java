@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.replica;
+
+import com.gigaspaces.internal.cluster.node.impl.BatchSizeHillClimber;
+
+/**
+ * Adapts the fetch batch size of a space copy consumer to its measured throughput, starting from
+ * the minimal batch size, see {@link BatchSizeHillClimber}.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ReplicaFetchBatchSizeController {
+    private final BatchSizeHillClimber _hillClimber;
+
+    public ReplicaFetchBatchSizeController(int minBatchSize, int maxBatchSize) {
+        _hillClimber = new BatchSizeHillClimber(minBatchSize, minBatchSize, maxBatchSize);
+    }
+
+    public synchronized int getBatchSize() {
+        return _hillClimber.getBatchSize();
+    }
+
+    /**
+     * Reports a consumed batch, batches which are smaller than the current batch size do not
+     * reflect the throughput of a full batch and are ignored
+     *
+     * @param entries        number of entries in the batch
+     * @param durationNanos  time it took to fetch and consume the batch
+     * @return the batch size of the next fetch
+     */
+    public synchronized int onBatchConsumed(int entries, long durationNanos) {
+        return _hillClimber.onBatch(entries, durationNanos);
+    }
+}
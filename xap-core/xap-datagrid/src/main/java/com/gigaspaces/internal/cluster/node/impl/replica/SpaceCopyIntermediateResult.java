@@ -45,6 +45,7 @@ public class SpaceCopyIntermediateResult
     private final AtomicInteger _blockedByFilterEntries;
     private final Exception _failureReason;
     private final ConcurrentHashSet<EventRegistration> _notifyRegistrations;
+    private volatile SpaceCopyProgress _progress;
 
     public SpaceCopyIntermediateResult() {
         _writtenTypesCount = new ConcurrentHashMap<String, AtomicInteger>();
@@ -137,6 +138,18 @@ public class SpaceCopyIntermediateResult
 
     public void increaseWritenTypeCount(String className) {
         increaseCount(className, _writtenTypesCount);
+        SpaceCopyProgress progress = _progress;
+        if (progress != null)
+            progress.onEntryCopied(className);
+    }
+
+    /**
+     * Sets the live progress of the copy this result is part of
+     *
+     * @since 16.5
+     */
+    public void setProgress(SpaceCopyProgress progress) {
+        _progress = progress;
     }
 
     public void addDuplicateEntry(String uid, String className) {
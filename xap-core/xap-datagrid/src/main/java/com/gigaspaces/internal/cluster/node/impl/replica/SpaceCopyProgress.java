@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.replica;
+
+import com.gigaspaces.metrics.Gauge;
+import com.gigaspaces.metrics.MetricRegistrator;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live progress of a space copy, counts the copied entries in total and per type. While the copy
+ * runs, the counts and the copy rate since the previous sample are exposed as metrics, the metrics
+ * of a type are registered once its first entry is copied and all of them are removed once the
+ * copy is over.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class SpaceCopyProgress {
+    private final long _startTime = System.nanoTime();
+    private final AtomicLong _totalCopied = new AtomicLong();
+    private final ConcurrentHashMap<String, AtomicLong> _copiedPerType = new ConcurrentHashMap<String, AtomicLong>();
+    private volatile MetricRegistrator _metricRegistrator;
+
+    public void registerWith(MetricRegistrator metricRegistrator) {
+        _metricRegistrator = metricRegistrator;
+        metricRegistrator.register("copied-entries", new CountGauge(_totalCopied));
+        metricRegistrator.register("copy-rate", new RateGauge(_totalCopied));
+        for (Map.Entry<String, AtomicLong> entry : _copiedPerType.entrySet())
+            registerType(metricRegistrator, entry.getKey(), entry.getValue());
+    }
+
+    public void onEntryCopied(String typeName) {
+        _totalCopied.incrementAndGet();
+        AtomicLong copied = _copiedPerType.get(typeName);
+        if (copied == null) {
+            AtomicLong newCopied = new AtomicLong();
+            copied = _copiedPerType.putIfAbsent(typeName, newCopied);
+            if (copied == null) {
+                copied = newCopied;
+                MetricRegistrator metricRegistrator = _metricRegistrator;
+                if (metricRegistrator != null)
+                    registerType(metricRegistrator, typeName, copied);
+            }
+        }
+        copied.incrementAndGet();
+    }
+
+    private static void registerType(MetricRegistrator metricRegistrator, String typeName, AtomicLong copied) {
+        metricRegistrator.register(metricRegistrator.toPath("copied-entries", typeName), new CountGauge(copied));
+        metricRegistrator.register(metricRegistrator.toPath("copy-rate", typeName), new RateGauge(copied));
+    }
+
+    public long getTotalCopied() {
+        return _totalCopied.get();
+    }
+
+    public long getCopied(String typeName) {
+        AtomicLong copied = _copiedPerType.get(typeName);
+        return copied == null ? 0 : copied.get();
+    }
+
+    /**
+     * Removes the metrics of this copy
+     */
+    public void close() {
+        MetricRegistrator metricRegistrator = _metricRegistrator;
+        _metricRegistrator = null;
+        if (metricRegistrator != null)
+            metricRegistrator.clear();
+    }
+
+    @Override
+    public String toString() {
+        final long durationMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - _startTime));
+        StringBuilder sb = new StringBuilder();
+        sb.append("copied [").append(_totalCopied.get()).append("] entries in [").append(durationMillis)
+                .append("ms], [").append(_totalCopied.get() * 1000 / durationMillis).append("] entries/sec");
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<String, AtomicLong>(_copiedPerType).entrySet())
+            sb.append(", ").append(entry.getKey()).append("=").append(entry.getValue().get());
+        return sb.toString();
+    }
+
+    private static class CountGauge extends Gauge<Long> {
+        private final AtomicLong _count;
+
+        private CountGauge(AtomicLong count) {
+            _count = count;
+        }
+
+        @Override
+        public Long getValue() {
+            return _count.get();
+        }
+    }
+
+    /**
+     * Entries per second since the previous sample
+     */
+    private static class RateGauge extends Gauge<Long> {
+        private final AtomicLong _count;
+        private long _lastCount;
+        private long _lastTime = System.nanoTime();
+
+        private RateGauge(AtomicLong count) {
+            _count = count;
+        }
+
+        @Override
+        public synchronized Long getValue() {
+            final long count = _count.get();
+            final long time = System.nanoTime();
+            final long elapsed = time - _lastTime;
+            final long rate = elapsed <= 0 ? 0 : (count - _lastCount) * TimeUnit.SECONDS.toNanos(1) / elapsed;
+            _lastCount = count;
+            _lastTime = time;
+            return rate;
+        }
+    }
+}
@@ -30,6 +30,7 @@ import com.gigaspaces.internal.utils.concurrent.IAsyncHandlerProvider.CycleResul
 import com.gigaspaces.logger.Constants;
 import com.gigaspaces.time.SystemTime;
 import com.j_spaces.core.cluster.IReplicationFilterEntry;
+import com.j_spaces.kernel.SystemProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,13 +50,18 @@ import java.util.concurrent.TimeUnit;
 public class SpaceCopyReplicaRunnable
         extends AsyncCallable implements AsyncFutureListener<Collection<ISpaceReplicaData>> {
     protected final static Logger _logger = LoggerFactory.getLogger(Constants.LOGGER_REPLICATION_REPLICA);
+    private static final boolean PREFETCH = Boolean.getBoolean(SystemProperties.REPLICATION_REPLICA_PREFETCH);
+    private static final int MAX_FETCH_BATCH_SIZE = Integer.getInteger(SystemProperties.REPLICATION_REPLICA_MAX_FETCH_BATCH_SIZE,
+            SystemProperties.REPLICATION_REPLICA_MAX_FETCH_BATCH_SIZE_DEFAULT);
+
     private final ReplicationNode _replicationNode;
 
     private final IReplicationMonitoredConnection _originConnection;
     private final ISpaceReplicaDataConsumer _replicaDataProducer;
     private final Object _replicaRemoteContext;
     private final SpaceReplicaState _state;
-    private final ReplicaFetchDataPacket _fetchDataPacket;
+    private final int _fetchBatchSize;
+    private final ReplicaFetchBatchSizeController _batchSizeController;
     private final ISpaceCopyIntermediateResult _intermediateResult;
     private final ISpaceCopyReplicaInFilter _inFilter;
     private final boolean _isFiltered;
@@ -63,6 +69,12 @@ public class SpaceCopyReplicaRunnable
     private volatile boolean _aborted;
     private volatile long _lastIterationTimeStamp = SystemTime.timeMillis();
     private volatile boolean inProgress;
+    // results are handled one at a time, a prefetched result which arrives while the previous one
+    // is handled waits for it
+    private final Object _resultsLock = new Object();
+    private boolean _handlingResult;
+    private AsyncResult<Collection<ISpaceReplicaData>> _pendingResult;
+    private long _lastBatchConsumedTime = System.nanoTime();
 
     public SpaceCopyReplicaRunnable(ReplicationNode replicationNode, IReplicationMonitoredConnection originConnection,
                                     ISpaceReplicaDataConsumer replicaDataProcessor,
@@ -77,9 +89,13 @@ public class SpaceCopyReplicaRunnable
         _inFilter = inFilter;
         _orderProvider = orderProvider;
         _isFiltered = (_inFilter != null);
-        _fetchDataPacket = new ReplicaFetchDataPacket(replicaRemoteContext,
-                fetchBatchSize);
+        _fetchBatchSize = fetchBatchSize;
+        _batchSizeController = MAX_FETCH_BATCH_SIZE > fetchBatchSize
+                ? new ReplicaFetchBatchSizeController(fetchBatchSize, MAX_FETCH_BATCH_SIZE)
+                : null;
         _intermediateResult = _replicaDataProducer.createEmptyResult();
+        if (_intermediateResult instanceof SpaceCopyIntermediateResult)
+            ((SpaceCopyIntermediateResult) _intermediateResult).setProgress(state.getProgress());
     }
 
     public ISpaceCopyIntermediateResult getIntermediateResult() {
@@ -88,11 +104,7 @@ public class SpaceCopyReplicaRunnable
 
     public CycleResult call() {
         try {
-            if (_aborted)
-                throw new ReplicaAbortedException();
-
-            AsyncFuture<Collection<ISpaceReplicaData>> future = _originConnection.dispatchAsync(_fetchDataPacket);
-            future.setListener(this);
+            dispatchFetch();
             return CycleResult.SUSPEND;
         } catch (Throwable e) {
             if (_logger.isDebugEnabled())
@@ -107,6 +119,16 @@ public class SpaceCopyReplicaRunnable
         }
     }
 
+    private void dispatchFetch() throws Exception {
+        if (_aborted)
+            throw new ReplicaAbortedException();
+
+        int fetchBatchSize = _batchSizeController != null ? _batchSizeController.getBatchSize() : _fetchBatchSize;
+        AsyncFuture<Collection<ISpaceReplicaData>> future = _originConnection.dispatchAsync(new ReplicaFetchDataPacket(_replicaRemoteContext,
+                fetchBatchSize));
+        future.setListener(this);
+    }
+
     public long getLastIterationTimeStamp() {
         return _lastIterationTimeStamp;
     }
@@ -118,6 +140,29 @@ public class SpaceCopyReplicaRunnable
 
     @Override
     public void onResult(AsyncResult<Collection<ISpaceReplicaData>> result) {
+        if (!PREFETCH) {
+            handleResult(result);
+            return;
+        }
+        synchronized (_resultsLock) {
+            if (_handlingResult) {
+                _pendingResult = result;
+                return;
+            }
+            _handlingResult = true;
+        }
+        while (result != null) {
+            handleResult(result);
+            synchronized (_resultsLock) {
+                result = _pendingResult;
+                _pendingResult = null;
+                if (result == null)
+                    _handlingResult = false;
+            }
+        }
+    }
+
+    private void handleResult(AsyncResult<Collection<ISpaceReplicaData>> result) {
         try {
             if (result.getException() != null) {
                 if (_logger.isDebugEnabled())
@@ -160,7 +205,8 @@ public class SpaceCopyReplicaRunnable
                     _state.signalSingleCopyStageDone();
                 } else {
                     if (_logger.isDebugEnabled())
-                        _logger.debug(_replicationNode.getLogPrefix() + (isOldVersion ? "" : " completed current stage [" + stageName + "], ") + "all stages completed.");
+                        _logger.debug(_replicationNode.getLogPrefix() + (isOldVersion ? "" : " completed current stage [" + stageName + "], ") + "all stages completed, "
+                                + _state.getProgress() + ".");
                     _state.signalEntireCopyStageDoneSuccessfully();
                 }
             } else {
@@ -170,10 +216,10 @@ public class SpaceCopyReplicaRunnable
                         SpaceReplicaFifoBatchesHandler fifoBatchesHandler = _replicationNode.getReplicaHandler().getFifoBatchesHandler();
                         fifoBatchesHandler.handleIncomingBatch(batch, this);
                     } else {
-                        processBatch(result.getResult(), true);
+                        prefetchAndProcessBatch(result.getResult());
                     }
                 } else {
-                    processBatch(result.getResult(), true);
+                    prefetchAndProcessBatch(result.getResult());
                 }
             }
         } catch (Throwable e) {
@@ -185,6 +231,16 @@ public class SpaceCopyReplicaRunnable
         }
     }
 
+    private void prefetchAndProcessBatch(Collection<ISpaceReplicaData> copiedData) throws Exception {
+        if (PREFETCH) {
+            // fetch the next batch while this one is consumed
+            dispatchFetch();
+            processBatch(copiedData, false);
+        } else {
+            processBatch(copiedData, true);
+        }
+    }
+
     /**
      * returns true if progress has been identified since last iteration timestamp.
      * @param lastIterationTimeStamp last timestamp to compare with
@@ -222,6 +278,8 @@ public class SpaceCopyReplicaRunnable
                 if (_replicationNode.getBlobStoreReplicaConsumeHelper() != null)
                     _replicationNode.getBlobStoreReplicaConsumeHelper().flushBulk();
             }
+            if (_batchSizeController != null)
+                adaptFetchBatchSize(copiedData.size());
             // Should keep running
             if(resumeNow){
                 //resubmit SpaceCopyReplicaRunnable task
@@ -244,4 +302,13 @@ public class SpaceCopyReplicaRunnable
         }
     }
 
+    private synchronized void adaptFetchBatchSize(int consumedEntries) {
+        final long now = System.nanoTime();
+        final int previousBatchSize = _batchSizeController.getBatchSize();
+        final int batchSize = _batchSizeController.onBatchConsumed(consumedEntries, now - _lastBatchConsumedTime);
+        _lastBatchConsumedTime = now;
+        if (batchSize != previousBatchSize && _logger.isDebugEnabled())
+            _logger.debug(_replicationNode.getLogPrefix() + " fetch batch size changed from " + previousBatchSize + " to " + batchSize);
+    }
+
 }
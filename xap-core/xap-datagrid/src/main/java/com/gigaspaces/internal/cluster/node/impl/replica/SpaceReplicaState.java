@@ -48,6 +48,7 @@ public class SpaceReplicaState
     private final long _progressTimeout;
     private final IReplicationTargetGroup _targetGroup;
     private final String _replicaSourceLookupName;
+    private final SpaceCopyProgress _progress = new SpaceCopyProgress();
     private boolean _copyStageDone = false;
     private boolean _synchronizeDone = false;
     private volatile Exception _failureReason;
@@ -104,6 +105,7 @@ public class SpaceReplicaState
                 for (SpaceCopyReplicaRunnable consumer : _consumers) {
                     consumer.abort();
                 }
+                _progress.close();
                 _failureReason = new ReplicaNoProgressException(
                         "No progress in replica copy stage. "
                         + "Last iteration took [" + (SystemTime.timeMillis() - lastIterationTimestamp) + " ms]; "
@@ -306,6 +308,14 @@ public class SpaceReplicaState
     private void stopAllConsumers() {
         for (SpaceCopyReplicaRunnable consumer : _consumers)
             consumer.getHandler().stop(3, TimeUnit.SECONDS);
+        _progress.close();
+    }
+
+    /**
+     * @since 16.5
+     */
+    public SpaceCopyProgress getProgress() {
+        return _progress;
     }
 
 }
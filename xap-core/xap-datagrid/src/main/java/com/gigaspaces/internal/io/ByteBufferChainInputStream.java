@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.io;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream which reads a chain of buffers, e.g. filled by a scattering read, without
+ * assembling them into a single array. Not thread safe.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ByteBufferChainInputStream extends InputStream {
+    private final ByteBuffer[] _chunks;
+    private int _index;
+
+    /**
+     * @param chunks the chunks to read, each from its position to its limit
+     */
+    public ByteBufferChainInputStream(ByteBuffer[] chunks) {
+        _chunks = chunks;
+    }
+
+    private ByteBuffer current() {
+        while (_index < _chunks.length) {
+            if (_chunks[_index].hasRemaining())
+                return _chunks[_index];
+            _index++;
+        }
+        return null;
+    }
+
+    @Override
+    public int read() {
+        ByteBuffer chunk = current();
+        return chunk == null ? -1 : chunk.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0)
+            return 0;
+        int read = 0;
+        ByteBuffer chunk;
+        while (len > 0 && (chunk = current()) != null) {
+            int count = Math.min(len, chunk.remaining());
+            chunk.get(b, off, count);
+            off += count;
+            len -= count;
+            read += count;
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = 0;
+        ByteBuffer chunk;
+        while (n > 0 && (chunk = current()) != null) {
+            int count = (int) Math.min(n, chunk.remaining());
+            chunk.position(chunk.position() + count);
+            n -= count;
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        long available = 0;
+        for (int i = _index; i < _chunks.length; i++)
+            available += _chunks[i].remaining();
+        return (int) Math.min(available, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.io;
+
+import com.gigaspaces.lrmi.DirectByteBufferPool;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An output stream which writes into a growing chain of pooled direct buffers, instead of a single
+ * heap array which is copied whenever it grows. The chain is written to a channel as is, using a
+ * gathering write. Not thread safe.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ByteBufferChainOutputStream extends OutputStream {
+    private final DirectByteBufferPool _pool;
+    private final List<ByteBuffer> _chunks = new ArrayList<ByteBuffer>();
+    private ByteBuffer _current;
+    private int _size;
+
+    /**
+     * @param reserved number of bytes to skip at the start of the chain, e.g. for a length header
+     *                 which is set once the content is written
+     */
+    public ByteBufferChainOutputStream(DirectByteBufferPool pool, int reserved) {
+        _pool = pool;
+        _current = nextChunk();
+        _current.position(reserved);
+        _size = reserved;
+    }
+
+    private ByteBuffer nextChunk() {
+        ByteBuffer chunk = _pool.acquire();
+        _chunks.add(chunk);
+        return chunk;
+    }
+
+    @Override
+    public void write(int b) {
+        if (!_current.hasRemaining())
+            _current = nextChunk();
+        _current.put((byte) b);
+        _size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        while (len > 0) {
+            if (!_current.hasRemaining())
+                _current = nextChunk();
+            int count = Math.min(len, _current.remaining());
+            _current.put(b, off, count);
+            off += count;
+            len -= count;
+            _size += count;
+        }
+    }
+
+    /**
+     * @return the number of bytes written so far, including the reserved ones
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Flips the chunks for reading, no more bytes may be written afterwards.
+     *
+     * @return the chunks holding the written bytes
+     */
+    public ByteBuffer[] toBuffers() {
+        ByteBuffer[] buffers = new ByteBuffer[_chunks.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = _chunks.get(i);
+            buffers[i].flip();
+        }
+        return buffers;
+    }
+
+    /**
+     * Returns the chunks to the pool.
+     */
+    public void release() {
+        for (ByteBuffer chunk : _chunks)
+            _pool.release(chunk);
+        _chunks.clear();
+        _current = null;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.lrmi;
+
+import com.gigaspaces.internal.server.space.operations.SpaceOperationsCodes;
+import com.gigaspaces.lrmi.LRMIMethod;
+import com.gigaspaces.metrics.LatencyHistogramRegistry;
+import com.gigaspaces.metrics.MetricRegistrator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency histograms of the LRMI invocations of this process, per remote method: the
+ * client round trip, the time a request waits on the server before it is handled and the time it
+ * takes the server to execute it. The client round trip of space operations is recorded per
+ * operation as well.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class LRMILatencyMonitor {
+    private static final LatencyHistogramRegistry _clientRoundTrip = new LatencyHistogramRegistry();
+    private static final LatencyHistogramRegistry _serverQueue = new LatencyHistogramRegistry();
+    private static final LatencyHistogramRegistry _serverExecution = new LatencyHistogramRegistry();
+    private static final LatencyHistogramRegistry _spaceOperationsRoundTrip = new LatencyHistogramRegistry();
+
+    private LRMILatencyMonitor() {
+    }
+
+    public static boolean isEnabled() {
+        return LatencyHistogramRegistry.isEnabled();
+    }
+
+    public static void recordClientRoundTrip(LRMIMethod lrmiMethod, long durationNanos) {
+        if (lrmiMethod.metricName != null)
+            _clientRoundTrip.get(lrmiMethod.metricName).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordServerQueue(LRMIMethod lrmiMethod, long durationNanos) {
+        if (lrmiMethod.metricName != null)
+            _serverQueue.get(lrmiMethod.metricName).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordServerExecution(LRMIMethod lrmiMethod, long durationNanos) {
+        if (lrmiMethod.metricName != null)
+            _serverExecution.get(lrmiMethod.metricName).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordSpaceOperationRoundTrip(int operationCode, long durationNanos) {
+        _spaceOperationsRoundTrip.get(SpaceOperationsCodes.getName(operationCode)).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void registerMetrics(MetricRegistrator registrator) {
+        if (!isEnabled())
+            return;
+        _clientRoundTrip.setRegistrator(registrator.extend("client-round-trip"));
+        _serverQueue.setRegistrator(registrator.extend("server-queue"));
+        _serverExecution.setRegistrator(registrator.extend("server-execution"));
+        _spaceOperationsRoundTrip.setRegistrator(registrator.extend("space-operations-round-trip"));
+    }
+}
@@ -54,6 +54,7 @@ import com.gigaspaces.lrmi.RemoteStub;
 import com.gigaspaces.lrmi.nio.info.NIODetails;
 import com.gigaspaces.lrmi.nio.info.NIOInfoProvider;
 import com.gigaspaces.lrmi.nio.info.NIOStatistics;
+import com.gigaspaces.management.space.IndexRecommendation;
 import com.gigaspaces.management.space.LocalCacheDetails;
 import com.gigaspaces.management.space.LocalViewDetails;
 import com.gigaspaces.management.transport.ITransportConnection;
@@ -723,6 +724,16 @@ public class LRMISpaceImpl extends RemoteStub<IRemoteSpace>
         return ((IInternalRemoteJSpaceAdmin) getProxy()).getLocalViewDetails();
     }
 
+    @Override
+    public List<IndexRecommendation> getIndexRecommendations() throws RemoteException {
+        return ((IInternalRemoteJSpaceAdmin) getProxy()).getIndexRecommendations();
+    }
+
+    @Override
+    public List<IndexRecommendation> applyIndexRecommendations() throws RemoteException {
+        return ((IInternalRemoteJSpaceAdmin) getProxy()).applyIndexRecommendations();
+    }
+
     @Override
     public void demote(long maxSuspendTime, TimeUnit unit, SpaceContext sc) throws DemoteFailedException, RemoteException {
         getProxy().demote(maxSuspendTime, unit, sc);
@@ -16,6 +16,7 @@
 
 package com.gigaspaces.internal.metadata;
 
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
 import com.gigaspaces.metadata.index.SpaceIndexType;
 
 @com.gigaspaces.api.InternalApi
@@ -26,6 +27,7 @@ public class SpaceIndexTypeHelper {
     private static final byte EQUAL_AND_ORDERED_CODE = 2;
     private static final byte GEOSPATIAL_CODE = 3;
     private static final byte ORDERED_CODE = 4;
+    private static final byte BITMAP_CODE = 5;
 
     public static byte toCode(SpaceIndexType spaceIndexType) {
         if (spaceIndexType == null)
@@ -42,11 +44,23 @@ public class SpaceIndexTypeHelper {
                 return EQUAL_AND_ORDERED_CODE;
             case ORDERED:
                 return ORDERED_CODE;
+            case BITMAP:
+                return BITMAP_CODE;
             default:
                 throw new IllegalArgumentException("Unsupported space index type: " + spaceIndexType);
         }
     }
 
+    /**
+     * Code of the index type for an endpoint of the specified version. Endpoints older than 16.5 do
+     * not know the bitmap index, it falls back to the equal index they maintain instead.
+     */
+    public static byte toCode(SpaceIndexType spaceIndexType, PlatformLogicalVersion version) {
+        if (spaceIndexType == SpaceIndexType.BITMAP && !version.greaterThan(PlatformLogicalVersion.v16_4_0))
+            return EQAL_CODE;
+        return toCode(spaceIndexType);
+    }
+
     public static SpaceIndexType fromCode(byte code) {
         switch (code) {
             case NOT_SET_CODE:
@@ -59,6 +73,8 @@ public class SpaceIndexTypeHelper {
                 return SpaceIndexType.EQUAL_AND_ORDERED;
             case ORDERED_CODE:
                 return SpaceIndexType.ORDERED;
+            case BITMAP_CODE:
+                return SpaceIndexType.BITMAP;
             default:
                 throw new IllegalArgumentException("Unsupported space index type code: " + code);
         }
@@ -1026,6 +1026,7 @@ public class SpaceTypeInfo implements SmartExternalizable {
                 case ORDERED:
                 case EQUAL_AND_ORDERED:
                 case EXTENDED:
+                case BITMAP:
                     throw new SpaceMetadataException("Compound space id does not support index type " + indexType);
             }
         }
@@ -134,6 +134,7 @@ public abstract class AbstractQueryIndex implements IQueryIndexScanner {
                 context.getExplainPlanContext().setFatherNode(choiceNode);
             }
             int size;
+            int estimatedSize = -1;
             if (entriesByIndex == null){
                 size = 0;
             } else if (entriesByIndex instanceof IStoredList){
@@ -141,10 +142,13 @@ public abstract class AbstractQueryIndex implements IQueryIndexScanner {
             } else if (entriesByIndex instanceof IScanListIterator) {
                 IScanListIterator list = (IScanListIterator)entriesByIndex;
                 size = list.hasSize() ? list.size() : -1;
+                estimatedSize = list.getEstimatedSize();
             } else {
                 size = -1;
             }
             IndexInfo info = ExplainPlanUtil.createIndexInfo(this, index, typeData, size, true);
+            if (info != null && estimatedSize >= 0)
+                info.setEstimatedSize(estimatedSize);
             choiceNode.addOption(info);
             choiceNode.setChosen(info);
         }
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.query;
+
+import com.gigaspaces.internal.query.explainplan.ExplainPlanUtil;
+import com.gigaspaces.internal.query.explainplan.IndexChoiceNode;
+import com.gigaspaces.internal.query.explainplan.IndexInfo;
+import com.gigaspaces.internal.server.storage.ITemplateHolder;
+import com.gigaspaces.internal.utils.collections.CompressedBitmap;
+import com.j_spaces.core.cache.BitmapIndex;
+import com.j_spaces.core.cache.TypeData;
+import com.j_spaces.core.cache.TypeDataIndex;
+import com.j_spaces.core.cache.context.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates query index scanners over BITMAP indexes as bitmap operations: equality and IN
+ * conditions are mapped to the bitmaps of their values, AND/OR to intersection/union and NOT regex
+ * to a difference, so that the candidate entries of a compound condition are computed before any
+ * entry is touched. The result of an AND over a subset of its conditions is a superset of the
+ * matching entries, the entries are always matched against the template.
+ *
+ * @since 16.5
+ */
+final class BitmapIndexEvaluator {
+    private BitmapIndexEvaluator() {
+    }
+
+    /**
+     * @return the scanners which can be evaluated as bitmaps, null if evaluating them is not
+     * expected to be cheaper than scanning their index lists
+     */
+    static List<IQueryIndexScanner> getEvaluableScanners(List<IQueryIndexScanner> scanners, TypeData typeData,
+                                                         ITemplateHolder template, int latestIndexToConsider) {
+        if (!isApplicable(template))
+            return null;
+        List<IQueryIndexScanner> res = null;
+        for (IQueryIndexScanner scanner : scanners) {
+            if (!isEvaluable(scanner, typeData, latestIndexToConsider))
+                continue;
+            if (res == null)
+                res = new ArrayList<IQueryIndexScanner>(scanners.size());
+            res.add(scanner);
+        }
+        //a single equality is served as well by the hash store list of the value
+        if (res != null && res.size() == 1 && res.get(0) instanceof ExactValueIndexScanner)
+            return null;
+        return res;
+    }
+
+    /**
+     * @return true if all the scanners can be evaluated as bitmaps
+     */
+    static boolean isEvaluable(List<IQueryIndexScanner> scanners, TypeData typeData, ITemplateHolder template, int latestIndexToConsider) {
+        if (!isApplicable(template))
+            return false;
+        for (IQueryIndexScanner scanner : scanners)
+            if (!isEvaluable(scanner, typeData, latestIndexToConsider))
+                return false;
+        return true;
+    }
+
+    static CompressedBitmap and(List<IQueryIndexScanner> scanners, TypeData typeData, int latestIndexToConsider) {
+        CompressedBitmap res = null;
+        for (IQueryIndexScanner scanner : scanners) {
+            if (!isEvaluable(scanner, typeData, latestIndexToConsider))
+                continue;
+            CompressedBitmap bitmap = evaluate(scanner, typeData, latestIndexToConsider);
+            if (res == null)
+                res = bitmap;
+            else
+                res.and(bitmap);
+            if (res.isEmpty())
+                break;
+        }
+        return res;
+    }
+
+    static CompressedBitmap or(List<IQueryIndexScanner> scanners, TypeData typeData, int latestIndexToConsider) {
+        CompressedBitmap res = new CompressedBitmap();
+        for (IQueryIndexScanner scanner : scanners)
+            res.or(evaluate(scanner, typeData, latestIndexToConsider));
+        return res;
+    }
+
+    /**
+     * adds the evaluated scanners as the options of an explain plan choice node
+     */
+    static IndexInfo addExplainPlanOptions(IndexChoiceNode choiceNode, List<IQueryIndexScanner> scanners, TypeData typeData, int size) {
+        IndexInfo first = null;
+        for (IQueryIndexScanner scanner : scanners) {
+            if (!(scanner instanceof AbstractQueryIndex))
+                continue;
+            IndexInfo info = ExplainPlanUtil.createIndexInfo((AbstractQueryIndex) scanner, typeData.getIndex(scanner.getIndexName()), typeData, size, true);
+            choiceNode.addOption(info);
+            if (first == null)
+                first = info;
+        }
+        return first;
+    }
+
+    static void addChosenIndexes(Context context, List<IQueryIndexScanner> scanners) {
+        for (IQueryIndexScanner scanner : scanners)
+            if (scanner.isExtendsAbstractQueryIndex())
+                context.getIndexMetricsContext().addChosenIndex(scanner);
+    }
+
+    private static boolean isApplicable(ITemplateHolder template) {
+        //bitmap order is the ordinal order, not the fifo order
+        return !template.isFifoTemplate() && !template.isFifoGroupPoll();
+    }
+
+    private static boolean isEvaluable(IQueryIndexScanner scanner, TypeData typeData, int latestIndexToConsider) {
+        if (scanner instanceof ExactValueIndexScanner)
+            return ((ExactValueIndexScanner) scanner).hasIndexValue() && getBitmapIndex(scanner, typeData, latestIndexToConsider) != null;
+        if (scanner instanceof InValueIndexScanner) {
+            Set<Object> values = ((InValueIndexScanner) scanner).get_indexInValueSet();
+            //null values are not kept in bitmaps
+            return !values.isEmpty() && !values.contains(null) && getBitmapIndex(scanner, typeData, latestIndexToConsider) != null;
+        }
+        if (scanner instanceof NotRegexIndexScanner)
+            return getBitmapIndex(scanner, typeData, latestIndexToConsider) != null;
+        if (scanner instanceof CompoundAndIndexScanner) {
+            for (IQueryIndexScanner child : ((CompoundAndIndexScanner) scanner).getIndexScanners())
+                if (isEvaluable(child, typeData, latestIndexToConsider))
+                    return true;
+            return false;
+        }
+        if (scanner instanceof CompoundOrIndexScanner) {
+            for (IQueryIndexScanner child : ((CompoundOrIndexScanner) scanner).getIndexScanners())
+                if (!isEvaluable(child, typeData, latestIndexToConsider))
+                    return false;
+            return true;
+        }
+        return false;
+    }
+
+    private static CompressedBitmap evaluate(IQueryIndexScanner scanner, TypeData typeData, int latestIndexToConsider) {
+        if (scanner instanceof CompoundAndIndexScanner)
+            return and(((CompoundAndIndexScanner) scanner).getIndexScanners(), typeData, latestIndexToConsider);
+        if (scanner instanceof CompoundOrIndexScanner)
+            return or(((CompoundOrIndexScanner) scanner).getIndexScanners(), typeData, latestIndexToConsider);
+
+        TypeDataIndex<Object> index = (TypeDataIndex<Object>) typeData.getIndex(scanner.getIndexName());
+        BitmapIndex bitmapIndex = index.getBitmapIndex();
+        if (scanner instanceof ExactValueIndexScanner) {
+            Object value = convert(scanner.getIndexValue(), index);
+            return value != null ? bitmapIndex.getEntries(value) : new CompressedBitmap();
+        }
+        if (scanner instanceof InValueIndexScanner) {
+            CompressedBitmap res = new CompressedBitmap();
+            for (Object value : ((InValueIndexScanner) scanner).get_indexInValueSet()) {
+                value = convert(value, index);
+                if (value != null)
+                    bitmapIndex.or(value, res);
+            }
+            return res;
+        }
+        //not regex- all the non null values but the matching ones
+        Pattern pattern = index.getCacheManager().getEngine().getTemplateScanner().getRegexCache().getPattern(((NotRegexIndexScanner) scanner).getRegex());
+        return notMatching(bitmapIndex, pattern);
+    }
+
+    /**
+     * @return the entries holding a non null value which does not match the pattern, values of any
+     * type are matched by their string form, as {@link NotRegexIndexScanner} matches them
+     */
+    static CompressedBitmap notMatching(BitmapIndex bitmapIndex, Pattern pattern) {
+        CompressedBitmap matching = new CompressedBitmap();
+        for (Object value : bitmapIndex.getValues())
+            if (pattern.matcher(value.toString()).matches())
+                bitmapIndex.or(value, matching);
+        CompressedBitmap res = bitmapIndex.getNonNullEntries();
+        res.andNot(matching);
+        return res;
+    }
+
+    private static Object convert(Object value, TypeDataIndex<Object> index) {
+        ConvertedObjectWrapper wrapper = ConvertedObjectWrapper.create(value, index.getValueType());
+        return wrapper != null ? wrapper.getValue() : null;
+    }
+
+    private static BitmapIndex getBitmapIndex(IQueryIndexScanner scanner, TypeData typeData, int latestIndexToConsider) {
+        TypeDataIndex<?> index = typeData.getIndex(scanner.getIndexName());
+        if (index == null || index.getBitmapIndex() == null || latestIndexToConsider < index.getIndexCreationNumber()
+                || typeData.disableIdIndexForEntries(index))
+            return null;
+        return index.getBitmapIndex();
+    }
+}
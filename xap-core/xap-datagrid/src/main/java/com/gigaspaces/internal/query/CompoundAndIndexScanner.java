@@ -20,7 +20,9 @@ import com.gigaspaces.internal.query.explainplan.IndexChoiceNode;
 import com.gigaspaces.internal.query.explainplan.IndexInfo;
 import com.gigaspaces.internal.query.explainplan.UnionIndexInfo;
 import com.gigaspaces.internal.server.storage.ITemplateHolder;
+import com.gigaspaces.internal.utils.collections.CompressedBitmap;
 import com.j_spaces.core.cache.IEntryCacheInfo;
+import com.j_spaces.core.cache.IndexCostModel;
 import com.j_spaces.core.cache.TypeData;
 import com.j_spaces.core.cache.TypeDataIndex;
 import com.j_spaces.core.cache.context.Context;
@@ -28,6 +30,7 @@ import com.j_spaces.kernel.IStoredList;
 import com.j_spaces.kernel.list.IObjectsList;
 import com.j_spaces.kernel.list.IScanListIterator;
 import com.j_spaces.kernel.list.MultiIntersectedStoredList;
+import com.j_spaces.kernel.list.ScanBitmapIterator;
 import com.j_spaces.kernel.list.ScanUidsIterator;
 
 import java.util.List;
@@ -85,6 +88,7 @@ public class CompoundAndIndexScanner extends AbstractCompoundIndexScanner {
         IndexChoiceNode fatherNode = null;
         IndexChoiceNode choiceNode = null;
         IQueryIndexScanner shortestIndex = null;
+        IQueryIndexScanner shortestExtendedIndex = null;
         final boolean isExplainPlan = context.getExplainPlanContext() != null;
         final boolean trackIndexHits = context.getIndexMetricsContext() != null;
         if(isExplainPlan){
@@ -93,8 +97,28 @@ public class CompoundAndIndexScanner extends AbstractCompoundIndexScanner {
             context.getExplainPlanContext().getSingleExplainPlan().addScanIndexChoiceNode(typeData.getClassName(), choiceNode);
         }
 
+        // conditions over bitmap indexes are intersected as bitmaps, before any entry is touched
+        final List<IQueryIndexScanner> bitmapScanners = BitmapIndexEvaluator.getEvaluableScanners(indexScanners, typeData, template, latestIndexToConsider);
+        ScanBitmapIterator bitmapMatch = null;
+        if (bitmapScanners != null) {
+            CompressedBitmap bitmap = BitmapIndexEvaluator.and(bitmapScanners, typeData, latestIndexToConsider);
+            if (isExplainPlan) {
+                IndexInfo info = BitmapIndexEvaluator.addExplainPlanOptions(choiceNode, bitmapScanners, typeData, bitmap.cardinality());
+                if (bitmap.isEmpty() && info != null) {
+                    choiceNode.setChosen(info);
+                    fatherNode.addOption(info);
+                }
+            }
+            if (bitmap.isEmpty())
+                return IQueryIndexScanner.RESULT_NO_MATCH;
+            bitmapMatch = new ScanBitmapIterator(typeData.getEntryOrdinals(), bitmap);
+            context.setBlobStoreUsePureIndexesAccess(false);
+        }
+
         // Iterate over custom indexes to find shortest potential match list:
         for (IQueryIndexScanner queryIndex : indexScanners) {
+            if (bitmapScanners != null && bitmapScanners.contains(queryIndex))
+                continue;
             // Get entries in space that match the indexed value in the query (a.k.a potential match list):
             IObjectsList result;
 
@@ -136,8 +160,10 @@ public class CompoundAndIndexScanner extends AbstractCompoundIndexScanner {
                 if (context.isIndicesIntersectionEnabled())
                     intersectedList = addToIntersectedList(context, intersectedList, result, template.isFifoTemplate(), false/*shortest*/, typeData);
 
-                if (!wasUids) {
+                //keep the range scan expected to return less entries, otherwise the last one
+                if (!wasUids && (shortestExtendedIndexMatch == null || !IndexCostModel.isCheaper(shortestExtendedIndexMatch, (IScanListIterator<IEntryCacheInfo>) result))) {
                     shortestExtendedIndexMatch = (IScanListIterator<IEntryCacheInfo>) result;
+                    shortestExtendedIndex = queryIndex;
                     if (isExplainPlan || trackIndexHits) {
                         shortestIndex = queryIndex;
                     }
@@ -169,7 +195,34 @@ public class CompoundAndIndexScanner extends AbstractCompoundIndexScanner {
 
         }
 
-        if (shortestPotentialMatchList != null && (uidsSize == Integer.MAX_VALUE || shortestPotentialMatchList.size() <= uidsSize)) {
+        if (bitmapMatch != null && uidsIter == null) {
+            if (shortestPotentialMatchList == null || bitmapMatch.size() < shortestPotentialMatchList.size()) {
+                if (context.isIndicesIntersectionEnabled()) {
+                    intersectedList = addToIntersectedList(context, intersectedList, bitmapMatch, template.isFifoTemplate(), true/*shortest*/, typeData);
+                    return intersectedList;
+                }
+
+                if (isExplainPlan) {
+                    IndexInfo chosen = choiceNode.getOptionByName(bitmapScanners.get(0).getIndexName());
+                    if (chosen != null) {
+                        choiceNode.setChosen(chosen);
+                        fatherNode.addOption(chosen);
+                    }
+                }
+
+                if (trackIndexHits)
+                    BitmapIndexEvaluator.addChosenIndexes(context, bitmapScanners);
+
+                return bitmapMatch;
+            }
+            if (context.isIndicesIntersectionEnabled())
+                intersectedList = addToIntersectedList(context, intersectedList, bitmapMatch, template.isFifoTemplate(), false/*shortest*/, typeData);
+        }
+
+        // a range scan estimated to return less entries than the shortest list is scanned instead
+        final boolean preferExtendedIndexMatch = uidsIter == null && shortestPotentialMatchList != null
+                && IndexCostModel.isCheaper(shortestExtendedIndexMatch, shortestPotentialMatchList.size());
+        if (shortestPotentialMatchList != null && !preferExtendedIndexMatch && (uidsSize == Integer.MAX_VALUE || shortestPotentialMatchList.size() <= uidsSize)) {
             if (context.isIndicesIntersectionEnabled()) {
                 intersectedList = addToIntersectedList(context, intersectedList, shortestPotentialMatchList, template.isFifoTemplate(), true/*shortest*/, typeData);
                 if (shortestExtendedIndexMatch != null)
@@ -195,11 +248,11 @@ public class CompoundAndIndexScanner extends AbstractCompoundIndexScanner {
             }
 
             if (isExplainPlan){
-                addChosenIndex(context, typeData, fatherNode, choiceNode, shortestIndex != null ? shortestIndex.getIndexName() : null);
+                addChosenIndex(context, typeData, fatherNode, choiceNode, shortestExtendedIndex != null ? shortestExtendedIndex.getIndexName() : null);
             }
 
-            if (trackIndexHits && shortestIndex != null) {
-                context.getIndexMetricsContext().addChosenIndex(shortestIndex);
+            if (trackIndexHits && shortestExtendedIndex != null) {
+                context.getIndexMetricsContext().addChosenIndex(shortestExtendedIndex);
             }
 
             return shortestExtendedIndexMatch;
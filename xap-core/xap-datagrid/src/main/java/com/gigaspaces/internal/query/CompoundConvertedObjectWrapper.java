@@ -90,6 +90,40 @@ public class CompoundConvertedObjectWrapper {
         }
     }
 
+    /**
+     * creates a bound of a range scan over the values which start with the given prefix. the
+     * segment following the prefix is bounded by edgeValue, or unbounded if it is null, and the
+     * trailing segments are filled with edges so that the bound includes or excludes all the
+     * values sharing the edge value
+     *
+     * @since 16.5
+     */
+    public static CompoundConvertedObjectWrapper createForPrefixRange(Object[] prefixValues, Object edgeValue, TypeDataIndex<Object> index, boolean isMin, boolean includeEdge) {
+        try {
+            CompoundIndexSegmentTypeData[] segments = index.getCompoundIndexSegments();
+            Object[] convertedSegments = new Object[segments.length];
+            for (int i = 0; i < prefixValues.length; i++) {
+                convertedSegments[i] = CompoundConvertedObjectWrapper.convertSegmentValue(prefixValues[i], segments[i]);
+                if (convertedSegments[i] == null)
+                    return null;
+            }
+            int rangeSegment = prefixValues.length;
+            if (edgeValue != null) {
+                convertedSegments[rangeSegment] = CompoundConvertedObjectWrapper.convertSegmentValue(edgeValue, segments[rangeSegment]);
+                if (convertedSegments[rangeSegment] == null)
+                    return null;
+            } else
+                convertedSegments[rangeSegment] = isMin ? CompoundCustomTypeDataIndex._lowEdge : CompoundCustomTypeDataIndex._highEdge;
+            Object fill = isMin == includeEdge ? CompoundCustomTypeDataIndex._lowEdge : CompoundCustomTypeDataIndex._highEdge;
+            for (int i = rangeSegment + 1; i < segments.length; i++)
+                convertedSegments[i] = fill;
+            return new CompoundConvertedObjectWrapper(new CompoundIndexValueHolder(convertedSegments));
+
+        } catch (SQLException e) {
+            throw new InternalSpaceException(e.getMessage(), e);
+        }
+    }
+
 
     private static Object convertSegmentValue(Object value, CompoundIndexSegmentTypeData segment)
             throws SQLException {
@@ -21,12 +21,14 @@ import com.gigaspaces.internal.query.explainplan.IndexChoiceNode;
 import com.gigaspaces.internal.query.explainplan.IndexInfo;
 import com.gigaspaces.internal.query.explainplan.UnionIndexInfo;
 import com.gigaspaces.internal.server.storage.ITemplateHolder;
+import com.gigaspaces.internal.utils.collections.CompressedBitmap;
 import com.j_spaces.core.cache.IEntryCacheInfo;
 import com.j_spaces.core.cache.TypeData;
 import com.j_spaces.core.cache.TypeDataIndex;
 import com.j_spaces.core.cache.context.Context;
 import com.j_spaces.kernel.list.IObjectsList;
 import com.j_spaces.kernel.list.MultiStoredList;
+import com.j_spaces.kernel.list.ScanBitmapIterator;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -89,6 +91,20 @@ public class CompoundOrIndexScanner extends AbstractCompoundIndexScanner
             explainPlanContext.setFatherNode(choiceNode);
         }
 
+        // conditions all over bitmap indexes- union as bitmaps, free of duplicates
+        if (BitmapIndexEvaluator.isEvaluable(indexScanners, typeData, template, latestIndexToConsider)) {
+            CompressedBitmap bitmap = BitmapIndexEvaluator.or(indexScanners, typeData, latestIndexToConsider);
+            if (choiceNode != null) {
+                BitmapIndexEvaluator.addExplainPlanOptions(choiceNode, indexScanners, typeData, bitmap.cardinality());
+                if (!choiceNode.getOptions().isEmpty())
+                    choiceNode.setChosen(new UnionIndexInfo(choiceNode.getOptions()));
+            }
+            if (context.getIndexMetricsContext() != null)
+                BitmapIndexEvaluator.addChosenIndexes(context, indexScanners);
+            context.setBlobStoreUsePureIndexesAccess(false);
+            return new ScanBitmapIterator(typeData.getEntryOrdinals(), bitmap);
+        }
+
         for (IQueryIndexScanner indexScanner : indexScanners) {
             IObjectsList indexResult = indexScanner.getIndexedEntriesByType(context, typeData, template, latestIndexToConsider);
 
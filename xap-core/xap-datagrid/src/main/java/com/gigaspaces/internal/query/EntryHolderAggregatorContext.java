@@ -20,11 +20,14 @@ import com.gigaspaces.internal.server.storage.IEntryData;
 import com.gigaspaces.internal.server.storage.ITemplateHolder;
 import com.gigaspaces.internal.transport.EntryPacketFactory;
 import com.gigaspaces.internal.transport.IEntryPacket;
+import com.gigaspaces.query.aggregators.ColumnarAggregator;
+import com.gigaspaces.query.aggregators.OrderByAggregator;
 import com.gigaspaces.query.aggregators.SpaceEntriesAggregator;
 import com.gigaspaces.query.aggregators.SpaceEntriesAggregatorContext;
 import com.gigaspaces.server.ServerEntry;
 import com.j_spaces.core.cache.context.Context;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -39,6 +42,8 @@ public class EntryHolderAggregatorContext extends SpaceEntriesAggregatorContext
     private IEntryData entryData;
     private String uid;
     private boolean isTransient;
+    private ColumnarAggregator columnarAggregator;
+    private OrderByAggregator sortedScanAggregator;
 
     public EntryHolderAggregatorContext(List<SpaceEntriesAggregator> aggregators, ITemplateHolder template,
                                         int partitionId) {
@@ -47,13 +52,71 @@ public class EntryHolderAggregatorContext extends SpaceEntriesAggregatorContext
         this.partitionId = partitionId;
     }
 
+    /**
+     * Aggregates the scanned entries by columns when all the aggregators support it, in which case
+     * {@link #flush()} must be called once the scan is over.
+     *
+     * @since 16.5
+     */
+    public void enableColumnarAggregation() {
+        columnarAggregator = ColumnarAggregator.createIfSupported(getAggregators());
+    }
+
     public void scan(Context context, IEntryData entryData, String uid, boolean isTransient) {
+        if (columnarAggregator != null && columnarAggregator.aggregate(entryData))
+            return;
         this.entryData = context.getViewEntryData(entryData);
         this.uid = uid;
         this.isTransient = isTransient;
         aggregate();
     }
 
+    /**
+     * Adds the entries aggregated by columns which were not added to the aggregators yet.
+     *
+     * @since 16.5
+     */
+    public void flush() {
+        if (columnarAggregator != null)
+            columnarAggregator.flush();
+    }
+
+    /**
+     * Notifies that the entries scanned from now on are ascending by the given path, so that a
+     * single limited order by aggregator can tell when the scan can stop.
+     *
+     * @return true if {@link #isSortedScanSaturated()} should be checked during the scan
+     * @since 16.5
+     */
+    public boolean beginSortedScan(String path) {
+        Collection<SpaceEntriesAggregator> aggregators = getAggregators();
+        if (aggregators.size() != 1 || !(aggregators.iterator().next() instanceof OrderByAggregator))
+            return false;
+        OrderByAggregator aggregator = (OrderByAggregator) aggregators.iterator().next();
+        if (!aggregator.beginSortedScan(path))
+            return false;
+        sortedScanAggregator = aggregator;
+        return true;
+    }
+
+    /**
+     * @return true if the rest of the sorted scan can't change the aggregation result
+     * @since 16.5
+     */
+    public boolean isSortedScanSaturated() {
+        return sortedScanAggregator != null && sortedScanAggregator.isSortedScanSaturated();
+    }
+
+    /**
+     * @since 16.5
+     */
+    public void endSortedScan() {
+        if (sortedScanAggregator != null) {
+            sortedScanAggregator.endSortedScan();
+            sortedScanAggregator = null;
+        }
+    }
+
     @Override
     public int getPartitionId() {
         return partitionId;
@@ -88,7 +88,8 @@ public class NotRegexIndexScanner extends AbstractQueryIndex {
         for (Object indexValue : indexes) {
 
             IStoredList<IEntryCacheInfo> matchingEntries = null;
-            Matcher m = pattern.matcher((String) indexValue);
+            // same as the range evaluation, values of other types are matched by their string form
+            Matcher m = pattern.matcher(indexValue.toString());
             if (m.matches())
                 continue;
             matchingEntries = index.getIndexEntries(indexValue);
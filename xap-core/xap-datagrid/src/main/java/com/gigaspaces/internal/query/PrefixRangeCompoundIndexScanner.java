@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.query;
+
+import com.gigaspaces.internal.io.IOUtils;
+import com.j_spaces.core.cache.ExtendedIndexIterator;
+import com.j_spaces.core.cache.TypeData;
+import com.j_spaces.core.cache.TypeDataIndex;
+import com.j_spaces.core.cache.context.Context;
+import com.j_spaces.core.client.TemplateMatchCodes;
+import com.j_spaces.jdbc.builder.range.EqualValueRange;
+import com.j_spaces.jdbc.builder.range.Range;
+import com.j_spaces.jdbc.builder.range.SegmentRange;
+import com.j_spaces.kernel.list.IObjectsList;
+import com.j_spaces.kernel.list.IScanListIterator;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.List;
+
+/**
+ * Scans an ordered compound index for the values whose leading segments equal the given prefix and
+ * whose next segment is in the given range, e.g. <code>customerId = ? AND timestamp BETWEEN ? AND
+ * ?</code> over a compound index of (customerId, timestamp). The values form a single contiguous
+ * key range of the index, so the entries are returned ascending by the range segment.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class PrefixRangeCompoundIndexScanner extends AbstractQueryIndex {
+    private static final long serialVersionUID = 1L;
+
+    private Object[] _prefix;
+    private Comparable<?> _min;
+    private boolean _includeMin;
+    private Comparable<?> _max;
+    private boolean _includeMax;
+
+    private transient CompoundConvertedObjectWrapper _convertedMinWrapper;
+    private transient CompoundConvertedObjectWrapper _convertedMaxWrapper;
+
+    public PrefixRangeCompoundIndexScanner() {
+        super();
+    }
+
+    public PrefixRangeCompoundIndexScanner(String indexName, Object[] prefix, Comparable<?> min, boolean includeMin,
+                                           Comparable<?> max, boolean includeMax) {
+        super(indexName);
+        _prefix = prefix;
+        _min = min;
+        _includeMin = includeMin;
+        _max = max;
+        _includeMax = includeMax;
+    }
+
+    @Override
+    protected IObjectsList getEntriesByIndex(Context context, TypeData typeData, TypeDataIndex<Object> index, boolean fifoGroupsScan) {
+        if (_prefix.length >= index.getCompoundIndexSegments().length)
+            return IQueryIndexScanner.RESULT_IGNORE_INDEX;
+        if (_convertedMinWrapper == null)
+            _convertedMinWrapper = CompoundConvertedObjectWrapper.createForPrefixRange(_prefix, _min, index, true /*isMin*/, _includeMin || _min == null);
+        if (_convertedMinWrapper == null)
+            return null;
+
+        if (_convertedMaxWrapper == null)
+            _convertedMaxWrapper = CompoundConvertedObjectWrapper.createForPrefixRange(_prefix, _max, index, false /*isMin*/, _includeMax || _max == null);
+        if (_convertedMaxWrapper == null)
+            return null;
+
+        Comparable min = (Comparable) _convertedMinWrapper.getValue();
+        Object max = _convertedMaxWrapper.getValue();
+        if (min.compareTo(max) > 0)
+            return null; //empty range
+
+        short minMatchCode = _includeMin || _min == null ? TemplateMatchCodes.GE : TemplateMatchCodes.GT;
+        boolean includeMax = _includeMax || _max == null;
+        if (fifoGroupsScan)
+            return index.getExtendedFifoGroupsIndexForScanning().establishScan(min, minMatchCode, max, includeMax);
+
+        IScanListIterator<?> res = index.getExtendedIndexForScanning().establishScan(min, minMatchCode, max, includeMax, true /*ordered*/);
+        if (res instanceof ExtendedIndexIterator)
+            ((ExtendedIndexIterator<?>) res).setOrderedByPath(index.getCompoundIndexSegments()[_prefix.length].getDefinitionSegment().getName());
+        return res;
+    }
+
+    @Override
+    protected boolean hasIndexValue() {
+        return _prefix != null;
+    }
+
+    public Object getIndexValue() {
+        return _prefix;
+    }
+
+    public boolean requiresOrderedIndex() {
+        return true;
+    }
+
+    public boolean supportsTemplateIndex() {
+        return false;
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        super.readExternal(in);
+
+        _prefix = IOUtils.readObjectArray(in);
+        _min = IOUtils.readObject(in);
+        _includeMin = in.readBoolean();
+        _max = IOUtils.readObject(in);
+        _includeMax = in.readBoolean();
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        super.writeExternal(out);
+
+        IOUtils.writeObjectArray(out, _prefix);
+        IOUtils.writeObject(out, _min);
+        out.writeBoolean(_includeMin);
+        IOUtils.writeObject(out, _max);
+        out.writeBoolean(_includeMax);
+    }
+
+    /**
+     * builds a scanner out of the ranges of the leading segments of a compound index- equality
+     * ranges of all the segments but the last, and a range of the last one
+     *
+     * @return the scanner, null if the ranges are not of that shape
+     */
+    public static PrefixRangeCompoundIndexScanner build(String name, List<Range> possibleSegments) {
+        int rangeSegment = possibleSegments.size() - 1;
+        if (rangeSegment < 1 || !possibleSegments.get(rangeSegment).isSegmentRange())
+            return null;
+        Object[] prefix = new Object[rangeSegment];
+        for (int i = 0; i < rangeSegment; i++) {
+            if (!possibleSegments.get(i).isEqualValueRange())
+                return null;
+            prefix[i] = ((EqualValueRange) possibleSegments.get(i)).getValue();
+            if (prefix[i] == null)
+                return null;   //null segment not supported
+        }
+        SegmentRange range = (SegmentRange) possibleSegments.get(rangeSegment);
+        if (range.getMin() == null && range.getMax() == null)
+            return null;
+        return new PrefixRangeCompoundIndexScanner(name, prefix, range.getMin(), range.isIncludeMin(), range.getMax(), range.isIncludeMax());
+    }
+}
@@ -94,6 +94,7 @@ public class BetweenIndexInfo extends IndexInfo {
         objectOutput.writeObject(max);
         objectOutput.writeBoolean(includeMax);
         objectOutput.writeBoolean(isUsable());
+        objectOutput.writeObject(getEstimatedSize());
     }
 
     @Override
@@ -107,6 +108,7 @@ public class BetweenIndexInfo extends IndexInfo {
         max = (Comparable) objectInput.readObject();
         includeMax = objectInput.readBoolean();
         setUsable(objectInput.readBoolean());
+        setEstimatedSize((Integer) objectInput.readObject());
     }
 
 
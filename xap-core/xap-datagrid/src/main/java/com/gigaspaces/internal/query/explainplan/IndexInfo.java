@@ -38,6 +38,7 @@ public class IndexInfo implements Externalizable {
     private Object value;
     private QueryOperator operator;
     private boolean usable;
+    private Integer estimatedSize;
 
     public IndexInfo() {
     }
@@ -87,13 +88,28 @@ public class IndexInfo implements Externalizable {
     }
 
     protected String getSizeDesc() {
-        return  size == null || size == -1 ? "unknown" : String.valueOf(size);
+        if (size == null || size == -1)
+            return estimatedSize == null || estimatedSize == -1 ? "unknown" : "~" + estimatedSize;
+        return String.valueOf(size);
     }
 
     public void setSize(Integer size) {
         this.size = size;
     }
 
+    /**
+     * @return the number of matching entries estimated from the index statistics when the size is
+     * not known in advance (range scans), null if not estimated
+     * @since 16.5
+     */
+    public Integer getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    public void setEstimatedSize(Integer estimatedSize) {
+        this.estimatedSize = estimatedSize;
+    }
+
     public void setType(SpaceIndexType type) {
         this.type = type;
     }
@@ -126,6 +142,7 @@ public class IndexInfo implements Externalizable {
         objectOutput.writeObject(this.value);
         objectOutput.writeObject(this.operator);
         objectOutput.writeBoolean(this.usable);
+        objectOutput.writeObject(this.estimatedSize);
     }
 
     @Override
@@ -136,6 +153,7 @@ public class IndexInfo implements Externalizable {
         this.value = objectInput.readObject();
         this.operator = (QueryOperator) objectInput.readObject();
         this.usable = objectInput.readBoolean();
+        this.estimatedSize = (Integer) objectInput.readObject();
     }
 
     @Override
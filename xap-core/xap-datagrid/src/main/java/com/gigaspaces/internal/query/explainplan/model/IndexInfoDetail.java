@@ -23,6 +23,7 @@ public class IndexInfoDetail {
     private Object value;
     private QueryOperator operator;
     private SpaceIndexType type;
+    private Integer estimatedSize;
 
 
     public IndexInfoDetail(Integer id, IndexInfo option) {
@@ -32,6 +33,7 @@ public class IndexInfoDetail {
         operator = option.getOperator();
         size = option.getSize();
         type = option.getType();
+        estimatedSize = option.getEstimatedSize();
     }
 
     public Integer getId() {
@@ -74,6 +76,14 @@ public class IndexInfoDetail {
         this.size = size;
     }
 
+    public Integer getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    public void setEstimatedSize(Integer estimatedSize) {
+        this.estimatedSize = estimatedSize;
+    }
+
     public SpaceIndexType getType() {
         return type;
     }
@@ -138,6 +148,8 @@ public class IndexInfoDetail {
     }
 
     protected String getSizeDesc() {
-        return size == null || size == -1 ? "unknown" : String.valueOf(size);
+        if (size == null || size == -1)
+            return estimatedSize == null || estimatedSize == -1 ? "unknown" : "~" + estimatedSize;
+        return String.valueOf(size);
     }
 }
@@ -20,6 +20,7 @@ import com.gigaspaces.async.AsyncFutureListener;
 import com.gigaspaces.internal.quiesce.QuiesceTokenProvider;
 import com.gigaspaces.internal.remoting.RemoteOperationRequest;
 import com.gigaspaces.internal.remoting.RemoteOperationResult;
+import com.gigaspaces.internal.lrmi.LRMILatencyMonitor;
 import com.gigaspaces.internal.remoting.RemoteOperationsExecutor;
 import com.gigaspaces.lrmi.ILRMIProxy;
 import com.gigaspaces.lrmi.LRMIInvocationContext;
@@ -59,7 +60,14 @@ public class RemoteOperationsExecutorProxy {
             LRMIInvocationContext.enableCustomPriorityForNextInvocation();
         if (request.isDirectExecutionEnabled())
             LRMIInvocationContext.enableDirectPriorityForNextInvocation();
-        return _executor.executeOperation(request);
+        if (!LRMILatencyMonitor.isEnabled())
+            return _executor.executeOperation(request);
+        final long startTime = System.nanoTime();
+        try {
+            return _executor.executeOperation(request);
+        } finally {
+            LRMILatencyMonitor.recordSpaceOperationRoundTrip(request.getOperationCode(), System.nanoTime() - startTime);
+        }
     }
 
     public <T extends RemoteOperationResult> void executeAsync(RemoteOperationRequest<T> request, AsyncFutureListener<T> listener)
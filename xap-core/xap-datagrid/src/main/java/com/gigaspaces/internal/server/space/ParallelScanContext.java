@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space;
+
+import com.gigaspaces.internal.io.IOUtils;
+import com.gigaspaces.internal.transport.ITemplatePacket;
+import com.gigaspaces.query.aggregators.SpaceEntriesAggregator;
+
+import java.util.List;
+
+/**
+ * Holds what is needed in order to scan the entries of a read multiple or aggregate operation
+ * concurrently, attached to the operation template when the operation is eligible for a parallel
+ * scan.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ParallelScanContext {
+    private final ITemplatePacket _templatePacket;
+    //the aggregators as received, before any entry was aggregated
+    private final byte[] _serializedAggregators;
+
+    public ParallelScanContext(ITemplatePacket templatePacket, byte[] serializedAggregators) {
+        _templatePacket = templatePacket;
+        _serializedAggregators = serializedAggregators;
+    }
+
+    public ITemplatePacket getTemplatePacket() {
+        return _templatePacket;
+    }
+
+    public boolean isAggregation() {
+        return _serializedAggregators != null;
+    }
+
+    /**
+     * @return a new copy of the aggregators in their initial state, or null if this is not an
+     * aggregate operation
+     */
+    @SuppressWarnings("unchecked")
+    public List<SpaceEntriesAggregator> createAggregators() throws Exception {
+        return (List<SpaceEntriesAggregator>) IOUtils.objectFromByteBuffer(_serializedAggregators);
+    }
+}
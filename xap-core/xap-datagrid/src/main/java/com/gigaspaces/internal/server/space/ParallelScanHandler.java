@@ -0,0 +1,497 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space;
+
+import com.gigaspaces.client.iterator.internal.SpaceIteratorAggregator;
+import com.gigaspaces.internal.io.IOUtils;
+import com.gigaspaces.internal.query.EntryHolderAggregatorContext;
+import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
+import com.gigaspaces.internal.server.storage.ITemplateHolder;
+import com.gigaspaces.internal.server.storage.TemplateHolderFactory;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.gigaspaces.internal.transport.ITemplatePacket;
+import com.gigaspaces.query.aggregators.AggregationInternalUtils;
+import com.gigaspaces.query.aggregators.DistinctAggregator;
+import com.gigaspaces.query.aggregators.GroupByAggregator;
+import com.gigaspaces.query.aggregators.OrderByAggregator;
+import com.gigaspaces.query.aggregators.SpaceEntriesAggregator;
+import com.gigaspaces.time.SystemTime;
+import com.j_spaces.core.AnswerHolder;
+import com.j_spaces.core.SpaceOperations;
+import com.j_spaces.core.TemplateDeletedException;
+import com.j_spaces.core.cache.CacheManager;
+import com.j_spaces.core.cache.ExtendedIndexIterator;
+import com.j_spaces.core.cache.IEntryCacheInfo;
+import com.j_spaces.core.cache.context.Context;
+import com.j_spaces.core.client.Modifiers;
+import com.j_spaces.core.filters.FilterOperationCodes;
+import com.j_spaces.core.sadapter.SAException;
+import com.j_spaces.kernel.list.IScanListIterator;
+import net.jini.core.transaction.TransactionException;
+import org.slf4j.Logger;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Scans the entries of a type concurrently for large read multiple and aggregate operations. The
+ * operation thread iterates the scanned list and hands out chunks of entries to lanes running on
+ * a fork-join pool owned by the space, each lane matching and reading its entries through its own
+ * template with the regular locking logic. Aggregations are performed on a private copy of the
+ * aggregators per lane and merged into the operation aggregators, read results are merged into the
+ * operation batch context.
+ *
+ * Only non-transactional non-blocking reads of an all-in-cache space are scanned in parallel, and
+ * the number of concurrent parallel scans is capped so a few large queries cannot take over the
+ * space - an operation which cannot get a permit is scanned by its own thread.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ParallelScanHandler {
+    private static final int CHUNK_SIZE = 1024;
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    private final SpaceEngine _engine;
+    private final CacheManager _cacheManager;
+    private final Logger _logger;
+    private final int _parallelism;
+    private final int _minEntries;
+    private final boolean _checkResultsSize;
+    private final Semaphore _concurrentScans;
+    private final ForkJoinPool _pool;
+
+    public ParallelScanHandler(SpaceEngine engine, int threads, int maxConcurrentScans, int minEntries,
+                               boolean checkResultsSize, Logger logger) {
+        _engine = engine;
+        _cacheManager = engine.getCacheManager();
+        _logger = logger;
+        _parallelism = threads > 0 ? threads : Math.max(2, Runtime.getRuntime().availableProcessors() / 4);
+        _minEntries = minEntries;
+        _checkResultsSize = checkResultsSize;
+        _concurrentScans = new Semaphore(Math.max(1, maxConcurrentScans));
+        final String threadsName = engine.getFullSpaceName() + "-ParallelScan-";
+        _pool = new ForkJoinPool(_parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(threadsName + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    public int getParallelism() {
+        return _parallelism;
+    }
+
+    public void close() {
+        _pool.shutdownNow();
+    }
+
+    /**
+     * @return a parallel scan context for the operation, or null if it should be scanned by the
+     * operation thread
+     */
+    public ParallelScanContext createContextIfEligible(ITemplateHolder template, ITemplatePacket templatePacket,
+                                                       List<SpaceEntriesAggregator> aggregators) {
+        if (!isEligible(template, aggregators))
+            return null;
+        byte[] serializedAggregators = null;
+        if (aggregators != null) {
+            try {
+                serializedAggregators = IOUtils.objectToByteBuffer(aggregators);
+            } catch (Exception e) {
+                if (_logger.isDebugEnabled())
+                    _logger.debug("Aggregators cannot be copied, scanning sequentially", e);
+                return null;
+            }
+        }
+        return new ParallelScanContext(templatePacket, serializedAggregators);
+    }
+
+    private boolean isEligible(ITemplateHolder template, List<SpaceEntriesAggregator> aggregators) {
+        if (!_cacheManager.isAllInCachePolicy() || _engine.isMvccEnabled())
+            return false;
+        if (template.getTemplateOperation() != SpaceOperations.READ || !template.isNonBlockingRead()
+                || template.getXidOriginated() != null || template.getUID() != null)
+            return false;
+        if (template.isFifoSearch() || template.isFifoGroupPoll() || template.isServerIterator()
+                || template.getUidToOperateBy() != null || template.getMultipleUids() != null
+                || Modifiers.contains(template.getOperationModifiers(), Modifiers.EXPLAIN_PLAN))
+            return false;
+        //filters may modify the operation template
+        if (_engine.getFilterManager()._isFilter[FilterOperationCodes.BEFORE_READ_MULTIPLE])
+            return false;
+        Class<?> batchContextClass = template.getBatchOperationContext().getClass();
+        if (aggregators != null)
+            return batchContextClass == AggregateOperationContext.class && isMergeable(aggregators);
+        return batchContextClass == ReadMultipleContext.class && !_checkResultsSize;
+    }
+
+    /**
+     * @return true if the aggregators are known to merge intermediate results of disjoint entries
+     * correctly
+     */
+    static boolean isMergeable(List<SpaceEntriesAggregator> aggregators) {
+        for (SpaceEntriesAggregator aggregator : aggregators) {
+            if (aggregator instanceof GroupByAggregator) {
+                if (!isMergeable(AggregationInternalUtils.getSelectors((GroupByAggregator) aggregator)))
+                    return false;
+            } else if (aggregator.getClass() != OrderByAggregator.class && aggregator.getClass() != DistinctAggregator.class) {
+                if (aggregator instanceof SpaceIteratorAggregator
+                        || AggregationInternalUtils.containsCustomAggregators(Collections.singletonList(aggregator)))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isParallelScanRequired(ITemplateHolder template, IScanListIterator<IEntryCacheInfo> toScan) {
+        return template.getParallelScanContext() != null && toScan.isIterator()
+                && toScan.getEstimatedSize() >= _minEntries && !isOrderedScan(toScan);
+    }
+
+    /**
+     * a scan which returns the entries ordered by a path is kept sequential, so a limited order by
+     * can stop it early
+     */
+    private static boolean isOrderedScan(IScanListIterator<IEntryCacheInfo> toScan) {
+        return toScan instanceof ExtendedIndexIterator && ((ExtendedIndexIterator<?>) toScan).getOrderedByPath() != null;
+    }
+
+    /**
+     * Scans the entries in parallel and merges the results into the operation template.
+     *
+     * @return false if no parallel scan could be started, in which case the scan was not consumed
+     */
+    public boolean scan(Context context, ITemplateHolder template, IScanListIterator<IEntryCacheInfo> toScan,
+                        IServerTypeDesc entryTypeDesc)
+            throws TransactionException, TemplateDeletedException, SAException {
+        if (!_concurrentScans.tryAcquire())
+            return false;
+        try {
+            ParallelScan scan;
+            try {
+                scan = new ParallelScan(context, template, entryTypeDesc);
+            } catch (Exception e) {
+                if (_logger.isDebugEnabled())
+                    _logger.debug("Failed to prepare a parallel scan, scanning sequentially", e);
+                return false;
+            }
+            scan.execute(toScan);
+            return true;
+        } finally {
+            _concurrentScans.release();
+        }
+    }
+
+    private class ParallelScan {
+        private final Context _context;
+        private final ITemplateHolder _template;
+        private final IServerTypeDesc _entryTypeDesc;
+        private final ParallelScanBatchContext _sharedBatchContext;
+        private final Lane[] _lanes;
+        private final BlockingQueue<IEntryCacheInfo[]> _chunks = new ArrayBlockingQueue<IEntryCacheInfo[]>(_parallelism * 2);
+        private final AtomicReference<Throwable> _failure = new AtomicReference<Throwable>();
+        private volatile boolean _produced;
+        private boolean _needMatch;
+        private int _alreadyMatchedFixedPropertyIndexPos;
+        private String _alreadyMatchedIndexPath;
+        private int _rightColumnPosition = -1;
+        private long _leaseFilter;
+
+        private ParallelScan(Context context, ITemplateHolder template, IServerTypeDesc entryTypeDesc) throws Exception {
+            _context = context;
+            _template = template;
+            _entryTypeDesc = entryTypeDesc;
+            ParallelScanContext scanContext = template.getParallelScanContext();
+            _sharedBatchContext = new ParallelScanBatchContext(scanContext.getTemplatePacket(), template.getBatchOperationContext());
+            _lanes = new Lane[_parallelism];
+            for (int i = 0; i < _lanes.length; i++)
+                _lanes[i] = new Lane(scanContext);
+        }
+
+        private void execute(IScanListIterator<IEntryCacheInfo> toScan)
+                throws TransactionException, TemplateDeletedException, SAException {
+            List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(_lanes.length);
+            try {
+                _needMatch = !toScan.isAlreadyMatched();
+                _alreadyMatchedFixedPropertyIndexPos = toScan.getAlreadyMatchedFixedPropertyIndexPos();
+                _alreadyMatchedIndexPath = toScan.getAlreadyMatchedIndexPath();
+                if (toScan instanceof ExtendedIndexIterator)
+                    _rightColumnPosition = ((ExtendedIndexIterator<?>) toScan).getRightColumnPosition();
+                _leaseFilter = SystemTime.timeMillis();
+                for (Lane lane : _lanes)
+                    tasks.add(_pool.submit(lane));
+                produce(toScan);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                _failure.compareAndSet(null, e);
+            } finally {
+                _produced = true;
+                for (ForkJoinTask<?> task : tasks)
+                    task.quietlyJoin();
+                toScan.releaseScan();
+            }
+            Throwable failure = _failure.get();
+            if (failure != null)
+                rethrow(failure);
+            merge();
+        }
+
+        private void produce(IScanListIterator<IEntryCacheInfo> toScan) throws SAException, InterruptedException {
+            IEntryCacheInfo[] chunk = new IEntryCacheInfo[CHUNK_SIZE];
+            int size = 0;
+            while (!isStopped() && toScan.hasNext()) {
+                IEntryCacheInfo pEntry = toScan.next();
+                if (pEntry == null)
+                    continue;
+                chunk[size++] = pEntry;
+                if (size == CHUNK_SIZE) {
+                    offer(chunk);
+                    chunk = new IEntryCacheInfo[CHUNK_SIZE];
+                    size = 0;
+                }
+            }
+            if (size > 0)
+                offer(chunk);
+        }
+
+        private void offer(IEntryCacheInfo[] chunk) throws InterruptedException {
+            while (!isStopped() && !_chunks.offer(chunk, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+            }
+        }
+
+        private boolean isStopped() {
+            return _failure.get() != null || _sharedBatchContext.reachedMaxEntries();
+        }
+
+        private IEntryCacheInfo[] poll() throws InterruptedException {
+            while (!isStopped()) {
+                //the done flag must be read before the last poll in order not to miss chunks
+                boolean produced = _produced;
+                IEntryCacheInfo[] chunk = _chunks.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (chunk != null || produced)
+                    return chunk;
+            }
+            return null;
+        }
+
+        private void merge() {
+            BatchQueryOperationContext batchContext = _template.getBatchOperationContext();
+            for (String uid : _sharedBatchContext.getProcessedUids())
+                batchContext.addToProcessedUidsIfNeeded(uid);
+            if (_template.getAggregatorContext() != null) {
+                List<SpaceEntriesAggregator> aggregators = new ArrayList<SpaceEntriesAggregator>(_template.getAggregatorContext().getAggregators());
+                for (Lane lane : _lanes)
+                    mergeAggregators(aggregators, lane._aggregators);
+                for (int i = 0; i < _sharedBatchContext.getNumResults(); i++)
+                    batchContext.addResult(null);
+            } else {
+                for (Lane lane : _lanes) {
+                    for (IEntryPacket entryPacket : lane._template.getBatchOperationContext().getResults()) {
+                        if (batchContext.reachedMaxEntries())
+                            return;
+                        batchContext.addResult(entryPacket);
+                    }
+                }
+            }
+        }
+
+        private void rethrow(Throwable failure) throws TransactionException, TemplateDeletedException, SAException {
+            if (failure instanceof TransactionException)
+                throw (TransactionException) failure;
+            if (failure instanceof TemplateDeletedException)
+                throw (TemplateDeletedException) failure;
+            if (failure instanceof SAException)
+                throw (SAException) failure;
+            if (failure instanceof RuntimeException)
+                throw (RuntimeException) failure;
+            if (failure instanceof Error)
+                throw (Error) failure;
+            throw new SAException(failure);
+        }
+
+        private class Lane implements Runnable {
+            private final ITemplateHolder _template;
+            private final List<SpaceEntriesAggregator> _aggregators;
+
+            private Lane(ParallelScanContext scanContext) throws Exception {
+                ITemplateHolder template = ParallelScan.this._template;
+                _template = TemplateHolderFactory.createTemplateHolder(template.getServerTypeDesc(), scanContext.getTemplatePacket(),
+                        null /*uid*/, template.getExpirationTime(), null /*txn*/, template.getSCN(), SpaceOperations.READ,
+                        null /*respContext*/, template.isReturnOnlyUid(), template.getOperationModifiers(), false /*isfifo*/);
+                _template.setAnswerHolder(new AnswerHolder());
+                _template.setNonBlockingRead(true);
+                _template.setID(template.getID());
+                _template.setBatchOperationContext(new ParallelScanBatchContext(scanContext.getTemplatePacket(), _sharedBatchContext));
+                _aggregators = scanContext.isAggregation() ? scanContext.createAggregators() : null;
+                if (_aggregators != null) {
+                    _template.setAggregatorContext(new EntryHolderAggregatorContext(_aggregators, _template, _engine.getPartitionIdZeroBased()));
+                    _template.getAggregatorContext().enableColumnarAggregation();
+                }
+            }
+
+            @Override
+            public void run() {
+                Context context = null;
+                try {
+                    context = _cacheManager.getCacheContext();
+                    context.setMainThread(true);
+                    context.setFromReplication(false);
+                    context.setOrigin(true);
+                    context.setOperationID(_context.getOperationID());
+                    context.setFromGateway(_context.isFromGateway());
+                    context.setFromClustered(_context.isFromClustered());
+                    IEntryCacheInfo[] chunk;
+                    while ((chunk = poll()) != null) {
+                        for (IEntryCacheInfo pEntry : chunk) {
+                            if (pEntry == null || isStopped())
+                                break;
+                            _engine.getMatchedEntriesAndOperateSA_Entry(context, _template,
+                                    _needMatch, _alreadyMatchedFixedPropertyIndexPos, _alreadyMatchedIndexPath, _leaseFilter,
+                                    pEntry, false /*makeWaitForInfo*/, _entryTypeDesc, _rightColumnPosition);
+                        }
+                    }
+                    if (_template.getAggregatorContext() != null)
+                        _template.getAggregatorContext().flush();
+                    if (context.isPendingExpiredEntriesExist())
+                        _context.setPendingExpiredEntriesExist(true);
+                } catch (Throwable e) {
+                    _failure.compareAndSet(null, e);
+                } finally {
+                    _cacheManager.freeCacheContext(context);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static void mergeAggregators(List<SpaceEntriesAggregator> aggregators, List<SpaceEntriesAggregator> partial) {
+        for (int i = 0; i < aggregators.size(); i++) {
+            Serializable result = partial.get(i).getIntermediateResult();
+            if (result != null)
+                aggregators.get(i).aggregateIntermediateResult(result);
+        }
+    }
+
+    /**
+     * A batch context shared by the lanes of a parallel scan - the processed uids and the number of
+     * results are shared, while each lane keeps the packets it has read.
+     */
+    static class ParallelScanBatchContext extends BatchQueryOperationContext {
+        private final BatchQueryOperationContext _operationContext;
+        private final Set<String> _processedUids;
+        private final AtomicInteger _numResults;
+        private final int _maxResults;
+
+        /**
+         * Creates the shared context of a parallel scan for the given operation context
+         */
+        ParallelScanBatchContext(ITemplatePacket template, BatchQueryOperationContext operationContext) {
+            super(template, operationContext.getMaxEntries(), 0);
+            _operationContext = operationContext;
+            _processedUids = ConcurrentHashMap.newKeySet();
+            _numResults = new AtomicInteger();
+            _maxResults = operationContext.getMaxEntries() - operationContext.getNumResults();
+        }
+
+        /**
+         * Creates a lane context sharing the state of the given context
+         */
+        ParallelScanBatchContext(ITemplatePacket template, ParallelScanBatchContext shared) {
+            super(template, shared.getMaxEntries(), 0);
+            _operationContext = shared._operationContext;
+            _processedUids = shared._processedUids;
+            _numResults = shared._numResults;
+            _maxResults = shared._maxResults;
+        }
+
+        @Override
+        protected List<IEntryPacket> createResultList(ITemplatePacket template, int maxEntries) {
+            return new ArrayList<IEntryPacket>();
+        }
+
+        @Override
+        public void addResult(IEntryPacket result) {
+            //aggregations do not create packets
+            if (result != null)
+                getResults().add(result);
+            _numResults.incrementAndGet();
+        }
+
+        @Override
+        public int getNumResults() {
+            return _numResults.get();
+        }
+
+        @Override
+        public boolean reachedMinEntries() {
+            return false;
+        }
+
+        @Override
+        public boolean reachedMaxEntries() {
+            return _numResults.get() >= _maxResults;
+        }
+
+        @Override
+        public boolean hasAnyEntries() {
+            return false;
+        }
+
+        @Override
+        public boolean isInProcessedUids(String uid) {
+            return _processedUids.contains(uid) || _operationContext.isInProcessedUids(uid);
+        }
+
+        @Override
+        public void addToProcessedUidsIfNeeded(String uid) {
+            _processedUids.add(uid);
+        }
+
+        Set<String> getProcessedUids() {
+            return _processedUids;
+        }
+
+        @Override
+        public boolean needProcessEntriesForReturnedResult() {
+            return false;
+        }
+
+        @Override
+        public void onException(Throwable t) {
+            //exceptions are thrown to the operation thread
+        }
+
+        @Override
+        public boolean needToProcessExecption() {
+            return false;
+        }
+    }
+}
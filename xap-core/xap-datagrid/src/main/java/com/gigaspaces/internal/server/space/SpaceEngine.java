@@ -151,6 +151,7 @@ import com.j_spaces.kernel.*;
 import com.j_spaces.kernel.list.CircularNumerator;
 import com.j_spaces.kernel.list.IScanListIterator;
 import com.j_spaces.kernel.locks.ILockObject;
+import com.j_spaces.kernel.threadpool.VirtualThreadFactory;
 import net.jini.core.entry.UnusableEntryException;
 import net.jini.core.lease.Lease;
 import net.jini.core.lease.LeaseDeniedException;
@@ -222,6 +223,7 @@ public class SpaceEngine implements ISpaceModeListener , IClusterInfoChangedList
     private final SpaceDataEventManager _dataEventManager;
     private final TemplateScanner _templateScanner;
     private final FifoGroupsHandler _fifoGroupsHandler;
+    private final ParallelScanHandler _parallelScanHandler;
     private LeaseManager _leaseManager;
     private MemoryManager _memoryManager;
     private final ServerIteratorsManager _serverIteratorsManager;
@@ -374,6 +376,12 @@ public class SpaceEngine implements ISpaceModeListener , IClusterInfoChangedList
         _coreProcessor = new Processor(this);
         _processorWG = new WorkingGroup<BusPacket<Processor>>(_coreProcessor,
                 threadPriority, "Processor", minThreads, maxThreads, timeout);
+        if (LRMIRuntime.getRuntime().isVirtualThreads()) {
+            // the processor completes the templates waiting for the invocations, keep it in the same execution mode
+            _processorWG.setThreadFactory(new VirtualThreadFactory("Processor"));
+            _processorWG.setMaximumPoolSize(Math.max(_processorWG.getMaximumPoolSize(),
+                    Integer.getInteger(SystemProperties.LRMI_VIRTUAL_THREADS_MAX, SystemProperties.LRMI_VIRTUAL_THREADS_MAX_DEFAULT)));
+        }
 
         _processorWG.start();
 
@@ -390,6 +398,13 @@ public class SpaceEngine implements ISpaceModeListener , IClusterInfoChangedList
         _duplicateOperationIDFilter = createDuplicateOperationIDFilter();
         _resultsSizeLimit = _configReader.getIntSpaceProperty(ENGINE_QUERY_RESULT_SIZE_LIMIT, ENGINE_QUERY_RESULT_SIZE_LIMIT_DEFAULT);
         _resultsSizeLimitMemoryCheckBatchSize = _configReader.getIntSpaceProperty(ENGINE_QUERY_RESULT_SIZE_LIMIT_MEMORY_CHECK_BATCH_SIZE, ENGINE_QUERY_RESULT_SIZE_LIMIT_MEMORY_CHECK_BATCH_SIZE_DEFAULT);
+        _parallelScanHandler = _configReader.getBooleanSpaceProperty(ENGINE_PARALLEL_SCAN_ENABLED_PROP, ENGINE_PARALLEL_SCAN_ENABLED_DEFAULT) && !_isLocalCache
+                ? new ParallelScanHandler(this,
+                _configReader.getIntSpaceProperty(ENGINE_PARALLEL_SCAN_THREADS_PROP, ENGINE_PARALLEL_SCAN_THREADS_DEFAULT),
+                _configReader.getIntSpaceProperty(ENGINE_PARALLEL_SCAN_MAX_CONCURRENT_SCANS_PROP, ENGINE_PARALLEL_SCAN_MAX_CONCURRENT_SCANS_DEFAULT),
+                _configReader.getIntSpaceProperty(ENGINE_PARALLEL_SCAN_MIN_ENTRIES_PROP, ENGINE_PARALLEL_SCAN_MIN_ENTRIES_DEFAULT),
+                _resultsSizeLimit > 0 || _resultsSizeLimitMemoryCheckBatchSize > 0, _logger)
+                : null;
         if (!_isLocalCache) {
             registerSpaceMetrics(_metricRegistrator);
         }
@@ -504,6 +519,8 @@ public class SpaceEngine implements ISpaceModeListener , IClusterInfoChangedList
                 return countTransactions(TransactionInfo.Types.ALL, TransactionConstants.ACTIVE);
             }
         });
+
+        _spaceImpl.getOperationsExecutor().registerMetrics(registrator.extend("operations-latency"));
     }
 
     private IDuplicateOperationFilter createDuplicateOperationIDFilter() {
@@ -2081,8 +2098,14 @@ public class SpaceEngine implements ISpaceModeListener , IClusterInfoChangedList
         tHolder.setNonBlockingRead(isNonBlockingReadForOperation(tHolder));
         tHolder.setID(template.getID());
         tHolder.setBatchOperationContext(batchOperationContext);
-        if (aggregators != null)
+        if (aggregators != null) {
             tHolder.setAggregatorContext(new EntryHolderAggregatorContext(aggregators, tHolder, getPartitionIdZeroBased()));
+            //a blocking operation may be answered by another thread, which would not flush the columns
+            if (timeout == 0)
+                tHolder.getAggregatorContext().enableColumnarAggregation();
+        }
+        if (_parallelScanHandler != null)
+            tHolder.setParallelScanContext(_parallelScanHandler.createContextIfEligible(tHolder, template, aggregators));
 
         if (take) // call  filters for take
         {
@@ -2117,6 +2140,8 @@ public class SpaceEngine implements ISpaceModeListener , IClusterInfoChangedList
                 _coreProcessor.handleDirectMultipleReadIEOrTakeIESA(context, tHolder);
             else
                 _coreProcessor.handleDirectMultipleReadTakeSA(context, tHolder);
+            if (tHolder.getAggregatorContext() != null)
+                tHolder.getAggregatorContext().flush();
 
             answerSetByThisThread = context.isOpResultByThread();
             numOfEntriesMatched = context.getNumberOfEntriesMatched();
@@ -3704,6 +3729,9 @@ public class SpaceEngine implements ISpaceModeListener , IClusterInfoChangedList
         if (_memoryManager != null)
             _memoryManager.close();
 
+        if (_parallelScanHandler != null)
+            _parallelScanHandler.close();
+
         if (_cacheManager != null)
             _cacheManager.shutDown();
 
@@ -4272,6 +4300,13 @@ public class SpaceEngine implements ISpaceModeListener , IClusterInfoChangedList
         boolean checkResultSize = 0 < _resultsSizeLimit && !template.isReturnOnlyUid() && ( template.isChangeMultiple() || template.isReadMultiple() || template.isTakeMultiple() );
         boolean monitorMemory = 0 < _resultsSizeLimitMemoryCheckBatchSize && _memoryManager.isEnabled() && !template.isReturnOnlyUid() && ( template.isChangeMultiple() || template.isReadMultiple() || template.isTakeMultiple());
         
+        //an order by with a limit can stop a scan which returns the entries ordered by its path
+        EntryHolderAggregatorContext sortedScanAggregator = null;
+        if (toScan instanceof ExtendedIndexIterator && ((ExtendedIndexIterator<?>) toScan).getOrderedByPath() != null
+                && template.getAggregatorContext() != null
+                && template.getAggregatorContext().beginSortedScan(((ExtendedIndexIterator<?>) toScan).getOrderedByPath()))
+            sortedScanAggregator = template.getAggregatorContext();
+
         boolean hasNext = false;
         try {
             //can we use blob-store prefetch ?
@@ -4292,6 +4327,10 @@ public class SpaceEngine implements ISpaceModeListener , IClusterInfoChangedList
                 if (template.getBatchOperationContext().reachedMaxEntries()) {
                     return;
                 }
+                if (sortedScanAggregator != null && sortedScanAggregator.isSortedScanSaturated()) {
+                    hasNext = false;
+                    return;
+                }
 
                int numOfResults = template.getBatchOperationContext().getNumResults();
                 //limit check pic-414
@@ -4307,6 +4346,8 @@ public class SpaceEngine implements ISpaceModeListener , IClusterInfoChangedList
                 }
             }
         } finally {
+            if (sortedScanAggregator != null)
+                sortedScanAggregator.endSortedScan();
             if( template.isServerIterator()){
                 if(!hasNext){
                     toScan.releaseScan();
@@ -4403,6 +4444,17 @@ public class SpaceEngine implements ISpaceModeListener , IClusterInfoChangedList
                 // read by id -> scan iterates through the mvcc shell
                 toScan = toScan.createCopyForAlternatingThread(); // use shell iterator
             }
+            if (_parallelScanHandler != null && _parallelScanHandler.isParallelScanRequired(template, toScan)
+                    && _parallelScanHandler.scan(context, template, toScan, entryTypeDesc)) {
+                if (context.isPendingExpiredEntriesExist() && _cacheManager.getTemplatesManager().anyNotifyLeaseTemplates()) {
+                    try {
+                        _leaseManager.forceLeaseReaperCycle(false);
+                    } catch (InterruptedException ignored) {
+                    }
+                    context.setPendingExpiredEntriesExist(false);
+                }
+                return;
+            }
             getMatchedEntriesAndOperateSA_Scan(context,
                     template,
                     toScan,
@@ -78,6 +78,7 @@ import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
 import com.gigaspaces.internal.server.space.broadcast_table.BroadcastTableHandler;
 import com.gigaspaces.internal.server.space.demote.DemoteHandler;
 import com.gigaspaces.internal.server.space.executors.SpaceActionExecutor;
+import com.gigaspaces.internal.server.space.index_advisor.IndexAdvisor;
 import com.gigaspaces.internal.server.space.iterator.ServerIteratorRequestInfo;
 import com.gigaspaces.internal.server.space.mvcc.MVCCUtils;
 import com.gigaspaces.internal.server.space.mvcc.exception.MVCCGenerationConflictRuntimeException;
@@ -87,6 +88,7 @@ import com.gigaspaces.internal.server.space.operations.WriteEntryResult;
 import com.gigaspaces.internal.server.space.quiesce.QuiesceHandler;
 import com.gigaspaces.internal.server.space.quiesce.WaitForDrainUtils;
 import com.gigaspaces.internal.server.space.recovery.RecoveryManager;
+import com.gigaspaces.internal.server.space.recovery.checkpoint.SpaceCheckpointManager;
 import com.gigaspaces.internal.server.space.recovery.direct_persistency.ConsistencyFile;
 import com.gigaspaces.internal.server.space.recovery.direct_persistency.DirectPersistencyRecoveryHelper;
 import com.gigaspaces.internal.server.space.recovery.direct_persistency.StorageConsistencyModes;
@@ -118,6 +120,7 @@ import com.gigaspaces.lrmi.nio.async.LRMIFuture;
 import com.gigaspaces.lrmi.nio.info.NIODetails;
 import com.gigaspaces.lrmi.nio.info.NIOInfoHelper;
 import com.gigaspaces.lrmi.nio.info.NIOStatistics;
+import com.gigaspaces.management.space.IndexRecommendation;
 import com.gigaspaces.management.space.LocalCacheDetails;
 import com.gigaspaces.management.space.LocalViewDetails;
 import com.gigaspaces.management.transport.ITransportConnection;
@@ -1380,6 +1383,8 @@ public class SpaceImpl extends AbstractService implements IRemoteSpace, IInterna
             _logger.info("Beginning shutdown...");
 
         beforeShutdown();
+        if (!isDestroy && previousState == ISpaceState.STARTED)
+            checkpointBeforeShutdown();
 
         if (isDestroy)
             destroy();
@@ -1436,6 +1441,12 @@ public class SpaceImpl extends AbstractService implements IRemoteSpace, IInterna
             engine.waitForConsistentState();
     }
 
+    private void checkpointBeforeShutdown() {
+        SpaceEngine engine = _engine;
+        if (engine != null && isBackup())
+            new SpaceCheckpointManager(engine).checkpointOnShutdown();
+    }
+
     public void unregister() throws RemoteException {
         unregisterFromLookupService();
 
@@ -2101,6 +2112,10 @@ public class SpaceImpl extends AbstractService implements IRemoteSpace, IInterna
 
     }
 
+    public SpaceOperationsExecutor getOperationsExecutor() {
+        return _operationsExecutor;
+    }
+
     @Override
     public <T extends RemoteOperationResult> T executeOperation(RemoteOperationRequest<T> request)
             throws RemoteException {
@@ -3958,6 +3973,22 @@ public class SpaceImpl extends AbstractService implements IRemoteSpace, IInterna
         return isActive() ? _engine.getLocalViewRegistrations().get() : null;
     }
 
+    @Override
+    public List<IndexRecommendation> getIndexRecommendations() throws RemoteException {
+        beforeOperation(false, false /*checkQuiesceMode*/, null);
+        return createIndexAdvisor().getRecommendations();
+    }
+
+    @Override
+    public List<IndexRecommendation> applyIndexRecommendations() throws RemoteException {
+        beforeOperation(false, true /*checkQuiesceMode*/, null);
+        return createIndexAdvisor().apply(this);
+    }
+
+    private IndexAdvisor createIndexAdvisor() {
+        return new IndexAdvisor(_engine.getCacheManager().getQueryWorkloadRecorder(), _engine.getTypeManager());
+    }
+
     public boolean isLocalCache() {
         return getConfigReader().getBooleanSpaceProperty(Engine.ENGINE_LOCAL_CACHE_MODE_PROP, Engine.ENGINE_LOCAL_CACHE_MODE_DEFAULT);
     }
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.index_advisor;
+
+import com.gigaspaces.internal.client.spaceproxy.operations.AddEntryTypeIndexesSpaceOperationRequest;
+import com.gigaspaces.internal.client.spaceproxy.operations.AddEntryTypeIndexesSpaceOperationResult;
+import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
+import com.gigaspaces.internal.server.space.SpaceImpl;
+import com.gigaspaces.internal.server.space.metadata.SpaceTypeManager;
+import com.gigaspaces.management.space.IndexRecommendation;
+import com.gigaspaces.metadata.index.SpaceIndex;
+import com.gigaspaces.metadata.index.SpaceIndexFactory;
+import com.gigaspaces.metadata.index.SpaceIndexType;
+import com.j_spaces.core.exception.internal.ProxyInternalSpaceException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Recommends indexes for the poorly indexed queries recorded by the {@link QueryWorkloadRecorder},
+ * and creates them on demand. A property is recommended when enough sampled queries were
+ * conditioned on it and the condition is selective, as an ordered index if it was used in ranges
+ * and as an equality index otherwise. A property which has an equality index and is used in ranges
+ * is recommended an equal and ordered index, which can only be applied by redefining the type. A
+ * compound equality index is recommended for properties
+ * which are selective only when combined. Recommendations are ordered by the scan work they are
+ * expected to save.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class IndexAdvisor {
+    private static final Logger _logger = LoggerFactory.getLogger(IndexAdvisor.class);
+
+    static final int MIN_OCCURRENCES = 5;
+    static final double MAX_SELECTIVITY = 0.1;
+
+    private final QueryWorkloadRecorder _recorder;
+    private final SpaceTypeManager _typeManager;
+
+    public IndexAdvisor(QueryWorkloadRecorder recorder, SpaceTypeManager typeManager) {
+        _recorder = recorder;
+        _typeManager = typeManager;
+    }
+
+    public List<IndexRecommendation> getRecommendations() {
+        return recommend(_recorder.getWorkload(), typeName -> {
+            IServerTypeDesc serverTypeDesc = _typeManager.getServerTypeDesc(typeName);
+            return serverTypeDesc == null ? null : serverTypeDesc.getTypeDesc().getIndexes();
+        });
+    }
+
+    /**
+     * Creates the recommended indexes, which are replicated to the backups and reflected in the
+     * type descriptors like indexes added by clients.
+     *
+     * @return the applied recommendations
+     */
+    public List<IndexRecommendation> apply(SpaceImpl space) throws RemoteException {
+        if (!space.isPrimary())
+            return Collections.emptyList();
+        List<IndexRecommendation> recommendations = getRecommendations();
+        Map<String, List<SpaceIndex>> indexesByType = new LinkedHashMap<String, List<SpaceIndex>>();
+        List<IndexRecommendation> applied = new ArrayList<IndexRecommendation>(recommendations.size());
+        for (IndexRecommendation recommendation : recommendations) {
+            SpaceIndex index = toSpaceIndex(recommendation);
+            IServerTypeDesc serverTypeDesc = _typeManager.getServerTypeDesc(recommendation.getTypeName());
+            if (serverTypeDesc != null && serverTypeDesc.getTypeDesc().getIndexes().containsKey(index.getName())) {
+                //an existing index cannot be replaced at runtime
+                if (_logger.isInfoEnabled())
+                    _logger.info("Recommended index " + index + " of type " + recommendation.getTypeName()
+                            + " replaces an existing index, it can be applied only by redefining the type");
+                continue;
+            }
+            List<SpaceIndex> indexes = indexesByType.get(recommendation.getTypeName());
+            if (indexes == null) {
+                indexes = new ArrayList<SpaceIndex>();
+                indexesByType.put(recommendation.getTypeName(), indexes);
+            }
+            indexes.add(index);
+            applied.add(recommendation);
+        }
+        for (Map.Entry<String, List<SpaceIndex>> entry : indexesByType.entrySet()) {
+            SpaceIndex[] indexes = entry.getValue().toArray(new SpaceIndex[0]);
+            AddEntryTypeIndexesSpaceOperationResult result = space.executeOperation(
+                    new AddEntryTypeIndexesSpaceOperationRequest(entry.getKey(), indexes, false));
+            if (result.getExecutionException() != null)
+                throw new ProxyInternalSpaceException("Failed to add recommended indexes to type " + entry.getKey(), result.getExecutionException());
+            if (_logger.isInfoEnabled())
+                _logger.info("Added recommended indexes to type " + entry.getKey() + ": " + entry.getValue());
+            _recorder.clear(entry.getKey());
+        }
+        return applied;
+    }
+
+    static SpaceIndex toSpaceIndex(IndexRecommendation recommendation) {
+        return recommendation.isCompound()
+                ? SpaceIndexFactory.createCompoundIndex(recommendation.getProperties(), recommendation.getIndexType(), null, false)
+                : SpaceIndexFactory.createPropertyIndex(recommendation.getProperties()[0], recommendation.getIndexType());
+    }
+
+    /**
+     * @param indexesByType the indexes already defined for a type name, by index name
+     */
+    static List<IndexRecommendation> recommend(Map<String, QueryWorkloadRecorder.TypeWorkload> workload,
+                                               Function<String, Map<String, SpaceIndex>> indexesByType) {
+        List<IndexRecommendation> res = new ArrayList<IndexRecommendation>();
+        for (Map.Entry<String, QueryWorkloadRecorder.TypeWorkload> typeEntry : workload.entrySet()) {
+            String typeName = typeEntry.getKey();
+            Map<String, SpaceIndex> indexes = indexesByType.apply(typeName);
+            if (indexes == null)
+                continue; //type no longer exists
+            Map<String, QueryWorkloadRecorder.ConditionWorkload> properties = typeEntry.getValue().getProperties();
+            for (Map.Entry<String, QueryWorkloadRecorder.ConditionWorkload> entry : properties.entrySet()) {
+                QueryWorkloadRecorder.ConditionWorkload condition = entry.getValue();
+                SpaceIndex index = indexes.get(entry.getKey());
+                SpaceIndexType indexType = SpaceIndexType.EQUAL;
+                if (condition.getRangeOccurrences() > 0)
+                    indexType = isIndexed(index) ? SpaceIndexType.EQUAL_AND_ORDERED : SpaceIndexType.ORDERED;
+                if (isCovered(index, indexType) || !isWorthIndexing(condition))
+                    continue;
+                res.add(toRecommendation(typeName, new String[]{entry.getKey()}, indexType, condition));
+            }
+            for (Map.Entry<List<String>, QueryWorkloadRecorder.ConditionWorkload> entry : typeEntry.getValue().getCompounds().entrySet()) {
+                String[] paths = entry.getKey().toArray(new String[0]);
+                if (isCovered(indexes.get(SpaceIndexFactory.createCompoundIndexName(paths)), SpaceIndexType.EQUAL) || !isWorthIndexing(entry.getValue())
+                        || entry.getValue().getSelectivity() < 0)
+                    continue;
+                //not needed if any of the properties is selective on its own
+                boolean selectiveProperty = false;
+                for (String path : paths) {
+                    QueryWorkloadRecorder.ConditionWorkload condition = properties.get(path);
+                    if (condition == null || isSelective(condition))
+                        selectiveProperty = true;
+                }
+                if (!selectiveProperty)
+                    res.add(toRecommendation(typeName, paths, SpaceIndexType.EQUAL, entry.getValue()));
+            }
+        }
+        Collections.sort(res, new Comparator<IndexRecommendation>() {
+            @Override
+            public int compare(IndexRecommendation o1, IndexRecommendation o2) {
+                return Double.compare(score(o2), score(o1));
+            }
+        });
+        return res;
+    }
+
+    private static boolean isIndexed(SpaceIndex index) {
+        return index != null && index.getIndexType() != SpaceIndexType.NONE;
+    }
+
+    /**
+     * @return true if the existing index serves the conditions the recommended index type serves
+     */
+    private static boolean isCovered(SpaceIndex index, SpaceIndexType indexType) {
+        return isIndexed(index) && (!indexType.isOrdered() || index.getIndexType().isOrdered());
+    }
+
+    private static boolean isWorthIndexing(QueryWorkloadRecorder.ConditionWorkload condition) {
+        return condition.getOccurrences() >= MIN_OCCURRENCES && isSelective(condition);
+    }
+
+    /**
+     * an unknown selectivity is considered selective
+     */
+    private static boolean isSelective(QueryWorkloadRecorder.ConditionWorkload condition) {
+        return condition.getSelectivity() <= MAX_SELECTIVITY;
+    }
+
+    private static IndexRecommendation toRecommendation(String typeName, String[] paths, SpaceIndexType indexType,
+                                                        QueryWorkloadRecorder.ConditionWorkload condition) {
+        return new IndexRecommendation(typeName, paths, indexType, condition.getOccurrences(),
+                condition.getAverageScannedEntries(), condition.getSelectivity());
+    }
+
+    /**
+     * @return the number of scanned entries the index is expected to save
+     */
+    private static double score(IndexRecommendation recommendation) {
+        double selectivity = recommendation.getSelectivity() < 0 ? 0 : recommendation.getSelectivity();
+        return recommendation.getOccurrences() * recommendation.getAverageScannedEntries() * (1 - selectivity);
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.index_advisor;
+
+import com.gigaspaces.internal.server.storage.IEntryData;
+import com.gigaspaces.internal.server.storage.IEntryHolder;
+import com.gigaspaces.internal.server.storage.ITemplateHolder;
+import com.j_spaces.core.cache.IEntryCacheInfo;
+import com.j_spaces.core.cache.TypeData;
+import com.j_spaces.core.client.TemplateMatchCodes;
+import com.j_spaces.kernel.IStoredList;
+import com.j_spaces.kernel.IStoredListIterator;
+import com.j_spaces.kernel.list.IScanListIterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the queries which scan all the entries of a type, or a large part of them, for lack of a
+ * suitable index. Every such scan is counted per type, and one of every few of them is sampled: the
+ * template properties it is conditioned on are recorded together with the number of scanned
+ * entries, and the selectivity of each condition is measured on the first entries of the type.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class QueryWorkloadRecorder {
+    /**
+     * scans of smaller types are not worth an index
+     */
+    public static final int MIN_TYPE_SIZE = 1000;
+    //a scan of more than this fraction of the type entries is considered poorly indexed
+    private static final double POORLY_INDEXED_RATIO = 0.5;
+    private static final int MAX_SAMPLED_ENTRIES = 64;
+    private static final int MAX_COMPOUND_PROPERTIES = 3;
+
+    private final boolean _enabled;
+    private final int _sampleRate;
+    private final ConcurrentMap<String, TypeWorkload> _types = new ConcurrentHashMap<String, TypeWorkload>();
+
+    public QueryWorkloadRecorder(boolean enabled, int sampleRate) {
+        _enabled = enabled;
+        _sampleRate = Math.max(1, sampleRate);
+    }
+
+    public boolean isEnabled() {
+        return _enabled;
+    }
+
+    /**
+     * called after the entries to scan for a template were chosen
+     *
+     * @param chosen the chosen list or scan of entries
+     */
+    public void onScan(TypeData typeData, ITemplateHolder template, int numOfFields, Object chosen) {
+        if (!_enabled || chosen == null || typeData.getEntries() == null)
+            return;
+        final int typeSize = typeData.getEntries().size();
+        if (typeSize < MIN_TYPE_SIZE)
+            return;
+        final boolean fullScan = chosen == typeData.getEntries();
+        final int scanned;
+        if (fullScan)
+            scanned = typeSize;
+        else if (chosen instanceof IStoredList)
+            scanned = ((IStoredList) chosen).size();
+        else if (chosen instanceof IScanListIterator)
+            scanned = ((IScanListIterator) chosen).getEstimatedSize();
+        else
+            return;
+        if (!fullScan && scanned < typeSize * POORLY_INDEXED_RATIO)
+            return;
+
+        TypeWorkload workload = getOrCreate(typeData.getClassName());
+        workload.onScan(fullScan);
+        if (ThreadLocalRandom.current().nextInt(_sampleRate) != 0)
+            return;
+        List<PredicateSample> predicates = extractPredicates(typeData, template, numOfFields);
+        if (predicates.isEmpty())
+            return;
+        int[] equalitiesSample = typeData.isBlobStoreClass() ? new int[2] : sampleSelectivity(typeData, predicates);
+        workload.record(predicates, scanned, equalitiesSample[0], equalitiesSample[1]);
+    }
+
+    public Map<String, TypeWorkload> getWorkload() {
+        return Collections.unmodifiableMap(_types);
+    }
+
+    public TypeWorkload getWorkload(String typeName) {
+        return _types.get(typeName);
+    }
+
+    public void clear(String typeName) {
+        _types.remove(typeName);
+    }
+
+    public void clear() {
+        _types.clear();
+    }
+
+    TypeWorkload getOrCreate(String typeName) {
+        TypeWorkload workload = _types.get(typeName);
+        if (workload == null) {
+            workload = new TypeWorkload();
+            TypeWorkload existing = _types.putIfAbsent(typeName, workload);
+            if (existing != null)
+                workload = existing;
+        }
+        return workload;
+    }
+
+    private static List<PredicateSample> extractPredicates(TypeData typeData, ITemplateHolder template, int numOfFields) {
+        IEntryData entryData = template.getEntryData();
+        Object[] values = entryData == null ? null : entryData.getFixedPropertiesValues();
+        if (values == null)
+            return Collections.emptyList();
+        short[] matchCodes = template.getExtendedMatchCodes();
+        List<PredicateSample> res = new ArrayList<PredicateSample>();
+        for (int pos = 0; pos < Math.min(values.length, numOfFields); pos++) {
+            if (values[pos] == null)
+                continue;
+            short matchCode = matchCodes == null ? TemplateMatchCodes.EQ : matchCodes[pos];
+            switch (matchCode) {
+                case TemplateMatchCodes.EQ:
+                case TemplateMatchCodes.GT:
+                case TemplateMatchCodes.GE:
+                case TemplateMatchCodes.LT:
+                case TemplateMatchCodes.LE:
+                    Object rangeValue = matchCode == TemplateMatchCodes.EQ ? null : template.getRangeValue(pos);
+                    boolean rangeInclusive = rangeValue != null && template.getRangeInclusion(pos);
+                    res.add(new PredicateSample(typeData.getProperty(pos).getName(), pos, matchCode, values[pos], rangeValue, rangeInclusive));
+                    break;
+                default:
+                    //other conditions are not served by equality or ordered indexes
+            }
+        }
+        return res;
+    }
+
+    /**
+     * matches the first entries of the type against each condition
+     *
+     * @return the number of sampled entries and the number of them matching all the equality
+     * conditions
+     */
+    private static int[] sampleSelectivity(TypeData typeData, List<PredicateSample> predicates) {
+        IStoredList<IEntryCacheInfo> entries = typeData.getEntries();
+        //the entries list of a non fifo type supports only random scans
+        IStoredListIterator<IEntryCacheInfo> slh = entries.establishListScan(true);
+        int sampled = 0;
+        int matchedEqualities = 0;
+        try {
+            for (; slh != null && sampled < MAX_SAMPLED_ENTRIES; slh = entries.next(slh)) {
+                IEntryCacheInfo pEntry = slh.getSubject();
+                if (pEntry == null)
+                    continue;
+                IEntryHolder entryHolder = pEntry.getEntryHolder(typeData.getCacheManager());
+                if (entryHolder == null || entryHolder.isDeleted())
+                    continue;
+                IEntryData entryData = entryHolder.getEntryData();
+                sampled++;
+                boolean matchedAll = true;
+                for (PredicateSample predicate : predicates) {
+                    if (!predicate.sample(entryData.getFixedPropertyValue(predicate._pos)) && !predicate.isRange())
+                        matchedAll = false;
+                }
+                if (matchedAll)
+                    matchedEqualities++;
+            }
+        } finally {
+            if (slh != null)
+                entries.freeSLHolder(slh);
+        }
+        return new int[]{sampled, matchedEqualities};
+    }
+
+    /**
+     * A condition on a single template property, with the result of matching it against sampled
+     * entries.
+     */
+    static class PredicateSample {
+        private final String _propertyName;
+        private final int _pos;
+        private final short _matchCode;
+        private final Object _value;
+        private final Object _rangeValue;
+        private final boolean _rangeInclusive;
+        private int _sampled;
+        private int _matched;
+
+        PredicateSample(String propertyName, int pos, short matchCode, Object value, Object rangeValue, boolean rangeInclusive) {
+            _propertyName = propertyName;
+            _pos = pos;
+            _matchCode = matchCode;
+            _value = value;
+            _rangeValue = rangeValue;
+            _rangeInclusive = rangeInclusive;
+        }
+
+        boolean isRange() {
+            return _matchCode != TemplateMatchCodes.EQ;
+        }
+
+        boolean sample(Object value) {
+            _sampled++;
+            if (!matches(value))
+                return false;
+            _matched++;
+            return true;
+        }
+
+        private boolean matches(Object value) {
+            if (value == null)
+                return false;
+            if (_matchCode == TemplateMatchCodes.EQ)
+                return value == _value || value.equals(_value);
+            try {
+                int cmp = ((Comparable) value).compareTo(_value);
+                boolean res = _matchCode == TemplateMatchCodes.GT ? cmp > 0
+                        : _matchCode == TemplateMatchCodes.GE ? cmp >= 0
+                        : _matchCode == TemplateMatchCodes.LT ? cmp < 0
+                        : cmp <= 0;
+                if (res && _rangeValue != null) {
+                    cmp = ((Comparable) value).compareTo(_rangeValue);
+                    res = _rangeInclusive ? cmp <= 0 : cmp < 0;
+                }
+                return res;
+            } catch (ClassCastException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The recorded workload of a single type.
+     */
+    public static class TypeWorkload {
+        private final LongAdder _fullScans = new LongAdder();
+        private final LongAdder _poorlyIndexedScans = new LongAdder();
+        private final ConcurrentMap<String, ConditionWorkload> _properties = new ConcurrentHashMap<String, ConditionWorkload>();
+        //keyed by the sorted property names of templates with several equality conditions
+        private final ConcurrentMap<List<String>, ConditionWorkload> _compounds = new ConcurrentHashMap<List<String>, ConditionWorkload>();
+
+        void onScan(boolean fullScan) {
+            if (fullScan)
+                _fullScans.increment();
+            else
+                _poorlyIndexedScans.increment();
+        }
+
+        void record(List<PredicateSample> predicates, long scanned, int sampled, int matchedEqualities) {
+            List<String> equalities = new ArrayList<String>();
+            for (PredicateSample predicate : predicates) {
+                getOrCreate(_properties, predicate._propertyName).record(predicate.isRange(), scanned, predicate._sampled, predicate._matched);
+                if (!predicate.isRange())
+                    equalities.add(predicate._propertyName);
+            }
+            if (equalities.size() < 2 || equalities.size() > MAX_COMPOUND_PROPERTIES)
+                return;
+            Collections.sort(equalities);
+            getOrCreate(_compounds, equalities).record(false, scanned, sampled, matchedEqualities);
+        }
+
+        private static <K> ConditionWorkload getOrCreate(ConcurrentMap<K, ConditionWorkload> map, K key) {
+            ConditionWorkload res = map.get(key);
+            if (res == null) {
+                res = new ConditionWorkload();
+                ConditionWorkload existing = map.putIfAbsent(key, res);
+                if (existing != null)
+                    res = existing;
+            }
+            return res;
+        }
+
+        /**
+         * @return the number of queries which scanned all the type entries
+         */
+        public long getFullScans() {
+            return _fullScans.sum();
+        }
+
+        /**
+         * @return the number of queries which scanned most of the type entries using an index
+         */
+        public long getPoorlyIndexedScans() {
+            return _poorlyIndexedScans.sum();
+        }
+
+        public Map<String, ConditionWorkload> getProperties() {
+            return Collections.unmodifiableMap(_properties);
+        }
+
+        public Map<List<String>, ConditionWorkload> getCompounds() {
+            return Collections.unmodifiableMap(_compounds);
+        }
+    }
+
+    /**
+     * The sampled queries conditioned on a property, or on a combination of properties compared
+     * for equality.
+     */
+    public static class ConditionWorkload {
+        private final LongAdder _occurrences = new LongAdder();
+        private final LongAdder _rangeOccurrences = new LongAdder();
+        private final LongAdder _scannedEntries = new LongAdder();
+        private final LongAdder _sampledEntries = new LongAdder();
+        private final LongAdder _matchedEntries = new LongAdder();
+
+        void record(boolean range, long scanned, int sampled, int matched) {
+            _occurrences.increment();
+            if (range)
+                _rangeOccurrences.increment();
+            _scannedEntries.add(scanned);
+            _sampledEntries.add(sampled);
+            _matchedEntries.add(matched);
+        }
+
+        public long getOccurrences() {
+            return _occurrences.sum();
+        }
+
+        public long getRangeOccurrences() {
+            return _rangeOccurrences.sum();
+        }
+
+        public long getAverageScannedEntries() {
+            long occurrences = getOccurrences();
+            return occurrences == 0 ? 0 : _scannedEntries.sum() / occurrences;
+        }
+
+        /**
+         * @return the fraction of the sampled entries which matched the condition, -1 if no
+         * entries were sampled
+         */
+        public double getSelectivity() {
+            long sampled = _sampledEntries.sum();
+            return sampled == 0 ? -1 : (double) _matchedEntries.sum() / sampled;
+        }
+
+        @Override
+        public String toString() {
+            return "ConditionWorkload{occurrences=" + getOccurrences() + ", rangeOccurrences=" + getRangeOccurrences()
+                    + ", averageScannedEntries=" + getAverageScannedEntries() + ", selectivity=" + getSelectivity() + "}";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QueryWorkloadRecorder{enabled=" + _enabled + ", sampleRate=" + _sampleRate + ", types=" + _types.keySet() + "}";
+    }
+}
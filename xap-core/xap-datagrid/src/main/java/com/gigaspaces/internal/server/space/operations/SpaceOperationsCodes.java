@@ -49,6 +49,41 @@ public class SpaceOperationsCodes {
     // Since 10.0
     public static final int AGGREGATE_ENTRIES = 20;
 
+    private static final String[] NAMES = new String[NUM_OF_OPERATIONS];
+
+    static {
+        NAMES[EXECUTE_TASK] = "execute-task";
+        NAMES[ABORT_TRANSACTION] = "abort-transaction";
+        NAMES[COMMIT_TRANSACTION] = "commit-transaction";
+        NAMES[PREPARE_AND_COMMIT_TRANSACTION] = "prepare-and-commit-transaction";
+        NAMES[UPDATE_LEASE] = "update-lease";
+        NAMES[UPDATE_LEASES] = "update-leases";
+        NAMES[GET_ENTRY_TYPE_DESCRIPTOR] = "get-entry-type-descriptor";
+        NAMES[REGISTER_ENTRY_TYPE_DESCRIPTOR] = "register-entry-type-descriptor";
+        NAMES[ADD_ENTRY_TYPE_INDEXES] = "add-entry-type-indexes";
+        NAMES[WRITE_ENTRY] = "write-entry";
+        NAMES[WRITE_ENTRIES] = "write-entries";
+        NAMES[READ_TAKE_ENTRY] = "read-take-entry";
+        NAMES[READ_TAKE_ENTRIES] = "read-take-entries";
+        NAMES[READ_TAKE_ENTRIES_BY_IDS] = "read-take-entries-by-ids";
+        NAMES[READ_TAKE_ENTRIES_UIDS] = "read-take-entries-uids";
+        NAMES[COUNT_CLEAR_ENTRIES] = "count-clear-entries";
+        NAMES[REGISTER_ENTRIES_LISTENER] = "register-entries-listener";
+        NAMES[CHANGE_ENTRIES] = "change-entries";
+        NAMES[REGISTER_LOCAL_VIEW] = "register-local-view";
+        NAMES[UNREGISTER_LOCAL_VIEW] = "unregister-local-view";
+        NAMES[AGGREGATE_ENTRIES] = "aggregate-entries";
+    }
+
     private SpaceOperationsCodes() {
     }
+
+    /**
+     * @return the name of the given operation code, used for its metrics
+     * @since 16.5
+     */
+    public static String getName(int operationCode) {
+        String name = operationCode >= 0 && operationCode < NAMES.length ? NAMES[operationCode] : null;
+        return name != null ? name : "operation-" + operationCode;
+    }
 }
@@ -19,9 +19,12 @@ package com.gigaspaces.internal.server.space.operations;
 import com.gigaspaces.internal.remoting.RemoteOperationRequest;
 import com.gigaspaces.internal.remoting.RemoteOperationResult;
 import com.gigaspaces.internal.server.space.SpaceImpl;
+import com.gigaspaces.metrics.LatencyHistogramRegistry;
+import com.gigaspaces.metrics.MetricRegistrator;
 import com.j_spaces.core.exception.ClosedResourceException;
 
 import java.rmi.RemoteException;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -31,6 +34,7 @@ import java.rmi.RemoteException;
 @com.gigaspaces.api.InternalApi
 public class SpaceOperationsExecutor {
     private final AbstractSpaceOperation<?, ?>[] _operations;
+    private final LatencyHistogramRegistry _executionLatency = new LatencyHistogramRegistry();
 
     public SpaceOperationsExecutor() {
         this._operations = new AbstractSpaceOperation[SpaceOperationsCodes.NUM_OF_OPERATIONS];
@@ -80,7 +84,16 @@ public class SpaceOperationsExecutor {
             if (loggable)
                 space.getOperationLogger().trace("executing " + operation.getLogName(request, result) + " operation" + (oneway ? "(oneway)" : "") + " [" + request + "]");
             // Execute operation:
-            operation.execute(request, result, space, oneway);
+            if (LatencyHistogramRegistry.isEnabled()) {
+                final long startTime = System.nanoTime();
+                try {
+                    operation.execute(request, result, space, oneway);
+                } finally {
+                    _executionLatency.get(SpaceOperationsCodes.getName(operationCode)).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                }
+            } else {
+                operation.execute(request, result, space, oneway);
+            }
 
             if (loggable)
                 space.getOperationLogger().trace("operation " + operation.getLogName(request, result) + " executed" + (oneway ? "(oneway)" : "") + " [" + request + "] result [" + result + "]");
@@ -94,4 +107,14 @@ public class SpaceOperationsExecutor {
 
         return result;
     }
+
+    /**
+     * Exports the execution latency histograms of the space operations, if enabled.
+     *
+     * @since 16.5
+     */
+    public void registerMetrics(MetricRegistrator registrator) {
+        if (LatencyHistogramRegistry.isEnabled())
+            _executionLatency.setRegistrator(registrator);
+    }
 }
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.recovery.checkpoint;
+
+import com.gigaspaces.internal.cluster.node.IReplicationNode;
+import com.gigaspaces.internal.cluster.node.impl.IIncomingReplicationFacade;
+import com.gigaspaces.internal.cluster.node.impl.groups.IReplicationCheckpointTask;
+import com.gigaspaces.internal.cluster.node.impl.groups.ReplicationCheckpoint;
+import com.gigaspaces.internal.cluster.node.impl.replica.CurrentStageInfo;
+import com.gigaspaces.internal.cluster.node.impl.replica.IExecutableSpaceReplicaData;
+import com.gigaspaces.internal.cluster.node.impl.replica.ISpaceReplicaData;
+import com.gigaspaces.internal.cluster.node.impl.replica.ISynchronizationCallback;
+import com.gigaspaces.internal.cluster.node.impl.replica.SpaceCopyIntermediateResult;
+import com.gigaspaces.internal.cluster.node.impl.replica.SpaceCopyReplicaDataProducer;
+import com.gigaspaces.internal.cluster.node.impl.replica.SpaceReplicaDataConsumer;
+import com.gigaspaces.internal.cluster.node.impl.replica.data.AbstractEntryReplicaData;
+import com.gigaspaces.internal.cluster.node.replica.SpaceCopyReplicaParameters;
+import com.gigaspaces.internal.cluster.node.replica.SpaceCopyReplicaParameters.ReplicaType;
+import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
+import com.gigaspaces.internal.server.space.SpaceEngine;
+import com.gigaspaces.internal.server.space.SpaceEngineReplicaConsumerFacade;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.gigaspaces.internal.utils.GsEnv;
+import com.gigaspaces.internal.utils.concurrent.GSThreadFactory;
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+import com.gigaspaces.logger.Constants;
+import com.gigaspaces.start.SystemLocations;
+import com.gigaspaces.time.SystemTime;
+import com.j_spaces.core.cache.CacheManager;
+import com.j_spaces.core.cache.TypeData;
+import com.j_spaces.kernel.SystemProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Takes a local checkpoint of an in-memory backup space when it is gracefully shut down, and
+ * loads it when the space is restarted so that only the replication backlog accumulated since
+ * the shutdown is replicated from the primary instead of its whole content.
+ *
+ * <p>A checkpoint is consumed by the first start which finds it, whether loading it succeeds or
+ * not, so a checkpoint which cannot be resumed from never prevents the regular recovery.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class SpaceCheckpointManager {
+    private static final Logger _logger = LoggerFactory.getLogger(Constants.LOGGER_SPACE);
+
+    private static final String CHECKPOINT_DIRECTORY = "checkpoint";
+    private static final String REQUEST_CONTEXT = "local-checkpoint";
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private static final ISynchronizationCallback NO_SYNCHRONIZATION = new ISynchronizationCallback() {
+        @Override
+        public boolean synchronizationDataGenerated(ISpaceReplicaData data) {
+            return false;
+        }
+    };
+
+    private final SpaceEngine _engine;
+    private final boolean _enabled;
+    private final Path _checkpointFile;
+
+    public SpaceCheckpointManager(SpaceEngine engine) {
+        _engine = engine;
+        _enabled = GsEnv.propertyBoolean(SystemProperties.SPACE_CHECKPOINT_ENABLED).get(false);
+        _checkpointFile = SystemLocations.singleton().work(CHECKPOINT_DIRECTORY)
+                .resolve(engine.getFullSpaceName().replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
+    public Path getCheckpointFile() {
+        return _checkpointFile;
+    }
+
+    /**
+     * Writes a checkpoint of the space content and stops its incoming replication, should be called
+     * only when a started backup space is shut down and before its replication node is closed
+     *
+     * @return true if a checkpoint was written
+     */
+    public boolean checkpointOnShutdown() {
+        if (!_enabled)
+            return false;
+
+        final Path tempFile = resolveSibling(".tmp");
+        try {
+            // A previous checkpoint no longer matches the space content
+            Files.deleteIfExists(_checkpointFile);
+
+            String unsupportedReason = getUnsupportedReason();
+            if (unsupportedReason != null) {
+                if (_logger.isInfoEnabled())
+                    _logger.info("Skipping local checkpoint of space [" + _engine.getFullSpaceName() + "] - " + unsupportedReason);
+                return false;
+            }
+
+            Files.createDirectories(_checkpointFile.getParent());
+            final long startTime = SystemTime.timeMillis();
+            Long count = _engine.getReplicationNode().closeAtCheckpoint(new IReplicationCheckpointTask<Long>() {
+                @Override
+                public Long execute(ReplicationCheckpoint checkpoint) throws Exception {
+                    // Checked while incoming replication is held, the checkpoint cannot hold a partial transaction
+                    if (!_engine.getTransactionHandler().getXtnTable().isEmpty())
+                        return null;
+                    return write(tempFile, checkpoint);
+                }
+            });
+            if (count == null) {
+                Files.deleteIfExists(tempFile);
+                if (_logger.isInfoEnabled())
+                    _logger.info("Skipping local checkpoint of space [" + _engine.getFullSpaceName() + "] - replication state cannot be resumed from");
+                return false;
+            }
+            Files.move(tempFile, _checkpointFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (_logger.isInfoEnabled())
+                _logger.info("Local checkpoint of space [" + _engine.getFullSpaceName() + "] written to [" + _checkpointFile
+                        + "] [count=" + count + ", duration=" + (SystemTime.timeMillis() - startTime) + "ms]");
+            return true;
+        } catch (Exception e) {
+            if (_logger.isWarnEnabled())
+                _logger.warn("Failed writing local checkpoint of space [" + _engine.getFullSpaceName() + "]", e);
+            deleteQuietly(tempFile);
+            return false;
+        }
+    }
+
+    /**
+     * Loads the checkpoint of this space, if one exists, and resumes the incoming replication from
+     * the key it was taken at.
+     *
+     * @return true if the space content was loaded from the checkpoint, false if the space should
+     * recover regularly
+     * @throws Exception if the checkpoint was partially loaded, the space must be recreated before
+     *                   it can recover regularly
+     */
+    public boolean resumeFromCheckpoint() throws Exception {
+        if (!_enabled || !Files.exists(_checkpointFile))
+            return false;
+
+        // Renamed first so that the checkpoint is never loaded twice
+        Path loadingFile = resolveSibling(".loading");
+        Files.move(_checkpointFile, loadingFile, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            String unsupportedReason = getUnsupportedReason();
+            if (unsupportedReason != null) {
+                if (_logger.isInfoEnabled())
+                    _logger.info("Ignoring local checkpoint of space [" + _engine.getFullSpaceName() + "] - " + unsupportedReason);
+                return false;
+            }
+
+            SpaceCheckpointReader reader;
+            try {
+                reader = new SpaceCheckpointReader(new BufferedInputStream(new FileInputStream(loadingFile.toFile()), IO_BUFFER_SIZE));
+            } catch (Exception e) {
+                if (_logger.isWarnEnabled())
+                    _logger.warn("Ignoring unreadable local checkpoint of space [" + _engine.getFullSpaceName() + "]", e);
+                return false;
+            }
+            try {
+                return resume(reader);
+            } finally {
+                reader.close();
+            }
+        } finally {
+            deleteQuietly(loadingFile);
+        }
+    }
+
+    private boolean resume(SpaceCheckpointReader reader) throws Exception {
+        if (reader.getLogicalVersion().greaterThan(PlatformLogicalVersion.getLogicalVersion())) {
+            if (_logger.isInfoEnabled())
+                _logger.info("Ignoring local checkpoint of space [" + _engine.getFullSpaceName() + "] written by a newer version ["
+                        + reader.getLogicalVersion() + "]");
+            return false;
+        }
+
+        IReplicationNode replicationNode = _engine.getReplicationNode();
+        ReplicationCheckpoint checkpoint = reader.getCheckpoint();
+        if (!replicationNode.beginResumeFromCheckpoint(checkpoint)) {
+            if (_logger.isInfoEnabled())
+                _logger.info("Ignoring local checkpoint of space [" + _engine.getFullSpaceName() + "] - replication already started " + checkpoint);
+            return false;
+        }
+
+        boolean loaded = false;
+        try {
+            long startTime = SystemTime.timeMillis();
+            long count = load(reader);
+            loaded = true;
+            if (_logger.isInfoEnabled())
+                _logger.info("Space [" + _engine.getFullSpaceName() + "] loaded from local checkpoint [count=" + count
+                        + ", duration=" + (SystemTime.timeMillis() - startTime) + "ms], resuming replication from " + checkpoint);
+            return true;
+        } finally {
+            replicationNode.checkpointLoaded(checkpoint, loaded);
+        }
+    }
+
+    private long write(Path file, ReplicationCheckpoint checkpoint) throws Exception {
+        SpaceCopyReplicaParameters parameters = new SpaceCopyReplicaParameters();
+        parameters.setCopyNotifyTemplates(true);
+        parameters.addTemplatePacket(null);
+        parameters.setIncludeEvictionReplicationMarkers(_engine.getCacheManager().requiresEvictionReplicationProtection());
+        parameters.setReplicaType(ReplicaType.COPY);
+
+        SpaceCopyReplicaDataProducer producer = new SpaceCopyReplicaDataProducer(_engine, parameters, REQUEST_CONTEXT);
+        FileOutputStream fileOut = new FileOutputStream(file.toFile());
+        SpaceCheckpointWriter writer = new SpaceCheckpointWriter(new BufferedOutputStream(fileOut, IO_BUFFER_SIZE), checkpoint);
+        try {
+            while (true) {
+                writer.beginStage();
+                IExecutableSpaceReplicaData data;
+                while ((data = producer.produceNextData(NO_SYNCHRONIZATION)) != null)
+                    writer.write(data, isFifoType(data));
+                CurrentStageInfo stage = producer.nextReplicaStage();
+                writer.endStage(stage.getStageName());
+                if (stage.isLastStage())
+                    break;
+            }
+            writer.finish();
+            fileOut.getFD().sync();
+            return writer.getTotalCount();
+        } finally {
+            producer.close(false /*forced*/);
+            writer.close();
+        }
+    }
+
+    /**
+     * Entries of FIFO types are loaded in the order they were written, the same way a space copy
+     * applies the batches holding them in order
+     */
+    private boolean isFifoType(ISpaceReplicaData data) {
+        if (!data.isEntryReplicaData())
+            return false;
+        IEntryPacket entryPacket = ((AbstractEntryReplicaData) data).getEntryPacket();
+        if (entryPacket == null)
+            return false;
+        CacheManager cacheManager = _engine.getCacheManager();
+        IServerTypeDesc serverTypeDesc = cacheManager.getTypeManager().getServerTypeDesc(entryPacket.getTypeName());
+        TypeData typeData = cacheManager.getTypeData(serverTypeDesc);
+        return typeData.isFifoSupport() || typeData.getFifoGroupingIndex() != null;
+    }
+
+    private long load(SpaceCheckpointReader reader) throws Exception {
+        int threads = GsEnv.propertyInt(SystemProperties.SPACE_CHECKPOINT_LOAD_THREADS).get(SystemProperties.SPACE_CHECKPOINT_LOAD_THREADS_DEFAULT);
+        if (threads <= 0)
+            threads = Runtime.getRuntime().availableProcessors();
+
+        final SpaceReplicaDataConsumer consumer = new SpaceReplicaDataConsumer(_engine.getTypeManager(), new SpaceEngineReplicaConsumerFacade(_engine));
+        final SpaceCopyIntermediateResult result = consumer.createEmptyResult();
+        final IIncomingReplicationFacade facade = (IIncomingReplicationFacade) _engine.getReplicationNode();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new GSThreadFactory("CheckpointLoader-" + _engine.getFullSpaceName(), true));
+        try {
+            long count = reader.readAll(executor, threads * 2, new SpaceCheckpointReader.IDataConsumer() {
+                @Override
+                public void consume(ISpaceReplicaData data) throws Exception {
+                    consumer.consumeData((IExecutableSpaceReplicaData) data, result, facade);
+                }
+            });
+            if (result.isFailed())
+                throw result.getFailureReason();
+            return count;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String getUnsupportedReason() {
+        CacheManager cacheManager = _engine.getCacheManager();
+        if (_engine.getReplicationNode() == null)
+            return "space is not replicated";
+        if (!cacheManager.isMemorySpace() || cacheManager.isBlobStoreCachePolicy() || cacheManager.isTieredStorageCachePolicy())
+            return "only supported for in-memory spaces";
+        if (_engine.isMvccEnabled())
+            return "not supported with MVCC";
+        if (_engine.getSpaceImpl().isSecuredSpace())
+            return "not supported for secured spaces";
+        return null;
+    }
+
+    private Path resolveSibling(String suffix) {
+        return _checkpointFile.resolveSibling(_checkpointFile.getFileName() + suffix);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            if (_logger.isWarnEnabled())
+                _logger.warn("Failed deleting [" + file + "]", e);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.recovery.checkpoint;
+
+import com.gigaspaces.internal.cluster.node.impl.groups.ReplicationCheckpoint;
+import com.gigaspaces.internal.cluster.node.impl.replica.ISpaceReplicaData;
+import com.gigaspaces.internal.io.GSByteArrayInputStream;
+import com.gigaspaces.internal.io.IOUtils;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferObjectInputStream;
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+import com.gigaspaces.lrmi.LRMIInvocationContext;
+import com.gigaspaces.lrmi.LRMIInvocationContext.InvocationStage;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a local checkpoint written by {@link SpaceCheckpointWriter}. The blocks of a stage are
+ * deserialized and consumed concurrently, except for the ordered blocks which are consumed one after
+ * the other in the order they were written, so that entries of FIFO types keep their order. A stage
+ * is started only once all the data of the previous stage was consumed, so types are introduced
+ * before the entries which use them.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class SpaceCheckpointReader implements Closeable {
+    public interface IDataConsumer {
+        void consume(ISpaceReplicaData data) throws Exception;
+    }
+
+    private final DataInputStream _in;
+    private final PlatformLogicalVersion _logicalVersion;
+    private final ReplicationCheckpoint _checkpoint;
+
+    public SpaceCheckpointReader(InputStream in) throws IOException, ClassNotFoundException {
+        _in = new DataInputStream(in);
+        if (_in.readInt() != SpaceCheckpointWriter.MAGIC)
+            throw new IOException("Not a space checkpoint");
+        byte formatVersion = _in.readByte();
+        if (formatVersion != SpaceCheckpointWriter.FORMAT_VERSION)
+            throw new IOException("Unsupported space checkpoint format version " + formatVersion);
+
+        ObjectInputStream header = new ByteBufferObjectInputStream(new GSByteArrayInputStream(readBlock(_in.readInt()).getBytes()));
+        _logicalVersion = IOUtils.readObject(header);
+        _checkpoint = ReplicationCheckpoint.readFrom(header);
+    }
+
+    /**
+     * @return the version of the space which wrote the checkpoint, data written by a newer version
+     * cannot be read
+     */
+    public PlatformLogicalVersion getLogicalVersion() {
+        return _logicalVersion;
+    }
+
+    public ReplicationCheckpoint getCheckpoint() {
+        return _checkpoint;
+    }
+
+    /**
+     * Reads all the stages of the checkpoint and hands their data to the consumer
+     *
+     * @param executor      deserializes and consumes the blocks
+     * @param pendingBlocks maximal number of blocks which are read but not yet consumed
+     * @return the number of consumed data items
+     */
+    public long readAll(Executor executor, int pendingBlocks, final IDataConsumer consumer) throws Exception {
+        final OrderedLane orderedLane = new OrderedLane(executor);
+        final Semaphore permits = new Semaphore(pendingBlocks);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final AtomicLong consumed = new AtomicLong();
+
+        while (true) {
+            byte type = _in.readByte();
+            if (type == SpaceCheckpointWriter.END)
+                break;
+            if (type != SpaceCheckpointWriter.STAGE)
+                throw new IOException("Corrupted space checkpoint, unexpected section type " + type);
+
+            int length;
+            while ((length = _in.readInt()) != 0) {
+                final Block block = readBlock(length);
+                permits.acquire();
+                if (error.get() != null) {
+                    permits.release();
+                    break;
+                }
+                Runnable task = new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            for (ISpaceReplicaData data : deserialize(block)) {
+                                consumer.consume(data);
+                                consumed.incrementAndGet();
+                            }
+                        } catch (Throwable t) {
+                            error.compareAndSet(null, t);
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                };
+                if (block.isOrdered())
+                    orderedLane.execute(task);
+                else
+                    executor.execute(task);
+            }
+            // Stage barrier
+            permits.acquire(pendingBlocks);
+            permits.release(pendingBlocks);
+            Throwable t = error.get();
+            if (t instanceof Exception)
+                throw (Exception) t;
+            if (t != null)
+                throw new IOException("Failed loading space checkpoint", t);
+            _in.readUTF();
+        }
+
+        long expected = _in.readLong();
+        if (expected != consumed.get())
+            throw new IOException("Corrupted space checkpoint, expected " + expected + " data items but consumed " + consumed.get());
+        return expected;
+    }
+
+    private List<ISpaceReplicaData> deserialize(Block block) throws IOException, ClassNotFoundException {
+        // Data written by an older version is read the way it would have been read from the wire
+        LRMIInvocationContext.updateContext(null, null, InvocationStage.SERVER_UNMARSHAL_REQUEST, _logicalVersion, null, true, null, null);
+        try {
+            ObjectInputStream in = new ByteBufferObjectInputStream(new GSByteArrayInputStream(block.getBytes()));
+            List<ISpaceReplicaData> result = new ArrayList<ISpaceReplicaData>(block.getCount());
+            for (int i = 0; i < block.getCount(); i++) {
+                ISpaceReplicaData data = IOUtils.readObject(in);
+                result.add(data);
+            }
+            return result;
+        } finally {
+            LRMIInvocationContext.restoreContext();
+        }
+    }
+
+    private Block readBlock(int length) throws IOException {
+        int count = _in.readInt();
+        boolean ordered = _in.readBoolean();
+        long crc = _in.readLong();
+        byte[] bytes = new byte[length];
+        _in.readFully(bytes);
+        CRC32 actual = new CRC32();
+        actual.update(bytes, 0, length);
+        if (actual.getValue() != crc)
+            throw new IOException("Corrupted space checkpoint, block checksum mismatch");
+        return new Block(bytes, count, ordered);
+    }
+
+    private static class Block {
+        private final byte[] _bytes;
+        private final int _count;
+        private final boolean _ordered;
+
+        private Block(byte[] bytes, int count, boolean ordered) {
+            _bytes = bytes;
+            _count = count;
+            _ordered = ordered;
+        }
+
+        public byte[] getBytes() {
+            return _bytes;
+        }
+
+        public int getCount() {
+            return _count;
+        }
+
+        public boolean isOrdered() {
+            return _ordered;
+        }
+    }
+
+    /**
+     * Runs the tasks handed to it one after the other in the order they were handed, using at most
+     * one thread of the executor at a time
+     */
+    private static class OrderedLane implements Runnable {
+        private final Executor _executor;
+        private final Queue<Runnable> _tasks = new LinkedList<Runnable>();
+        private boolean _running;
+
+        private OrderedLane(Executor executor) {
+            _executor = executor;
+        }
+
+        public void execute(Runnable task) {
+            synchronized (this) {
+                _tasks.add(task);
+                if (_running)
+                    return;
+                _running = true;
+            }
+            _executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = _tasks.poll();
+                    if (task == null) {
+                        _running = false;
+                        return;
+                    }
+                }
+                task.run();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        _in.close();
+    }
+}
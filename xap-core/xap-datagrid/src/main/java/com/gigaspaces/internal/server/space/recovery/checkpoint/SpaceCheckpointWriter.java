@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.recovery.checkpoint;
+
+import com.gigaspaces.internal.cluster.node.impl.groups.ReplicationCheckpoint;
+import com.gigaspaces.internal.cluster.node.impl.replica.ISpaceReplicaData;
+import com.gigaspaces.internal.io.GSByteArrayOutputStream;
+import com.gigaspaces.internal.io.IOUtils;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferObjectOutputStream;
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a local checkpoint of a space. The checkpoint holds the replica data of the space in the
+ * stages a space copy produces it, each stage is a sequence of independently serialized blocks so
+ * that the blocks of a stage can be deserialized concurrently when the checkpoint is loaded. Blocks
+ * holding data which must be consumed in the order it was written are marked as ordered.
+ *
+ * <pre>
+ * magic, format version, header block (logical version, replication checkpoint)
+ * { STAGE, { block length, data count, ordered, crc, block }*, 0, stage name }*
+ * END, total data count
+ * </pre>
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class SpaceCheckpointWriter implements Closeable {
+    static final int MAGIC = 0x47534350;
+    static final byte FORMAT_VERSION = 2;
+    static final byte STAGE = 1;
+    static final byte END = 2;
+
+    private static final int BLOCK_SIZE = 256 * 1024;
+
+    private final DataOutputStream _out;
+    private final GSByteArrayOutputStream _blockBytes = new GSByteArrayOutputStream(BLOCK_SIZE);
+    private final CRC32 _crc = new CRC32();
+    private ObjectOutputStream _block;
+    private int _blockCount;
+    private boolean _blockOrdered;
+    private long _totalCount;
+
+    public SpaceCheckpointWriter(OutputStream out, ReplicationCheckpoint checkpoint) throws IOException {
+        _out = new DataOutputStream(out);
+        _out.writeInt(MAGIC);
+        _out.writeByte(FORMAT_VERSION);
+
+        ObjectOutputStream header = beginBlock();
+        IOUtils.writeObject(header, PlatformLogicalVersion.getLogicalVersion());
+        checkpoint.writeTo(header);
+        flushBlock();
+    }
+
+    public void beginStage() throws IOException {
+        _out.writeByte(STAGE);
+    }
+
+    public void write(ISpaceReplicaData data) throws IOException {
+        write(data, false);
+    }
+
+    /**
+     * @param ordered true if the data must be consumed after the ordered data written before it in
+     *                the same stage, such as entries of a FIFO type
+     */
+    public void write(ISpaceReplicaData data, boolean ordered) throws IOException {
+        ObjectOutputStream block = _block != null ? _block : beginBlock();
+        IOUtils.writeObject(block, data);
+        _blockCount++;
+        _blockOrdered |= ordered;
+        _totalCount++;
+        block.flush();
+        if (_blockBytes.size() >= BLOCK_SIZE)
+            flushBlock();
+    }
+
+    /**
+     * @param stageName the name of the stage, known to a space copy only once the stage is done
+     */
+    public void endStage(String stageName) throws IOException {
+        if (_block != null)
+            flushBlock();
+        _out.writeInt(0);
+        _out.writeUTF(stageName);
+    }
+
+    /**
+     * Marks the checkpoint as complete, a checkpoint without an end mark is not loaded
+     */
+    public void finish() throws IOException {
+        _out.writeByte(END);
+        _out.writeLong(_totalCount);
+        _out.flush();
+    }
+
+    public long getTotalCount() {
+        return _totalCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _out.close();
+    }
+
+    private ObjectOutputStream beginBlock() throws IOException {
+        _blockBytes.reset();
+        _block = new ByteBufferObjectOutputStream(_blockBytes);
+        _blockCount = 0;
+        _blockOrdered = false;
+        return _block;
+    }
+
+    private void flushBlock() throws IOException {
+        _block.flush();
+        final byte[] buffer = _blockBytes.getBuffer();
+        final int length = _blockBytes.size();
+        _crc.reset();
+        _crc.update(buffer, 0, length);
+        _out.writeInt(length);
+        _out.writeInt(_blockCount);
+        _out.writeBoolean(_blockOrdered);
+        _out.writeLong(_crc.getValue());
+        _out.write(buffer, 0, length);
+        _block = null;
+    }
+}
@@ -21,6 +21,7 @@ package com.gigaspaces.internal.server.space.recovery.strategy;
 
 import com.gigaspaces.internal.cluster.node.replica.ISpaceSynchronizeReplicaState;
 import com.gigaspaces.internal.server.space.SpaceImpl;
+import com.gigaspaces.internal.server.space.recovery.checkpoint.SpaceCheckpointManager;
 
 @com.gigaspaces.api.InternalApi
 public class NonCentralDBBackupSpaceRecovery extends BackupSpaceRecovery {
@@ -39,6 +40,10 @@ public class NonCentralDBBackupSpaceRecovery extends BackupSpaceRecovery {
         // only transient entries should be copied from the target space because all persistent entries
         // were retrieved from the DB.
         boolean transientOnly = !_space.getEngine().isColdStart();
+        // a space which holds no data may load the checkpoint it took when it was shut down,
+        // and only replicate from the primary what it missed since
+        if (!transientOnly && new SpaceCheckpointManager(_space.getEngine()).resumeFromCheckpoint())
+            return null;
         return recoverFromPrimary(transientOnly, transientOnly);
     }
 
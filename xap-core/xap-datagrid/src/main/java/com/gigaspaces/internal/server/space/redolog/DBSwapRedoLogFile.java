@@ -201,7 +201,7 @@ public class DBSwapRedoLogFile<T extends IReplicationOrderedPacket> implements I
             return new CompactionResult(); //empty
         }
 
-        if (from > _lastSeenTransientPacketKey) {
+        if (from > _lastSeenTransientPacketKey && !RedoLogCompactionUtil.isCoalescingEnabled()) {
             if (_logger.isDebugEnabled()) {
                 _logger.debug("No transient packets in range "
                         + from + "-" + to + ", lastSeenTransientPacketKey = " + _lastSeenTransientPacketKey);
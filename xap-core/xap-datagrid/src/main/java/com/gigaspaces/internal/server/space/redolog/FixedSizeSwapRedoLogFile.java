@@ -311,7 +311,7 @@ public class FixedSizeSwapRedoLogFile<T extends IReplicationOrderedPacket> imple
             return result;
         }
 
-        if (from > _lastSeenTransientPacketKey) {
+        if (from > _lastSeenTransientPacketKey && !RedoLogCompactionUtil.isCoalescingEnabled()) {
             if (_logger.isTraceEnabled()) {
                 _logger.debug("[" + _name + "]: No transient packets in range " + from + "-" + to + ", lastSeenTransientPacketKey = " + _lastSeenTransientPacketKey);
             }
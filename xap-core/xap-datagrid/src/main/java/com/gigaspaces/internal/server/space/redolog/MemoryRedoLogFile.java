@@ -27,7 +27,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.LinkedList;
-import java.util.ListIterator;
 
 import static com.gigaspaces.logger.Constants.LOGGER_REPLICATION_BACKLOG;
 
@@ -165,8 +164,7 @@ public class MemoryRedoLogFile<T extends IReplicationOrderedPacket> implements I
 
     @Override
     public CompactionResult performCompaction(long from, long to) {
-        ListIterator<T> iterator = _redoFile.listIterator();
-        final CompactionResult compactionResult =RedoLogCompactionUtil.compact(from, to, iterator);
+        final CompactionResult compactionResult = RedoLogCompactionUtil.compact(from, to, _redoFile);
         this._weight -= compactionResult.getDiscardedCount() + compactionResult.getDeletedFromTxn();
         this._discardedPacketCount += compactionResult.getDiscardedCount();
         return compactionResult;
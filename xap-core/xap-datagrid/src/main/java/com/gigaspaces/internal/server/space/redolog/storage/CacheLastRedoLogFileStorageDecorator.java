@@ -147,8 +147,7 @@ public class CacheLastRedoLogFileStorageDecorator<T extends IReplicationOrderedP
 
     @Override
     public CompactionResult performCompaction(long from, long to) {
-        ListIterator<T> iterator = _buffer.listIterator();
-        final CompactionResult compactionResult = RedoLogCompactionUtil.compact(from, to, iterator);
+        final CompactionResult compactionResult = RedoLogCompactionUtil.compact(from, to, _buffer);
         this._bufferWeight -= compactionResult.getDiscardedCount() + compactionResult.getDeletedFromTxn();
         this._discardedPacketCount += compactionResult.getDiscardedCount();
         return compactionResult;
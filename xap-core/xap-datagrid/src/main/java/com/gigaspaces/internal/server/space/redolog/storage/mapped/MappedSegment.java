@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.redolog.storage.mapped;
+
+import com.gigaspaces.internal.server.space.redolog.storage.StorageException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A preallocated memory mapped segment file of the {@link MappedSegmentRedoLogFileStorage}. Records
+ * are appended one after the other, each prefixed by a header holding the payload length, the
+ * packet weight and key and a checksum of the payload. Records are never removed from the middle of
+ * a segment, only its start position moves forward, and the file is deleted as a whole once it is
+ * no longer needed.
+ *
+ * A sparse index keeps the position of a record every index interval bytes, so a reader can
+ * locate a record by skipping over a bounded number of headers.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class MappedSegment {
+    /**
+     * length (int), weight (int), key (long), checksum (int)
+     */
+    public static final int HEADER_LENGTH = 20;
+
+    private static final int WEIGHT_OFFSET = 4;
+    private static final int KEY_OFFSET = 8;
+    private static final int CHECKSUM_OFFSET = 16;
+
+    private final File _file;
+    private final MappedByteBuffer _buffer;
+    private final ByteBuffer _writer;
+    private final int _capacity;
+    private final int _indexInterval;
+    private final CRC32 _writerChecksum = new CRC32();
+
+    private int[] _indexOrdinals = new int[16];
+    private int[] _indexPositions = new int[16];
+    private int _indexSize;
+    private int _unindexedLength;
+
+    private volatile int _writePosition;
+    private volatile MappedSegment _next;
+    private int _records;
+    private int _removedRecords;
+    private int _startPosition;
+    private long _weight;
+
+    private int _references = 1;
+    private boolean _deleted;
+    private boolean _unmapped;
+
+    private MappedSegment(File file, MappedByteBuffer buffer, int capacity, int indexInterval) {
+        _file = file;
+        _buffer = buffer;
+        _writer = buffer.duplicate();
+        _capacity = capacity;
+        _indexInterval = indexInterval;
+    }
+
+    /**
+     * Creates a new segment file in the given directory, preallocated to the given capacity and
+     * mapped to memory
+     */
+    public static MappedSegment create(File directory, String fileName, int capacity, int indexInterval) throws IOException {
+        directory.mkdirs();
+        File file = File.createTempFile(fileName + "_", ".seg", directory);
+        try {
+            file.deleteOnExit();
+        } catch (Throwable t) {
+            //Do nothing, this can occur if deleteOnExit is called when the jvm is during shutdown.
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(capacity);
+            // the mapping remains valid after the channel is closed
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            return new MappedSegment(file, buffer, capacity, indexInterval);
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        }
+    }
+
+    public File getFile() {
+        return _file;
+    }
+
+    public int getCapacity() {
+        return _capacity;
+    }
+
+    /**
+     * @return true if a record with the given payload length can be appended to this segment
+     */
+    public boolean hasRoom(int payloadLength) {
+        return (long) _writePosition + HEADER_LENGTH + payloadLength <= _capacity;
+    }
+
+    /**
+     * Appends a record, this method should be called by a single writer only
+     */
+    public void append(ByteBuffer payload, int weight, long key) {
+        final int position = _writePosition;
+        final int length = payload.remaining();
+        if (_unindexedLength >= _indexInterval) {
+            addIndex(_records, position);
+            _unindexedLength = 0;
+        }
+        _writerChecksum.reset();
+        _writerChecksum.update(payload.array(), payload.arrayOffset() + payload.position(), length);
+        _writer.putInt(position, length);
+        _writer.putInt(position + WEIGHT_OFFSET, weight);
+        _writer.putLong(position + KEY_OFFSET, key);
+        _writer.putInt(position + CHECKSUM_OFFSET, (int) _writerChecksum.getValue());
+        _writer.position(position + HEADER_LENGTH);
+        _writer.put(payload);
+
+        _records++;
+        _weight += weight;
+        _unindexedLength += HEADER_LENGTH + length;
+        // publish the record to the readers
+        _writePosition = position + HEADER_LENGTH + length;
+    }
+
+    private void addIndex(int ordinal, int position) {
+        if (_indexSize == _indexOrdinals.length) {
+            _indexOrdinals = Arrays.copyOf(_indexOrdinals, _indexSize * 2);
+            _indexPositions = Arrays.copyOf(_indexPositions, _indexSize * 2);
+        }
+        _indexOrdinals[_indexSize] = ordinal;
+        _indexPositions[_indexSize] = position;
+        _indexSize++;
+    }
+
+    /**
+     * @return the position of the record at the given index, relative to the first record which
+     * was not removed
+     */
+    public int positionOf(int index) {
+        final int ordinal = _removedRecords + index;
+        int currentOrdinal = _removedRecords;
+        int position = _startPosition;
+        int slot = Arrays.binarySearch(_indexOrdinals, 0, _indexSize, ordinal);
+        if (slot < 0)
+            slot = -slot - 2;
+        if (slot >= 0 && _indexOrdinals[slot] > currentOrdinal) {
+            currentOrdinal = _indexOrdinals[slot];
+            position = _indexPositions[slot];
+        }
+        for (; currentOrdinal < ordinal; currentOrdinal++)
+            position = nextPosition(position);
+        return position;
+    }
+
+    /**
+     * @return the position of the record which follows the record at the given position
+     */
+    public int nextPosition(int position) {
+        return position + HEADER_LENGTH + _buffer.getInt(position);
+    }
+
+    public int getWeight(int position) {
+        return _buffer.getInt(position + WEIGHT_OFFSET);
+    }
+
+    public long getKey(int position) {
+        return _buffer.getLong(position + KEY_OFFSET);
+    }
+
+    /**
+     * Reads the payload of the record at the given position and verifies its checksum, may be
+     * called by concurrent readers
+     */
+    public byte[] readPayload(int position) throws StorageException {
+        final int length = _buffer.getInt(position);
+        if (length < 0 || position + HEADER_LENGTH + length > _writePosition)
+            throw new StorageException("Corrupted record length " + length + " at position " + position + " of " + _file);
+        byte[] payload = new byte[length];
+        ByteBuffer reader = _buffer.duplicate();
+        reader.position(position + HEADER_LENGTH);
+        reader.get(payload);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload, 0, length);
+        if ((int) checksum.getValue() != _buffer.getInt(position + CHECKSUM_OFFSET))
+            throw new StorageException("Checksum mismatch of record at position " + position + " of " + _file);
+        return payload;
+    }
+
+    /**
+     * Removes the given number of records from the start of this segment, only the headers of the
+     * records are read
+     *
+     * @return the weight of the removed records
+     */
+    public long removeFirst(int count) {
+        long removedWeight = 0;
+        int position = _startPosition;
+        for (int i = 0; i < count; i++) {
+            removedWeight += getWeight(position);
+            position = nextPosition(position);
+        }
+        _startPosition = position;
+        _removedRecords += count;
+        _weight -= removedWeight;
+        return removedWeight;
+    }
+
+    public int getStartPosition() {
+        return _startPosition;
+    }
+
+    public int getWritePosition() {
+        return _writePosition;
+    }
+
+    /**
+     * @return the number of records in this segment which were not removed
+     */
+    public int getPacketsCount() {
+        return _records - _removedRecords;
+    }
+
+    public long getWeight() {
+        return _weight;
+    }
+
+    public MappedSegment getNext() {
+        return _next;
+    }
+
+    public void setNext(MappedSegment next) {
+        _next = next;
+    }
+
+    /**
+     * Keeps the segment mapped until a matching {@link #release()} is called, used by iterators
+     * which may outlive the segment in the storage
+     */
+    public synchronized void acquire() {
+        _references++;
+    }
+
+    public synchronized void release() {
+        if (--_references == 0 && !_unmapped) {
+            _unmapped = true;
+            Unmapper.unmap(_buffer);
+            _file.delete();
+        }
+    }
+
+    /**
+     * Deletes the segment file, it is unmapped once all the iterators over it are closed
+     */
+    public synchronized void delete() {
+        if (!_deleted) {
+            _deleted = true;
+            release();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MappedSegment{file=" + _file.getName() + ", packets=" + getPacketsCount() + ", removed=" + _removedRecords +
+                ", startPosition=" + _startPosition + ", writePosition=" + _writePosition + ", capacity=" + _capacity + "}";
+    }
+
+    /**
+     * Releases the memory of a mapped buffer without waiting for it to be garbage collected. Java 8
+     * exposes the buffer cleaner, later versions provide Unsafe.invokeCleaner, both are looked up
+     * by reflection. If neither is available the mapping is released by the garbage collector.
+     */
+    private static class Unmapper {
+        private static final Object UNSAFE;
+        private static final Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+            } catch (Exception e) {
+                invokeCleaner = null;
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        static void unmap(MappedByteBuffer buffer) {
+            try {
+                if (INVOKE_CLEANER != null) {
+                    INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                } else {
+                    Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                    cleanerMethod.setAccessible(true);
+                    Object cleaner = cleanerMethod.invoke(buffer);
+                    if (cleaner != null)
+                        cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            } catch (Exception e) {
+                // left to the garbage collector
+            }
+        }
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.redolog.storage.mapped;
+
+import com.gigaspaces.internal.cluster.node.impl.backlog.BacklogWeightPolicy;
+import com.gigaspaces.internal.cluster.node.impl.packets.IReplicationOrderedPacket;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketData;
+import com.gigaspaces.internal.server.space.redolog.RedoLogFileCompromisedException;
+import com.gigaspaces.internal.server.space.redolog.storage.IRedoLogFileStorage;
+import com.gigaspaces.internal.server.space.redolog.storage.StorageException;
+import com.gigaspaces.internal.server.space.redolog.storage.StorageFullException;
+import com.gigaspaces.internal.server.space.redolog.storage.StorageReadOnlyIterator;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferRedoLogFileConfig;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.EmptyStorageReadOnlyIterator;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.PacketSerializer;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.WeightedBatch;
+import com.gigaspaces.logger.Constants;
+import com.gigaspaces.start.SystemLocations;
+import com.j_spaces.core.cluster.startup.CompactionResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An implementation of redo log file storage which is based on preallocated memory mapped segment
+ * files. Packets are appended as checksummed length prefixed records, reading packets streams
+ * sequentially over the mapped segments and removing packets only moves the start of the first
+ * segment forward, a segment file is deleted as a whole once all of its packets are removed.
+ *
+ * Uses the segment size, maximal swap size, maximal scan length (as the sparse index interval) and
+ * packet stream serializer of the {@link ByteBufferRedoLogFileConfig}.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class MappedSegmentRedoLogFileStorage<T extends IReplicationOrderedPacket>
+        implements IRedoLogFileStorage<T> {
+    private static final Logger _logger = LoggerFactory.getLogger(Constants.LOGGER_REPLICATION_BACKLOG);
+
+    private final StorageReadOnlyIterator<T> EMPTY_ITERATOR = new EmptyStorageReadOnlyIterator<T>();
+
+    private final String _fileName;
+    private final File _directory;
+    private final PacketSerializer<T> _packetSerializer;
+    private final BacklogWeightPolicy _backlogWeightPolicy;
+    private final long _maxSwapSize;
+    private final int _segmentSize;
+    private final int _indexInterval;
+
+    private final LinkedList<MappedSegment> _segments = new LinkedList<MappedSegment>();
+    private long _size;
+    private long _weight;
+
+    public MappedSegmentRedoLogFileStorage(String fileName, ByteBufferRedoLogFileConfig<T> config, BacklogWeightPolicy backlogWeightPolicy) {
+        this(SystemLocations.singleton().work("replication").toFile(), fileName, config, backlogWeightPolicy);
+    }
+
+    public MappedSegmentRedoLogFileStorage(File directory, String fileName, ByteBufferRedoLogFileConfig<T> config, BacklogWeightPolicy backlogWeightPolicy) {
+        this._directory = directory;
+        this._fileName = fileName;
+        this._packetSerializer = new PacketSerializer<T>(config.getPacketStreamSerializer());
+        this._backlogWeightPolicy = backlogWeightPolicy;
+        this._maxSwapSize = config.getMaxSwapSize();
+        this._segmentSize = (int) Math.min(config.getMaxSizePerSegment(), Integer.MAX_VALUE);
+        this._indexInterval = config.getMaxScanLength();
+
+        if (_logger.isDebugEnabled()) {
+            _logger.debug("MappedSegmentRedoLogFileStorage created:"
+                    + "\n\tdirectory = " + directory
+                    + "\n\tmaxSwapSize = " + (_maxSwapSize == ByteBufferRedoLogFileConfig.UNLIMITED ? "UNLIMITED" : (_maxSwapSize / (1024 * 1024)) + "mb")
+                    + "\n\tsegmentSize = " + (_segmentSize / (1024 * 1024)) + "mb"
+                    + "\n\tindexInterval = " + (_indexInterval / 1024) + "kb");
+        }
+    }
+
+    @Override
+    public void appendBatch(List<T> replicationPackets) throws StorageException, StorageFullException {
+        int writtenPackets = 0;
+        try {
+            for (T packet : replicationPackets) {
+                ByteBuffer payload = _packetSerializer.serializePacket(packet);
+                MappedSegment segment = _segments.peekLast();
+                if (segment == null || !segment.hasRoom(payload.remaining()))
+                    segment = createNewSegment(payload.remaining());
+                final int weight = packet.getWeight();
+                segment.append(payload, weight, packet.getKey());
+                _size++;
+                _weight += weight;
+                writtenPackets++;
+            }
+        } catch (StorageFullException e) {
+            ArrayList<T> deniedPackets = new ArrayList<T>(replicationPackets.subList(writtenPackets, replicationPackets.size()));
+            if (_logger.isDebugEnabled())
+                _logger.debug("Storage is full, denied " + deniedPackets.size() + " packets");
+            throw new StorageFullException(e.getMessage(), e.getCause(), deniedPackets);
+        } catch (Exception e) {
+            if (_logger.isErrorEnabled())
+                _logger.error("error appending replications packets to storage", e);
+            throw new StorageException("error appending replications packets to storage", e);
+        }
+    }
+
+    private MappedSegment createNewSegment(int payloadLength) throws IOException {
+        final int capacity = Math.max(_segmentSize, MappedSegment.HEADER_LENGTH + payloadLength);
+        if (_maxSwapSize != ByteBufferRedoLogFileConfig.UNLIMITED && getSpaceUsed() + capacity > _maxSwapSize)
+            throw new StorageFullException("storage is full", null);
+
+        MappedSegment segment = MappedSegment.create(_directory, _fileName, capacity, _indexInterval);
+        MappedSegment lastSegment = _segments.peekLast();
+        if (lastSegment != null) {
+            lastSegment.setNext(segment);
+            // an empty segment which has no room left is no longer needed
+            if (lastSegment.getPacketsCount() == 0) {
+                _segments.removeLast();
+                lastSegment.delete();
+            }
+        }
+        _segments.addLast(segment);
+        if (_logger.isTraceEnabled())
+            _logger.trace("created new segment, current segment count is " + _segments.size());
+        return segment;
+    }
+
+    @Override
+    public long size() throws StorageException {
+        return _size;
+    }
+
+    @Override
+    public WeightedBatch<T> removeFirstBatch(int batchCapacity, long lastCompactionRangeEndKey) throws StorageException {
+        WeightedBatch<T> batch = new WeightedBatch<T>(lastCompactionRangeEndKey);
+        try {
+            while (batch.getWeight() < batchCapacity && _size > 0) {
+                MappedSegment segment = getFirstNonEmptySegment();
+                final int position = segment.getStartPosition();
+                T packet = readPacket(segment, position);
+                if (batch.size() > 0 && batch.getWeight() + packet.getWeight() > batchCapacity) {
+                    batch.setLimitReached(true);
+                    break;
+                }
+                _weight -= segment.removeFirst(1);
+                _size--;
+                batch.addToBatch(packet);
+            }
+        } catch (IOException e) {
+            throw new StorageException("error when removing first batch from storage", e);
+        } catch (ClassNotFoundException e) {
+            throw new StorageException("error when removing first batch from storage", e);
+        } finally {
+            deleteEmptySegments();
+        }
+        if (batch.size() >= batchCapacity) {
+            batch.setLimitReached(true);
+        }
+        return batch;
+    }
+
+    @Override
+    public void deleteOldestPackets(long packetsCount) throws StorageException {
+        long remaining = Math.min(packetsCount, _size);
+        while (remaining > 0) {
+            MappedSegment segment = getFirstNonEmptySegment();
+            final int removed = (int) Math.min(remaining, segment.getPacketsCount());
+            if (removed == segment.getPacketsCount() && segment != _segments.getLast()) {
+                //Delete the entire segment without reading it
+                _segments.remove(segment);
+                segment.delete();
+                _weight -= segment.getWeight();
+                if (_logger.isTraceEnabled())
+                    _logger.trace("deleted segment " + segment);
+            } else {
+                _weight -= segment.removeFirst(removed);
+            }
+            _size -= removed;
+            remaining -= removed;
+        }
+        deleteEmptySegments();
+    }
+
+    private MappedSegment getFirstNonEmptySegment() {
+        for (MappedSegment segment : _segments) {
+            if (segment.getPacketsCount() > 0)
+                return segment;
+        }
+        throw new IllegalStateException("storage holds " + _size + " packets but all segments are empty");
+    }
+
+    /**
+     * Deletes the segments from the start of the storage which hold no packets, the last segment is
+     * kept for the next appends
+     */
+    private void deleteEmptySegments() {
+        while (_segments.size() > 1 && _segments.getFirst().getPacketsCount() == 0) {
+            MappedSegment segment = _segments.removeFirst();
+            segment.delete();
+            if (_logger.isTraceEnabled())
+                _logger.trace("deleted segment " + segment);
+        }
+    }
+
+    @Override
+    public StorageReadOnlyIterator<T> readOnlyIterator(long fromIndex) throws StorageException {
+        if (fromIndex >= _size)
+            return EMPTY_ITERATOR;
+        long index = fromIndex;
+        for (MappedSegment segment : _segments) {
+            final int segmentPackets = segment.getPacketsCount();
+            if (index < segmentPackets)
+                return new MappedSegmentReadOnlyIterator(segment, segment.positionOf((int) index));
+            index -= segmentPackets;
+        }
+        return EMPTY_ITERATOR;
+    }
+
+    @Override
+    public boolean isEmpty() throws StorageException {
+        return _size == 0;
+    }
+
+    /**
+     * Performs an integrity check that verifies the records checksums, the keys order and the
+     * packets count
+     */
+    @Override
+    public void validateIntegrity() throws RedoLogFileCompromisedException {
+        long packetsCount = 0;
+        long lastKey = Long.MIN_VALUE;
+        for (MappedSegment segment : _segments) {
+            int segmentPackets = 0;
+            int position = segment.getStartPosition();
+            try {
+                while (position < segment.getWritePosition()) {
+                    segment.readPayload(position);
+                    final long key = segment.getKey(position);
+                    if (key < lastKey)
+                        throw new RedoLogFileCompromisedException("Key " + key + " at position " + position + " of " + segment + " is lower than the previous key " + lastKey);
+                    lastKey = key;
+                    segmentPackets++;
+                    position = segment.nextPosition(position);
+                }
+            } catch (StorageException e) {
+                throw new RedoLogFileCompromisedException("Error while checking data integrity of " + segment, e);
+            }
+            if (segmentPackets != segment.getPacketsCount())
+                throw new RedoLogFileCompromisedException("Calculated size [" + segmentPackets + "] of " + segment + " does not match kept size [" + segment.getPacketsCount() + "]");
+            packetsCount += segmentPackets;
+        }
+        if (packetsCount != _size)
+            throw new RedoLogFileCompromisedException("Calculated size [" + packetsCount + "] does not match kept size [" + _size + "]");
+    }
+
+    @Override
+    public synchronized void close() {
+        for (MappedSegment segment : _segments)
+            segment.delete();
+        _segments.clear();
+        _size = 0;
+        _weight = 0;
+        if (_logger.isDebugEnabled())
+            _logger.debug("closed storage");
+    }
+
+    @Override
+    public long getWeight() {
+        return _weight;
+    }
+
+    @Override
+    public long getDiscardedPacketsCount() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompactionResult performCompaction(long from, long to) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getCacheWeight() {
+        return 0;
+    }
+
+    @Override
+    public long getSpaceUsed() {
+        long spaceUsed = 0;
+        for (MappedSegment segment : _segments)
+            spaceUsed += segment.getCapacity();
+        return spaceUsed;
+    }
+
+    @Override
+    public long getExternalPacketsCount() {
+        return _size;
+    }
+
+    @Override
+    public long getMemoryPacketsCount() {
+        return 0; //no packets held in memory at this layer
+    }
+
+    @Override
+    public long getMemoryPacketsWeight() {
+        return 0; //no packets held in memory at this layer
+    }
+
+    @Override
+    public long getExternalStoragePacketsWeight() {
+        return _weight;
+    }
+
+    private T readPacket(MappedSegment segment, int position) throws IOException, ClassNotFoundException {
+        T packet = _packetSerializer.deserializePacket(segment.readPayload(position));
+        IReplicationPacketData<?> packetData = packet.getData();
+        if (packetData != null) {
+            packetData.setWeight(_backlogWeightPolicy.calculateWeight(packetData));
+        }
+        return packet;
+    }
+
+    /**
+     * Streams the packets sequentially over the mapped segments, the current segment is kept mapped
+     * until the iterator moves past it or is closed
+     */
+    private class MappedSegmentReadOnlyIterator implements StorageReadOnlyIterator<T> {
+        private MappedSegment _segment;
+        private int _position;
+        private T _next;
+
+        public MappedSegmentReadOnlyIterator(MappedSegment segment, int position) {
+            segment.acquire();
+            _segment = segment;
+            _position = position;
+        }
+
+        @Override
+        public boolean hasNext() throws StorageException {
+            if (_next != null)
+                return true;
+            if (_segment == null)
+                return false;
+            boolean hasNext = false;
+            try {
+                while (_position >= _segment.getWritePosition()) {
+                    MappedSegment nextSegment = _segment.getNext();
+                    if (nextSegment == null)
+                        return false;
+                    nextSegment.acquire();
+                    _segment.release();
+                    _segment = nextSegment;
+                    _position = 0;
+                }
+                _next = readPacket(_segment, _position);
+                _position = _segment.nextPosition(_position);
+                hasNext = true;
+                return true;
+            } catch (StorageException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new StorageException("error while iterating over the storage", e);
+            } finally {
+                if (!hasNext)
+                    close();
+            }
+        }
+
+        @Override
+        public T next() throws StorageException {
+            if (_next == null && !hasNext())
+                throw new NoSuchElementException();
+            T result = _next;
+            _next = null;
+            return result;
+        }
+
+        @Override
+        public void close() throws StorageException {
+            if (_segment != null) {
+                _segment.release();
+                _segment = null;
+            }
+        }
+    }
+}
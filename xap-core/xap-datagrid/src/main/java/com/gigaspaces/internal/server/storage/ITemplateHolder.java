@@ -244,6 +244,10 @@ public interface ITemplateHolder extends ISpaceItem, IEntryHolder {
 
     void setAggregatorContext(EntryHolderAggregatorContext aggregatorContext);
 
+    ParallelScanContext getParallelScanContext();
+
+    void setParallelScanContext(ParallelScanContext parallelScanContext);
+
     void setChangeExpiration(long expirationTime);
 
     long getChangeExpiration();
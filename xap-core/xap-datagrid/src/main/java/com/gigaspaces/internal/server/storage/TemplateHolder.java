@@ -134,6 +134,7 @@ public class TemplateHolder extends AbstractSpaceItem implements ITemplateHolder
     private int _ordinalForMultipleIdsOperation;  //ordinal within the MultipleIdsContext
     private UpdateOrWriteContext _updateOrWriteContext;
     private EntryHolderAggregatorContext aggregatorContext;
+    private ParallelScanContext parallelScanContext;
 
     //the following is used by blob store
     private transient Boolean _optimizedForBlobStoreOp;
@@ -1070,6 +1071,16 @@ public class TemplateHolder extends AbstractSpaceItem implements ITemplateHolder
         this.aggregatorContext = aggregatorContext;
     }
 
+    @Override
+    public ParallelScanContext getParallelScanContext() {
+        return parallelScanContext;
+    }
+
+    @Override
+    public void setParallelScanContext(ParallelScanContext parallelScanContext) {
+        this.parallelScanContext = parallelScanContext;
+    }
+
     public long getChangeExpiration() {
         return _inPlaceUpdateExpiration;
     }
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Base class for concurrent maps which keep keys of a single primitive type unboxed. Keys of the
+ * primitive (boxed) type are dispatched to the primitive store implemented by the subclass, any
+ * other key is kept in a lazily created {@link ConcurrentHashMap} so that {@link Object#equals}
+ * semantics are identical to a regular concurrent map. Iteration is weakly consistent and null keys
+ * or values are not allowed.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public abstract class AbstractPrimitiveKeyConcurrentMap<V> extends AbstractMap<Object, V>
+        implements ConcurrentMap<Object, V> {
+
+    /**
+     * Marks a slot whose mapping was removed. Slots are never reused until the segment is rehashed,
+     * which lets readers traverse a table without locking.
+     */
+    protected static final Object REMOVED = new Object();
+
+    protected static final int MAX_SEGMENT_CAPACITY = 1 << 30;
+
+    private final Object _otherKeysLock = new Object();
+    private volatile ConcurrentHashMap<Object, V> _otherKeys;
+    private transient Set<Map.Entry<Object, V>> _entrySet;
+
+    /**
+     * @return true if the key is of the primitive type handled by this map.
+     */
+    protected abstract boolean isPrimitiveKey(Object key);
+
+    protected abstract V getPrimitive(Object key);
+
+    protected abstract V putPrimitive(Object key, V value, boolean onlyIfAbsent);
+
+    protected abstract V removePrimitive(Object key, Object value);
+
+    protected abstract V replacePrimitive(Object key, Object oldValue, V newValue);
+
+    protected abstract int primitiveSize();
+
+    protected abstract void clearPrimitive();
+
+    protected abstract Iterator<Map.Entry<Object, V>> primitiveIterator();
+
+    /**
+     * Supplemental hash, spreads the bits of a primitive key over both the segment and the slot
+     * index.
+     */
+    protected static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= (h >>> 32);
+        return (int) (h ^ (h >>> 16));
+    }
+
+    protected static int tableSizeFor(int capacity) {
+        int size = 2;
+        while (size < capacity && size < MAX_SEGMENT_CAPACITY)
+            size <<= 1;
+        return size;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (isPrimitiveKey(key))
+            return getPrimitive(key);
+        ConcurrentHashMap<Object, V> other = _otherKeys;
+        return other != null ? other.get(key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(Object key, V value) {
+        if (value == null)
+            throw new NullPointerException();
+        if (isPrimitiveKey(key))
+            return putPrimitive(key, value, false);
+        return getOrCreateOtherKeys().put(key, value);
+    }
+
+    @Override
+    public V putIfAbsent(Object key, V value) {
+        if (value == null)
+            throw new NullPointerException();
+        if (isPrimitiveKey(key))
+            return putPrimitive(key, value, true);
+        return getOrCreateOtherKeys().putIfAbsent(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (isPrimitiveKey(key))
+            return removePrimitive(key, null);
+        ConcurrentHashMap<Object, V> other = _otherKeys;
+        return other != null ? other.remove(key) : null;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (value == null)
+            return false;
+        if (isPrimitiveKey(key))
+            return removePrimitive(key, value) != null;
+        ConcurrentHashMap<Object, V> other = _otherKeys;
+        return other != null && other.remove(key, value);
+    }
+
+    @Override
+    public boolean replace(Object key, V oldValue, V newValue) {
+        if (oldValue == null || newValue == null)
+            throw new NullPointerException();
+        if (isPrimitiveKey(key))
+            return replacePrimitive(key, oldValue, newValue) != null;
+        ConcurrentHashMap<Object, V> other = _otherKeys;
+        return other != null && other.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public V replace(Object key, V value) {
+        if (value == null)
+            throw new NullPointerException();
+        if (isPrimitiveKey(key))
+            return replacePrimitive(key, null, value);
+        ConcurrentHashMap<Object, V> other = _otherKeys;
+        return other != null ? other.replace(key, value) : null;
+    }
+
+    @Override
+    public int size() {
+        ConcurrentHashMap<Object, V> other = _otherKeys;
+        return primitiveSize() + (other != null ? other.size() : 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        clearPrimitive();
+        ConcurrentHashMap<Object, V> other = _otherKeys;
+        if (other != null)
+            other.clear();
+    }
+
+    @Override
+    public Set<Map.Entry<Object, V>> entrySet() {
+        Set<Map.Entry<Object, V>> es = _entrySet;
+        return es != null ? es : (_entrySet = new EntrySet());
+    }
+
+    private ConcurrentHashMap<Object, V> getOrCreateOtherKeys() {
+        ConcurrentHashMap<Object, V> other = _otherKeys;
+        if (other == null) {
+            synchronized (_otherKeysLock) {
+                other = _otherKeys;
+                if (other == null) {
+                    other = new ConcurrentHashMap<Object, V>();
+                    _otherKeys = other;
+                }
+            }
+        }
+        return other;
+    }
+
+    protected static boolean valueEquals(Object expected, Object actual) {
+        return expected == actual || expected.equals(actual);
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<Object, V>> {
+        @Override
+        public Iterator<Map.Entry<Object, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            V v = AbstractPrimitiveKeyConcurrentMap.this.get(e.getKey());
+            return v != null && valueEquals(v, e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return AbstractPrimitiveKeyConcurrentMap.this.remove(e.getKey(), e.getValue());
+        }
+
+        @Override
+        public int size() {
+            return AbstractPrimitiveKeyConcurrentMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            AbstractPrimitiveKeyConcurrentMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<Object, V>> {
+        private Iterator<Map.Entry<Object, V>> _current = primitiveIterator();
+        private boolean _primitivePhase = true;
+        private Map.Entry<Object, V> _lastReturned;
+
+        @Override
+        public boolean hasNext() {
+            if (_current.hasNext())
+                return true;
+            if (_primitivePhase) {
+                _primitivePhase = false;
+                ConcurrentHashMap<Object, V> other = _otherKeys;
+                if (other != null) {
+                    _current = other.entrySet().iterator();
+                    return _current.hasNext();
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Map.Entry<Object, V> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            _lastReturned = _current.next();
+            return _lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (_lastReturned == null)
+                throw new IllegalStateException();
+            AbstractPrimitiveKeyConcurrentMap.this.remove(_lastReturned.getKey(), _lastReturned.getValue());
+            _lastReturned = null;
+        }
+    }
+}
@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.collections;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative ints. The value space is split into chunks of 2^16 values keyed by
+ * the high 16 bits; a chunk is kept as a sorted array of its low 16 bits while sparse and as a
+ * plain 65536-bit bitmap once it holds more than {@link #ARRAY_CHUNK_MAX} values. Set operations
+ * are performed chunk by chunk, so intersecting dense sets costs a word-wise AND and intersecting
+ * sparse sets costs a merge of the sorted arrays.
+ *
+ * <p>Not thread safe, callers synchronize externally.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class CompressedBitmap {
+    static final int ARRAY_CHUNK_MAX = 4096;
+    private static final int BITS_CHUNK_WORDS = 1024;
+
+    private char[] _keys;
+    private Chunk[] _chunks;
+    private int _numOfChunks;
+
+    public CompressedBitmap() {
+        _keys = new char[4];
+        _chunks = new Chunk[4];
+    }
+
+    private CompressedBitmap(char[] keys, Chunk[] chunks, int numOfChunks) {
+        _keys = keys;
+        _chunks = chunks;
+        _numOfChunks = numOfChunks;
+    }
+
+    public boolean add(int value) {
+        checkValue(value);
+        char high = (char) (value >>> 16);
+        int pos = findChunk(high);
+        if (pos < 0) {
+            pos = -pos - 1;
+            insertChunk(pos, high, new Chunk());
+        }
+        return _chunks[pos].add((char) value);
+    }
+
+    public boolean remove(int value) {
+        if (value < 0)
+            return false;
+        int pos = findChunk((char) (value >>> 16));
+        if (pos < 0)
+            return false;
+        Chunk chunk = _chunks[pos];
+        if (!chunk.remove((char) value))
+            return false;
+        if (chunk._cardinality == 0)
+            removeChunk(pos);
+        return true;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0)
+            return false;
+        int pos = findChunk((char) (value >>> 16));
+        return pos >= 0 && _chunks[pos].contains((char) value);
+    }
+
+    public int cardinality() {
+        int res = 0;
+        for (int i = 0; i < _numOfChunks; i++)
+            res += _chunks[i]._cardinality;
+        return res;
+    }
+
+    public boolean isEmpty() {
+        return _numOfChunks == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(_chunks, 0, _numOfChunks, null);
+        _numOfChunks = 0;
+    }
+
+    public CompressedBitmap copy() {
+        Chunk[] chunks = new Chunk[Math.max(4, _numOfChunks)];
+        for (int i = 0; i < _numOfChunks; i++)
+            chunks[i] = _chunks[i].copy();
+        return new CompressedBitmap(Arrays.copyOf(_keys, chunks.length), chunks, _numOfChunks);
+    }
+
+    /**
+     * Retains only the values which are also contained in the other bitmap.
+     */
+    public void and(CompressedBitmap other) {
+        int res = 0;
+        int j = 0;
+        for (int i = 0; i < _numOfChunks; i++) {
+            char key = _keys[i];
+            while (j < other._numOfChunks && other._keys[j] < key)
+                j++;
+            if (j == other._numOfChunks || other._keys[j] != key)
+                continue;
+            Chunk chunk = _chunks[i].and(other._chunks[j]);
+            if (chunk != null) {
+                _keys[res] = key;
+                _chunks[res++] = chunk;
+            }
+        }
+        Arrays.fill(_chunks, res, _numOfChunks, null);
+        _numOfChunks = res;
+    }
+
+    /**
+     * Adds all the values contained in the other bitmap.
+     */
+    public void or(CompressedBitmap other) {
+        if (other._numOfChunks == 0)
+            return;
+        int size = _numOfChunks + other._numOfChunks;
+        char[] keys = new char[size];
+        Chunk[] chunks = new Chunk[size];
+        int res = 0, i = 0, j = 0;
+        while (i < _numOfChunks || j < other._numOfChunks) {
+            if (j == other._numOfChunks || (i < _numOfChunks && _keys[i] < other._keys[j])) {
+                keys[res] = _keys[i];
+                chunks[res++] = _chunks[i++];
+            } else if (i == _numOfChunks || other._keys[j] < _keys[i]) {
+                keys[res] = other._keys[j];
+                chunks[res++] = other._chunks[j++].copy();
+            } else {
+                keys[res] = _keys[i];
+                chunks[res++] = _chunks[i++].or(other._chunks[j++]);
+            }
+        }
+        _keys = keys;
+        _chunks = chunks;
+        _numOfChunks = res;
+    }
+
+    /**
+     * Removes all the values contained in the other bitmap.
+     */
+    public void andNot(CompressedBitmap other) {
+        int res = 0;
+        int j = 0;
+        for (int i = 0; i < _numOfChunks; i++) {
+            char key = _keys[i];
+            while (j < other._numOfChunks && other._keys[j] < key)
+                j++;
+            Chunk chunk = _chunks[i];
+            if (j < other._numOfChunks && other._keys[j] == key)
+                chunk = chunk.andNot(other._chunks[j]);
+            if (chunk != null) {
+                _keys[res] = key;
+                _chunks[res++] = chunk;
+            }
+        }
+        Arrays.fill(_chunks, res, _numOfChunks, null);
+        _numOfChunks = res;
+    }
+
+    /**
+     * @return a cursor over the values of this bitmap in ascending order. The bitmap should not be
+     * modified while the cursor is in use.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0)
+            throw new IllegalArgumentException("negative value " + value);
+    }
+
+    private int findChunk(char key) {
+        int low = 0;
+        int high = _numOfChunks - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midKey = _keys[mid];
+            if (midKey < key)
+                low = mid + 1;
+            else if (midKey > key)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -(low + 1);
+    }
+
+    private void insertChunk(int pos, char key, Chunk chunk) {
+        if (_numOfChunks == _keys.length) {
+            int capacity = _keys.length * 2;
+            _keys = Arrays.copyOf(_keys, capacity);
+            _chunks = Arrays.copyOf(_chunks, capacity);
+        }
+        System.arraycopy(_keys, pos, _keys, pos + 1, _numOfChunks - pos);
+        System.arraycopy(_chunks, pos, _chunks, pos + 1, _numOfChunks - pos);
+        _keys[pos] = key;
+        _chunks[pos] = chunk;
+        _numOfChunks++;
+    }
+
+    private void removeChunk(int pos) {
+        System.arraycopy(_keys, pos + 1, _keys, pos, _numOfChunks - pos - 1);
+        System.arraycopy(_chunks, pos + 1, _chunks, pos, _numOfChunks - pos - 1);
+        _chunks[--_numOfChunks] = null;
+    }
+
+    /**
+     * Ascending iteration over the values of the bitmap.
+     */
+    public final class Cursor {
+        private int _chunkPos;
+        //position in array chunk or next bit in bits chunk
+        private int _pos;
+
+        /**
+         * @return the next value, or -1 if there are no more values
+         */
+        public int next() {
+            while (_chunkPos < _numOfChunks) {
+                Chunk chunk = _chunks[_chunkPos];
+                int high = _keys[_chunkPos] << 16;
+                if (chunk._bits == null) {
+                    if (_pos < chunk._cardinality)
+                        return high | chunk._array[_pos++];
+                } else {
+                    int low = chunk.nextSetBit(_pos);
+                    if (low >= 0) {
+                        _pos = low + 1;
+                        return high | low;
+                    }
+                }
+                _chunkPos++;
+                _pos = 0;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The values of a single 2^16 range, either as a sorted array (_bits is null) or as a bitmap.
+     */
+    private static final class Chunk {
+        private char[] _array;
+        private long[] _bits;
+        private int _cardinality;
+
+        Chunk() {
+            _array = new char[4];
+        }
+
+        private Chunk(char[] array, long[] bits, int cardinality) {
+            _array = array;
+            _bits = bits;
+            _cardinality = cardinality;
+        }
+
+        Chunk copy() {
+            return _bits == null ? new Chunk(Arrays.copyOf(_array, Math.max(4, _cardinality)), null, _cardinality)
+                    : new Chunk(null, _bits.clone(), _cardinality);
+        }
+
+        boolean contains(char low) {
+            if (_bits != null)
+                return (_bits[low >>> 6] & (1L << low)) != 0;
+            return Arrays.binarySearch(_array, 0, _cardinality, low) >= 0;
+        }
+
+        boolean add(char low) {
+            if (_bits != null) {
+                long word = _bits[low >>> 6];
+                long updated = word | (1L << low);
+                if (word == updated)
+                    return false;
+                _bits[low >>> 6] = updated;
+                _cardinality++;
+                return true;
+            }
+            int pos = Arrays.binarySearch(_array, 0, _cardinality, low);
+            if (pos >= 0)
+                return false;
+            if (_cardinality == ARRAY_CHUNK_MAX) {
+                toBits();
+                return add(low);
+            }
+            pos = -pos - 1;
+            if (_cardinality == _array.length)
+                _array = Arrays.copyOf(_array, Math.min(ARRAY_CHUNK_MAX, _array.length * 2));
+            System.arraycopy(_array, pos, _array, pos + 1, _cardinality - pos);
+            _array[pos] = low;
+            _cardinality++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (_bits != null) {
+                long word = _bits[low >>> 6];
+                long updated = word & ~(1L << low);
+                if (word == updated)
+                    return false;
+                _bits[low >>> 6] = updated;
+                _cardinality--;
+                //hysteresis- avoid flipping representation on add/remove around the threshold
+                if (_cardinality < ARRAY_CHUNK_MAX / 2)
+                    toArray();
+                return true;
+            }
+            int pos = Arrays.binarySearch(_array, 0, _cardinality, low);
+            if (pos < 0)
+                return false;
+            System.arraycopy(_array, pos + 1, _array, pos, _cardinality - pos - 1);
+            _cardinality--;
+            return true;
+        }
+
+        int nextSetBit(int from) {
+            int wordIndex = from >>> 6;
+            if (wordIndex >= BITS_CHUNK_WORDS)
+                return -1;
+            long word = _bits[wordIndex] & (-1L << from);
+            while (true) {
+                if (word != 0)
+                    return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                if (++wordIndex == BITS_CHUNK_WORDS)
+                    return -1;
+                word = _bits[wordIndex];
+            }
+        }
+
+        Chunk and(Chunk other) {
+            if (_bits == null && other._bits == null) {
+                char[] res = new char[Math.min(_cardinality, other._cardinality)];
+                int size = 0, i = 0, j = 0;
+                while (i < _cardinality && j < other._cardinality) {
+                    char a = _array[i], b = other._array[j];
+                    if (a < b)
+                        i++;
+                    else if (a > b)
+                        j++;
+                    else {
+                        res[size++] = a;
+                        i++;
+                        j++;
+                    }
+                }
+                return size == 0 ? null : new Chunk(res, null, size);
+            }
+            if (_bits == null || other._bits == null) {
+                Chunk array = _bits == null ? this : other;
+                Chunk bits = _bits == null ? other : this;
+                char[] res = new char[array._cardinality];
+                int size = 0;
+                for (int i = 0; i < array._cardinality; i++)
+                    if (bits.contains(array._array[i]))
+                        res[size++] = array._array[i];
+                return size == 0 ? null : new Chunk(res, null, size);
+            }
+            long[] res = new long[BITS_CHUNK_WORDS];
+            int cardinality = 0;
+            for (int i = 0; i < BITS_CHUNK_WORDS; i++) {
+                res[i] = _bits[i] & other._bits[i];
+                cardinality += Long.bitCount(res[i]);
+            }
+            return normalize(res, cardinality);
+        }
+
+        Chunk or(Chunk other) {
+            if (_bits == null && other._bits == null && _cardinality + other._cardinality <= ARRAY_CHUNK_MAX) {
+                char[] res = new char[Math.max(4, _cardinality + other._cardinality)];
+                int size = 0, i = 0, j = 0;
+                while (i < _cardinality || j < other._cardinality) {
+                    if (j == other._cardinality || (i < _cardinality && _array[i] < other._array[j]))
+                        res[size++] = _array[i++];
+                    else if (i == _cardinality || other._array[j] < _array[i])
+                        res[size++] = other._array[j++];
+                    else {
+                        res[size++] = _array[i++];
+                        j++;
+                    }
+                }
+                return new Chunk(res, null, size);
+            }
+            long[] res = _bits != null ? _bits.clone() : toBits(_array, _cardinality);
+            if (other._bits != null) {
+                for (int i = 0; i < BITS_CHUNK_WORDS; i++)
+                    res[i] |= other._bits[i];
+            } else {
+                for (int i = 0; i < other._cardinality; i++)
+                    res[other._array[i] >>> 6] |= 1L << other._array[i];
+            }
+            int cardinality = 0;
+            for (long word : res)
+                cardinality += Long.bitCount(word);
+            return normalize(res, cardinality);
+        }
+
+        Chunk andNot(Chunk other) {
+            if (_bits == null) {
+                char[] res = new char[_cardinality];
+                int size = 0;
+                for (int i = 0; i < _cardinality; i++)
+                    if (!other.contains(_array[i]))
+                        res[size++] = _array[i];
+                return size == 0 ? null : new Chunk(res, null, size);
+            }
+            long[] res = _bits.clone();
+            if (other._bits != null) {
+                for (int i = 0; i < BITS_CHUNK_WORDS; i++)
+                    res[i] &= ~other._bits[i];
+            } else {
+                for (int i = 0; i < other._cardinality; i++)
+                    res[other._array[i] >>> 6] &= ~(1L << other._array[i]);
+            }
+            int cardinality = 0;
+            for (long word : res)
+                cardinality += Long.bitCount(word);
+            return normalize(res, cardinality);
+        }
+
+        private static Chunk normalize(long[] bits, int cardinality) {
+            if (cardinality == 0)
+                return null;
+            Chunk res = new Chunk(null, bits, cardinality);
+            if (cardinality <= ARRAY_CHUNK_MAX)
+                res.toArray();
+            return res;
+        }
+
+        private static long[] toBits(char[] array, int cardinality) {
+            long[] bits = new long[BITS_CHUNK_WORDS];
+            for (int i = 0; i < cardinality; i++)
+                bits[array[i] >>> 6] |= 1L << array[i];
+            return bits;
+        }
+
+        private void toBits() {
+            _bits = toBits(_array, _cardinality);
+            _array = null;
+        }
+
+        private void toArray() {
+            char[] array = new char[Math.max(4, _cardinality)];
+            int size = 0;
+            for (int i = 0; i < BITS_CHUNK_WORDS; i++) {
+                long word = _bits[i];
+                while (word != 0) {
+                    array[size++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            _array = array;
+            _bits = null;
+        }
+    }
+}
@@ -0,0 +1,1453 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A concurrent navigable map which packs its mappings into fixed capacity sorted leaves, in the
+ * spirit of a B-link tree. Leaves are chained by right links and located through a skip list which
+ * holds one node per leaf (rather than per key), so the per-key overhead is two array slots and
+ * range scans walk contiguous arrays instead of chasing a node per key.
+ *
+ * <p>Reads are optimistic: a leaf is read under a {@link StampedLock} optimistic stamp and
+ * re-read under a read lock only if a writer interfered. A reader which lands on a leaf that was
+ * split meanwhile moves right using the leaf high key. Updates lock a single leaf, except for
+ * unlinking an emptied leaf which locks its left neighbour first. Keys must implement {@link
+ * Comparable}; null keys and values are not allowed. Iterators are weakly consistent and copy one
+ * leaf at a time.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ConcurrentBTreeMap<K, V> extends AbstractMap<K, V> implements ConcurrentNavigableMap<K, V> {
+
+    public static final int DEFAULT_LEAF_CAPACITY = 64;
+
+    private static final int OPTIMISTIC_READ_ATTEMPTS = 2;
+    //binary search hit a slot being modified by a writer
+    private static final int TORN = Integer.MIN_VALUE;
+
+    private final int _leafCapacity;
+    //leftmost leaf, its low key is -infinity and it is never unlinked
+    private final Leaf _head;
+    //all other leaves by their (immutable) low key
+    private final ConcurrentSkipListMap<Object, Leaf> _leaves;
+    private final LongAdder _size = new LongAdder();
+    private final RangeView _fullView;
+
+    public ConcurrentBTreeMap() {
+        this(DEFAULT_LEAF_CAPACITY);
+    }
+
+    public ConcurrentBTreeMap(int leafCapacity) {
+        if (leafCapacity < 4)
+            throw new IllegalArgumentException("leaf capacity must be at least 4: " + leafCapacity);
+        _leafCapacity = leafCapacity;
+        _head = new Leaf(null, leafCapacity);
+        _leaves = new ConcurrentSkipListMap<Object, Leaf>();
+        _fullView = new RangeView(null, false, null, false, false);
+    }
+
+    private static final class Leaf extends StampedLock {
+        private static final long serialVersionUID = 1L;
+
+        final Object _lowKey;
+        final Object[] _keys;
+        final Object[] _values;
+        int _size;
+        //exclusive upper bound of the keys in this leaf, null means +infinity
+        Object _highKey;
+        Leaf _next;
+        boolean _dead;
+
+        Leaf(Object lowKey, int capacity) {
+            _lowKey = lowKey;
+            _keys = new Object[capacity];
+            _values = new Object[capacity];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static int compare(Object k1, Object k2) {
+        return ((Comparable<Object>) k1).compareTo(k2);
+    }
+
+    /**
+     * binary search in a leaf which may be concurrently modified, returns TORN if an inconsistent
+     * slot was encountered.
+     */
+    private static int search(Object[] keys, int size, Object key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Object midKey = keys[mid];
+            if (midKey == null)
+                return TORN;
+            int c = compare(midKey, key);
+            if (c < 0)
+                low = mid + 1;
+            else if (c > 0)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -(low + 1);
+    }
+
+    private Leaf floorLeaf(Object key) {
+        Map.Entry<Object, Leaf> e = _leaves.floorEntry(key);
+        return e != null ? e.getValue() : _head;
+    }
+
+    private Leaf lowerLeaf(Object key) {
+        Map.Entry<Object, Leaf> e = _leaves.lowerEntry(key);
+        return e != null ? e.getValue() : _head;
+    }
+
+    private Leaf lastLeaf() {
+        Map.Entry<Object, Leaf> e = _leaves.lastEntry();
+        return e != null ? e.getValue() : _head;
+    }
+
+    /* ---------------- point operations -------------- */
+
+    @Override
+    public V get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+        Leaf leaf = floorLeaf(key);
+        int attempt = 0;
+        while (true) {
+            boolean locked = attempt++ >= OPTIMISTIC_READ_ATTEMPTS;
+            long stamp = locked ? leaf.readLock() : leaf.tryOptimisticRead();
+            boolean dead;
+            Object high;
+            Leaf next;
+            int index;
+            Object value = null;
+            try {
+                dead = leaf._dead;
+                high = leaf._highKey;
+                next = leaf._next;
+                index = dead ? -1 : search(leaf._keys, leaf._size, key);
+                if (index >= 0)
+                    value = leaf._values[index];
+            } finally {
+                if (locked)
+                    leaf.unlockRead(stamp);
+            }
+            if (!locked && (stamp == 0 || !leaf.validate(stamp)))
+                continue;
+            attempt = 0;
+            if (dead)
+                leaf = floorLeaf(key);
+            else if (high != null && compare(key, high) >= 0)
+                leaf = next;
+            else
+                return (V) value;
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return doPut(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return doPut(key, value, true);
+    }
+
+    private V doPut(K key, V value, boolean onlyIfAbsent) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        if (!(key instanceof Comparable))
+            throw new ClassCastException(key.getClass() + " must implement Comparable");
+        Leaf leaf = floorLeaf(key);
+        while (true) {
+            Leaf retry;
+            long stamp = leaf.writeLock();
+            try {
+                if (leaf._dead)
+                    retry = floorLeaf(key);
+                else if (leaf._highKey != null && compare(key, leaf._highKey) >= 0)
+                    retry = leaf._next;
+                else
+                    return insertLocked(leaf, key, value, onlyIfAbsent);
+            } finally {
+                leaf.unlockWrite(stamp);
+            }
+            leaf = retry;
+        }
+    }
+
+    private V insertLocked(Leaf leaf, Object key, Object value, boolean onlyIfAbsent) {
+        int index = search(leaf._keys, leaf._size, key);
+        if (index >= 0) {
+            V current = (V) leaf._values[index];
+            if (!onlyIfAbsent)
+                leaf._values[index] = value;
+            return current;
+        }
+        int insertion = -(index + 1);
+        if (leaf._size < _leafCapacity)
+            insertAt(leaf, insertion, key, value);
+        else
+            split(leaf, insertion, key, value);
+        _size.increment();
+        return null;
+    }
+
+    private static void insertAt(Leaf leaf, int insertion, Object key, Object value) {
+        int moved = leaf._size - insertion;
+        if (moved > 0) {
+            System.arraycopy(leaf._keys, insertion, leaf._keys, insertion + 1, moved);
+            System.arraycopy(leaf._values, insertion, leaf._values, insertion + 1, moved);
+        }
+        leaf._keys[insertion] = key;
+        leaf._values[insertion] = value;
+        leaf._size++;
+    }
+
+    /**
+     * split a full (write locked) leaf: the right half is built and published in the leaves skip
+     * list before the left one is truncated, so readers always find every key.
+     */
+    private void split(Leaf leaf, int insertion, Object key, Object value) {
+        int half = leaf._size >>> 1;
+        int rightSize = leaf._size - half;
+        Leaf right = new Leaf(leaf._keys[half], _leafCapacity);
+        System.arraycopy(leaf._keys, half, right._keys, 0, rightSize);
+        System.arraycopy(leaf._values, half, right._values, 0, rightSize);
+        right._size = rightSize;
+        right._highKey = leaf._highKey;
+        right._next = leaf._next;
+        if (insertion > half)
+            insertAt(right, insertion - half, key, value);
+        _leaves.put(right._lowKey, right);
+
+        for (int i = half; i < leaf._size; i++) {
+            leaf._keys[i] = null;
+            leaf._values[i] = null;
+        }
+        leaf._size = half;
+        leaf._highKey = right._lowKey;
+        leaf._next = right;
+        if (insertion <= half)
+            insertAt(leaf, insertion, key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return doRemove(key, null);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (key == null)
+            throw new NullPointerException();
+        return value != null && doRemove(key, value) != null;
+    }
+
+    private V doRemove(Object key, Object expected) {
+        if (key == null)
+            throw new NullPointerException();
+        Leaf leaf = floorLeaf(key);
+        while (true) {
+            Leaf retry;
+            V removed = null;
+            boolean emptied = false;
+            long stamp = leaf.writeLock();
+            try {
+                if (leaf._dead)
+                    retry = floorLeaf(key);
+                else if (leaf._highKey != null && compare(key, leaf._highKey) >= 0)
+                    retry = leaf._next;
+                else {
+                    retry = null;
+                    int index = search(leaf._keys, leaf._size, key);
+                    if (index >= 0 && (expected == null || expected.equals(leaf._values[index]))) {
+                        removed = (V) leaf._values[index];
+                        int moved = leaf._size - index - 1;
+                        if (moved > 0) {
+                            System.arraycopy(leaf._keys, index + 1, leaf._keys, index, moved);
+                            System.arraycopy(leaf._values, index + 1, leaf._values, index, moved);
+                        }
+                        leaf._size--;
+                        leaf._keys[leaf._size] = null;
+                        leaf._values[leaf._size] = null;
+                        _size.decrement();
+                        emptied = leaf._size == 0 && leaf != _head;
+                    }
+                }
+            } finally {
+                leaf.unlockWrite(stamp);
+            }
+            if (retry == null) {
+                if (emptied)
+                    unlinkEmptyLeaf(leaf);
+                return removed;
+            }
+            leaf = retry;
+        }
+    }
+
+    /**
+     * merge the key range of an empty leaf into its left neighbour. Locks are taken left to right;
+     * if the neighbourhood changed meanwhile (the neighbour was split or unlinked) the new left
+     * neighbour is looked up and the attempt repeated, until the leaf is unlinked or refilled.
+     */
+    private void unlinkEmptyLeaf(Leaf leaf) {
+        while (!tryUnlinkEmptyLeaf(lowerLeaf(leaf._lowKey), leaf)) {
+        }
+    }
+
+    /**
+     * returns false if pred is no longer the left neighbour of the leaf. pred has a lower low key
+     * than the leaf, so locking both keeps the left to right order.
+     */
+    private boolean tryUnlinkEmptyLeaf(Leaf pred, Leaf leaf) {
+        long predStamp = pred.writeLock();
+        try {
+            long stamp = leaf.writeLock();
+            try {
+                if (leaf._dead || leaf._size != 0)
+                    return true;
+                if (pred._dead || pred._next != leaf)
+                    return false;
+                pred._highKey = leaf._highKey;
+                pred._next = leaf._next;
+                leaf._dead = true;
+                _leaves.remove(leaf._lowKey, leaf);
+                return true;
+            } finally {
+                leaf.unlockWrite(stamp);
+            }
+        } finally {
+            pred.unlockWrite(predStamp);
+        }
+    }
+
+    /**
+     * number of linked leaves, including the head
+     */
+    int leafCount() {
+        return _leaves.size() + 1;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        if (oldValue == null || newValue == null)
+            throw new NullPointerException();
+        return doReplace(key, oldValue, newValue) != null;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        if (value == null)
+            throw new NullPointerException();
+        return doReplace(key, null, value);
+    }
+
+    private V doReplace(Object key, Object expected, V newValue) {
+        if (key == null)
+            throw new NullPointerException();
+        Leaf leaf = floorLeaf(key);
+        while (true) {
+            Leaf retry;
+            long stamp = leaf.writeLock();
+            try {
+                if (leaf._dead)
+                    retry = floorLeaf(key);
+                else if (leaf._highKey != null && compare(key, leaf._highKey) >= 0)
+                    retry = leaf._next;
+                else {
+                    int index = search(leaf._keys, leaf._size, key);
+                    if (index < 0)
+                        return null;
+                    V current = (V) leaf._values[index];
+                    if (expected != null && !expected.equals(current))
+                        return null;
+                    leaf._values[index] = newValue;
+                    return current;
+                }
+            } finally {
+                leaf.unlockWrite(stamp);
+            }
+            leaf = retry;
+        }
+    }
+
+    @Override
+    public int size() {
+        long size = _size.sum();
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (size < 0 ? 0 : (int) size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return findFirst(null, true) == null;
+    }
+
+    @Override
+    public void clear() {
+        for (Iterator<K> iter = new RangeIterator<K>(null, false, null, false, false, RangeIterator.KEYS); iter.hasNext(); ) {
+            iter.next();
+            iter.remove();
+        }
+    }
+
+    /* ---------------- ordered lookups -------------- */
+
+    /**
+     * @return the first mapping whose key is greater than (or equal to, if inclusive) the given
+     * bound, null bound means no lower bound.
+     */
+    Map.Entry<K, V> findFirst(Object lowerBound, boolean inclusive) {
+        Leaf leaf = lowerBound == null ? _head : floorLeaf(lowerBound);
+        int attempt = 0;
+        while (true) {
+            boolean locked = attempt++ >= OPTIMISTIC_READ_ATTEMPTS;
+            long stamp = locked ? leaf.readLock() : leaf.tryOptimisticRead();
+            boolean dead, moveRight = false;
+            Object high;
+            Leaf next;
+            Object key = null, value = null;
+            try {
+                dead = leaf._dead;
+                high = leaf._highKey;
+                next = leaf._next;
+                if (!dead) {
+                    if (lowerBound != null && high != null && compare(lowerBound, high) >= 0)
+                        moveRight = true;
+                    else {
+                        int size = leaf._size;
+                        int index = lowerBound == null ? 0 : startIndex(leaf._keys, size, lowerBound, inclusive);
+                        if (index >= 0 && index < size) {
+                            key = leaf._keys[index];
+                            value = leaf._values[index];
+                        }
+                    }
+                }
+            } finally {
+                if (locked)
+                    leaf.unlockRead(stamp);
+            }
+            if (!locked && (stamp == 0 || !leaf.validate(stamp)))
+                continue;
+            attempt = 0;
+            if (dead) {
+                leaf = lowerBound == null ? _head : floorLeaf(lowerBound);
+            } else if (moveRight) {
+                leaf = next;
+            } else if (key != null) {
+                return new SimpleImmutableEntry<K, V>((K) key, (V) value);
+            } else {
+                if (next == null)
+                    return null;
+                //every key of the next leaf is above the high key of this one
+                lowerBound = high;
+                inclusive = true;
+                leaf = next;
+            }
+        }
+    }
+
+    /**
+     * @return the last mapping whose key is lower than (or equal to, if inclusive) the given bound,
+     * null bound means no upper bound.
+     */
+    Map.Entry<K, V> findLast(Object upperBound, boolean inclusive) {
+        Leaf leaf = upperBound == null ? lastLeaf() : floorLeaf(upperBound);
+        int attempt = 0;
+        while (true) {
+            boolean locked = attempt++ >= OPTIMISTIC_READ_ATTEMPTS;
+            long stamp = locked ? leaf.readLock() : leaf.tryOptimisticRead();
+            boolean dead, moveRight = false;
+            Leaf next;
+            Object key = null, value = null;
+            try {
+                dead = leaf._dead;
+                next = leaf._next;
+                if (!dead) {
+                    if (mustMoveRightForUpperBound(leaf._highKey, upperBound, inclusive))
+                        moveRight = true;
+                    else {
+                        int end = upperBound == null ? leaf._size : endIndex(leaf._keys, leaf._size, upperBound, inclusive);
+                        if (end > 0) {
+                            key = leaf._keys[end - 1];
+                            value = leaf._values[end - 1];
+                        }
+                    }
+                }
+            } finally {
+                if (locked)
+                    leaf.unlockRead(stamp);
+            }
+            if (!locked && (stamp == 0 || !leaf.validate(stamp)))
+                continue;
+            attempt = 0;
+            if (dead) {
+                leaf = upperBound == null ? lastLeaf() : floorLeaf(upperBound);
+            } else if (moveRight) {
+                leaf = next;
+            } else if (key != null) {
+                return new SimpleImmutableEntry<K, V>((K) key, (V) value);
+            } else {
+                if (leaf == _head)
+                    return null;
+                upperBound = leaf._lowKey;
+                inclusive = false;
+                leaf = lowerLeaf(upperBound);
+            }
+        }
+    }
+
+    private static boolean mustMoveRightForUpperBound(Object high, Object upperBound, boolean inclusive) {
+        if (high == null)
+            return false;
+        if (upperBound == null)
+            return true;
+        int c = compare(upperBound, high);
+        return c > 0 || (c == 0 && inclusive);
+    }
+
+    /**
+     * @return index of the first key above (or equal to) the bound, TORN on inconsistent read
+     */
+    private static int startIndex(Object[] keys, int size, Object lowerBound, boolean inclusive) {
+        int index = search(keys, size, lowerBound);
+        if (index == TORN)
+            return TORN;
+        if (index >= 0)
+            return inclusive ? index : index + 1;
+        return -(index + 1);
+    }
+
+    /**
+     * @return index after the last key below (or equal to) the bound, TORN on inconsistent read
+     */
+    private static int endIndex(Object[] keys, int size, Object upperBound, boolean inclusive) {
+        int index = search(keys, size, upperBound);
+        if (index == TORN)
+            return TORN;
+        if (index >= 0)
+            return inclusive ? index + 1 : index;
+        return -(index + 1);
+    }
+
+    /* ---------------- iteration -------------- */
+
+    /**
+     * Weakly consistent iterator over a key range, copies one leaf at a time and follows the right
+     * links (or the leaves skip list when descending).
+     */
+    private final class RangeIterator<T> implements Iterator<T> {
+        static final int KEYS = 0;
+        static final int VALUES = 1;
+        static final int ENTRIES = 2;
+
+        private final Object _lo;
+        private final boolean _loInclusive;
+        private final Object _hi;
+        private final boolean _hiInclusive;
+        private final boolean _descending;
+        private final int _type;
+
+        private final Object[] _bufferKeys = new Object[_leafCapacity];
+        private final Object[] _bufferValues = new Object[_leafCapacity];
+        private int _bufferSize;
+        private int _bufferPos;
+        //where to continue after the buffer is consumed
+        private Object _bound;
+        private boolean _boundInclusive;
+        private Leaf _nextLeaf;
+        private boolean _noMoreLeaves;
+
+        private Object _nextKey;
+        private Object _nextValue;
+        private Object _lastKey;
+
+        RangeIterator(Object lo, boolean loInclusive, Object hi, boolean hiInclusive, boolean descending, int type) {
+            _lo = lo;
+            _loInclusive = loInclusive;
+            _hi = hi;
+            _hiInclusive = hiInclusive;
+            _descending = descending;
+            _type = type;
+            _bound = descending ? hi : lo;
+            _boundInclusive = descending ? hiInclusive : loInclusive;
+            advance();
+        }
+
+        private void advance() {
+            _nextKey = null;
+            _nextValue = null;
+            if (_bufferPos >= _bufferSize) {
+                _bufferPos = 0;
+                _bufferSize = 0;
+                if (_noMoreLeaves || !(_descending ? fillDescending() : fillAscending()))
+                    return;
+            }
+            int pos = _descending ? _bufferSize - 1 - _bufferPos : _bufferPos;
+            _bufferPos++;
+            Object key = _bufferKeys[pos];
+            if (_descending ? tooLow(key) : tooHigh(key)) {
+                _noMoreLeaves = true;
+                _bufferSize = 0;
+                return;
+            }
+            _nextKey = key;
+            _nextValue = _bufferValues[pos];
+        }
+
+        private boolean tooHigh(Object key) {
+            if (_hi == null)
+                return false;
+            int c = compare(key, _hi);
+            return c > 0 || (c == 0 && !_hiInclusive);
+        }
+
+        private boolean tooLow(Object key) {
+            if (_lo == null)
+                return false;
+            int c = compare(key, _lo);
+            return c < 0 || (c == 0 && !_loInclusive);
+        }
+
+        private boolean fillAscending() {
+            Object lowerBound = _bound;
+            boolean inclusive = _boundInclusive;
+            Leaf leaf = _nextLeaf != null ? _nextLeaf : (lowerBound == null ? _head : floorLeaf(lowerBound));
+            int attempt = 0;
+            while (true) {
+                boolean locked = attempt++ >= OPTIMISTIC_READ_ATTEMPTS;
+                long stamp = locked ? leaf.readLock() : leaf.tryOptimisticRead();
+                boolean dead, moveRight = false;
+                Object high;
+                Leaf next;
+                int copied = 0;
+                try {
+                    dead = leaf._dead;
+                    high = leaf._highKey;
+                    next = leaf._next;
+                    if (!dead) {
+                        if (lowerBound != null && high != null && compare(lowerBound, high) >= 0)
+                            moveRight = true;
+                        else {
+                            int size = leaf._size;
+                            int start = lowerBound == null ? 0 : startIndex(leaf._keys, size, lowerBound, inclusive);
+                            if (start >= 0 && start < size) {
+                                copied = size - start;
+                                System.arraycopy(leaf._keys, start, _bufferKeys, 0, copied);
+                                System.arraycopy(leaf._values, start, _bufferValues, 0, copied);
+                            }
+                        }
+                    }
+                } finally {
+                    if (locked)
+                        leaf.unlockRead(stamp);
+                }
+                if (!locked && (stamp == 0 || !leaf.validate(stamp)))
+                    continue;
+                attempt = 0;
+                if (dead) {
+                    leaf = lowerBound == null ? _head : floorLeaf(lowerBound);
+                } else if (moveRight) {
+                    leaf = next;
+                } else if (copied > 0) {
+                    _bufferSize = copied;
+                    _bound = _bufferKeys[copied - 1];
+                    _boundInclusive = false;
+                    _nextLeaf = next;
+                    _noMoreLeaves = next == null;
+                    return true;
+                } else {
+                    if (next == null)
+                        return false;
+                    lowerBound = high;
+                    inclusive = true;
+                    leaf = next;
+                }
+            }
+        }
+
+        private boolean fillDescending() {
+            Object upperBound = _bound;
+            boolean inclusive = _boundInclusive;
+            Leaf leaf = _nextLeaf != null ? _nextLeaf : (upperBound == null ? lastLeaf() : floorLeaf(upperBound));
+            int attempt = 0;
+            while (true) {
+                boolean locked = attempt++ >= OPTIMISTIC_READ_ATTEMPTS;
+                long stamp = locked ? leaf.readLock() : leaf.tryOptimisticRead();
+                boolean dead, moveRight = false;
+                Leaf next;
+                int copied = 0;
+                try {
+                    dead = leaf._dead;
+                    next = leaf._next;
+                    if (!dead) {
+                        if (mustMoveRightForUpperBound(leaf._highKey, upperBound, inclusive))
+                            moveRight = true;
+                        else {
+                            int end = upperBound == null ? leaf._size : endIndex(leaf._keys, leaf._size, upperBound, inclusive);
+                            if (end > 0) {
+                                copied = end;
+                                System.arraycopy(leaf._keys, 0, _bufferKeys, 0, copied);
+                                System.arraycopy(leaf._values, 0, _bufferValues, 0, copied);
+                            }
+                        }
+                    }
+                } finally {
+                    if (locked)
+                        leaf.unlockRead(stamp);
+                }
+                if (!locked && (stamp == 0 || !leaf.validate(stamp)))
+                    continue;
+                attempt = 0;
+                if (dead) {
+                    leaf = upperBound == null ? lastLeaf() : floorLeaf(upperBound);
+                } else if (moveRight) {
+                    leaf = next;
+                } else {
+                    boolean head = leaf == _head;
+                    if (!head) {
+                        upperBound = leaf._lowKey;
+                        inclusive = false;
+                    }
+                    if (copied > 0) {
+                        _bufferSize = copied;
+                        _bound = upperBound;
+                        _boundInclusive = inclusive;
+                        _nextLeaf = head ? null : lowerLeaf(upperBound);
+                        _noMoreLeaves = head;
+                        return true;
+                    }
+                    if (head)
+                        return false;
+                    leaf = lowerLeaf(upperBound);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _nextKey != null;
+        }
+
+        @Override
+        public T next() {
+            Object key = _nextKey;
+            if (key == null)
+                throw new NoSuchElementException();
+            Object value = _nextValue;
+            _lastKey = key;
+            advance();
+            if (_type == KEYS)
+                return (T) key;
+            if (_type == VALUES)
+                return (T) value;
+            return (T) new SimpleImmutableEntry<Object, Object>(key, value);
+        }
+
+        @Override
+        public void remove() {
+            if (_lastKey == null)
+                throw new IllegalStateException();
+            ConcurrentBTreeMap.this.remove(_lastKey);
+            _lastKey = null;
+        }
+    }
+
+    /* ---------------- navigable map, delegated to the unbounded view -------------- */
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return _fullView.entrySet();
+    }
+
+    @Override
+    public NavigableSet<K> keySet() {
+        return _fullView.navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return _fullView.navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return _fullView.descendingKeySet();
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> descendingMap() {
+        return _fullView.descendingMap();
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return _fullView.subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return _fullView.headMap(toKey, inclusive);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return _fullView.tailMap(fromKey, inclusive);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> subMap(K fromKey, K toKey) {
+        return _fullView.subMap(fromKey, toKey);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> headMap(K toKey) {
+        return _fullView.headMap(toKey);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> tailMap(K fromKey) {
+        return _fullView.tailMap(fromKey);
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return _fullView.lowerEntry(key);
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return _fullView.lowerKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return _fullView.floorEntry(key);
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return _fullView.floorKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return _fullView.ceilingEntry(key);
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return _fullView.ceilingKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return _fullView.higherEntry(key);
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return _fullView.higherKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return _fullView.firstEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return _fullView.lastEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return _fullView.pollFirstEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return _fullView.pollLastEntry();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return null;
+    }
+
+    @Override
+    public K firstKey() {
+        return _fullView.firstKey();
+    }
+
+    @Override
+    public K lastKey() {
+        return _fullView.lastKey();
+    }
+
+    private static <K> K keyOrNull(Map.Entry<K, ?> e) {
+        return e != null ? e.getKey() : null;
+    }
+
+    /**
+     * A bounded and/or descending view of the tree, the unbounded ascending instance backs the
+     * navigation methods of the map itself.
+     */
+    private final class RangeView extends AbstractMap<K, V> implements ConcurrentNavigableMap<K, V> {
+        private final Object _lo;
+        private final boolean _loInclusive;
+        private final Object _hi;
+        private final boolean _hiInclusive;
+        private final boolean _descending;
+        private transient Set<Map.Entry<K, V>> _entrySet;
+        private transient KeySet _keySet;
+
+        RangeView(Object lo, boolean loInclusive, Object hi, boolean hiInclusive, boolean descending) {
+            if (lo != null && hi != null && compare(lo, hi) > 0)
+                throw new IllegalArgumentException("inconsistent range");
+            _lo = lo;
+            _loInclusive = loInclusive;
+            _hi = hi;
+            _hiInclusive = hiInclusive;
+            _descending = descending;
+        }
+
+        private boolean tooLow(Object key) {
+            if (_lo == null)
+                return false;
+            int c = compare(key, _lo);
+            return c < 0 || (c == 0 && !_loInclusive);
+        }
+
+        private boolean tooHigh(Object key) {
+            if (_hi == null)
+                return false;
+            int c = compare(key, _hi);
+            return c > 0 || (c == 0 && !_hiInclusive);
+        }
+
+        private boolean inRange(Object key) {
+            if (key == null)
+                throw new NullPointerException();
+            return !tooLow(key) && !tooHigh(key);
+        }
+
+        private void checkKeyInRange(Object key) {
+            if (!inRange(key))
+                throw new IllegalArgumentException("key out of range");
+        }
+
+        private Map.Entry<K, V> absLowest() {
+            Map.Entry<K, V> e = findFirst(_lo, _lo == null || _loInclusive);
+            return e == null || tooHigh(e.getKey()) ? null : e;
+        }
+
+        private Map.Entry<K, V> absHighest() {
+            Map.Entry<K, V> e = findLast(_hi, _hi == null || _hiInclusive);
+            return e == null || tooLow(e.getKey()) ? null : e;
+        }
+
+        private Map.Entry<K, V> absCeiling(Object key, boolean inclusive) {
+            if (key == null)
+                throw new NullPointerException();
+            if (tooLow(key))
+                return absLowest();
+            Map.Entry<K, V> e = findFirst(key, inclusive);
+            return e == null || tooHigh(e.getKey()) ? null : e;
+        }
+
+        private Map.Entry<K, V> absFloor(Object key, boolean inclusive) {
+            if (key == null)
+                throw new NullPointerException();
+            if (tooHigh(key))
+                return absHighest();
+            Map.Entry<K, V> e = findLast(key, inclusive);
+            return e == null || tooLow(e.getKey()) ? null : e;
+        }
+
+        @Override
+        public V get(Object key) {
+            return inRange(key) ? ConcurrentBTreeMap.this.get(key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            checkKeyInRange(key);
+            return ConcurrentBTreeMap.this.put(key, value);
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            checkKeyInRange(key);
+            return ConcurrentBTreeMap.this.putIfAbsent(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return inRange(key) ? ConcurrentBTreeMap.this.remove(key) : null;
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            return inRange(key) && ConcurrentBTreeMap.this.remove(key, value);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            checkKeyInRange(key);
+            return ConcurrentBTreeMap.this.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            checkKeyInRange(key);
+            return ConcurrentBTreeMap.this.replace(key, value);
+        }
+
+        @Override
+        public int size() {
+            long count = 0;
+            for (Iterator<?> iter = iterator(RangeIterator.KEYS); iter.hasNext(); iter.next())
+                count++;
+            return count > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) count;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return absLowest() == null;
+        }
+
+        @Override
+        public void clear() {
+            for (Iterator<?> iter = iterator(RangeIterator.KEYS); iter.hasNext(); ) {
+                iter.next();
+                iter.remove();
+            }
+        }
+
+        <T> Iterator<T> iterator(int type) {
+            return new RangeIterator<T>(_lo, _loInclusive, _hi, _hiInclusive, _descending, type);
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            Set<Map.Entry<K, V>> es = _entrySet;
+            if (es == null) {
+                es = new AbstractSet<Map.Entry<K, V>>() {
+                    @Override
+                    public Iterator<Map.Entry<K, V>> iterator() {
+                        return RangeView.this.iterator(RangeIterator.ENTRIES);
+                    }
+
+                    @Override
+                    public boolean contains(Object o) {
+                        if (!(o instanceof Map.Entry))
+                            return false;
+                        Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+                        V v = RangeView.this.get(e.getKey());
+                        return v != null && v.equals(e.getValue());
+                    }
+
+                    @Override
+                    public boolean remove(Object o) {
+                        if (!(o instanceof Map.Entry))
+                            return false;
+                        Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+                        return RangeView.this.remove(e.getKey(), e.getValue());
+                    }
+
+                    @Override
+                    public boolean isEmpty() {
+                        return RangeView.this.isEmpty();
+                    }
+
+                    @Override
+                    public int size() {
+                        return RangeView.this.size();
+                    }
+
+                    @Override
+                    public void clear() {
+                        RangeView.this.clear();
+                    }
+                };
+                _entrySet = es;
+            }
+            return es;
+        }
+
+        @Override
+        public java.util.Collection<V> values() {
+            return new java.util.AbstractCollection<V>() {
+                @Override
+                public Iterator<V> iterator() {
+                    return RangeView.this.iterator(RangeIterator.VALUES);
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return RangeView.this.isEmpty();
+                }
+
+                @Override
+                public int size() {
+                    return RangeView.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    RangeView.this.clear();
+                }
+            };
+        }
+
+        @Override
+        public NavigableSet<K> keySet() {
+            return navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            KeySet ks = _keySet;
+            return ks != null ? ks : (_keySet = new KeySet(this));
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> descendingMap() {
+            return new RangeView(_lo, _loInclusive, _hi, _hiInclusive, !_descending);
+        }
+
+        private RangeView newSubMap(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+            if (_descending) {
+                Object tk = fromKey;
+                fromKey = toKey;
+                toKey = tk;
+                boolean ti = fromInclusive;
+                fromInclusive = toInclusive;
+                toInclusive = ti;
+            }
+            if (_lo != null) {
+                if (fromKey == null) {
+                    fromKey = _lo;
+                    fromInclusive = _loInclusive;
+                } else {
+                    int c = compare(fromKey, _lo);
+                    if (c < 0 || (c == 0 && !_loInclusive && fromInclusive))
+                        throw new IllegalArgumentException("key out of range");
+                }
+            }
+            if (_hi != null) {
+                if (toKey == null) {
+                    toKey = _hi;
+                    toInclusive = _hiInclusive;
+                } else {
+                    int c = compare(toKey, _hi);
+                    if (c > 0 || (c == 0 && !_hiInclusive && toInclusive))
+                        throw new IllegalArgumentException("key out of range");
+                }
+            }
+            return new RangeView(fromKey, fromInclusive, toKey, toInclusive, _descending);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            if (fromKey == null || toKey == null)
+                throw new NullPointerException();
+            return newSubMap(fromKey, fromInclusive, toKey, toInclusive);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            if (toKey == null)
+                throw new NullPointerException();
+            return newSubMap(null, false, toKey, inclusive);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            if (fromKey == null)
+                throw new NullPointerException();
+            return newSubMap(fromKey, inclusive, null, false);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+
+        @Override
+        public Map.Entry<K, V> lowerEntry(K key) {
+            return _descending ? absCeiling(key, false) : absFloor(key, false);
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            return keyOrNull(lowerEntry(key));
+        }
+
+        @Override
+        public Map.Entry<K, V> floorEntry(K key) {
+            return _descending ? absCeiling(key, true) : absFloor(key, true);
+        }
+
+        @Override
+        public K floorKey(K key) {
+            return keyOrNull(floorEntry(key));
+        }
+
+        @Override
+        public Map.Entry<K, V> ceilingEntry(K key) {
+            return _descending ? absFloor(key, true) : absCeiling(key, true);
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            return keyOrNull(ceilingEntry(key));
+        }
+
+        @Override
+        public Map.Entry<K, V> higherEntry(K key) {
+            return _descending ? absFloor(key, false) : absCeiling(key, false);
+        }
+
+        @Override
+        public K higherKey(K key) {
+            return keyOrNull(higherEntry(key));
+        }
+
+        @Override
+        public Map.Entry<K, V> firstEntry() {
+            return _descending ? absHighest() : absLowest();
+        }
+
+        @Override
+        public Map.Entry<K, V> lastEntry() {
+            return _descending ? absLowest() : absHighest();
+        }
+
+        @Override
+        public Map.Entry<K, V> pollFirstEntry() {
+            while (true) {
+                Map.Entry<K, V> e = firstEntry();
+                if (e == null || ConcurrentBTreeMap.this.remove(e.getKey(), e.getValue()))
+                    return e;
+            }
+        }
+
+        @Override
+        public Map.Entry<K, V> pollLastEntry() {
+            while (true) {
+                Map.Entry<K, V> e = lastEntry();
+                if (e == null || ConcurrentBTreeMap.this.remove(e.getKey(), e.getValue()))
+                    return e;
+            }
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return _descending ? Collections.<K>reverseOrder() : null;
+        }
+
+        @Override
+        public K firstKey() {
+            Map.Entry<K, V> e = firstEntry();
+            if (e == null)
+                throw new NoSuchElementException();
+            return e.getKey();
+        }
+
+        @Override
+        public K lastKey() {
+            Map.Entry<K, V> e = lastEntry();
+            if (e == null)
+                throw new NoSuchElementException();
+            return e.getKey();
+        }
+    }
+
+    /**
+     * Navigable key set view over one of the range views.
+     */
+    private final class KeySet extends AbstractSet<K> implements NavigableSet<K> {
+        private final RangeView _map;
+
+        KeySet(RangeView map) {
+            _map = map;
+        }
+
+        @Override
+        public int size() {
+            return _map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return _map.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return _map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return _map.remove(o) != null;
+        }
+
+        @Override
+        public void clear() {
+            _map.clear();
+        }
+
+        @Override
+        public K lower(K e) {
+            return _map.lowerKey(e);
+        }
+
+        @Override
+        public K floor(K e) {
+            return _map.floorKey(e);
+        }
+
+        @Override
+        public K ceiling(K e) {
+            return _map.ceilingKey(e);
+        }
+
+        @Override
+        public K higher(K e) {
+            return _map.higherKey(e);
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return _map.comparator();
+        }
+
+        @Override
+        public K first() {
+            return _map.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return _map.lastKey();
+        }
+
+        @Override
+        public K pollFirst() {
+            return keyOrNull(_map.pollFirstEntry());
+        }
+
+        @Override
+        public K pollLast() {
+            return keyOrNull(_map.pollLastEntry());
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return _map.iterator(RangeIterator.KEYS);
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return _map.descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return _map.subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return _map.headMap(toElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return _map.tailMap(fromElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.collections;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent map keyed by {@link Long} which stores the keys unboxed in open-addressing segment
+ * tables. No node object is allocated per mapping and keys are compared without dereferencing,
+ * which reduces both the per-entry heap overhead and the allocation rate of space indexes over
+ * numeric properties.
+ *
+ * <p>Retrievals do not lock: a slot key is written before its value is published and a slot is
+ * never reused until its segment is rehashed into a new table. Updates are guarded by a per-segment
+ * lock, as in {@link java.util.concurrent.ConcurrentHashMap}.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ConcurrentLongKeyHashMap<V> extends AbstractPrimitiveKeyConcurrentMap<V> {
+
+    private final Segment<V>[] _segments;
+    private final int _segmentShift;
+    private final int _segmentMask;
+
+    public ConcurrentLongKeyHashMap() {
+        this(16, 16);
+    }
+
+    public ConcurrentLongKeyHashMap(int initialCapacity, int concurrencyLevel) {
+        int numOfSegments = tableSizeFor(Math.max(1, concurrencyLevel));
+        int shift = 0;
+        while ((1 << shift) < numOfSegments)
+            shift++;
+        _segmentShift = 32 - shift;
+        _segmentMask = numOfSegments - 1;
+        _segments = new Segment[numOfSegments];
+        int segmentCapacity = tableSizeFor(Math.max(2, (initialCapacity / numOfSegments) * 2));
+        for (int i = 0; i < _segments.length; i++)
+            _segments[i] = new Segment<V>(segmentCapacity);
+    }
+
+    private Segment<V> segmentFor(int hash) {
+        return _segments[(hash >>> _segmentShift) & _segmentMask];
+    }
+
+    @Override
+    protected boolean isPrimitiveKey(Object key) {
+        return key instanceof Long;
+    }
+
+    public V get(long key) {
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    @Override
+    protected V getPrimitive(Object key) {
+        return get(((Long) key).longValue());
+    }
+
+    @Override
+    protected V putPrimitive(Object key, V value, boolean onlyIfAbsent) {
+        long k = (Long) key;
+        int hash = hash(k);
+        return segmentFor(hash).put(k, hash, value, onlyIfAbsent);
+    }
+
+    @Override
+    protected V removePrimitive(Object key, Object value) {
+        long k = (Long) key;
+        int hash = hash(k);
+        return segmentFor(hash).remove(k, hash, value);
+    }
+
+    @Override
+    protected V replacePrimitive(Object key, Object oldValue, V newValue) {
+        long k = (Long) key;
+        int hash = hash(k);
+        return segmentFor(hash).replace(k, hash, oldValue, newValue);
+    }
+
+    @Override
+    protected int primitiveSize() {
+        long size = 0;
+        for (Segment<V> segment : _segments)
+            size += segment._count;
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    @Override
+    protected void clearPrimitive() {
+        for (Segment<V> segment : _segments)
+            segment.clear();
+    }
+
+    @Override
+    protected Iterator<Map.Entry<Object, V>> primitiveIterator() {
+        return new PrimitiveEntryIterator();
+    }
+
+    private static final class Table {
+        final long[] _keys;
+        final AtomicReferenceArray<Object> _values;
+        final int _mask;
+        final int _threshold;
+
+        Table(int capacity) {
+            _keys = new long[capacity];
+            _values = new AtomicReferenceArray<Object>(capacity);
+            _mask = capacity - 1;
+            _threshold = (capacity >>> 1) + (capacity >>> 2);
+        }
+    }
+
+    private static final class Segment<V> extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        private final int _initialCapacity;
+        volatile Table _table;
+        volatile int _count;
+        //live + removed slots in current table, guarded by lock
+        private int _used;
+
+        Segment(int initialCapacity) {
+            _initialCapacity = initialCapacity;
+            _table = new Table(initialCapacity);
+        }
+
+        V get(long key, int hash) {
+            Table table = _table;
+            int mask = table._mask;
+            int index = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                Object value = table._values.get(index);
+                if (value == null)
+                    return null;
+                if (value != REMOVED && table._keys[index] == key)
+                    return (V) value;
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        private int findLive(Table table, long key, int hash) {
+            int mask = table._mask;
+            int index = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                Object value = table._values.get(index);
+                if (value == null)
+                    return -1;
+                if (value != REMOVED && table._keys[index] == key)
+                    return index;
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        V put(long key, int hash, V value, boolean onlyIfAbsent) {
+            lock();
+            try {
+                Table table = _table;
+                int index = findLive(table, key, hash);
+                if (index >= 0) {
+                    V current = (V) table._values.get(index);
+                    if (!onlyIfAbsent)
+                        table._values.set(index, value);
+                    return current;
+                }
+                if (_used + 1 > table._threshold)
+                    table = rehash(table);
+                int mask = table._mask;
+                index = hash & mask;
+                while (table._values.get(index) != null)
+                    index = (index + 1) & mask;
+                table._keys[index] = key;
+                table._values.set(index, value);
+                _used++;
+                _count = _count + 1;
+                return null;
+            } finally {
+                unlock();
+            }
+        }
+
+        V remove(long key, int hash, Object expected) {
+            lock();
+            try {
+                Table table = _table;
+                int index = findLive(table, key, hash);
+                if (index < 0)
+                    return null;
+                V current = (V) table._values.get(index);
+                if (expected != null && !valueEquals(expected, current))
+                    return null;
+                table._values.set(index, REMOVED);
+                int count = _count - 1;
+                _count = count;
+                if (count == 0 && table._keys.length > _initialCapacity) {
+                    _table = new Table(_initialCapacity);
+                    _used = 0;
+                }
+                return current;
+            } finally {
+                unlock();
+            }
+        }
+
+        V replace(long key, int hash, Object expected, V newValue) {
+            lock();
+            try {
+                Table table = _table;
+                int index = findLive(table, key, hash);
+                if (index < 0)
+                    return null;
+                V current = (V) table._values.get(index);
+                if (expected != null && !valueEquals(expected, current))
+                    return null;
+                table._values.set(index, newValue);
+                return current;
+            } finally {
+                unlock();
+            }
+        }
+
+        void clear() {
+            lock();
+            try {
+                _table = new Table(_initialCapacity);
+                _used = 0;
+                _count = 0;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Copies the live mappings into a new table (growing it if needed) and drops the removed
+         * slots. Readers holding the old table keep seeing a consistent snapshot.
+         */
+        private Table rehash(Table oldTable) {
+            int count = _count;
+            int capacity = oldTable._keys.length;
+            if (count + 1 > (capacity >>> 1) && capacity < MAX_SEGMENT_CAPACITY)
+                capacity <<= 1;
+            Table newTable = new Table(capacity);
+            int mask = newTable._mask;
+            for (int i = 0; i < oldTable._keys.length; i++) {
+                Object value = oldTable._values.get(i);
+                if (value == null || value == REMOVED)
+                    continue;
+                long key = oldTable._keys[i];
+                int index = hash(key) & mask;
+                while (newTable._values.get(index) != null)
+                    index = (index + 1) & mask;
+                newTable._keys[index] = key;
+                newTable._values.lazySet(index, value);
+            }
+            _used = count;
+            _table = newTable;
+            return newTable;
+        }
+    }
+
+    private final class PrimitiveEntryIterator implements Iterator<Map.Entry<Object, V>> {
+        private int _segmentIndex = -1;
+        private Table _table;
+        private int _slot;
+        private Map.Entry<Object, V> _next;
+
+        PrimitiveEntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            _next = null;
+            while (true) {
+                if (_table != null) {
+                    while (_slot < _table._keys.length) {
+                        int slot = _slot++;
+                        Object value = _table._values.get(slot);
+                        if (value != null && value != REMOVED) {
+                            _next = new SimpleImmutableEntry<Object, V>(_table._keys[slot], (V) value);
+                            return;
+                        }
+                    }
+                }
+                if (++_segmentIndex >= _segments.length)
+                    return;
+                _table = _segments[_segmentIndex]._table;
+                _slot = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _next != null;
+        }
+
+        @Override
+        public Map.Entry<Object, V> next() {
+            Map.Entry<Object, V> result = _next;
+            if (result == null)
+                throw new NoSuchElementException();
+            advance();
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
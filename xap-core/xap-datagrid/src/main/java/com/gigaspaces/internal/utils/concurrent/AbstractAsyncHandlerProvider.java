@@ -134,6 +134,10 @@ public abstract class AbstractAsyncHandlerProvider implements IAsyncHandlerProvi
         public void resumeNow() {
         }
 
+        @Override
+        public void setIdleDelay(long idleDelayMilis) {
+        }
+
         @Override
         public boolean isTerminated() {
             return true;
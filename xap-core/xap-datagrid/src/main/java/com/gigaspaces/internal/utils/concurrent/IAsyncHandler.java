@@ -64,6 +64,14 @@ public interface IAsyncHandler {
      */
     void resumeNow();
 
+    /**
+     * Changes the idle delay which is waited before the next execution when a cycle is idle or the
+     * handler is resumed, takes effect from the next wait on
+     *
+     * @since 16.5
+     */
+    void setIdleDelay(long idleDelayMilis);
+
     /**
      * Specifies whether this async handler is terminated and will not run again
      */
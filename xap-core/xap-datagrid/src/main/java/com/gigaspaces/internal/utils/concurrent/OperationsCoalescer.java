@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces concurrent operations sharing a key into batches. The first caller of a key becomes
+ * the batch leader: it waits up to the max delay for more operations of that key, or until the
+ * batch is full, executes the batch on its own thread and hands the results to the other callers.
+ * A caller which has no concurrent operations is executed at once, as a batch of one.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class OperationsCoalescer<K, T, R> {
+
+    public interface BatchExecutor<T, R> {
+        /**
+         * Executes the given operations, setting the result or error of each of them.
+         */
+        void execute(List<Operation<T, R>> operations) throws Exception;
+    }
+
+    private final ConcurrentMap<K, Batch> _batches = new ConcurrentHashMap<K, Batch>();
+    private final AtomicInteger _pending = new AtomicInteger();
+    private final BatchExecutor<T, R> _executor;
+    private final long _maxDelayNanos;
+    private final int _maxSize;
+
+    public OperationsCoalescer(BatchExecutor<T, R> executor, long maxDelay, TimeUnit unit, int maxSize) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("maxSize must be positive");
+        _executor = executor;
+        _maxDelayNanos = unit.toNanos(maxDelay);
+        _maxSize = maxSize;
+    }
+
+    /**
+     * Executes the given operation as part of a batch of operations with the same key.
+     *
+     * @return the operation result
+     */
+    public R execute(K key, T input) throws Exception {
+        Operation<T, R> operation = new Operation<T, R>(input);
+        _pending.incrementAndGet();
+        try {
+            Batch batch;
+            boolean leader;
+            while (true) {
+                batch = _batches.get(key);
+                if (batch == null) {
+                    batch = new Batch(key);
+                    Batch existing = _batches.putIfAbsent(key, batch);
+                    if (existing != null)
+                        batch = existing;
+                }
+                synchronized (batch) {
+                    if (batch._sealed)
+                        continue;
+                    batch._operations.add(operation);
+                    leader = batch._operations.size() == 1;
+                    if (batch._operations.size() >= _maxSize) {
+                        batch.seal();
+                        batch.notifyAll();
+                    }
+                    break;
+                }
+            }
+
+            if (leader) {
+                awaitBatch(batch);
+                executeBatch(batch._operations);
+            }
+            return operation.get();
+        } finally {
+            _pending.decrementAndGet();
+        }
+    }
+
+    private void awaitBatch(Batch batch) {
+        boolean interrupted = false;
+        synchronized (batch) {
+            // Operations running alone are not delayed
+            if (_pending.get() > 1) {
+                final long deadline = System.nanoTime() + _maxDelayNanos;
+                long remaining;
+                while (!batch._sealed && (remaining = deadline - System.nanoTime()) > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(batch, remaining);
+                    } catch (InterruptedException e) {
+                        // The batch must be executed for the other callers, keep the interruption for later
+                        interrupted = true;
+                        break;
+                    }
+                }
+            }
+            if (!batch._sealed)
+                batch.seal();
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private void executeBatch(List<Operation<T, R>> operations) {
+        Throwable error = null;
+        try {
+            _executor.execute(operations);
+        } catch (Throwable e) {
+            error = e;
+        }
+        for (Operation<T, R> operation : operations)
+            if (!operation.isDone())
+                operation.setError(error != null ? error : new IllegalStateException("Batched operation was not completed"));
+    }
+
+    private class Batch {
+        private final K _key;
+        private final List<Operation<T, R>> _operations = new ArrayList<Operation<T, R>>();
+        private boolean _sealed;
+
+        private Batch(K key) {
+            _key = key;
+        }
+
+        private void seal() {
+            _sealed = true;
+            _batches.remove(_key, this);
+        }
+    }
+
+    public static class Operation<T, R> {
+        private final T _input;
+        private R _result;
+        private Throwable _error;
+        private boolean _done;
+
+        private Operation(T input) {
+            _input = input;
+        }
+
+        public T getInput() {
+            return _input;
+        }
+
+        public synchronized void setResult(R result) {
+            _result = result;
+            _done = true;
+            notifyAll();
+        }
+
+        public synchronized void setError(Throwable error) {
+            _error = error;
+            _done = true;
+            notifyAll();
+        }
+
+        private synchronized boolean isDone() {
+            return _done;
+        }
+
+        private synchronized R get() throws Exception {
+            while (!_done)
+                wait();
+            if (_error == null)
+                return _result;
+            if (_error instanceof Exception)
+                throw (Exception) _error;
+            if (_error instanceof Error)
+                throw (Error) _error;
+            throw new IllegalStateException(_error);
+        }
+    }
+}
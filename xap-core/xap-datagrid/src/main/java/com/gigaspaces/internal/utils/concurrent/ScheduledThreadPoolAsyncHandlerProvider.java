@@ -86,7 +86,7 @@ public class ScheduledThreadPoolAsyncHandlerProvider extends AbstractAsyncHandle
             implements IAsyncHandler {
 
         private final Callable<CycleResult> _runnable;
-        private final long _idleDelayMilis;
+        private volatile long _idleDelayMilis;
         private final String _name;
         private final Lock _lock = new ReentrantLock(true);
         private final Condition _condition;
@@ -243,6 +243,11 @@ public class ScheduledThreadPoolAsyncHandlerProvider extends AbstractAsyncHandle
 
         }
 
+        @Override
+        public void setIdleDelay(long idleDelayMilis) {
+            _idleDelayMilis = idleDelayMilis;
+        }
+
         @Override
         public boolean isTerminated() {
             if (isClosed())
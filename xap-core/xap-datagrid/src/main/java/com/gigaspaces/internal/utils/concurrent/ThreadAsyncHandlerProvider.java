@@ -86,7 +86,7 @@ public class ThreadAsyncHandlerProvider extends AbstractAsyncHandlerProvider {
 
         private final Callable<CycleResult> _runnable;
         private final ThreadAsyncHandlerProvider _provider;
-        private final long _idleDelayMilis;
+        private volatile long _idleDelayMilis;
         private final Lock _lock = new ReentrantLock(false);
         private final Condition _condition;
         private final boolean _waitIdleDelayBeforeStart;
@@ -245,6 +245,11 @@ public class ThreadAsyncHandlerProvider extends AbstractAsyncHandlerProvider {
             return _terminated || _stopped;
         }
 
+        @Override
+        public void setIdleDelay(long idleDelayMilis) {
+            _idleDelayMilis = idleDelayMilis;
+        }
+
         @Override
         public String getName() {
             return null;
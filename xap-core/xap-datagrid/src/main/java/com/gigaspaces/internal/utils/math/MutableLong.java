@@ -42,6 +42,10 @@ public class MutableLong extends MutableNumber {
             value += x.longValue();
     }
 
+    public void add(long x) {
+        value += x;
+    }
+
     @Override
     public void subtract(Number x) {
         if (x != null)
@@ -88,6 +88,14 @@ public class ConnPoolInvocationHandler
 
     }
 
+    /**
+     * @see ConnectionPool#getLane(LRMIMethod)
+     * @since 16.5
+     */
+    public OperationPriority getLane(LRMIMethod lrmiMethod) {
+        return _connPool.getLane(lrmiMethod);
+    }
+
     public long getGeneratedTraffic() {
         return _connPool.getGeneratedTraffic();
     }
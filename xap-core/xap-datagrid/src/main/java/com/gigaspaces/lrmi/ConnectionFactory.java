@@ -26,15 +26,27 @@ public class ConnectionFactory
     final private ProtocolAdapter<ConnectionResource> protocolAdapter;
     final private ITransportConfig config;
     final private PlatformLogicalVersion serviceVersion;
+    final private OperationPriority lane;
 
     ConnectionFactory(ProtocolAdapter<ConnectionResource> protocolAdapter, ITransportConfig config, PlatformLogicalVersion serviceVersion) {
+        this(protocolAdapter, config, serviceVersion, null);
+    }
+
+    /**
+     * @param lane the priority class the allocated connections are dedicated to, null for regular
+     *             connections
+     * @since 16.5
+     */
+    ConnectionFactory(ProtocolAdapter<ConnectionResource> protocolAdapter, ITransportConfig config, PlatformLogicalVersion serviceVersion, OperationPriority lane) {
         this.protocolAdapter = protocolAdapter;
         this.config = config;
         this.serviceVersion = serviceVersion;
+        this.lane = lane;
     }
 
     public ConnectionResource allocate() {
         ConnectionResource conn = protocolAdapter.getClientPeer(serviceVersion);
+        conn.setLane(lane);
         conn.init(config);
 
         return conn;
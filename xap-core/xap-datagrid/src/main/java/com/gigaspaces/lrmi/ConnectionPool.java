@@ -27,6 +27,8 @@ import com.j_spaces.kernel.pool.IResourceProcedure;
 
 import java.net.MalformedURLException;
 import java.rmi.RemoteException;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.atomic.LongAdder;
 
 
@@ -42,8 +44,11 @@ import java.util.concurrent.atomic.LongAdder;
 @com.gigaspaces.api.InternalApi
 public class ConnectionPool {
     private static final LongAdder activeConnections = new LongAdder();
+    private final static boolean PRIORITY_LANES = Boolean.parseBoolean(System.getProperty(SystemProperties.LRMI_PRIORITY_LANES, SystemProperties.LRMI_PRIORITY_LANES_DEFAULT));
     private final static boolean WAIT_INDEFINITELY_FOR_CONNECTION = !Boolean.valueOf(System.getProperty(SystemProperties.LRMI_ASYNC_THROW_RESOURCE_NOT_AVAILABLE, String.valueOf(SystemProperties.LRMI_ASYNC_THROW_RESOURCE_NOT_AVAILABLE_DEFAULT)));
     private final IResourcePool<ConnectionResource> _peersPool;
+    // connections dedicated to a priority class, null if priority lanes are not used
+    private final Map<OperationPriority, IResourcePool<ConnectionResource>> _lanePools;
     private final String _connectionURL;
     private final String _serviceDetails;
     private final PlatformLogicalVersion _serviceVersion;
@@ -69,6 +74,48 @@ public class ConnectionPool {
         //this._peersPool = new ResourcePool<ClientPeer>(new ConnectionFactory(protocolAdapter, config), 0, maxConns);
         this._peersPool = new BlockingResourcePool<ConnectionResource>(new ConnectionFactory(protocolAdapter, config, serviceVersion), 0, maxConns);
         this._serviceDetails = extractServiceDetailsFromConnectionUrl(_connectionURL);
+        this._lanePools = PRIORITY_LANES && serviceVersion != null && serviceVersion.greaterThan(PlatformLogicalVersion.v16_4_0)
+                ? createLanePools(protocolAdapter, config, serviceVersion) : null;
+    }
+
+    private static Map<OperationPriority, IResourcePool<ConnectionResource>> createLanePools(ProtocolAdapter protocolAdapter, ITransportConfig config, PlatformLogicalVersion serviceVersion) {
+        int maxConns = Integer.getInteger(SystemProperties.LRMI_PRIORITY_LANES_CONNECTION_POOL_SIZE, SystemProperties.LRMI_PRIORITY_LANES_CONNECTION_POOL_SIZE_DEFAULT);
+        if (maxConns <= 0)
+            throw new IllegalArgumentException("Max priority lane connection pool can't be less or equals zero.");
+        Map<OperationPriority, IResourcePool<ConnectionResource>> lanePools = new EnumMap<OperationPriority, IResourcePool<ConnectionResource>>(OperationPriority.class);
+        for (OperationPriority lane : new OperationPriority[]{OperationPriority.LIVENESS, OperationPriority.MONITORING, OperationPriority.REPLICATION})
+            lanePools.put(lane, new BlockingResourcePool<ConnectionResource>(new ConnectionFactory(protocolAdapter, config, serviceVersion, lane), 0, maxConns));
+        return lanePools;
+    }
+
+    /**
+     * @return the priority class whose dedicated connections should be used by the current
+     * invocation of the given method, null if it should use the regular connections
+     * @since 16.5
+     */
+    public OperationPriority getLane(LRMIMethod lrmiMethod) {
+        if (_lanePools == null)
+            return null;
+        LRMIInvocationContext currentContext = LRMIInvocationContext.getCurrentContext();
+        if (lrmiMethod.isLivenessPriority && currentContext.isLivenessPriorityEnabled())
+            return OperationPriority.LIVENESS;
+        if (lrmiMethod.isMonitoringPriority)
+            return OperationPriority.MONITORING;
+        if (currentContext.isReplicationPriorityEnabled())
+            return OperationPriority.REPLICATION;
+        return null;
+    }
+
+    private IResourcePool<ConnectionResource> getPool(OperationPriority lane) {
+        return lane == null ? _peersPool : _lanePools.get(lane);
+    }
+
+    private void forAllResources(IResourceProcedure<ConnectionResource> procedure) {
+        _peersPool.forAllResources(procedure);
+        if (_lanePools != null) {
+            for (IResourcePool<ConnectionResource> lanePool : _lanePools.values())
+                lanePool.forAllResources(procedure);
+        }
     }
 
     private static String extractServiceDetailsFromConnectionUrl(String connectionUrl) {
@@ -88,7 +135,7 @@ public class ConnectionPool {
         if (lrmiMethod.isAsync){
             waitForConnection = WAIT_INDEFINITELY_FOR_CONNECTION;
         }
-        ConnectionResource conn = _peersPool.getResource(waitForConnection);
+        ConnectionResource conn = getPool(getLane(lrmiMethod)).getResource(waitForConnection);
         try {
             if (_closed) {
                 //Concurrent close, maybe we created a new resource from getResource here and the close process did not find it,
@@ -128,25 +175,25 @@ public class ConnectionPool {
      */
     public void freeConnection(ConnectionResource clientPeer) {
         activeConnections.decrement();
-        _peersPool.freeResource(clientPeer);
+        getPool(clientPeer.getLane()).freeResource(clientPeer);
     }
 
     public long getGeneratedTraffic() {
         GeneratedTrafficProcedure procedure = new GeneratedTrafficProcedure();
-        _peersPool.forAllResources(procedure);
+        forAllResources(procedure);
         return procedure.getGeneratedTraffic();
     }
 
     public long getReceivedTraffic() {
         ReceivedTrafficProcedure procedure = new ReceivedTrafficProcedure();
-        _peersPool.forAllResources(procedure);
+        forAllResources(procedure);
         return procedure.getReceivedTraffic();
     }
 
     public void disable() {
         _disabled = true;
         DisableStubProcedure procedure = new DisableStubProcedure();
-        _peersPool.forAllResources(procedure);
+        forAllResources(procedure);
     }
 
     public void enable() {
@@ -155,7 +202,7 @@ public class ConnectionPool {
 
     public LRMIProxyMonitoringDetailsImpl getMonitoringDetails() {
         final LRMIProxyMonitoringDetailsImpl monitoringDetails = new LRMIProxyMonitoringDetailsImpl(_connectionURL, _serviceDetails, _serviceVersion);
-        _peersPool.forAllResources(new IResourceProcedure<ConnectionResource>() {
+        forAllResources(new IResourceProcedure<ConnectionResource>() {
             @Override
             public void invoke(ConnectionResource resource) {
                 monitoringDetails.addConnectionResource(resource);
@@ -169,7 +216,7 @@ public class ConnectionPool {
             return;
 
         _closed = true;
-        _peersPool.forAllResources(new IResourceProcedure<ConnectionResource>() {
+        forAllResources(new IResourceProcedure<ConnectionResource>() {
             @Override
             public void invoke(
                     ConnectionResource resource) {
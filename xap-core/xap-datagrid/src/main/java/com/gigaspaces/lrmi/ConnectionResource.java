@@ -30,6 +30,22 @@ import com.j_spaces.kernel.pool.Resource;
 public abstract class ConnectionResource
         extends Resource
         implements ClientPeer {
+
+    private OperationPriority _lane;
+
+    /**
+     * @return the priority class this connection is dedicated to, null if it serves all the
+     * invocations
+     * @since 16.5
+     */
+    public OperationPriority getLane() {
+        return _lane;
+    }
+
+    void setLane(OperationPriority lane) {
+        _lane = lane;
+    }
+
     /**
      * Disconnects the resource if it does not belong to the pool.
      */
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi;
+
+import com.j_spaces.kernel.SystemProperties;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of fixed size direct buffers, used to marshal and unmarshal LRMI packets as a chain of
+ * chunks without copying them to and from the heap. Chunks which are not released, e.g. of a
+ * connection which was closed in the middle of a write, are simply reclaimed by the GC.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class DirectByteBufferPool {
+    private static final DirectByteBufferPool _defaultPool = createDefaultPool();
+
+    private final int _chunkSize;
+    private final int _capacity;
+    private final Queue<ByteBuffer> _chunks = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicInteger _pooled = new AtomicInteger();
+
+    /**
+     * @return the pool shared by the LRMI readers and writers, null if direct buffers are not
+     * enabled
+     * @see SystemProperties#LRMI_DIRECT_BUFFERS
+     */
+    public static DirectByteBufferPool getDefaultDirectByteBufferPool() {
+        return _defaultPool;
+    }
+
+    private static DirectByteBufferPool createDefaultPool() {
+        if (!Boolean.parseBoolean(System.getProperty(SystemProperties.LRMI_DIRECT_BUFFERS, SystemProperties.LRMI_DIRECT_BUFFERS_DEFAULT)))
+            return null;
+        return new DirectByteBufferPool(Integer.getInteger(SystemProperties.LRMI_DIRECT_BUFFERS_CHUNK_SIZE, SystemProperties.LRMI_DIRECT_BUFFERS_CHUNK_SIZE_DEFAULT),
+                Integer.getInteger(SystemProperties.LRMI_DIRECT_BUFFERS_POOL_CAPACITY, SystemProperties.LRMI_DIRECT_BUFFERS_POOL_CAPACITY_DEFAULT));
+    }
+
+    /**
+     * @param chunkSize the size of each chunk in bytes
+     * @param capacity  the maximal number of chunks kept by the pool
+     */
+    public DirectByteBufferPool(int chunkSize, int capacity) {
+        if (chunkSize < 8)
+            throw new IllegalArgumentException("chunk size must be at least 8 bytes: " + chunkSize);
+        _chunkSize = chunkSize;
+        _capacity = capacity;
+    }
+
+    public int getChunkSize() {
+        return _chunkSize;
+    }
+
+    /**
+     * @return the number of chunks currently kept by the pool
+     */
+    public int getPooledChunks() {
+        return _pooled.get();
+    }
+
+    /**
+     * @return a cleared chunk
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer chunk = _chunks.poll();
+        if (chunk == null) {
+            chunk = ByteBuffer.allocateDirect(_chunkSize);
+            chunk.order(ByteOrder.BIG_ENDIAN);
+        } else {
+            _pooled.decrementAndGet();
+            chunk.clear();
+        }
+        return chunk;
+    }
+
+    /**
+     * @return enough chunks to hold the given number of bytes, the limit of the last one is set to
+     * the remainder
+     */
+    public ByteBuffer[] acquire(int length) {
+        int count = Math.max(1, (length + _chunkSize - 1) / _chunkSize);
+        ByteBuffer[] chunks = new ByteBuffer[count];
+        for (int i = 0; i < count; i++)
+            chunks[i] = acquire();
+        chunks[count - 1].limit(length - (count - 1) * _chunkSize);
+        return chunks;
+    }
+
+    public void release(ByteBuffer chunk) {
+        if (chunk == null || chunk.capacity() != _chunkSize || !chunk.isDirect())
+            return;
+        if (_pooled.incrementAndGet() > _capacity) {
+            _pooled.decrementAndGet();
+            return;
+        }
+        _chunks.offer(chunk);
+    }
+
+    public void release(ByteBuffer[] chunks) {
+        for (int i = 0; i < chunks.length; i++) {
+            release(chunks[i]);
+            chunks[i] = null;
+        }
+    }
+}
@@ -57,6 +57,10 @@ public class LRMIMethod {
     final public Class<?>[] methodTypes;
     final private IClassSerializer[] methodArgsSerializers;
     final public String realMethodString;
+    /**
+     * @since 16.5
+     */
+    final public String metricName;
 
     public LRMIMethod(IMethod realMethod, boolean isOneWay, boolean isCallBack, boolean isAsync, boolean useStubCache, boolean livenessPriority, boolean monitoringPriority, boolean isCustomTracking, int orderId) {
         this(realMethod, isOneWay, isCallBack, isAsync, useStubCache, livenessPriority, monitoringPriority, isCustomTracking, orderId, true);
@@ -79,6 +83,7 @@ public class LRMIMethod {
         this.methodTypes = realMethod == null ? null : realMethod.getParameterTypes();
         this.methodArgsSerializers = initArgsSerializers(methodTypes);
         this.realMethodString = LRMIUtilities.getMethodDisplayString(realMethod);
+        this.metricName = realMethod == null ? null : realMethod.getDeclaringClass().getSimpleName() + "." + realMethod.getName();
     }
 
     private IClassSerializer<?>[] initArgsSerializers(Class<?>[] methodTypes) {
@@ -37,6 +37,7 @@ import com.j_spaces.core.service.ServiceConfigLoader;
 import com.j_spaces.kernel.ClassLoaderHelper;
 import com.j_spaces.kernel.SystemProperties;
 import com.j_spaces.kernel.threadpool.DynamicThreadPoolExecutor;
+import com.j_spaces.kernel.threadpool.VirtualThreadFactory;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Proxy;
@@ -83,6 +84,8 @@ public class LRMIRuntime {
     final private LRMIThreadPoolExecutor _livenessPriorityThreadPool;
     final private LRMIThreadPoolExecutor _monitoringPriorityThreadPool;
     final private LRMIThreadPoolExecutor _customThreadPool;
+    final private LRMIThreadPoolExecutor _replicationThreadPool;
+    final private boolean _virtualThreads;
     final private StubCache _stubCache;
     final private INetworkMapper _networkMapper = constructNetworkMapper();
     //Current lrmi usage simply doesn't support shutdown on last registrar since the client 
@@ -118,10 +121,12 @@ public class LRMIRuntime {
         _id = random.nextLong();
 
         ITransportConfig config = ServiceConfigLoader.getTransportConfiguration();
+        _virtualThreads = initVirtualThreads();
+        final int virtualThreadsMax = Integer.getInteger(SystemProperties.LRMI_VIRTUAL_THREADS_MAX, SystemProperties.LRMI_VIRTUAL_THREADS_MAX_DEFAULT);
         _lrmiThreadPool = new LRMIThreadPoolExecutor(
-                config.getMinThreads(), config.getMaxThreads(),
+                config.getMinThreads(), _virtualThreads ? Math.max(config.getMaxThreads(), virtualThreadsMax) : config.getMaxThreads(),
                 config.getThreadPoolIdleTimeout(), config.getThreadsQueueSize(),
-                Long.MAX_VALUE, Thread.NORM_PRIORITY, "LRMI-Connection", true, true);
+                Long.MAX_VALUE, Thread.NORM_PRIORITY, "LRMI-Connection", true, true, _virtualThreads);
         NIOConfiguration nioConfig = (NIOConfiguration) config;
         _livenessPriorityThreadPool = new LRMIThreadPoolExecutor(nioConfig.getSystemPriorityMinThreads(),
                 nioConfig.getSystemPriorityMaxThreads(),
@@ -140,15 +145,35 @@ public class LRMIRuntime {
                 "LRMI-Monitoring",
                 true, true);
         _customThreadPool = new LRMIThreadPoolExecutor(nioConfig.getCustomMinThreads(),
-                nioConfig.getCustomMaxThreads(),
+                _virtualThreads ? Math.max(nioConfig.getCustomMaxThreads(), virtualThreadsMax) : nioConfig.getCustomMaxThreads(),
                 nioConfig.getCustomThreadIdleTimeout(),
                 nioConfig.getCustomQueueCapacity(),
                 Long.MAX_VALUE,
                 Thread.NORM_PRIORITY,
                 "LRMI-Custom",
+                true, true, _virtualThreads);
+        _replicationThreadPool = new LRMIThreadPoolExecutor(
+                Integer.getInteger(SystemProperties.LRMI_REPLICATION_MIN_THREADS, SystemProperties.LRMI_REPLICATION_MIN_THREADS_DEFAULT),
+                Integer.getInteger(SystemProperties.LRMI_REPLICATION_MAX_THREADS, SystemProperties.LRMI_REPLICATION_MAX_THREADS_DEFAULT),
+                config.getSystemPriorityThreadIdleTimeout(),
+                Integer.getInteger(SystemProperties.LRMI_REPLICATION_QUEUE_CAPACITY, SystemProperties.LRMI_REPLICATION_QUEUE_CAPACITY_DEFAULT),
+                Long.MAX_VALUE,
+                Thread.NORM_PRIORITY,
+                "LRMI-Replication",
                 true, true);
     }
 
+    private static boolean initVirtualThreads() {
+        if (!Boolean.parseBoolean(System.getProperty(SystemProperties.LRMI_VIRTUAL_THREADS, SystemProperties.LRMI_VIRTUAL_THREADS_DEFAULT)))
+            return false;
+        if (!VirtualThreadFactory.isSupported()) {
+            _logger.warn("Virtual threads are not supported by this JVM [" + System.getProperty("java.version") + "], " +
+                    SystemProperties.LRMI_VIRTUAL_THREADS + " is ignored and platform threads are used");
+            return false;
+        }
+        return true;
+    }
+
 
     @SuppressWarnings("unchecked")
     static private INetworkMapper constructNetworkMapper() {
@@ -215,6 +240,24 @@ public class LRMIRuntime {
         return _customThreadPool;
     }
 
+    /**
+     * @return the thread pool which executes the replication invocations sent over dedicated
+     * connections, see {@link SystemProperties#LRMI_PRIORITY_LANES}
+     * @since 16.5
+     */
+    public DynamicThreadPoolExecutor getReplicationThreadPool() {
+        return _replicationThreadPool;
+    }
+
+    /**
+     * @return true if the invocations are executed on virtual threads, see {@link
+     * SystemProperties#LRMI_VIRTUAL_THREADS}
+     * @since 16.5
+     */
+    public boolean isVirtualThreads() {
+        return _virtualThreads;
+    }
+
     public boolean isUseNetworkInJVM() {
         return _useNetworkInJVM;
     }
@@ -519,6 +562,7 @@ public class LRMIRuntime {
         _monitoringPriorityThreadPool.shutdownNow();
         _livenessPriorityThreadPool.shutdownNow();
         _customThreadPool.shutdown();
+        _replicationThreadPool.shutdownNow();
 
         DynamicSmartStub.shutdown();
 
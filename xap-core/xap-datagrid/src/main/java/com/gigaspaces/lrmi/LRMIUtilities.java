@@ -29,6 +29,7 @@ import com.gigaspaces.internal.reflection.IMethod;
 import com.gigaspaces.internal.reflection.ReflectionUtil;
 import com.gigaspaces.internal.version.PlatformLogicalVersion;
 import com.gigaspaces.logger.Constants;
+import com.gigaspaces.lrmi.nio.UnixDomainSockets;
 import com.gigaspaces.management.transport.ConnectionEndpointDetails;
 import com.j_spaces.kernel.ClassLoaderHelper;
 import com.j_spaces.kernel.SystemProperties;
@@ -439,6 +440,9 @@ public class LRMIUtilities {
 
     public static void initNewSocketProperties(SocketChannel sockChannel)
             throws SocketException {
+        // Tcp options do not apply to unix domain sockets
+        if (UnixDomainSockets.isUnixDomain(sockChannel))
+            return;
         // Set the socket
         if (SEND_BUFFER_SIZE > 0) {
             try {
@@ -496,6 +500,8 @@ public class LRMIUtilities {
      * @throws SocketException
      */
     public static int getAndSetSocketTimeout(SocketChannel sockChannel, int timeout) throws SocketException {
+        if (UnixDomainSockets.isUnixDomain(sockChannel))
+            return 0;
         int soTimeout = sockChannel.socket().getSoTimeout();
         sockChannel.socket().setSoTimeout(timeout);
         return soTimeout;
@@ -16,6 +16,7 @@
 
 package com.gigaspaces.lrmi;
 
+import com.gigaspaces.internal.lrmi.LRMILatencyMonitor;
 import com.gigaspaces.internal.lrmi.LRMIProxyMonitoringDetailsImpl;
 import com.gigaspaces.internal.reflection.IMethod;
 import com.gigaspaces.internal.reflection.ProxyInvocationHandler;
@@ -70,6 +71,7 @@ public class MethodCachedInvocationHandler
             throw new ServiceUnsupportedOperationException("current method [" + method.toString() + "] is not supported by the remote stub," +
                     " possibly due to older version of the stub. local version [OfficialVersion=" + PlatformVersion.getOfficialVersion() + " " + PlatformLogicalVersion.getLogicalVersion() + "] remote stub version [OfficialVersion=" + _serverPlatformVersion + " " + _serverPlatformLogicalVersion + "] connectionURL=" + _connectionURL, PlatformVersion.getOfficialVersion(), _serverPlatformVersion, PlatformLogicalVersion.getLogicalVersion(), _serverPlatformLogicalVersion);
 
+        final long startTime = LRMILatencyMonitor.isEnabled() && !lrmiMethod.isAsync && !lrmiMethod.isOneWay ? System.nanoTime() : 0;
         try {
             setLRMIInvocationContext(method, args, lrmiMethod);
 
@@ -99,6 +101,8 @@ public class MethodCachedInvocationHandler
         } finally {
             //Restore previous context when done
             LRMIInvocationContext.restoreContext();
+            if (startTime != 0)
+                LRMILatencyMonitor.recordClientRoundTrip(lrmiMethod, System.nanoTime() - startTime);
         }
     }
 
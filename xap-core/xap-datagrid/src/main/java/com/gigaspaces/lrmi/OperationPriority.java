@@ -36,5 +36,9 @@ public enum OperationPriority {
      * @since 16.0
      */
     @ExperimentalApi
-    DIRECT;
+    DIRECT,
+    /**
+     * @since 16.5
+     */
+    REPLICATION;
 }
@@ -48,7 +48,7 @@ public class SimpleClassProvider implements IClassProvider{
             //Method is called from space side. Space sends a class definition request wrapped in a ReplyPacket
             channel._writer.writeReply(new ReplyPacket(new ClassDefinitionRequest(id, className, FileType.CLASS), null));
             //The class definition response is returned wrapped in a RequestPacket
-            RequestPacket response = channel._reader.readRequest(true);
+            RequestPacket response = channel.readClassLoadingResponse();
             ClassDefinitionResponse classDefinitionResponse = (ClassDefinitionResponse) response.getRequestObject();
             if(classDefinitionResponse.getException() != null){
                 _channel.clear();
@@ -80,7 +80,7 @@ public class SimpleClassProvider implements IClassProvider{
             //Method is called from space side. Space sends a resource definition request wrapped in a ReplyPacket
             channel._writer.writeReply(new ReplyPacket(new ClassDefinitionRequest(id, resourceName, FileType.RESOURCE), null));
             //The resource definition response is returned wrapped in a RequestPacket
-            RequestPacket response = channel._reader.readRequest(true);
+            RequestPacket response = channel.readClassLoadingResponse();
             ClassDefinitionResponse classDefinitionResponse = (ClassDefinitionResponse) response.getRequestObject();
             if(classDefinitionResponse.getException() != null){
                 _channel.clear();
@@ -64,7 +64,6 @@ import net.jini.space.InternalSpaceException;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
-import java.net.Socket;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedSelectorException;
@@ -184,6 +183,7 @@ public class CPeer extends BaseClientPeer {
         _slowConsumerRetries = config.getSlowConsumerRetries();
         _protocolValidationEnabled = ((NIOConfiguration) config).isProtocolValidationEnabled();
         _asyncConnect = System.getProperty(SystemProperties.LRMI_USE_ASYNC_CONNECT) == null || Boolean.getBoolean(SystemProperties.LRMI_USE_ASYNC_CONNECT);
+        _requestPacket.setDedicatedLane(getLane() != null);
     }
 
     @Override
@@ -256,16 +256,29 @@ public class CPeer extends BaseClientPeer {
     }
 
     private SocketChannel createAsyncChannel(String host, int port, LRMIMethod lrmiMethod) throws IOException {
+        SocketAddress unixDomainAddress = UnixDomainSockets.getLocalServerAddress(host, _remoteLrmiRuntimeId, port);
+        if (unixDomainAddress != null) {
+            try {
+                return createAsyncChannel(new Conversation(UnixDomainSockets.open(), unixDomainAddress), lrmiMethod);
+            } catch (IOException e) {
+                if (_logger.isDebugEnabled())
+                    _logger.debug("Failed to connect to unix domain socket " + unixDomainAddress + ", connecting to " + host + ":" + port, e);
+            }
+        }
         if (_logger.isDebugEnabled()) {
             _logger.debug("connecting new socket channel to " + host + ":" + port + ", connect timeout=" + _config.getSocketConnectTimeout() + " keepalive=" + LRMIUtilities.KEEP_ALIVE_MODE);
         }
-        Conversation conversation = new Conversation(new InetSocketAddress(host, port));
+        return createAsyncChannel(new Conversation(new InetSocketAddress(host, port)), lrmiMethod);
+    }
+
+    private SocketChannel createAsyncChannel(Conversation conversation, LRMIMethod lrmiMethod) throws IOException {
         if (_protocolValidationEnabled) {
             conversation.addChat(new WriteBytesChat(ProtocolValidation.getProtocolHeaderBytes()));
         }
 
         RequestPacket requestPacket = new RequestPacket(new HandshakeRequest(PlatformLogicalVersion.getLogicalVersion()));
         requestPacket.operationPriority = getOperationPriority(lrmiMethod, LRMIInvocationContext.getCurrentContext());
+        requestPacket.setDedicatedLane(getLane() != null);
         conversation.addChat(new LRMIChat(requestPacket));
 
         try {
@@ -382,13 +395,10 @@ public class CPeer extends BaseClientPeer {
             String localAddress = "not connected";
             if (m_SockChannel != null) {
                 //Avoid possible NPE if socket gets disconnected
-                Socket socket = m_SockChannel.socket();
-                if (socket != null) {
-                    SocketAddress localSocketAddress = socket.getLocalSocketAddress();
-                    //Avoid possible NPE if socket gets disconnected
-                    if (localSocketAddress != null)
-                        localAddress = localSocketAddress.toString();
-                }
+                SocketAddress localSocketAddress = NIOUtils.getLocalSocketAddress(m_SockChannel);
+                //Avoid possible NPE if socket gets disconnected
+                if (localSocketAddress != null)
+                    localAddress = localSocketAddress.toString();
             }
             _logger.debug("At " + methodName + " method, " + description + " [invoker address=" + localAddress + ", ServerEndPoint=" + getConnectionURL() + "]");
         }
@@ -404,7 +414,9 @@ public class CPeer extends BaseClientPeer {
         if (_logger.isDebugEnabled())
             _logger.debug("connecting new socket channel to " + host + ":" + port + ", connect timeout=" + _config.getSocketConnectTimeout() + " keepalive=" + LRMIUtilities.KEEP_ALIVE_MODE);
 
-        SocketChannel sockChannel;
+        SocketChannel sockChannel = createUnixDomainChannel(host, port);
+        if (sockChannel != null)
+            return sockChannel;
         for (int i = 0; /* true */ ; ++i) {
             sockChannel = createSocket(host, port);
             try {
@@ -438,6 +450,38 @@ public class CPeer extends BaseClientPeer {
         return sockChannel;
     }
 
+    /**
+     * Connects to the unix domain socket of the server if it runs on this host and accepts such
+     * connections.
+     *
+     * @return the connected channel, or null if a tcp connection should be used
+     */
+    private SocketChannel createUnixDomainChannel(String host, int port) {
+        SocketAddress address = UnixDomainSockets.getLocalServerAddress(host, _remoteLrmiRuntimeId, port);
+        if (address == null)
+            return null;
+        SocketChannel sockChannel = null;
+        try {
+            sockChannel = UnixDomainSockets.open();
+            sockChannel.connect(address);
+            sockChannel.configureBlocking(_blocking);
+            m_Address = new InetSocketAddress(host, port);
+            if (_logger.isDebugEnabled())
+                _logger.debug("connected new socket channel to " + host + ":" + port + " using unix domain socket " + address);
+            return sockChannel;
+        } catch (IOException e) {
+            if (_logger.isDebugEnabled())
+                _logger.debug("Failed to connect to unix domain socket " + address + ", connecting to " + host + ":" + port, e);
+            if (sockChannel != null) {
+                try {
+                    sockChannel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            return null;
+        }
+    }
+
     /**
      * Creates a new Socket
      */
@@ -553,6 +597,26 @@ public class CPeer extends BaseClientPeer {
         _replayPacket.clear();
     }
 
+    /**
+     * Watches the channel of a multiplexed connection while a reply is read off it, the channel is
+     * closed if the server is no longer reachable.
+     *
+     * @since 16.5
+     */
+    void watchMultiplexedRead(String monitoringId) {
+        _watchdogContext.watchRequest(monitoringId);
+    }
+
+    /**
+     * Stops watching the channel, a multiplexed connection is kept open while it is not read, so
+     * it is not watched as an idle connection either.
+     *
+     * @since 16.5
+     */
+    void unwatchMultiplexedRead() {
+        _watchdogContext.watchNone();
+    }
+
     public IClassProvider getClassProvider() {
         return getProtocolAdapter().getClassProvider();
     }
@@ -590,6 +654,7 @@ public class CPeer extends BaseClientPeer {
     private void doHandshake(LRMIMethod lrmiMethod) throws IOException, IOFilterException, ClassNotFoundException {
         RequestPacket requestPacket = new RequestPacket(new HandshakeRequest(PlatformLogicalVersion.getLogicalVersion()));
         requestPacket.operationPriority = getOperationPriority(lrmiMethod, LRMIInvocationContext.getCurrentContext());
+        requestPacket.setDedicatedLane(getLane() != null);
 
         String previousThreadName = updateThreadNameIfNeeded();
         _watchdogContext.watchRequest("handshake");
@@ -614,13 +679,16 @@ public class CPeer extends BaseClientPeer {
         }
     }
 
-    private OperationPriority getOperationPriority(LRMIMethod lrmiMethod, LRMIInvocationContext currentContext) {
+    OperationPriority getOperationPriority(LRMIMethod lrmiMethod, LRMIInvocationContext currentContext) {
         if (lrmiMethod.isLivenessPriority && currentContext.isLivenessPriorityEnabled())
             return OperationPriority.LIVENESS;
 
         if (lrmiMethod.isMonitoringPriority)
             return OperationPriority.MONITORING;
 
+        if (currentContext.isReplicationPriorityEnabled() && getLane() == OperationPriority.REPLICATION)
+            return OperationPriority.REPLICATION;
+
         if (currentContext.isCustomPriorityEnabled())
             return OperationPriority.CUSTOM;
 
@@ -712,33 +780,11 @@ public class CPeer extends BaseClientPeer {
                     _watchdogContext.watchResponse(monitoringId);
                     _reader.readReply(_replayPacket);
                     Object result = _replayPacket.getResult();
-                    if (result instanceof ClassProviderRequest) {
+                    if (result instanceof ClassProviderRequest || result instanceof ClassDefinitionRequest) {
                         _replayPacket.clear();
                         _watchdogContext.watchRequest(monitoringId);
-                        _writer.writeRequest(new RequestPacket(getClassProvider()), false);
-                    } else if(result instanceof ClassDefinitionRequest){
-                        ClassDefinitionRequest classDefinitionRequest = (ClassDefinitionRequest) result;
-                        IClassProvider provider = getClassProvider();
-                        byte[] definition = new byte[0];
-                        Exception exp = null;
-                        if(classDefinitionRequest.getFileType() == FileType.CLASS){
-                            try {
-                                definition = provider.getClassDefinition(classDefinitionRequest.getClassLoaderId(), classDefinitionRequest.getClassName());
-                            }catch (ClassNotFoundException e){
-                                exp = e;
-                            }
-                        }
-                        else if(classDefinitionRequest.getFileType() == FileType.RESOURCE){
-                            try {
-                                definition = provider.getResource(classDefinitionRequest.getClassLoaderId(),classDefinitionRequest.getResourceName());
-                            }catch (ClassNotFoundException e){
-                                exp = e;
-                            }
-                        }
-                        ClassDefinitionResponse classDefinitionResponse = new ClassDefinitionResponse(definition, exp);
-                        _writer.writeRequest(new RequestPacket(classDefinitionResponse));
-                    }
-                    else {
+                        replyToClassLoadingRequest(result);
+                    } else {
                         hasMoreIntermediateRequests = false;
                     }
                 }
@@ -843,6 +889,48 @@ public class CPeer extends BaseClientPeer {
         }
     }
 
+    /**
+     * Answers a class loading request the server sent in the middle of an invocation.
+     *
+     * @return false if the given reply result is not a class loading request
+     */
+    boolean replyToClassLoadingRequest(Object request) throws IOException, IOFilterException {
+        if (request instanceof ClassProviderRequest) {
+            _writer.writeRequest(new RequestPacket(getClassProvider()), false);
+            return true;
+        }
+        if (!(request instanceof ClassDefinitionRequest))
+            return false;
+
+        ClassDefinitionRequest classDefinitionRequest = (ClassDefinitionRequest) request;
+        IClassProvider provider = getClassProvider();
+        byte[] definition = new byte[0];
+        Exception exp = null;
+        if (classDefinitionRequest.getFileType() == FileType.CLASS) {
+            try {
+                definition = provider.getClassDefinition(classDefinitionRequest.getClassLoaderId(), classDefinitionRequest.getClassName());
+            } catch (ClassNotFoundException e) {
+                exp = e;
+            }
+        } else if (classDefinitionRequest.getFileType() == FileType.RESOURCE) {
+            try {
+                definition = provider.getResource(classDefinitionRequest.getClassLoaderId(), classDefinitionRequest.getResourceName());
+            } catch (ClassNotFoundException e) {
+                exp = e;
+            }
+        }
+        _writer.writeRequest(new RequestPacket(new ClassDefinitionResponse(definition, exp)));
+        return true;
+    }
+
+    IRemoteClassProviderProvider getRemoteConnection() {
+        return _remoteConnection;
+    }
+
+    LRMIRemoteClassLoaderIdentifier getRemoteClassLoaderIdentifier() {
+        return _remoteClassLoaderIdentifier;
+    }
+
     private String updateThreadNameIfNeeded() {
         if (!CHANGE_THREAD_NAME_ON_INVOCATION)
             return null;
@@ -37,7 +37,6 @@ import net.jini.space.InternalSpaceException;
 import java.io.IOException;
 import java.net.ConnectException;
 import java.net.InetSocketAddress;
-import java.net.Socket;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
@@ -66,7 +65,7 @@ public class ChannelEntry implements IWriteInterestManager {
     final private Pivot _pivot;
     final private SocketChannel _socketChannel;
     final private InetSocketAddress _clientEndPointAddress;
-    final private SelectionKey _readSelectionKey;
+    private volatile SelectionKey _readSelectionKey;
     final public Writer _writer;
     final public Reader _reader;
 
@@ -86,7 +85,7 @@ public class ChannelEntry implements IWriteInterestManager {
      * the connection time stamp in milliseconds
      */
     final private long _connectionTimeStamp;
-    final private ReadSelectorThread _readSelectorThread;
+    private volatile ReadSelectorThread _readSelectorThread;
     final private WriteSelectorThread _writeSelectorThread;
     final private IRemoteClassProviderProvider _remoteClassProvider = new Pivot.ServerRemoteClassProviderProvider(this);
     final private IOFilterManager _filterManager;
@@ -102,6 +101,13 @@ public class ChannelEntry implements IWriteInterestManager {
     private final WriteExecutionPhaseListener _writeExecutionPhaseListener = new ChannelEntryWriteExecutionPhaseListener();
     private volatile State _currentChannelState = State.IDLE;
     private volatile boolean _firstMessage = true;
+    private volatile boolean _multiplexed;
+    private final boolean _unixDomain;
+    private volatile boolean _dedicatedLane;
+    // read events of the current load window of the read selector thread, accessed by that thread only
+    private ReadSelectorThread _selectorEventsOwner;
+    private int _selectorEventsWindow;
+    private int _selectorEvents;
 
 
     /**
@@ -124,6 +130,7 @@ public class ChannelEntry implements IWriteInterestManager {
         _connectionID = UIDGen.nextId();
         _connectionTimeStamp = SystemTime.timeMillis();
         _clientEndPointAddress = clientEndPointAddress;
+        _unixDomain = UnixDomainSockets.isUnixDomain(channel);
         try {
             _filterManager = IOBlockFilterManager.createFilter(_reader, _writer, false, _socketChannel);
         } catch (Exception e) {
@@ -191,11 +198,10 @@ public class ChannelEntry implements IWriteInterestManager {
         if (_clientEndPointAddress != null) {
             return _clientEndPointAddress;
         }
-
-        Socket socket = _socketChannel.socket();
-        if (socket == null)
+        if (_unixDomain)
             return null;
-        return (InetSocketAddress) socket.getRemoteSocketAddress();
+
+        return NIOUtils.getRemoteInetSocketAddress(_socketChannel);
     }
 
     public void writeReply(ReplyPacket packet, boolean reuseBuffer, Writer.Context ctx, String monitoringId) {
@@ -217,7 +223,8 @@ public class ChannelEntry implements IWriteInterestManager {
         _writeSelectorThread.removeWriteInterest(_writeSelectionKey);
         _writeSelectionKey = null;
 
-        if (restoreReadInterest)
+        // a multiplexed channel is returned for reading once its requests are unmarshalled
+        if (restoreReadInterest && !_multiplexed)
             returnSocket(); // reregister socket for read events
     }
 
@@ -246,11 +253,98 @@ public class ChannelEntry implements IWriteInterestManager {
         return _connectionID;
     }
 
+    /**
+     * Marks this channel as carrying multiplexed requests, the client does not wait for a reply
+     * before sending its next request so the channel is not returned for reading by the replies.
+     *
+     * @since 16.5
+     */
+    public void markMultiplexed() {
+        _multiplexed = true;
+    }
+
+    /**
+     * @since 16.5
+     */
+    public boolean isMultiplexed() {
+        return _multiplexed;
+    }
+
+    /**
+     * @return true if the channel is a unix domain socket channel
+     * @since 16.5
+     */
+    public boolean isUnixDomain() {
+        return _unixDomain;
+    }
+
+    /**
+     * Reads the response of the client to a class loading request sent to it while a request of
+     * this channel is handled. On a multiplexed channel the client may have pipelined more requests
+     * ahead of the response, these are dispatched for execution as they are read.
+     *
+     * @since 16.5
+     */
+    public RequestPacket readClassLoadingResponse() throws IOException, ClassNotFoundException, IOFilterException {
+        while (true) {
+            RequestPacket packet = _reader.readRequest(true);
+            if (!packet.isMultiplexed())
+                return packet;
+            packet.restorePreviousLRMIRemoteClassLoaderState();
+            _pivot.handlePipelinedRequest(this, packet);
+        }
+    }
+
     public void returnSocket() {
-        if (_readSelectorThread != null && _readSelectionKey != null) {
-            _readSelectionKey.attach(null);
-            _readSelectorThread.registerKey(_readSelectionKey);
+        final ReadSelectorThread readSelectorThread = _readSelectorThread;
+        final SelectionKey readSelectionKey = _readSelectionKey;
+        if (readSelectorThread != null && readSelectionKey != null) {
+            readSelectionKey.attach(null);
+            readSelectorThread.registerKey(readSelectionKey);
+        }
+    }
+
+    /**
+     * Marks this channel as dedicated to a priority class, it is moved to a dedicated read selector
+     * thread.
+     *
+     * @since 16.5
+     */
+    public void markDedicatedLane() {
+        _dedicatedLane = true;
+    }
+
+    /**
+     * @since 16.5
+     */
+    public boolean isDedicatedLane() {
+        return _dedicatedLane;
+    }
+
+    /**
+     * Called by the read selector thread which this channel was moved to, once the channel is
+     * registered with it.
+     *
+     * @since 16.5
+     */
+    public void setReadSelector(ReadSelectorThread readSelectorThread, SelectionKey readSelectionKey) {
+        _readSelectionKey = readSelectionKey;
+        _readSelectorThread = readSelectorThread;
+    }
+
+    /**
+     * Called by the read selector thread on each read event of this channel.
+     *
+     * @return the number of read events of this channel in the given load window of the selector
+     * @since 16.5
+     */
+    public int countSelectorEvent(ReadSelectorThread selector, int window) {
+        if (_selectorEventsOwner != selector || _selectorEventsWindow != window) {
+            _selectorEventsOwner = selector;
+            _selectorEventsWindow = window;
+            _selectorEvents = 0;
         }
+        return ++_selectorEvents;
     }
 
     public void onWriteEvent() {
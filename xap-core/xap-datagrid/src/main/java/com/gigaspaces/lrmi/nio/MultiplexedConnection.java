@@ -0,0 +1,390 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio;
+
+import com.gigaspaces.config.lrmi.ITransportConfig;
+import com.gigaspaces.exception.lrmi.ApplicationException;
+import com.gigaspaces.exception.lrmi.LRMIUnhandledException;
+import com.gigaspaces.exception.lrmi.ProtocolException;
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+import com.gigaspaces.logger.Constants;
+import com.gigaspaces.lrmi.DynamicSmartStub;
+import com.gigaspaces.lrmi.LRMIInvocationContext;
+import com.gigaspaces.lrmi.LRMIInvocationContext.InvocationStage;
+import com.gigaspaces.lrmi.LRMIMethod;
+import com.gigaspaces.lrmi.classloading.IRemoteClassProviderProvider;
+import com.gigaspaces.lrmi.classloading.LRMIRemoteClassLoaderIdentifier;
+import com.gigaspaces.lrmi.classloading.protocol.lrmi.LRMIConnection;
+import com.j_spaces.kernel.ClassLoaderHelper;
+
+import java.rmi.ConnectException;
+import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A client connection shared by concurrent synchronous invocations. Each request carries a
+ * correlation id, and the replies, which the server sends in the order the invocations complete,
+ * are matched to the waiting invocations by it. There is no dedicated reader thread - one of the
+ * waiting invocation threads reads the replies off the channel and hands each one to its owner,
+ * and once its own reply arrived another waiting thread takes over reading.
+ *
+ * The number of in-flight invocations is bounded, further invocations wait for a permit. A broken
+ * channel fails all of its in-flight invocations and the next invocation reconnects. The channel is
+ * kept out of the idle connections watch, and while a reply is read off it the watchdog checks the
+ * server is still reachable and closes the channel otherwise.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class MultiplexedConnection {
+    private static final Logger _logger = LoggerFactory.getLogger(Constants.LOGGER_LRMI);
+    private static final String READ_MONITORING_ID = "multiplexed-read";
+
+    private final PAdapter _protocolAdapter;
+    private final ITransportConfig _config;
+    private final String _connectionURL;
+    private final PlatformLogicalVersion _serviceVersion;
+    private final Semaphore _inFlightPermits;
+    private final int _maxInFlight;
+    private final long _awaitReplyTimeout;
+
+    private Session _session;
+    private long _generatedTraffic;
+    private long _receivedTraffic;
+    private boolean _disabled;
+    private boolean _closed;
+
+    public MultiplexedConnection(PAdapter protocolAdapter, ITransportConfig config, String connectionURL,
+                                 PlatformLogicalVersion serviceVersion, int maxInFlight) {
+        _protocolAdapter = protocolAdapter;
+        _config = config;
+        _connectionURL = connectionURL;
+        _serviceVersion = serviceVersion;
+        _maxInFlight = maxInFlight;
+        _inFlightPermits = new Semaphore(maxInFlight);
+        _awaitReplyTimeout = Math.max(config.getWatchdogRequestTimeout(), 1);
+    }
+
+    /**
+     * @return the number of invocations currently in-flight on this connection
+     */
+    public int getInFlight() {
+        return _maxInFlight - _inFlightPermits.availablePermits();
+    }
+
+    public Object invoke(LRMIMethod lrmiMethod, Object[] args)
+            throws ApplicationException, ProtocolException, RemoteException, InterruptedException {
+        _inFlightPermits.acquire();
+        try {
+            return getSession(lrmiMethod).invoke(lrmiMethod, args);
+        } finally {
+            _inFlightPermits.release();
+        }
+    }
+
+    private synchronized Session getSession(LRMIMethod lrmiMethod) throws RemoteException {
+        if (_closed)
+            DynamicSmartStub.throwProxyClosedExeption(_connectionURL);
+        if (_session != null && !_session.isBroken())
+            return _session;
+        if (_disabled)
+            throw new RemoteException("LRMI force disconnection enabled for this stub");
+
+        CPeer cpeer = _protocolAdapter.getClientPeer(_serviceVersion);
+        cpeer.init(_config);
+        try {
+            cpeer.connect(_connectionURL, lrmiMethod);
+        } catch (java.net.MalformedURLException e) {
+            throw new RemoteException("Malformed connection url [" + _connectionURL + "]", e);
+        }
+        // shared by all the invocations, so it must not be probed or closed as an idle connection
+        cpeer.unwatchMultiplexedRead();
+        _session = new Session(cpeer);
+        return _session;
+    }
+
+    public synchronized long getGeneratedTraffic() {
+        return _generatedTraffic + (_session != null ? _session._cpeer.getGeneratedTraffic() : 0);
+    }
+
+    public synchronized long getReceivedTraffic() {
+        return _receivedTraffic + (_session != null ? _session._cpeer.getReceivedTraffic() : 0);
+    }
+
+    public void disable() {
+        Session session;
+        synchronized (this) {
+            _disabled = true;
+            session = _session;
+        }
+        if (session != null)
+            session.fail(new ConnectException("LRMI force disconnection enabled for this stub"));
+    }
+
+    public synchronized void enable() {
+        _disabled = false;
+    }
+
+    public void close() {
+        Session session;
+        synchronized (this) {
+            if (_closed)
+                return;
+            _closed = true;
+            session = _session;
+        }
+        if (session != null) {
+            session.fail(new ConnectException("Connection to [" + _connectionURL + "] was closed"));
+            session._cpeer.close();
+        }
+    }
+
+    private synchronized void onSessionBroken(Session session) {
+        _generatedTraffic += session._cpeer.getGeneratedTraffic();
+        _receivedTraffic += session._cpeer.getReceivedTraffic();
+        if (_session == session)
+            _session = null;
+    }
+
+    /**
+     * A single connected channel and the invocations in-flight on it.
+     */
+    private final class Session {
+        private final CPeer _cpeer;
+        private final Map<Integer, PendingInvocation> _pending = new ConcurrentHashMap<Integer, PendingInvocation>();
+        private final AtomicInteger _correlationIds = new AtomicInteger();
+        private final ReentrantLock _lock = new ReentrantLock();
+        // guarded by _lock
+        private boolean _reading;
+        private volatile Exception _failure;
+
+        private Session(CPeer cpeer) {
+            _cpeer = cpeer;
+        }
+
+        boolean isBroken() {
+            return _failure != null;
+        }
+
+        Object invoke(LRMIMethod lrmiMethod, Object[] args)
+                throws ApplicationException, ProtocolException, RemoteException, InterruptedException {
+            LRMIInvocationContext currentContext = LRMIInvocationContext.getCurrentContext();
+            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            int correlationId = nextCorrelationId();
+            PendingInvocation invocation = new PendingInvocation(contextClassLoader, _lock.newCondition());
+            _pending.put(correlationId, invocation);
+
+            IRemoteClassProviderProvider previousConnection = LRMIConnection.putConnection(_cpeer.getRemoteConnection());
+            try {
+                Writer writer = _cpeer.getWriter();
+                if (writer == null || isBroken())
+                    throw brokenConnectionException();
+                long clientClassLoaderId = _cpeer.getClassProvider().putClassLoader(contextClassLoader);
+                RequestPacket requestPacket = new RequestPacket(_cpeer.getObjectId(), lrmiMethod.orderId, args, false /*isOneWay*/,
+                        false /*isCallBack*/, lrmiMethod, clientClassLoaderId, _cpeer.getOperationPriority(lrmiMethod, currentContext), _serviceVersion);
+                requestPacket.setCorrelationId(correlationId);
+                writer.writeRequest(requestPacket);
+
+                LRMIInvocationContext.updateContext(null, null, InvocationStage.CLIENT_RECEIVE_REPLY, null, null, false, null, null);
+                ReplyPacket<Object> replyPacket = awaitReply(invocation);
+                Exception exception = replyPacket.getException();
+                if (exception == null)
+                    return replyPacket.getResult();
+                if (exception instanceof LRMIUnhandledException && ((LRMIUnhandledException) exception).getStage() == LRMIUnhandledException.Stage.DESERIALIZATION) {
+                    // the server did not read the whole request, so it did not learn the stream context
+                    // the next requests were written with
+                    fail(exception);
+                }
+                throw exception;
+            } catch (ApplicationException e) {
+                throw e;
+            } catch (RemoteException e) {
+                throw e;
+            } catch (ProtocolException e) {
+                throw e;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                // the request was not fully written or the channel is broken
+                fail(e);
+                throw brokenConnectionException();
+            } finally {
+                _pending.remove(correlationId);
+                LRMIConnection.setConnection(previousConnection);
+            }
+        }
+
+        private int nextCorrelationId() {
+            int id = _correlationIds.incrementAndGet();
+            // zero stands for a request which is not multiplexed
+            return id != 0 ? id : _correlationIds.incrementAndGet();
+        }
+
+        /**
+         * Waits for the reply of the given invocation, reading replies off the channel as long as
+         * no other waiting thread does.
+         */
+        private ReplyPacket<Object> awaitReply(PendingInvocation invocation) throws RemoteException, InterruptedException {
+            _lock.lock();
+            try {
+                while (true) {
+                    if (invocation._reply != null)
+                        return invocation._reply;
+                    if (isBroken())
+                        throw brokenConnectionException();
+                    if (!_reading) {
+                        _reading = true;
+                        try {
+                            readReply();
+                        } finally {
+                            _reading = false;
+                        }
+                    } else {
+                        // bounded so a missed hand off only delays taking over the reading
+                        invocation._replyArrived.await(_awaitReplyTimeout, TimeUnit.MILLISECONDS);
+                    }
+                }
+            } finally {
+                if (!_reading)
+                    handOffReading(invocation);
+                _lock.unlock();
+            }
+        }
+
+        /**
+         * Reads a single reply and hands it to the invocation it belongs to, called while holding
+         * the lock which is released during the read itself.
+         */
+        private void readReply() {
+            CorrelatedReplyPacket replyPacket = new CorrelatedReplyPacket();
+            _lock.unlock();
+            try {
+                LRMIRemoteClassLoaderIdentifier previousIdentifier = RemoteClassLoaderContext.set(_cpeer.getRemoteClassLoaderIdentifier());
+                try {
+                    Reader reader = _cpeer.getReader();
+                    if (reader == null)
+                        throw new java.io.IOException("Connection is closed");
+                    // the read itself is not bounded, the watchdog closes the channel if the server is unreachable
+                    _cpeer.watchMultiplexedRead(READ_MONITORING_ID);
+                    try {
+                        reader.readReply(replyPacket);
+                    } finally {
+                        _cpeer.unwatchMultiplexedRead();
+                    }
+                } finally {
+                    replyPacket.restoreContextClassLoader();
+                    RemoteClassLoaderContext.set(previousIdentifier);
+                }
+                if (replyPacket.getCorrelationId() == 0 && !_cpeer.replyToClassLoadingRequest(replyPacket.getResult())) {
+                    Exception exception = replyPacket.getException();
+                    throw exception != null ? exception : new ProtocolException("Unexpected reply on a multiplexed connection: " + replyPacket, null);
+                }
+            } catch (Exception e) {
+                fail(e);
+            } finally {
+                _lock.lock();
+            }
+
+            PendingInvocation invocation = _pending.get(replyPacket.getCorrelationId());
+            if (invocation != null) {
+                invocation._reply = replyPacket;
+                invocation._replyArrived.signal();
+            }
+        }
+
+        /**
+         * Wakes up one of the invocations still waiting for a reply so it takes over reading.
+         */
+        private void handOffReading(PendingInvocation completed) {
+            for (PendingInvocation invocation : _pending.values()) {
+                if (invocation != completed && invocation._reply == null) {
+                    invocation._replyArrived.signal();
+                    return;
+                }
+            }
+        }
+
+        void fail(Exception cause) {
+            _lock.lock();
+            try {
+                if (_failure != null)
+                    return;
+                _failure = cause;
+                for (PendingInvocation invocation : _pending.values())
+                    invocation._replyArrived.signal();
+            } finally {
+                _lock.unlock();
+            }
+
+            if (_logger.isDebugEnabled())
+                _logger.debug("LRMI transport protocol over NIO broken multiplexed connection with ServerEndPoint: [" + _connectionURL + "]", cause);
+            _cpeer.disconnect();
+            onSessionBroken(this);
+        }
+
+        private RemoteException brokenConnectionException() {
+            return new ConnectException("LRMI transport protocol over NIO broken connection with ServerEndPoint: [" + _connectionURL + "]", _failure);
+        }
+
+        /**
+         * Unmarshals the result of a reply with the context class loader of the invocation it
+         * belongs to.
+         */
+        private final class CorrelatedReplyPacket extends ReplyPacket<Object> {
+            private ClassLoader _previousClassLoader;
+
+            @Override
+            protected void onCorrelationId(int correlationId) {
+                PendingInvocation invocation = _pending.get(correlationId);
+                if (invocation == null)
+                    return;
+                ClassLoader current = Thread.currentThread().getContextClassLoader();
+                if (current != invocation._contextClassLoader) {
+                    _previousClassLoader = current;
+                    ClassLoaderHelper.setContextClassLoader(invocation._contextClassLoader, true /*ignore security*/);
+                }
+            }
+
+            void restoreContextClassLoader() {
+                if (_previousClassLoader != null)
+                    ClassLoaderHelper.setContextClassLoader(_previousClassLoader, true /*ignore security*/);
+            }
+        }
+    }
+
+    private static final class PendingInvocation {
+        private final ClassLoader _contextClassLoader;
+        private final Condition _replyArrived;
+        private volatile ReplyPacket<Object> _reply;
+
+        private PendingInvocation(ClassLoader contextClassLoader, Condition replyArrived) {
+            _contextClassLoader = contextClassLoader;
+            _replyArrived = replyArrived;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio;
+
+import com.gigaspaces.config.lrmi.ITransportConfig;
+import com.gigaspaces.exception.lrmi.ApplicationException;
+import com.gigaspaces.exception.lrmi.ProtocolException;
+import com.gigaspaces.internal.lrmi.LRMIProxyMonitoringDetailsImpl;
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+import com.gigaspaces.lrmi.ClientPeerInvocationHandler;
+import com.gigaspaces.lrmi.ConnPoolInvocationHandler;
+import com.gigaspaces.lrmi.LRMIInvocationContext;
+import com.gigaspaces.lrmi.LRMIMethod;
+import com.gigaspaces.lrmi.nio.filters.IOBlockFilterManager;
+import com.j_spaces.kernel.SystemProperties;
+
+/**
+ * Invocation handler which sends the synchronous invocations of a remote proxy over a few
+ * multiplexed connections, instead of checking out a dedicated connection per invocation. Async,
+ * one way and callback invocations are still sent over the connection pool.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class MultiplexedInvocationHandler implements ClientPeerInvocationHandler {
+    private final ConnPoolInvocationHandler _connPoolHandler;
+    private final MultiplexedConnection[] _connections;
+
+    public MultiplexedInvocationHandler(ConnPoolInvocationHandler connPoolHandler, PAdapter protocolAdapter, ITransportConfig config,
+                                        String connectionURL, PlatformLogicalVersion serviceVersion) {
+        _connPoolHandler = connPoolHandler;
+        int connections = Math.max(1, Integer.getInteger(SystemProperties.LRMI_MULTIPLEXED_CONNECTIONS, SystemProperties.LRMI_MULTIPLEXED_CONNECTIONS_DEFAULT));
+        int maxInFlight = Math.max(1, Integer.getInteger(SystemProperties.LRMI_MULTIPLEXED_MAX_IN_FLIGHT, SystemProperties.LRMI_MULTIPLEXED_MAX_IN_FLIGHT_DEFAULT));
+        _connections = new MultiplexedConnection[connections];
+        for (int i = 0; i < connections; i++)
+            _connections[i] = new MultiplexedConnection(protocolAdapter, config, connectionURL, serviceVersion, maxInFlight);
+    }
+
+    /**
+     * @return true if invocations to the given service can be multiplexed - multiplexing is
+     * enabled, the service supports it and the connections are neither filtered nor throttled
+     */
+    public static boolean isSupported(ITransportConfig config, PlatformLogicalVersion serviceVersion) {
+        return Boolean.parseBoolean(System.getProperty(SystemProperties.LRMI_MULTIPLEXED, SystemProperties.LRMI_MULTIPLEXED_DEFAULT))
+                && serviceVersion != null && serviceVersion.greaterThan(PlatformLogicalVersion.v16_4_0)
+                && config.isBlockingConnection()
+                && config.getSlowConsumerThroughput() == 0
+                && IOBlockFilterManager.getFilterFactory() == null;
+    }
+
+    public Object invoke(Object proxy, LRMIMethod lrmiMethod, Object[] args)
+            throws Throwable {
+        if (lrmiMethod.isAsync || lrmiMethod.isOneWay || lrmiMethod.isCallBack || LRMIInvocationContext.getCurrentContext().isCallbackMethod()
+                || _connPoolHandler.getLane(lrmiMethod) != null)
+            return _connPoolHandler.invoke(proxy, lrmiMethod, args);
+
+        try {
+            return selectConnection().invoke(lrmiMethod, args);
+        } catch (ProtocolException ex) {
+            throw ex.getCause();
+        } catch (ApplicationException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private MultiplexedConnection selectConnection() {
+        MultiplexedConnection selected = _connections[0];
+        for (int i = 1; i < _connections.length; i++) {
+            if (_connections[i].getInFlight() < selected.getInFlight())
+                selected = _connections[i];
+        }
+        return selected;
+    }
+
+    public long getGeneratedTraffic() {
+        long traffic = _connPoolHandler.getGeneratedTraffic();
+        for (MultiplexedConnection connection : _connections)
+            traffic += connection.getGeneratedTraffic();
+        return traffic;
+    }
+
+    public long getReceivedTraffic() {
+        long traffic = _connPoolHandler.getReceivedTraffic();
+        for (MultiplexedConnection connection : _connections)
+            traffic += connection.getReceivedTraffic();
+        return traffic;
+    }
+
+    public void disable() {
+        _connPoolHandler.disable();
+        for (MultiplexedConnection connection : _connections)
+            connection.disable();
+    }
+
+    public void enable() {
+        _connPoolHandler.enable();
+        for (MultiplexedConnection connection : _connections)
+            connection.enable();
+    }
+
+    @Override
+    public void close() {
+        _connPoolHandler.close();
+        for (MultiplexedConnection connection : _connections)
+            connection.close();
+    }
+
+    @Override
+    public LRMIProxyMonitoringDetailsImpl getMonitoringDetails() {
+        return _connPoolHandler.getMonitoringDetails();
+    }
+}
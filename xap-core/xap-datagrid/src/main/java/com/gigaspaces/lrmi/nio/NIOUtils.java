@@ -16,13 +16,18 @@
 
 package com.gigaspaces.lrmi.nio;
 
+import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketAddress;
 import java.nio.channels.SocketChannel;
 
 @com.gigaspaces.api.InternalApi
 public class NIOUtils {
     public static String getSocketDisplayString(SocketChannel channel) {
+        if (UnixDomainSockets.isUnixDomain(channel))
+            return getLocalSocketAddress(channel) + "->" + getRemoteSocketAddress(channel);
         Socket socket = channel.socket();
         String identifier = "disconnected";
         if (socket != null) {
@@ -34,4 +39,46 @@ public class NIOUtils {
         }
         return identifier;
     }
+
+    /**
+     * @return the remote address of the given channel, or null if it is not connected
+     * @since 16.5
+     */
+    public static SocketAddress getRemoteSocketAddress(SocketChannel channel) {
+        if (UnixDomainSockets.isUnixDomain(channel)) {
+            try {
+                return channel.getRemoteAddress();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        Socket socket = channel.socket();
+        return socket == null ? null : socket.getRemoteSocketAddress();
+    }
+
+    /**
+     * @return the remote internet address of the given channel, or null if it is not connected or
+     * is a unix domain socket channel
+     * @since 16.5
+     */
+    public static InetSocketAddress getRemoteInetSocketAddress(SocketChannel channel) {
+        SocketAddress address = getRemoteSocketAddress(channel);
+        return address instanceof InetSocketAddress ? (InetSocketAddress) address : null;
+    }
+
+    /**
+     * @return the local address of the given channel, or null if it is not bound
+     * @since 16.5
+     */
+    public static SocketAddress getLocalSocketAddress(SocketChannel channel) {
+        if (UnixDomainSockets.isUnixDomain(channel)) {
+            try {
+                return channel.getLocalAddress();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        Socket socket = channel.socket();
+        return socket == null ? null : socket.getLocalSocketAddress();
+    }
 }
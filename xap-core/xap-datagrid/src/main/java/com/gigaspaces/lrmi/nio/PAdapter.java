@@ -228,7 +228,10 @@ public class PAdapter implements ProtocolAdapter<CPeer> {
     public ClientPeerInvocationHandler getClientInvocationHandler(String connectionURL, ITransportConfig config, PlatformLogicalVersion serviceVersion) {
         /* create a connection pool and appropriate invocation handler */
         ConnectionPool connPool = new ConnectionPool(this, config, connectionURL, serviceVersion);
-        return new ConnPoolInvocationHandler(connPool);
+        ConnPoolInvocationHandler connPoolHandler = new ConnPoolInvocationHandler(connPool);
+        if (MultiplexedInvocationHandler.isSupported(config, serviceVersion))
+            return new MultiplexedInvocationHandler(connPoolHandler, this, config, connectionURL, serviceVersion);
+        return connPoolHandler;
     }
 
     @Override
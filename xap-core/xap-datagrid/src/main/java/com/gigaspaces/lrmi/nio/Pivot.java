@@ -26,6 +26,7 @@ import com.gigaspaces.internal.collections.LongObjectMap;
 import com.gigaspaces.internal.io.MarshalContextClearedException;
 import com.gigaspaces.internal.io.MarshalInputStream;
 import com.gigaspaces.internal.lrmi.LRMIInboundMonitoringDetailsImpl;
+import com.gigaspaces.internal.lrmi.LRMILatencyMonitor;
 import com.gigaspaces.internal.lrmi.LRMIServiceMonitoringDetailsImpl;
 import com.gigaspaces.internal.utils.concurrent.ContextClassLoaderRunnable;
 import com.gigaspaces.internal.version.PlatformLogicalVersion;
@@ -59,7 +60,6 @@ import org.jini.rio.boot.LoggableClassLoader;
 import java.io.IOException;
 import java.io.InvalidClassException;
 import java.net.InetSocketAddress;
-import java.net.Socket;
 import java.net.SocketAddress;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
@@ -125,7 +125,7 @@ public class Pivot {
                 try {
                     ReplyPacket requestForClass = new ReplyPacket(new ClassProviderRequest(), (Exception) null);
                     channel._writer.writeReply(requestForClass);
-                    RequestPacket response = channel._reader.readRequest(true);
+                    RequestPacket response = channel.readClassLoadingResponse();
 
                     return (IClassProvider) response.getRequestObject();
                 } catch (ClassNotFoundException e) {
@@ -160,14 +160,17 @@ public class Pivot {
         final private Pivot pivot;
         final private ChannelEntry channelEntry;
         final private MarshalInputStream stream;
+        final private long dispatchTime;
 
         private ChannelEntryTask(Pivot pivot, ChannelEntry channelEntry, MarshalInputStream stream) {
             this.pivot = pivot;
             this.channelEntry = channelEntry;
             this.stream = stream;
+            this.dispatchTime = LRMILatencyMonitor.isEnabled() ? System.nanoTime() : 0;
         }
 
         public void run() {
+            final long startTime = dispatchTime != 0 ? System.nanoTime() : 0;
             try {
                 setLRMIInvocationContext();
 
@@ -180,6 +183,16 @@ public class Pivot {
                 if (requestPacket == null) {
                     channelEntry.returnSocket(); // releases Reader Selector
                 } else {
+                    if (startTime != 0 && requestPacket.getInvokeMethod() != null)
+                        LRMILatencyMonitor.recordServerQueue(requestPacket.getInvokeMethod(), startTime - dispatchTime);
+                    if (requestPacket.isMultiplexed() && !requestPacket.isOneWay()) {
+                        // the client sends its next requests without waiting for this reply, so the channel is
+                        // returned for reading right away. as with one way requests, the invocation itself can
+                        // no longer load classes through the channel
+                        LRMIConnection.clearConnection();
+                        channelEntry.markMultiplexed();
+                        channelEntry.returnSocket();
+                    }
                     try {
                         //Update stage once we finished unmarshaling the request
                         LRMIInvocationContext.updateContext(null, null, InvocationStage.INVOCATION_HANDLING, null, null, false, null, null);
@@ -210,6 +223,36 @@ public class Pivot {
         }
     }
 
+    /**
+     * Handles a multiplexed request which was read, and already unmarshalled, while the channel
+     * was waiting for the response to a class loading request.
+     */
+    private final static class PipelinedRequestTask implements Runnable {
+        final private Pivot pivot;
+        final private ChannelEntry channelEntry;
+        final private RequestPacket requestPacket;
+
+        private PipelinedRequestTask(Pivot pivot, ChannelEntry channelEntry, RequestPacket requestPacket) {
+            this.pivot = pivot;
+            this.channelEntry = channelEntry;
+            this.requestPacket = requestPacket;
+        }
+
+        public void run() {
+            LRMIRemoteClassLoaderIdentifier previousIdentifier = LRMIConnection.setRemoteClassLoaderIdentifier(requestPacket.getRemoteClassLoaderIdentifier());
+            try {
+                LRMIInvocationTrace trace = _contextLogger.isDebugEnabled() ? new LRMIInvocationTrace(null, null, NIOUtils.getSocketDisplayString(channelEntry.getSocketChannel()), false) : null;
+                LRMIInvocationContext.updateContext(trace, ProxyWriteType.UNCACHED, InvocationStage.INVOCATION_HANDLING, channelEntry.getSourcePlatformLogicalVersion(), null, false, null, channelEntry.getClientEndPointAddress());
+                if (_logger.isTraceEnabled())
+                    _logger.trace("<-- " + requestPacket);
+                pivot.handleRequest(requestPacket, channelEntry);
+            } finally {
+                LRMIConnection.setRemoteClassLoaderIdentifier(previousIdentifier);
+                LRMIInvocationContext.resetContext();
+            }
+        }
+    }
+
     private static class ReplyTask extends ContextClassLoaderRunnable {
         private final Pivot pivot;
         private final ChannelEntry channel;
@@ -242,6 +285,7 @@ public class Pivot {
     final private Executor _monitoringPriorityThreadPool;
     final private Executor _customThreadPool;
     final private Executor _directExecutor;
+    final private Executor _replicationThreadPool;
     final private SelectorManager _selectorManager;
 
     //default response handler used by the response context.
@@ -263,6 +307,7 @@ public class Pivot {
         _livenessPriorityThreadPool = LRMIRuntime.getRuntime().getLivenessPriorityThreadPool();
         _monitoringPriorityThreadPool = LRMIRuntime.getRuntime().getMonitoringPriorityThreadPool();
         _customThreadPool = LRMIRuntime.getRuntime().getCustomThreadPool();
+        _replicationThreadPool = LRMIRuntime.getRuntime().getReplicationThreadPool();
         _directExecutor = Executors.newDirectExecutor();
         _protocolValidationEnabled = config.isProtocolValidationEnabled();
     }
@@ -355,8 +400,7 @@ public class Pivot {
 
         WriteSelectorThread writeHandler = _selectorManager.getWriteHandler(key.channel());
 
-        Socket socket = channel.socket();
-        InetSocketAddress socketAddress = (InetSocketAddress) (socket == null ? null : socket.getRemoteSocketAddress());
+        InetSocketAddress socketAddress = NIOUtils.getRemoteInetSocketAddress(channel);
         ChannelEntry channelEntry = new ChannelEntry(writeHandler, readHandler, key, socketAddress, this);
         m_Channels.put(channel, channelEntry);
 
@@ -385,12 +429,9 @@ public class Pivot {
             // close channel and remove it from table
             // remove client socket mapping before closing the socket
             SocketChannel socketChannel = channelEntry.getSocketChannel();
-            Socket socket = socketChannel.socket();
-            if (socket != null) {
-                SocketAddress socketAddress = socket.getRemoteSocketAddress();
-                if (socketAddress != null)
-                    _clientToChannel.remove(socketAddress);
-            }
+            SocketAddress socketAddress = NIOUtils.getRemoteInetSocketAddress(socketChannel);
+            if (socketAddress != null)
+                _clientToChannel.remove(socketAddress);
             channelEntry.close();
             m_Channels.remove(socketChannel);
 
@@ -440,11 +481,54 @@ public class Pivot {
         } else {
             operationPriority = RequestPacket.getOperationPriorityFromBytes(ctx.bytes);
             task = new ChannelEntryTask(this, channelEntry, stream);
+            if (!channelEntry.isDedicatedLane() && RequestPacket.isDedicatedLaneFromBytes(ctx.bytes)) {
+                channelEntry.markDedicatedLane();
+                ReadSelectorThread laneHandler = _selectorManager.getDedicatedLaneReadHandler(channelEntry.getSocketChannel());
+                if (laneHandler != null) {
+                    // The channel is moved before its first task runs, so the task returns the socket to the lane selector
+                    ctx.selectionKey.cancel();
+                    laneHandler.adoptChannel(channelEntry, new DispatchTask(getExecutor(operationPriority), task));
+                    return;
+                }
+            }
+            ReadSelectorThread target = _selectorManager.getRebalanceTarget(handler, channelEntry);
+            if (target != null) {
+                handler.onHotChannelMoved();
+                ctx.selectionKey.cancel();
+                target.adoptChannel(channelEntry, new DispatchTask(getExecutor(operationPriority), task));
+                return;
+            }
         }
         //We are using the selector thread indication of priority because it is safer because the channel system priority is not volatile
         getExecutor(operationPriority).execute(task);
     }
 
+    private static final class DispatchTask implements Runnable {
+        private final Executor _executor;
+        private final Runnable _task;
+
+        private DispatchTask(Executor executor, Runnable task) {
+            _executor = executor;
+            _task = task;
+        }
+
+        @Override
+        public void run() {
+            _executor.execute(_task);
+        }
+    }
+
+    /**
+     * Dispatches a multiplexed request of the given channel which was read while the channel was
+     * waiting for the response to a class loading request.
+     *
+     * @since 16.5
+     */
+    public void handlePipelinedRequest(ChannelEntry channelEntry, RequestPacket requestPacket) {
+        channelEntry.markMultiplexed();
+        getExecutor(requestPacket.operationPriority).execute(new PipelinedRequestTask(this, channelEntry, requestPacket));
+    }
+
     public void requestPending(ChannelEntry channel, ReplyPacket<?> respPacket, IResponseContext responseContext) {
         // called by the service, should use its context class loader for invocation
         // This is a thread from the pool and it will have the channel system property state updated as it goes throw volatile
@@ -459,6 +543,7 @@ public class Pivot {
             case MONITORING: return _monitoringPriorityThreadPool;
             case REGULAR: return _threadPool;
             case DIRECT: return _directExecutor;
+            case REPLICATION: return _replicationThreadPool;
             default: throw new IllegalArgumentException("Unknown priority: " + operationPriority);
         }
     }
@@ -579,8 +664,12 @@ public class Pivot {
             ResponseContext.setExistingResponseContext(respContext);
         }
 
+        final LRMIMethod lrmiMethod = LRMILatencyMonitor.isEnabled() ? requestPacket.getInvokeMethod() : null;
+        final long startTime = lrmiMethod != null ? System.nanoTime() : 0;
         ReplyPacket replyPacket = consumeAndHandleRequest(requestPacket, respContext, channelEntry);
         ResponseContext.clearResponseContext();
+        if (lrmiMethod != null)
+            LRMILatencyMonitor.recordServerExecution(lrmiMethod, System.nanoTime() - startTime);
 
         //	 If replyPacket is null - it's a one way request or callback
         // return without sending reply to the client
@@ -589,6 +678,8 @@ public class Pivot {
                 channelEntry.monitorActivity(monitoringId);
             return;
         }
+        if (requestPacket.isMultiplexed())
+            replyPacket.setCorrelationId(requestPacket.getCorrelationId());
 
         // in case of special requests (such as class request) a fresh MarshalledOutputStream
         // should be created to make sure class definition will be sent to be read by the
@@ -702,7 +793,8 @@ public class Pivot {
         int result = 0;
 
         for (ChannelEntry channelEntry : m_Channels.values())
-            if (channelEntry.getRemoteObjID() == remoteObjID && getClientEndPointAddress(channelEntry) != null)
+            if (channelEntry.getRemoteObjID() == remoteObjID && (getClientEndPointAddress(channelEntry) != null
+                    || channelEntry.isUnixDomain()))
                 result++;
 
         return result;
@@ -18,11 +18,13 @@ package com.gigaspaces.lrmi.nio;
 
 import com.gigaspaces.exception.lrmi.LRMIUnhandledException;
 import com.gigaspaces.exception.lrmi.SlowConsumerException;
+import com.gigaspaces.internal.io.ByteBufferChainInputStream;
 import com.gigaspaces.internal.io.GSByteArrayInputStream;
 import com.gigaspaces.internal.io.MarshalContextClearedException;
 import com.gigaspaces.internal.io.MarshalInputStream;
 import com.gigaspaces.logger.Constants;
 import com.gigaspaces.lrmi.LRMIUtilities;
+import com.gigaspaces.lrmi.DirectByteBufferPool;
 import com.gigaspaces.lrmi.SmartByteBufferCache;
 import com.gigaspaces.lrmi.nio.SystemRequestHandler.SystemRequestContext;
 import com.gigaspaces.lrmi.nio.filters.IOFilterException;
@@ -85,6 +87,7 @@ public class Reader {
 
     /* cached data  buffer */
     final private SmartByteBufferCache _bufferCache = SmartByteBufferCache.getDefaultSmartByteBufferCache();
+    final private DirectByteBufferPool _directBufferPool = DirectByteBufferPool.getDefaultDirectByteBufferPool();
 
     /* data length buffer */
     final private ByteBuffer _headerBuffer = ByteBuffer.allocateDirect(4); // 4 == size of int in bytes
@@ -100,6 +103,8 @@ public class Reader {
     private long _receivedTraffic;
 
     private final SystemRequestHandler _systemRequestHandler;
+    // unix domain channels have no socket timeout to set around the blocking reads
+    private final boolean _unixDomain;
 
     public static LongAdder getReceivedTrafficCounter() {
         return receivedTraffic;
@@ -115,6 +120,7 @@ public class Reader {
 
     private Reader(SocketChannel sockChannel, int slowConsumerRetries, SystemRequestHandler systemRequestHandler) {
         _socketChannel = sockChannel;
+        _unixDomain = UnixDomainSockets.isUnixDomain(sockChannel);
         _headerBuffer.order(ByteOrder.BIG_ENDIAN);
         _streamContext = MarshalInputStream.createContext();
         try {
@@ -227,6 +233,33 @@ public class Reader {
 
     public ByteBuffer readBytesFromChannelBlocking(boolean createNewBuffer, int slowConsumerLatency, int sizeLimit)
             throws IOException {
+        return readBytesFromChannelBlocking(createNewBuffer, slowConsumerLatency, sizeLimit, -1);
+    }
+
+    /**
+     * @param dataLength the length of the data if its header was already read, -1 otherwise
+     */
+    private ByteBuffer readBytesFromChannelBlocking(boolean createNewBuffer, int slowConsumerLatency, int sizeLimit, int dataLength)
+            throws IOException {
+        if (dataLength < 0)
+            dataLength = readHeaderFromChannelBlocking(slowConsumerLatency, sizeLimit);
+
+        /* allocate the buffer on demand, otherwise reuse the buffer */
+        ByteBuffer buffer;
+        buffer = getByteBufferAllocated(createNewBuffer, dataLength);
+        readBodyFromChannelBlocking(buffer, null, dataLength, slowConsumerLatency);
+        buffer.position(0);
+        buffer.limit(dataLength);
+        return buffer;
+    }
+
+    /**
+     * Reads the header of the next message.
+     *
+     * @return the length of the message data
+     */
+    private int readHeaderFromChannelBlocking(int slowConsumerLatency, int sizeLimit)
+            throws IOException {
         /* read header (data length) */
         int bytesRead = 0;
         int retries = 0;
@@ -235,7 +268,8 @@ public class Reader {
         _headerBuffer.clear();
         int originalSoTimeout = 0;
         try {
-            originalSoTimeout = LRMIUtilities.getAndSetSocketTimeout(_socketChannel, LRMIUtilities.READ_BLOCK_TIMEOUT);
+            if (!_unixDomain)
+                originalSoTimeout = LRMIUtilities.getAndSetSocketTimeout(_socketChannel, LRMIUtilities.READ_BLOCK_TIMEOUT);
             while (bytesRead < 4) {
                 int bRead = _socketChannel.read(_headerBuffer);
                 if (bRead == -1) // EOF
@@ -275,7 +309,8 @@ public class Reader {
                 }
             }
         } finally {
-            LRMIUtilities.getAndSetSocketTimeout(_socketChannel, originalSoTimeout);
+            if (!_unixDomain)
+                LRMIUtilities.getAndSetSocketTimeout(_socketChannel, originalSoTimeout);
 
             if (tmpKey != null) {
                 tmpKey.cancel();
@@ -303,13 +338,22 @@ public class Reader {
         if (dataLength > SUSPICIOUS_THRESHOLD) {
             _logger.warn("About to allocate " + dataLength + " bytes - from socket channel: " + _socketChannel);
         }
+        return dataLength;
+    }
 
-        /* allocate the buffer on demand, otherwise reuse the buffer */
-        ByteBuffer buffer;
-        buffer = getByteBufferAllocated(createNewBuffer, dataLength);
+    /**
+     * Reads the message data either into the given buffer, or with a scattering read into the given
+     * chunks.
+     */
+    private void readBodyFromChannelBlocking(ByteBuffer buffer, ByteBuffer[] chunks, int dataLength, int slowConsumerLatency)
+            throws IOException {
+        int retries = 0;
+        int originalSoTimeout = 0;
+        Selector tempSelector = null;
+        SelectionKey tmpKey = null;
 
         /* read to bytes buffer */
-        bytesRead = 0;
+        int bytesRead = 0;
         /*
          * Sliding window is used to read the data from the channel using limited size buffer instead of 
          * reading using all the buffer, this is because Java SocketChannel allocate direct buffer that has the same size as
@@ -320,14 +364,20 @@ public class Reader {
         int bRead;
 
         try {
-            originalSoTimeout = LRMIUtilities.getAndSetSocketTimeout(_socketChannel, LRMIUtilities.READ_BLOCK_TIMEOUT);
+            if (!_unixDomain)
+                originalSoTimeout = LRMIUtilities.getAndSetSocketTimeout(_socketChannel, LRMIUtilities.READ_BLOCK_TIMEOUT);
             while (bytesRead < dataLength) {
-                ByteBuffer workingBuffer = buffer;
-                if (shouldUseSlidingWindow) {
-                    buffer.position(bytesRead).limit(Math.min(dataLength, bytesRead + BUFFER_LIMIT));
-                    workingBuffer = buffer.slice();
+                if (chunks != null) {
+                    // direct chunks are read as is, no need for a sliding window
+                    bRead = (int) _socketChannel.read(chunks);
+                } else {
+                    ByteBuffer workingBuffer = buffer;
+                    if (shouldUseSlidingWindow) {
+                        buffer.position(bytesRead).limit(Math.min(dataLength, bytesRead + BUFFER_LIMIT));
+                        workingBuffer = buffer.slice();
+                    }
+                    bRead = _socketChannel.read(workingBuffer);
                 }
-                bRead = _socketChannel.read(workingBuffer);
                 if (bRead == -1) // EOF
                     throwCloseConnection();
                 bytesRead += bRead;
@@ -363,7 +413,8 @@ public class Reader {
                 }
             }
         } finally {
-            LRMIUtilities.getAndSetSocketTimeout(_socketChannel, originalSoTimeout);
+            if (!_unixDomain)
+                LRMIUtilities.getAndSetSocketTimeout(_socketChannel, originalSoTimeout);
             if (tmpKey != null)
                 tmpKey.cancel();
 
@@ -377,11 +428,8 @@ public class Reader {
                 TemporarySelectorFactory.returnSelector(tempSelector);
             }
         }
-        _receivedTraffic += buffer.position();
-        receivedTraffic.add(buffer.position());
-        buffer.position(0);
-        buffer.limit(dataLength);
-        return buffer;
+        _receivedTraffic += bytesRead;
+        receivedTraffic.add(bytesRead);
     }
 
     private ByteBuffer getByteBufferAllocated(boolean createNewBuffer, int dataLength) {
@@ -426,7 +474,7 @@ public class Reader {
             }
 
             if (ctx.messageSizeLimit != 0 && ctx.messageSizeLimit <= ctx.dataLength) {
-                String offendingAddress = _socketChannel.socket() != null ? String.valueOf(_socketChannel.socket().getRemoteSocketAddress()) : "unknown";
+                String offendingAddress = String.valueOf(NIOUtils.getRemoteSocketAddress(_socketChannel));
                 String msg = "Handshake failed, expecting message of up to " + ctx.messageSizeLimit + " bytes, actual size is: " + ctx.dataLength + " bytes, offending address is " + offendingAddress;
                 if (offendingMessageLogger.isTraceEnabled()) {
                     ByteBuffer buffer = getByteBufferAllocated(ctx.createNewBuffer, Math.min(ctx.dataLength, 5 * 1024));
@@ -488,7 +536,7 @@ public class Reader {
      * @return the endpoint of the connected SocketChannel.
      */
     private SocketAddress getEndPointAddress() {
-        return _socketChannel != null ? _socketChannel.socket().getRemoteSocketAddress() : null;
+        return _socketChannel != null ? NIOUtils.getRemoteSocketAddress(_socketChannel) : null;
     }
 
     /**
@@ -550,8 +598,15 @@ public class Reader {
 
     private <T extends IPacket> T bytesToPacket(T packet, boolean createNewBuffer, int slowConsumerTimeout, int sizeLimit)
             throws IOException, ClassNotFoundException, IOFilterException {
+        int dataLength = -1;
+        if (_directBufferPool != null && _filterManager == null) {
+            dataLength = readHeaderFromChannelBlocking(slowConsumerTimeout, sizeLimit);
+            if (dataLength >= _directBufferPool.getChunkSize())
+                return directBytesToPacket(packet, dataLength, slowConsumerTimeout);
+        }
+
         if (_bufferIsOccupied || createNewBuffer) {
-            GSByteArrayInputStream bis = new GSByteArrayInputStream(readBytesBlocking(true, slowConsumerTimeout, sizeLimit));
+            GSByteArrayInputStream bis = new GSByteArrayInputStream(readBytesBlocking(true, slowConsumerTimeout, sizeLimit, dataLength));
             MarshalInputStream mis = new MarshalInputStream(bis, _streamContext);
             unmarshall(packet, mis);
             if (_logger.isTraceEnabled()) {
@@ -561,7 +616,7 @@ public class Reader {
         }
 
         _bufferIsOccupied = true;
-        _bais.setBuffer(readBytesBlocking(false, slowConsumerTimeout, sizeLimit));
+        _bais.setBuffer(readBytesBlocking(false, slowConsumerTimeout, sizeLimit, dataLength));
         unmarshall(packet, _ois);
         if (_logger.isTraceEnabled()) {
             _logger.trace("<-- Read packet " + packet);
@@ -569,6 +624,28 @@ public class Reader {
         return packet;
     }
 
+    /**
+     * Reads a large message with a scattering read into pooled direct buffers, and unmarshals it
+     * from them without assembling a single array.
+     */
+    private <T extends IPacket> T directBytesToPacket(T packet, int dataLength, int slowConsumerTimeout)
+            throws IOException, ClassNotFoundException {
+        ByteBuffer[] chunks = _directBufferPool.acquire(dataLength);
+        try {
+            readBodyFromChannelBlocking(null, chunks, dataLength, slowConsumerTimeout);
+            for (ByteBuffer chunk : chunks)
+                chunk.flip();
+            MarshalInputStream mis = new MarshalInputStream(new ByteBufferChainInputStream(chunks), _streamContext);
+            unmarshall(packet, mis);
+        } finally {
+            _directBufferPool.release(chunks);
+        }
+        if (_logger.isTraceEnabled()) {
+            _logger.trace("<-- Read Packet " + packet);
+        }
+        return packet;
+    }
+
     private void unmarshall(IPacket packet, MarshalInputStream mis) throws ClassNotFoundException, NoSuchObjectException {
         try {
             packet.readExternal(mis);
@@ -628,8 +705,8 @@ public class Reader {
         }
     }
 
-    private byte[] readBytesBlocking(boolean createNewBuffer, int slowConsumerTimeout, int sizeLimit) throws IOException, IOFilterException {
-        final ByteBuffer bytes = readBytesFromChannelBlocking(createNewBuffer, slowConsumerTimeout, sizeLimit);
+    private byte[] readBytesBlocking(boolean createNewBuffer, int slowConsumerTimeout, int sizeLimit, int dataLength) throws IOException, IOFilterException {
+        final ByteBuffer bytes = readBytesFromChannelBlocking(createNewBuffer, slowConsumerTimeout, sizeLimit, dataLength);
         if (_filterManager != null) {
             return _filterManager.handleBlockingContant(toByteArray(bytes), slowConsumerTimeout);
         }
@@ -37,9 +37,12 @@ import java.rmi.UnmarshalException;
 public class ReplyPacket<T> implements IPacket {
     private static final long serialVersionUID = 1L;
     private static final byte SERIAL_VERSION = Byte.MIN_VALUE + 1;
+    // a reply to a multiplexed request, followed by the correlation id of the request
+    private static final byte SERIAL_VERSION_CORRELATED = Byte.MIN_VALUE + 2;
 
     private T result;
     private Exception exception;   // if not null - an exception occurred
+    private int correlationId;
 
     public ReplyPacket() {
     }
@@ -71,16 +74,46 @@ public class ReplyPacket<T> implements IPacket {
         return exception;
     }
 
+    /**
+     * @param correlationId the correlation id of the multiplexed request this is a reply to
+     * @since 16.5
+     */
+    public void setCorrelationId(int correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    /**
+     * @return the correlation id of the multiplexed request this is a reply to, 0 if the request
+     * was not multiplexed
+     * @since 16.5
+     */
+    public int getCorrelationId() {
+        return correlationId;
+    }
+
     public void clear() {
         result = null;
         exception = null;
+        correlationId = 0;
+    }
+
+    /**
+     * Called while reading a reply to a multiplexed request, before its result is read.
+     *
+     * @since 16.5
+     */
+    protected void onCorrelationId(int correlationId) {
     }
 
     /*
      * @see java.io.Externalizable#readExternal(java.io.ObjectInput)
      */
     public void readExternal(MarshalInputStream in) throws IOException, ClassNotFoundException {
-        if (in.readByte() != SERIAL_VERSION)
+        byte serialVersion = in.readByte();
+        if (serialVersion == SERIAL_VERSION_CORRELATED) {
+            correlationId = in.readInt();
+            onCorrelationId(correlationId);
+        } else if (serialVersion != SERIAL_VERSION)
             throw new UnmarshalException("Requested version does not match local version. Please make sure you are using the same version on both ends.");
 
         LRMIRemoteClassLoaderIdentifier remoteClassLoaderId = RemoteClassLoaderContext.get();
@@ -106,7 +139,12 @@ public class ReplyPacket<T> implements IPacket {
 	 */
     public void writeExternal(MarshalOutputStream out) throws IOException {
         //Writes serial version
-        out.writeByte(SERIAL_VERSION);
+        if (correlationId != 0) {
+            out.writeByte(SERIAL_VERSION_CORRELATED);
+            out.writeInt(correlationId);
+        } else {
+            out.writeByte(SERIAL_VERSION);
+        }
 
         PlatformLogicalVersion version = LRMIInvocationContext.getEndpointLogicalVersion();
         if (version.greaterOrEquals(PlatformLogicalVersion.v16_0_0)) {
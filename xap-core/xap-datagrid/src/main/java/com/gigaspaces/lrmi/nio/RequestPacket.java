@@ -57,6 +57,7 @@ public class RequestPacket implements IPacket {
     private long remoteClassLoaderId;
     private int methodOrderId;
     private Object[] args;
+    private int correlationId;
 
     transient private LRMIMethod invokeMethod;
     transient private LRMIRemoteClassLoaderIdentifier previousIdentifier;
@@ -80,6 +81,7 @@ public class RequestPacket implements IPacket {
     public transient boolean isCallBack;
     public transient OperationPriority operationPriority;
     private transient PlatformLogicalVersion targetVersion;
+    private transient boolean dedicatedLane;
 
     public RequestPacket() {
         operationPriority = OperationPriority.REGULAR;
@@ -107,12 +109,51 @@ public class RequestPacket implements IPacket {
         this.remoteClassLoaderId = contextClassLoaderId;
         this.operationPriority = priority;
         this.targetVersion = targetVersion;
+        this.correlationId = 0;
     }
 
     public Object getRequestObject() {
         return _requestObj;
     }
 
+    /**
+     * Marks this request as one of several in-flight requests sharing a multiplexed connection,
+     * the reply to it will carry the same id.
+     *
+     * @param correlationId a non zero id which is unique among the in-flight requests of the
+     *                      connection
+     * @since 16.5
+     */
+    public void setCorrelationId(int correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    /**
+     * @return the id the reply to this request should carry, 0 if the request is not multiplexed
+     * @since 16.5
+     */
+    public int getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * @since 16.5
+     */
+    public boolean isMultiplexed() {
+        return correlationId != 0;
+    }
+
+    /**
+     * Marks this request as sent over a connection dedicated to its priority class, so the server
+     * serves the connection by a dedicated selector lane. Servers which do not know the flag
+     * ignore it.
+     *
+     * @since 16.5
+     */
+    public void setDedicatedLane(boolean dedicatedLane) {
+        this.dedicatedLane = dedicatedLane;
+    }
+
     public static OperationPriority decodePriority(byte flags) {
         // Test DIRECT first, because it's a combination of liveness and monitoring
         if ((flags & BitMap.IS_DIRECT_PRIORITY) >= BitMap.IS_DIRECT_PRIORITY)
@@ -123,6 +164,9 @@ public class RequestPacket implements IPacket {
             return OperationPriority.MONITORING;
         if ((flags & BitMap.IS_CUSTOM_PRIORITY) != 0)
             return OperationPriority.CUSTOM;
+        // Replication is only sent over dedicated lanes, older servers ignore the flag and treat it as regular
+        if ((flags & BitMap.IS_DEDICATED_LANE) != 0)
+            return OperationPriority.REPLICATION;
 
         return OperationPriority.REGULAR;
     }
@@ -141,6 +185,9 @@ public class RequestPacket implements IPacket {
             case DIRECT:
                 flags |= BitMap.IS_DIRECT_PRIORITY;
                 break;
+            case REPLICATION:
+                flags |= BitMap.IS_DEDICATED_LANE;
+                break;
             case REGULAR:
                 break;
         }
@@ -158,6 +205,8 @@ public class RequestPacket implements IPacket {
             throw new UnmarshalException("Requested version [" + version + "] does not match local version [" + SERIAL_VERSION + "]. Please make sure you are using the same version on both ends, service version is " + PlatformVersion.getOfficialVersion());
 
         final byte flags = in.readByte();
+        if ((flags & BitMap.IS_MULTIPLEXED) != 0)
+            correlationId = in.readInt();
 
         if ((flags & BitMap.REQUEST_OBJECT) != 0) // UID not a null
         {
@@ -257,6 +306,8 @@ public class RequestPacket implements IPacket {
     public void writeExternal(MarshalOutputStream out) throws IOException {
         out.writeByte(SERIAL_VERSION);
         out.writeByte(buildFlags());
+        if (correlationId != 0)
+            out.writeInt(correlationId);
         if (_requestObj != null) {
             out.writeObject(_requestObj);
         } else {
@@ -300,6 +351,10 @@ public class RequestPacket implements IPacket {
         builder.append(", isOneWay = ").append(isOneWay);
         builder.append(", isCallBack = ").append(isCallBack);
         builder.append(", Priority = ").append(operationPriority);
+        if (dedicatedLane)
+            builder.append(", dedicatedLane = true");
+        if (correlationId != 0)
+            builder.append(", correlationId = ").append(correlationId);
         builder.append(']');
         return builder.toString();
     }
@@ -315,6 +370,8 @@ public class RequestPacket implements IPacket {
         byte IS_MONITORING_PRIORITY = 1 << 4;
         byte IS_DIRECT_PRIORITY = IS_LIVENESS_PRIORITY | IS_MONITORING_PRIORITY;
         byte IS_CUSTOM_PRIORITY = 1 << 5;
+        byte IS_MULTIPLEXED = 1 << 6;
+        byte IS_DEDICATED_LANE = (byte) (1 << 7);
     }
 
     private byte buildFlags() {
@@ -328,6 +385,12 @@ public class RequestPacket implements IPacket {
         if (isCallBack) {
             flags |= BitMap.IS_CALLBACK;
         }
+        if (correlationId != 0) {
+            flags |= BitMap.IS_MULTIPLEXED;
+        }
+        if (dedicatedLane) {
+            flags |= BitMap.IS_DEDICATED_LANE;
+        }
         return encodePriority(operationPriority, flags);
     }
 
@@ -350,6 +413,10 @@ public class RequestPacket implements IPacket {
         return isOneWay;
     }
 
+    LRMIRemoteClassLoaderIdentifier getRemoteClassLoaderIdentifier() {
+        return new LRMIRemoteClassLoaderIdentifier(lrmiId, remoteClassLoaderId);
+    }
+
     public void restorePreviousLRMIRemoteClassLoaderState() {
         if (shouldRestore)
             LRMIConnection.setRemoteClassLoaderIdentifier(previousIdentifier);
@@ -368,4 +435,17 @@ public class RequestPacket implements IPacket {
             throw new IllegalStateException("Incoming invocation request is not of known format, byte array length is too small - " + bytes.length);
         return decodePriority(bytes[3]);
     }
+
+    /**
+     * Assumes internal knowledge of how the LRMI incoming invocation bytes should appear
+     *
+     * @param bytes the bytes
+     * @return true if the request was sent over a connection dedicated to its priority class
+     * @since 16.5
+     */
+    public static boolean isDedicatedLaneFromBytes(byte[] bytes) {
+        if (bytes.length < 4)
+            throw new IllegalStateException("Incoming invocation request is not of known format, byte array length is too small - " + bytes.length);
+        return (bytes[3] & BitMap.IS_DEDICATED_LANE) != 0;
+    }
 }
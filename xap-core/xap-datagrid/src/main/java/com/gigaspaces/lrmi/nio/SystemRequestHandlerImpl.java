@@ -21,7 +21,6 @@ import com.gigaspaces.time.SystemTime;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -86,9 +85,9 @@ public class SystemRequestHandlerImpl
                     ChannelEntry.State channelEntryState = null;
 
                     InetAddress clientAddress = null;
-                    Socket socket = channelEntry.getSocketChannel().socket();
-                    if (socket != null)
-                        clientAddress = socket.getInetAddress();
+                    InetSocketAddress socketAddress = NIOUtils.getRemoteInetSocketAddress(channelEntry.getSocketChannel());
+                    if (socketAddress != null)
+                        clientAddress = socketAddress.getAddress();
 
                     InetSocketAddress monitoredClient = null;
                     if (clientAddress != null) {
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio;
+
+import com.gigaspaces.logger.Constants;
+import com.j_spaces.kernel.SystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unix domain socket support of the LRMI transport. A server accepts connections over a socket file
+ * named after its LRMI runtime id and port, so a client on the same host can find it from the
+ * connection url of the remote object. The channels are plain {@link SocketChannel}s handled by the
+ * regular NIO machinery, only their socket adaptor is not available.
+ *
+ * The tree is compiled for Java 8, so the Java 16 API is looked up by reflection and Unix domain
+ * sockets are not supported on older runtimes.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class UnixDomainSockets {
+    private static final Logger _logger = LoggerFactory.getLogger(Constants.LOGGER_LRMI);
+
+    private static final ProtocolFamily UNIX;
+    private static final Method ADDRESS_OF;
+    private static final Method SOCKET_CHANNEL_OPEN;
+    private static final Method SERVER_SOCKET_CHANNEL_OPEN;
+    private static final boolean ENABLED;
+    private static final File DIR = new File(System.getProperty(SystemProperties.LRMI_UNIX_DOMAIN_SOCKETS_DIR, System.getProperty("java.io.tmpdir")));
+    private static final Map<String, Boolean> _localHosts = new ConcurrentHashMap<String, Boolean>();
+
+    static {
+        ProtocolFamily unix = null;
+        Method addressOf = null;
+        Method socketChannelOpen = null;
+        Method serverSocketChannelOpen = null;
+        try {
+            unix = StandardProtocolFamily.valueOf("UNIX");
+            addressOf = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", String.class);
+            socketChannelOpen = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+            serverSocketChannelOpen = ServerSocketChannel.class.getMethod("open", ProtocolFamily.class);
+        } catch (Exception e) {
+            unix = null;
+        }
+        UNIX = unix;
+        ADDRESS_OF = addressOf;
+        SOCKET_CHANNEL_OPEN = socketChannelOpen;
+        SERVER_SOCKET_CHANNEL_OPEN = serverSocketChannelOpen;
+        boolean enabled = Boolean.parseBoolean(System.getProperty(SystemProperties.LRMI_UNIX_DOMAIN_SOCKETS, SystemProperties.LRMI_UNIX_DOMAIN_SOCKETS_DEFAULT));
+        if (enabled && UNIX == null) {
+            _logger.warn("Unix domain sockets are not supported by this Java runtime, " + SystemProperties.LRMI_UNIX_DOMAIN_SOCKETS + " is ignored");
+            enabled = false;
+        }
+        ENABLED = enabled;
+    }
+
+    private UnixDomainSockets() {
+    }
+
+    /**
+     * @return true if this Java runtime supports unix domain sockets
+     */
+    public static boolean isSupported() {
+        return UNIX != null;
+    }
+
+    /**
+     * @return true if unix domain sockets are supported and enabled, see {@link
+     * SystemProperties#LRMI_UNIX_DOMAIN_SOCKETS}
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return the socket file of the server of the given LRMI runtime listening on the given port
+     */
+    public static File getSocketFile(long lrmiRuntimeId, int port) {
+        return new File(DIR, "gs-lrmi-" + Long.toHexString(lrmiRuntimeId) + "-" + port + ".sock");
+    }
+
+    /**
+     * Opens a server channel bound to the socket file of the given LRMI runtime and port, replacing
+     * a stale file left by a process which was killed.
+     */
+    public static ServerSocketChannel bind(long lrmiRuntimeId, int port) throws IOException {
+        File file = getSocketFile(lrmiRuntimeId, port);
+        if (file.exists() && !file.delete())
+            throw new IOException("Failed to delete stale unix domain socket file " + file);
+        ServerSocketChannel channel = (ServerSocketChannel) invoke(SERVER_SOCKET_CHANNEL_OPEN, UNIX);
+        try {
+            channel.bind(toAddress(file));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        file.deleteOnExit();
+        return channel;
+    }
+
+    /**
+     * Closes the given server channel and deletes its socket file.
+     */
+    public static void close(ServerSocketChannel channel, long lrmiRuntimeId, int port) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (_logger.isDebugEnabled())
+                _logger.debug("Error while closing the unix domain server socket.", e);
+        }
+        getSocketFile(lrmiRuntimeId, port).delete();
+    }
+
+    /**
+     * @return the address of the socket file of the given LRMI runtime and port, if the host is
+     * local and the file exists, null otherwise
+     */
+    public static SocketAddress getLocalServerAddress(String host, long lrmiRuntimeId, int port) {
+        if (!ENABLED || lrmiRuntimeId == 0 || !isLocalHost(host))
+            return null;
+        File file = getSocketFile(lrmiRuntimeId, port);
+        if (!file.exists())
+            return null;
+        try {
+            return toAddress(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return a new unconnected unix domain socket channel
+     */
+    public static SocketChannel open() throws IOException {
+        return (SocketChannel) invoke(SOCKET_CHANNEL_OPEN, UNIX);
+    }
+
+    /**
+     * @return true if the given channel is a unix domain socket channel
+     */
+    public static boolean isUnixDomain(SocketChannel channel) {
+        if (UNIX == null)
+            return false;
+        try {
+            SocketAddress localAddress = channel.getLocalAddress();
+            if (localAddress != null)
+                return !(localAddress instanceof InetSocketAddress);
+        } catch (IOException e) {
+            // closed, fall through
+        }
+        // an unbound or closed channel, unix domain channels do not provide a socket adaptor
+        try {
+            channel.socket();
+            return false;
+        } catch (UnsupportedOperationException e) {
+            return true;
+        }
+    }
+
+    private static boolean isLocalHost(String host) {
+        Boolean result = _localHosts.get(host);
+        if (result == null) {
+            try {
+                InetAddress address = InetAddress.getByName(host);
+                result = address.isLoopbackAddress() || address.isAnyLocalAddress() || NetworkInterface.getByInetAddress(address) != null;
+            } catch (IOException e) {
+                result = false;
+            }
+            _localHosts.put(host, result);
+        }
+        return result;
+    }
+
+    private static SocketAddress toAddress(File file) throws IOException {
+        return (SocketAddress) invoke(ADDRESS_OF, file.getPath());
+    }
+
+    private static Object invoke(Method method, Object arg) throws IOException {
+        try {
+            return method.invoke(null, arg);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException("Failed to invoke " + method, e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IOException("Failed to invoke " + method, e);
+        }
+    }
+}
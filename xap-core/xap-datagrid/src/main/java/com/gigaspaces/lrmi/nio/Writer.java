@@ -17,10 +17,12 @@
 package com.gigaspaces.lrmi.nio;
 
 import com.gigaspaces.exception.lrmi.SlowConsumerException;
+import com.gigaspaces.internal.io.ByteBufferChainOutputStream;
 import com.gigaspaces.internal.io.GSByteArrayOutputStream;
 import com.gigaspaces.internal.io.MarshalContextClearedException;
 import com.gigaspaces.internal.io.MarshalOutputStream;
 import com.gigaspaces.logger.Constants;
+import com.gigaspaces.lrmi.DirectByteBufferPool;
 import com.gigaspaces.lrmi.LRMIInvocationContext;
 import com.gigaspaces.lrmi.LRMIInvocationTrace;
 import com.gigaspaces.lrmi.SmartByteBufferCache;
@@ -74,6 +76,7 @@ public class Writer implements IChannelWriter {
      * reuse buffer, growing on demand.
      */
     final private SmartByteBufferCache _bufferCache = SmartByteBufferCache.getDefaultSmartByteBufferCache();
+    final private DirectByteBufferPool _directBufferPool = DirectByteBufferPool.getDefaultDirectByteBufferPool();
 
     final private int _slowConsumerThroughput;
     final private boolean _slowConsumer;
@@ -145,7 +148,7 @@ public class Writer implements IChannelWriter {
      * @return the endpoint of the connected SocketChannel.
      */
     public SocketAddress getEndPointAddress() {
-        return _sockChannel != null ? _sockChannel.socket().getRemoteSocketAddress() : null;
+        return _sockChannel != null ? NIOUtils.getRemoteSocketAddress(_sockChannel) : null;
     }
 
     public void writeRequest(RequestPacket packet, boolean reuseBuffer, Context ctx) throws IOException, IOFilterException {
@@ -182,6 +185,11 @@ public class Writer implements IChannelWriter {
         if (_logger.isTraceEnabled()) {
             _logger.trace("--> Write Packet " + packet);
         }
+        if (_directBufferPool != null && _filterManager == null && !_slowConsumer) {
+            writePacketToDirectBuffers(packet, requestReuseBuffer, ctx);
+            return;
+        }
+
         ByteBuffer byteBuffer;
         MarshalOutputStream mos;
         GSByteArrayOutputStream bos;
@@ -238,11 +246,70 @@ public class Writer implements IChannelWriter {
         }
     }
 
+    /**
+     * Marshals the packet into a chain of pooled direct buffers which is written with a gathering
+     * write, the marshal context is shared with the previous packets same as when reusing the heap
+     * buffer.
+     */
+    private void writePacketToDirectBuffers(IPacket packet, boolean requestReuseBuffer, Context ctx) throws IOException, IOFilterException {
+        final boolean reuseContext = requestReuseBuffer && _contexts.isEmpty();
+        final ByteBufferChainOutputStream bos = new ByteBufferChainOutputStream(_directBufferPool, LENGTH_SIZE);
+        MarshalOutputStream mos;
+        try {
+            mos = reuseContext ? new MarshalOutputStream(bos, _oos) : new MarshalOutputStream(bos, false);
+        } catch (IOException e) {
+            bos.release();
+            throw e;
+        }
+        if (reuseContext)
+            _oos = mos;
+
+        boolean marshalled = false;
+        try {
+            packet.writeExternal(mos);
+            mos.flush();
+            marshalled = true;
+        } catch (MarshalContextClearedException e) {
+            //Keep original exception for upper layer to handle properly
+            throw e;
+        } catch (Exception e) {
+            throw new MarshallingException("Failed to marsh: " + packet, e);
+        } finally {
+            if (reuseContext)
+                mos.reset();
+            else
+                mos.closeContext(); //Clear context because this output stream is no longer used
+            if (!marshalled)
+                bos.release();
+        }
+
+        final int length = bos.size();
+        ByteBuffer[] buffers = bos.toBuffers();
+        buffers[0].putInt(0, length - LENGTH_SIZE);
+        _generatedTraffic += length;
+        generatedTraffic.add(length);
+
+        if (ctx != null) {
+            // non blocking mode, the buffers are released once fully written.
+            ctx.setBuffers(buffers, bos);
+            writeBytesNonBlocking(ctx);
+        } else {
+            // blocking mode.
+            try {
+                writeBuffersToChannelBlocking(buffers, length);
+            } finally {
+                bos.release();
+            }
+        }
+    }
+
     public static class Context {
         public static enum Phase {START, WRITING, FINISH}
 
         private Phase phase = Phase.START;
         private ByteBuffer buffer;
+        private ByteBuffer[] buffers;
+        private ByteBufferChainOutputStream bufferChain;
         private int totalBytesWritten = 0;
         private int currentPosition = 0;
         private int totalLength;
@@ -262,6 +329,30 @@ public class Writer implements IChannelWriter {
             return buffer;
         }
 
+        /**
+         * Sets a chain of direct buffers to write instead of a single buffer.
+         *
+         * @param buffers     the buffers to write
+         * @param bufferChain the stream owning the buffers, released once they were written
+         * @since 16.5
+         */
+        public void setBuffers(ByteBuffer[] buffers, ByteBufferChainOutputStream bufferChain) {
+            this.buffers = buffers;
+            this.bufferChain = bufferChain;
+        }
+
+        public ByteBuffer[] getBuffers() {
+            return buffers;
+        }
+
+        void releaseBuffers() {
+            if (bufferChain != null) {
+                bufferChain.release();
+                bufferChain = null;
+                buffers = null;
+            }
+        }
+
         public void setTotalBytesWritten(int totalBytesWritten) {
             this.totalBytesWritten = totalBytesWritten;
         }
@@ -400,11 +491,19 @@ public class Writer implements IChannelWriter {
 
     protected void noneBlockingWrite(Context ctx) throws IOException {
         if (ctx.getPhase() == Context.Phase.START) {
-            int dataLength = ctx.getBuffer().remaining();
+            int dataLength = ctx.getBuffers() != null ? remaining(ctx.getBuffers()) : ctx.getBuffer().remaining();
             ctx.setTotalLength(dataLength);
             ctx.setPhase(Context.Phase.WRITING);
         }
-        if (ctx.getPhase() == Context.Phase.WRITING) {
+        if (ctx.getPhase() == Context.Phase.WRITING && ctx.getBuffers() != null) {
+            // direct buffers are written as is, no need for a sliding window
+            long bytes = _sockChannel.write(ctx.getBuffers());
+            ctx.setTotalBytesWritten(ctx.getTotalBytesWritten() + (int) bytes);
+            if (ctx.getTotalBytesWritten() == ctx.getTotalLength()) {
+                ctx.setPhase(Context.Phase.FINISH);
+                ctx.releaseBuffers();
+            }
+        } else if (ctx.getPhase() == Context.Phase.WRITING) {
             boolean useSlidingWindow = ctx.getTotalLength() >= BUFFER_LIMIT;
 
             int bytes;
@@ -436,6 +535,57 @@ public class Writer implements IChannelWriter {
     }
 
 
+    private static int remaining(ByteBuffer[] buffers) {
+        int remaining = 0;
+        for (ByteBuffer buffer : buffers)
+            remaining += buffer.remaining();
+        return remaining;
+    }
+
+    /**
+     * Writes a chain of direct buffers with gathering writes, waiting on a temporary selector
+     * whenever the socket buffer is full.
+     */
+    private void writeBuffersToChannelBlocking(ByteBuffer[] buffers, int length) throws IOException {
+        long totalBytesWritten = 0;
+        int offset = 0;
+        Selector tempSelector = null;
+        SelectionKey tmpKey = null;
+
+        try {
+            while (totalBytesWritten < length) {
+                while (!buffers[offset].hasRemaining())
+                    offset++;
+                long bytes = _sockChannel.write(buffers, offset, buffers.length - offset);
+                totalBytesWritten += bytes;
+
+                if (bytes == 0) {
+                    if (tempSelector == null) {
+                        tempSelector = TemporarySelectorFactory.getSelector();
+                        tmpKey = _sockChannel.register(tempSelector, SelectionKey.OP_WRITE);
+                    }
+
+                    tmpKey.interestOps(tmpKey.interestOps() | SelectionKey.OP_WRITE);
+                    tempSelector.select(1000);
+                    tmpKey.interestOps(tmpKey.interestOps() & (~SelectionKey.OP_WRITE));
+                }
+            }
+        } finally {
+            if (tmpKey != null)
+                tmpKey.cancel();
+
+            if (tempSelector != null) {
+                // releases and clears the key.
+                try {
+                    tempSelector.selectNow();
+                } catch (IOException ex) {
+                }
+
+                TemporarySelectorFactory.returnSelector(tempSelector);
+            }
+        }
+    }
+
     private void writeBytesBlocking(ByteBuffer dataBuffer) throws IOException, IOFilterException {
         if (_filterManager != null) {
             _filterManager.writeBytesBlocking(dataBuffer);
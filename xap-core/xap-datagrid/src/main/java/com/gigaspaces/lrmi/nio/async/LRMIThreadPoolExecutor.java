@@ -23,6 +23,7 @@ import com.j_spaces.kernel.SystemProperties;
 import com.j_spaces.kernel.threadpool.DynamicExecutors;
 import com.j_spaces.kernel.threadpool.DynamicThread;
 import com.j_spaces.kernel.threadpool.DynamicThreadPoolExecutor;
+import com.j_spaces.kernel.threadpool.VirtualThreadFactory;
 import com.j_spaces.kernel.threadpool.policy.TimedBlockingPolicy;
 import com.j_spaces.kernel.threadpool.queue.DynamicQueue;
 
@@ -31,6 +32,7 @@ import org.jini.rio.boot.CommonClassLoader;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,10 +47,24 @@ public class LRMIThreadPoolExecutor extends DynamicThreadPoolExecutor {
     private final static Logger _warnLogger = LoggerFactory.getLogger(Constants.LOGGER_LRMI + ".resources");
     private final static double _warnFactor = Double.parseDouble(System.getProperty(SystemProperties.LRMI_RESOURCE_WARN_THRESHOLD_FACTOR, "10.0"));
 
+    private final LongAdder _queueWaitNanos = new LongAdder();
+    private final LongAdder _startedTasks = new LongAdder();
+
     public LRMIThreadPoolExecutor(int min, int max, long keepAliveTime, int capacity,
                                   long waitTime, int priority, String poolName, boolean preStart, boolean warnOnQueueUsage) {
+        this(min, max, keepAliveTime, capacity, waitTime, priority, poolName, preStart, warnOnQueueUsage, false);
+    }
+
+    /**
+     * @param virtualThreads whether the pool threads are virtual threads, in which case the
+     *                       priority is ignored
+     * @since 16.5
+     */
+    public LRMIThreadPoolExecutor(int min, int max, long keepAliveTime, int capacity,
+                                  long waitTime, int priority, String poolName, boolean preStart, boolean warnOnQueueUsage,
+                                  boolean virtualThreads) {
         super(min, max, keepAliveTime, TimeUnit.MILLISECONDS, new DynamicQueue<Runnable>(capacity));
-        final ThreadFactory threadFactory = DynamicExecutors.priorityThreadFactory(priority, poolName);
+        final ThreadFactory threadFactory = virtualThreads ? new VirtualThreadFactory(poolName) : DynamicExecutors.priorityThreadFactory(priority, poolName);
 
         //noinspection NullableProblems
         setThreadFactory(new ThreadFactory() {
@@ -57,9 +73,13 @@ public class LRMIThreadPoolExecutor extends DynamicThreadPoolExecutor {
                 // since the LRMI is loaded in the common class loader, make sure each new thread
                 // that is created is using the common class loader (even if it was created in the
                 // context of a processing unit).
-                DynamicThread t = (DynamicThread) threadFactory.newThread(runnable);
-                if (SystemBoot.isRunningWithinGSC())
-                    t.setAllThreadContextClassLoader(CommonClassLoader.getInstance());
+                Thread t = threadFactory.newThread(runnable);
+                if (SystemBoot.isRunningWithinGSC()) {
+                    if (t instanceof DynamicThread)
+                        ((DynamicThread) t).setAllThreadContextClassLoader(CommonClassLoader.getInstance());
+                    else
+                        t.setContextClassLoader(CommonClassLoader.getInstance());
+                }
                 return t;
             }
         });
@@ -71,6 +91,29 @@ public class LRMIThreadPoolExecutor extends DynamicThreadPoolExecutor {
             prestartAllCoreThreads();
     }
 
+    @Override
+    public void execute(Runnable command) {
+        if (command == null)
+            throw new NullPointerException("Can't execute null task.");
+        super.execute(new QueueTimedTask(command));
+    }
+
+    /**
+     * @return the total time the tasks of this pool waited before they started, in nanoseconds
+     * @since 16.5
+     */
+    public long getTotalQueueWaitTimeNanos() {
+        return _queueWaitNanos.sum();
+    }
+
+    /**
+     * @return the number of tasks of this pool which started
+     * @since 16.5
+     */
+    public long getStartedTasksCount() {
+        return _startedTasks.sum();
+    }
+
     @Override
     public <T> IFuture<T> submit(Callable<T> task) {
         if (task == null)
@@ -87,6 +130,22 @@ public class LRMIThreadPoolExecutor extends DynamicThreadPoolExecutor {
         return future;
     }
 
+    private final class QueueTimedTask implements Runnable {
+        private final Runnable _task;
+        private final long _submitTime = System.nanoTime();
+
+        private QueueTimedTask(Runnable task) {
+            this._task = task;
+        }
+
+        @Override
+        public void run() {
+            _queueWaitNanos.add(System.nanoTime() - _submitTime);
+            _startedTasks.increment();
+            _task.run();
+        }
+    }
+
     private static class FutureTask<T> implements Runnable {
         private final LRMIFuture<T> _future;
         private final Callable<T> _task;
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio.filters;
+
+import com.gigaspaces.logger.Constants;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+
+/**
+ * A network filter which compresses the messages of a connection with the fast {@link
+ * LZ4BlockCodec}. Only messages above a size threshold are compressed, and once several messages in
+ * a row did not compress well enough compression is turned off for a growing number of messages,
+ * after which it is probed again. Each message is prefixed by a flag stating whether it is
+ * compressed, so the peer needs no knowledge of the sender decisions.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class IOFastCompressionFilter implements IOStreamFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(Constants.LOGGER_LRMI_FILTERS);
+
+    private static final byte RAW = 0;
+    private static final byte COMPRESSED = 1;
+    private static final int HEADER_LENGTH = 5;  // flag + uncompressed length
+    private static final int INCOMPRESSIBLE_STREAK = 8;
+    private static final int MIN_BACKOFF = 16;
+    private static final int MAX_BACKOFF = 1024;
+
+    private static final LongAdder totalBytesIn = new LongAdder();
+    private static final LongAdder totalBytesOut = new LongAdder();
+
+    private final int threshold;
+    private final double maxRatio;
+
+    // writing state, guarded by the writer
+    private final int[] hashTable = new int[LZ4BlockCodec.HASH_TABLE_SIZE];
+    private byte[] compressBuffer = new byte[0];
+    private int incompressibleStreak;
+    private int backoff = MIN_BACKOFF;
+    private int skipRemaining;
+    private long bytesIn;
+    private long bytesOut;
+
+    /**
+     * @param threshold messages smaller than that are not compressed
+     * @param maxRatio  the maximal compressed to original size ratio considered worth compressing
+     */
+    public IOFastCompressionFilter(int threshold, double maxRatio) {
+        this.threshold = threshold;
+        this.maxRatio = maxRatio;
+    }
+
+    /**
+     * @return the total number of bytes passed to all the fast compression filters for writing
+     */
+    public static long getTotalBytesIn() {
+        return totalBytesIn.sum();
+    }
+
+    /**
+     * @return the total number of bytes written by all the fast compression filters
+     */
+    public static long getTotalBytesOut() {
+        return totalBytesOut.sum();
+    }
+
+    /**
+     * @return the original to written size ratio of this connection, 1 if nothing was written
+     */
+    public synchronized double getCompressionRatio() {
+        return bytesOut == 0 ? 1 : (double) bytesIn / bytesOut;
+    }
+
+    public synchronized byte[] wrap(ByteBuffer buf) throws Exception {
+        final int length = buf.remaining();
+        byte[] res = length < threshold || skipCompression() ? null : compress(buf, length);
+        if (res == null) {
+            res = new byte[length + 1];
+            res[0] = RAW;
+            buf.get(res, 1, length);
+        }
+
+        bytesIn += length;
+        bytesOut += res.length;
+        totalBytesIn.add(length);
+        totalBytesOut.add(res.length);
+        return res;
+    }
+
+    private boolean skipCompression() {
+        if (skipRemaining == 0)
+            return false;
+        skipRemaining--;
+        return true;
+    }
+
+    /**
+     * @return the compressed message, null if it was not compressed well enough
+     */
+    private byte[] compress(ByteBuffer buf, int length) {
+        byte[] src;
+        int srcOff;
+        if (buf.hasArray()) {
+            src = buf.array();
+            srcOff = buf.arrayOffset() + buf.position();
+        } else {
+            src = new byte[length];
+            buf.duplicate().get(src);
+            srcOff = 0;
+        }
+
+        int maxLength = HEADER_LENGTH + LZ4BlockCodec.maxCompressedLength(length);
+        if (compressBuffer.length < maxLength)
+            compressBuffer = new byte[maxLength];
+        int compressedLength = LZ4BlockCodec.compress(src, srcOff, length, compressBuffer, HEADER_LENGTH, hashTable);
+
+        if (compressedLength > length * maxRatio) {
+            if (++incompressibleStreak >= INCOMPRESSIBLE_STREAK) {
+                skipRemaining = backoff;
+                backoff = Math.min(backoff * 2, MAX_BACKOFF);
+                incompressibleStreak = 0;
+                if (logger.isDebugEnabled())
+                    logger.debug("Messages are not compressible, skipping compression of the next " + skipRemaining + " messages");
+            }
+            return null;
+        }
+
+        incompressibleStreak = 0;
+        backoff = MIN_BACKOFF;
+        buf.position(buf.position() + length);
+        compressBuffer[0] = COMPRESSED;
+        compressBuffer[1] = (byte) (length >>> 24);
+        compressBuffer[2] = (byte) (length >>> 16);
+        compressBuffer[3] = (byte) (length >>> 8);
+        compressBuffer[4] = (byte) length;
+        return Arrays.copyOf(compressBuffer, HEADER_LENGTH + compressedLength);
+    }
+
+    public byte[] unrwap(ByteBuffer buf) throws DataFormatException {
+        byte[] src;
+        int srcOff;
+        final int length = buf.remaining();
+        if (buf.hasArray()) {
+            src = buf.array();
+            srcOff = buf.arrayOffset() + buf.position();
+        } else {
+            src = new byte[length];
+            buf.duplicate().get(src);
+            srcOff = 0;
+        }
+        if (length == 0)
+            throw new DataFormatException("Empty message");
+
+        if (src[srcOff] == RAW)
+            return Arrays.copyOfRange(src, srcOff + 1, srcOff + length);
+        if (src[srcOff] != COMPRESSED || length < HEADER_LENGTH)
+            throw new DataFormatException("Unknown message format [" + src[srcOff] + "]");
+
+        int originalLength = ((src[srcOff + 1] & 0xFF) << 24) | ((src[srcOff + 2] & 0xFF) << 16)
+                | ((src[srcOff + 3] & 0xFF) << 8) | (src[srcOff + 4] & 0xFF);
+        if (originalLength < 0)
+            throw new DataFormatException("Illegal message length " + originalLength);
+        byte[] res = new byte[originalLength];
+        LZ4BlockCodec.decompress(src, srcOff + HEADER_LENGTH, length - HEADER_LENGTH, res, 0, originalLength);
+        return res;
+    }
+}
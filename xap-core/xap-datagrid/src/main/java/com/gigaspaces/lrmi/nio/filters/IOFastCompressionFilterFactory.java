@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio.filters;
+
+import com.j_spaces.kernel.SystemProperties;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Use this network filter factory to send messages compressed with {@link IOFastCompressionFilter}
+ * between client and server. Suited for high throughput links, where {@link
+ * IOStreamCompressionFilterFactory} costs more CPU than it saves in bandwidth.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class IOFastCompressionFilterFactory implements IOFilterFactory {
+
+    private final int threshold;
+    private final double maxRatio;
+
+    public IOFastCompressionFilterFactory() {
+        threshold = Integer.getInteger(SystemProperties.LRMI_FAST_COMPRESSION_THRESHOLD,
+                SystemProperties.LRMI_FAST_COMPRESSION_THRESHOLD_DEFAULT);
+        String ratio = System.getProperty(SystemProperties.LRMI_FAST_COMPRESSION_MAX_RATIO);
+        maxRatio = ratio != null ? Double.parseDouble(ratio) : SystemProperties.LRMI_FAST_COMPRESSION_MAX_RATIO_DEFAULT;
+    }
+
+    public IOFilter createClientFilter(InetSocketAddress remoteAddress) throws Exception {
+        return new IOFastCompressionFilter(threshold, maxRatio);
+    }
+
+    public IOFilter createServerFilter(InetSocketAddress remoteAddress) throws Exception {
+        return new IOFastCompressionFilter(threshold, maxRatio);
+    }
+}
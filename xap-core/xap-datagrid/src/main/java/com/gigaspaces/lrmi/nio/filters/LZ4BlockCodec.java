@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio.filters;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+/**
+ * A fast LZ77 block codec producing the LZ4 block format: a sequence of literal runs each followed
+ * by a back reference of up to 64KB, found with a single probe hash table. Trades compression ratio
+ * for speed, compressing and decompressing at memory bandwidth rates.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class LZ4BlockCodec {
+    public static final int HASH_TABLE_SIZE = 1 << 12;
+
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    // the last match must start at least 12 bytes before the end, and the last 5 bytes are literals
+    private static final int MF_LIMIT = 12;
+    private static final int LAST_LITERALS = 5;
+    private static final int RUN_MASK = 0xF;
+    private static final int SKIP_TRIGGER = 6;
+
+    private LZ4BlockCodec() {
+    }
+
+    /**
+     * @return the maximal compressed length of the given number of bytes
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses the given bytes.
+     *
+     * @param hashTable a table of {@link #HASH_TABLE_SIZE} entries, which is overwritten
+     * @return the compressed length
+     */
+    public static int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int[] hashTable) {
+        final int srcEnd = srcOff + srcLen;
+        int sOff = srcOff;
+        int dOff = dstOff;
+        int anchor = sOff;
+
+        if (srcLen > MF_LIMIT) {
+            Arrays.fill(hashTable, -1);
+            final int matchLimit = srcEnd - LAST_LITERALS;
+            final int mfLimit = srcEnd - MF_LIMIT;
+
+            while (sOff < mfLimit) {
+                int sequence = readInt(src, sOff);
+                int hash = hash(sequence);
+                int ref = hashTable[hash];
+                hashTable[hash] = sOff;
+                if (ref < 0 || sOff - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    // step faster over incompressible regions
+                    sOff += 1 + ((sOff - anchor) >>> SKIP_TRIGGER);
+                    continue;
+                }
+
+                // extend the match backwards over the pending literals, and then forwards
+                while (sOff > anchor && ref > srcOff && src[sOff - 1] == src[ref - 1]) {
+                    sOff--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (sOff + matchLength < matchLimit && src[sOff + matchLength] == src[ref + matchLength])
+                    matchLength++;
+
+                dOff = writeSequence(src, anchor, sOff - anchor, sOff - ref, matchLength, dst, dOff);
+                sOff += matchLength;
+                anchor = sOff;
+            }
+        }
+
+        dOff = writeLastLiterals(src, anchor, srcEnd - anchor, dst, dOff);
+        return dOff - dstOff;
+    }
+
+    /**
+     * Decompresses the given bytes, which must decompress to exactly <code>dstLen</code> bytes.
+     */
+    public static void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) throws DataFormatException {
+        final int srcEnd = srcOff + srcLen;
+        final int dstEnd = dstOff + dstLen;
+        int sOff = srcOff;
+        int dOff = dstOff;
+
+        try {
+            while (true) {
+                int token = src[sOff++] & 0xFF;
+
+                int literalLength = token >>> 4;
+                if (literalLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sOff++] & 0xFF;
+                        literalLength += b;
+                    } while (b == 0xFF);
+                }
+                if (literalLength > srcEnd - sOff || literalLength > dstEnd - dOff)
+                    throw new DataFormatException("Malformed compressed block, literals exceed the block");
+                System.arraycopy(src, sOff, dst, dOff, literalLength);
+                sOff += literalLength;
+                dOff += literalLength;
+                if (sOff == srcEnd)
+                    break;
+
+                int offset = (src[sOff++] & 0xFF) | ((src[sOff++] & 0xFF) << 8);
+                if (offset == 0 || offset > dOff - dstOff)
+                    throw new DataFormatException("Malformed compressed block, illegal offset " + offset);
+                int matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sOff++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 0xFF);
+                }
+                matchLength += MIN_MATCH;
+                if (matchLength > dstEnd - dOff)
+                    throw new DataFormatException("Malformed compressed block, match exceeds the block");
+                int ref = dOff - offset;
+                if (offset >= matchLength) {
+                    System.arraycopy(dst, ref, dst, dOff, matchLength);
+                    dOff += matchLength;
+                } else {
+                    // overlapping match, repeats the last offset bytes
+                    for (int i = 0; i < matchLength; i++)
+                        dst[dOff++] = dst[ref++];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new DataFormatException("Malformed compressed block, truncated");
+        }
+        if (dOff != dstEnd)
+            throw new DataFormatException("Malformed compressed block, decompressed " + (dOff - dstOff) + " bytes instead of " + dstLen);
+    }
+
+    private static int writeSequence(byte[] src, int literalOff, int literalLength, int offset, int matchLength, byte[] dst, int dOff) {
+        int extraMatch = matchLength - MIN_MATCH;
+        int tokenOff = dOff++;
+        int token = (Math.min(literalLength, RUN_MASK) << 4) | Math.min(extraMatch, RUN_MASK);
+        dst[tokenOff] = (byte) token;
+        if (literalLength >= RUN_MASK)
+            dOff = writeLength(literalLength - RUN_MASK, dst, dOff);
+        System.arraycopy(src, literalOff, dst, dOff, literalLength);
+        dOff += literalLength;
+        dst[dOff++] = (byte) offset;
+        dst[dOff++] = (byte) (offset >>> 8);
+        if (extraMatch >= RUN_MASK)
+            dOff = writeLength(extraMatch - RUN_MASK, dst, dOff);
+        return dOff;
+    }
+
+    private static int writeLastLiterals(byte[] src, int literalOff, int literalLength, byte[] dst, int dOff) {
+        dst[dOff++] = (byte) (Math.min(literalLength, RUN_MASK) << 4);
+        if (literalLength >= RUN_MASK)
+            dOff = writeLength(literalLength - RUN_MASK, dst, dOff);
+        System.arraycopy(src, literalOff, dst, dOff, literalLength);
+        return dOff + literalLength;
+    }
+
+    private static int writeLength(int length, byte[] dst, int dOff) {
+        while (length >= 0xFF) {
+            dst[dOff++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        dst[dOff++] = (byte) length;
+        return dOff;
+    }
+
+    private static int readInt(byte[] buf, int off) {
+        return (buf[off] & 0xFF) | ((buf[off + 1] & 0xFF) << 8) | ((buf[off + 2] & 0xFF) << 16) | ((buf[off + 3] & 0xFF) << 24);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - 12);
+    }
+}
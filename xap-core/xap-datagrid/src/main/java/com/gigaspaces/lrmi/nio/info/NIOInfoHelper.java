@@ -18,12 +18,15 @@ package com.gigaspaces.lrmi.nio.info;
 
 import com.gigaspaces.lrmi.LRMIMonitoringDetails;
 import com.gigaspaces.lrmi.LRMIRuntime;
+import com.gigaspaces.lrmi.nio.filters.IOFastCompressionFilter;
 import com.gigaspaces.lrmi.nio.filters.SSLFilterFactory;
+import com.gigaspaces.lrmi.nio.selector.handler.ReadSelectorThread;
 import com.gigaspaces.start.SystemInfo;
 import com.j_spaces.core.service.ServiceConfigLoader;
 import com.j_spaces.kernel.SystemProperties;
 
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author kimchy
@@ -59,9 +62,19 @@ public abstract class NIOInfoHelper {
     public static NIOStatistics getNIOStatistics() {
         LRMIRuntime lrmiRuntime = LRMIRuntime.getRuntime();
         ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) lrmiRuntime.getThreadPool();
+        Object[] readSelectors = ReadSelectorThread.getLiveSelectors().toArray();
+        long[] readSelectorsBusyTime = new long[readSelectors.length];
+        int[] readSelectorsChannels = new int[readSelectors.length];
+        for (int i = 0; i < readSelectors.length; i++) {
+            ReadSelectorThread readSelector = (ReadSelectorThread) readSelectors[i];
+            readSelectorsBusyTime[i] = TimeUnit.NANOSECONDS.toMillis(readSelector.getBusyTimeNanos());
+            readSelectorsChannels[i] = readSelector.getChannelsCount();
+        }
         return new NIOStatistics(System.currentTimeMillis(),
                 threadPoolExecutor.getCompletedTaskCount(), threadPoolExecutor.getActiveCount(),
-                threadPoolExecutor.getQueue().size());
+                threadPoolExecutor.getQueue().size(),
+                IOFastCompressionFilter.getTotalBytesIn(), IOFastCompressionFilter.getTotalBytesOut(),
+                readSelectorsBusyTime, readSelectorsChannels);
     }
 
     public static LRMIMonitoringDetails fetchMonitoringDetails() {
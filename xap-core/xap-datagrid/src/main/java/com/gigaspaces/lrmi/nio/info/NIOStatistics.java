@@ -16,6 +16,8 @@
 
 package com.gigaspaces.lrmi.nio.info;
 
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+import com.gigaspaces.lrmi.LRMIInvocationContext;
 import com.gigaspaces.serialization.SmartExternalizable;
 
 import java.io.Externalizable;
@@ -40,6 +42,14 @@ public class NIOStatistics implements SmartExternalizable {
 
     private int queueSize = -1;
 
+    private long compressionBytesIn;
+
+    private long compressionBytesOut;
+
+    private long[] readSelectorsBusyTime = new long[0];
+
+    private int[] readSelectorsChannels = new int[0];
+
     public NIOStatistics() {
     }
 
@@ -50,6 +60,27 @@ public class NIOStatistics implements SmartExternalizable {
         this.queueSize = queueSize;
     }
 
+    /**
+     * @since 16.5
+     */
+    public NIOStatistics(long timestamp, long completedTaskCount, int activeThreadsCount, int queueSize,
+                         long compressionBytesIn, long compressionBytesOut) {
+        this(timestamp, completedTaskCount, activeThreadsCount, queueSize);
+        this.compressionBytesIn = compressionBytesIn;
+        this.compressionBytesOut = compressionBytesOut;
+    }
+
+    /**
+     * @since 16.5
+     */
+    public NIOStatistics(long timestamp, long completedTaskCount, int activeThreadsCount, int queueSize,
+                         long compressionBytesIn, long compressionBytesOut,
+                         long[] readSelectorsBusyTime, int[] readSelectorsChannels) {
+        this(timestamp, completedTaskCount, activeThreadsCount, queueSize, compressionBytesIn, compressionBytesOut);
+        this.readSelectorsBusyTime = readSelectorsBusyTime;
+        this.readSelectorsChannels = readSelectorsChannels;
+    }
+
     public boolean isNA() {
         return timestamp == NA_TIMESTAMP;
     }
@@ -82,11 +113,69 @@ public class NIOStatistics implements SmartExternalizable {
         return queueSize;
     }
 
+    /**
+     * Returns the total number of bytes passed to the compression network filter for sending.
+     *
+     * @since 16.5
+     */
+    public long getCompressionBytesIn() {
+        return compressionBytesIn;
+    }
+
+    /**
+     * Returns the total number of bytes sent by the compression network filter.
+     *
+     * @since 16.5
+     */
+    public long getCompressionBytesOut() {
+        return compressionBytesOut;
+    }
+
+    /**
+     * Returns the ratio between the bytes passed to the compression network filter and the bytes
+     * it sent, or 1 if no compression filter is used.
+     *
+     * @since 16.5
+     */
+    public double getCompressionRatio() {
+        return compressionBytesOut == 0 ? 1 : (double) compressionBytesIn / compressionBytesOut;
+    }
+
+    /**
+     * Returns the total time in milliseconds each read selector thread spent handling read events
+     * rather than waiting for them. A read selector thread which is busy most of the time limits the
+     * throughput of its connections.
+     *
+     * @since 16.5
+     */
+    public long[] getReadSelectorsBusyTime() {
+        return readSelectorsBusyTime;
+    }
+
+    /**
+     * Returns the number of connections served by each read selector thread, in the same order as
+     * {@link #getReadSelectorsBusyTime()}.
+     *
+     * @since 16.5
+     */
+    public int[] getReadSelectorsChannels() {
+        return readSelectorsChannels;
+    }
+
     public void writeExternal(ObjectOutput out) throws IOException {
         out.writeLong(timestamp);
         out.writeLong(completedTaskCount);
         out.writeInt(activeThreadsCount);
         out.writeInt(queueSize);
+        if (LRMIInvocationContext.getEndpointLogicalVersion().greaterThan(PlatformLogicalVersion.v16_4_0)) {
+            out.writeLong(compressionBytesIn);
+            out.writeLong(compressionBytesOut);
+            out.writeInt(readSelectorsBusyTime.length);
+            for (int i = 0; i < readSelectorsBusyTime.length; i++) {
+                out.writeLong(readSelectorsBusyTime[i]);
+                out.writeInt(readSelectorsChannels[i]);
+            }
+        }
     }
 
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
@@ -94,5 +183,16 @@ public class NIOStatistics implements SmartExternalizable {
         completedTaskCount = in.readLong();
         activeThreadsCount = in.readInt();
         queueSize = in.readInt();
+        if (LRMIInvocationContext.getEndpointLogicalVersion().greaterThan(PlatformLogicalVersion.v16_4_0)) {
+            compressionBytesIn = in.readLong();
+            compressionBytesOut = in.readLong();
+            int readSelectors = in.readInt();
+            readSelectorsBusyTime = new long[readSelectors];
+            readSelectorsChannels = new int[readSelectors];
+            for (int i = 0; i < readSelectors; i++) {
+                readSelectorsBusyTime[i] = in.readLong();
+                readSelectorsChannels[i] = in.readInt();
+            }
+        }
     }
 }
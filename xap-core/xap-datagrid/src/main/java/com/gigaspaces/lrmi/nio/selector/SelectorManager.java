@@ -19,7 +19,10 @@ package com.gigaspaces.lrmi.nio.selector;
 import com.gigaspaces.config.lrmi.nio.NIOConfiguration;
 import com.gigaspaces.internal.utils.GsEnv;
 import com.gigaspaces.logger.Constants;
+import com.gigaspaces.lrmi.LRMIRuntime;
+import com.gigaspaces.lrmi.nio.ChannelEntry;
 import com.gigaspaces.lrmi.nio.Pivot;
+import com.gigaspaces.lrmi.nio.UnixDomainSockets;
 import com.gigaspaces.lrmi.nio.selector.handler.AcceptSelectorThread;
 import com.gigaspaces.lrmi.nio.selector.handler.ReadSelectorThread;
 import com.gigaspaces.lrmi.nio.selector.handler.WriteSelectorThread;
@@ -34,6 +37,8 @@ import java.net.ServerSocket;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.ServerSocketChannel;
 import java.util.StringTokenizer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Event queue for I/O events raised by a selector. This class receives the lower level events
@@ -52,18 +57,29 @@ import java.util.StringTokenizer;
 @com.gigaspaces.api.InternalApi
 public class SelectorManager extends ManagedRunnable {
     private static final Logger _logger = LoggerFactory.getLogger(Constants.LOGGER_LRMI);
+    private static final boolean LOAD_BALANCING = Boolean.parseBoolean(System.getProperty(SystemProperties.LRMI_SELECTOR_LOAD_BALANCING,
+            SystemProperties.LRMI_SELECTOR_LOAD_BALANCING_DEFAULT));
+    private static final boolean REBALANCE = Boolean.parseBoolean(System.getProperty(SystemProperties.LRMI_SELECTOR_REBALANCE,
+            SystemProperties.LRMI_SELECTOR_REBALANCE_DEFAULT));
+    private static final long REBALANCE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong(SystemProperties.LRMI_SELECTOR_REBALANCE_INTERVAL,
+            SystemProperties.LRMI_SELECTOR_REBALANCE_INTERVAL_DEFAULT));
 
     private final ServerSocket _serverSocket;
     private final String _host;
     private final int _port;
     private final ReadSelectorThread[] _readSelectorThread;
     private final WriteSelectorThread[] _writeSelectorThread;
+    private final ReadSelectorThread[] _dedicatedLaneReadSelectorThread;
     private final AcceptSelectorThread _acceptSelectorThread;
+    private final ServerSocketChannel _unixDomainServerChannel;
+    private final AtomicLong _lastRebalanceTime = new AtomicLong(System.nanoTime());
 
     public SelectorManager(Pivot pivot, String hostName, String port, int readSelectorThreads) throws IOException {
         _host = hostName;
         _readSelectorThread = new ReadSelectorThread[readSelectorThreads];
         _writeSelectorThread = new WriteSelectorThread[readSelectorThreads];
+        _dedicatedLaneReadSelectorThread = new ReadSelectorThread[Math.max(0, Integer.getInteger(SystemProperties.LRMI_PRIORITY_LANES_SELECTOR_THREADS,
+                SystemProperties.LRMI_PRIORITY_LANES_SELECTOR_THREADS_DEFAULT))];
         try {
             ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
             _serverSocket = serverSocketChannel.socket();
@@ -75,9 +91,13 @@ public class SelectorManager extends ManagedRunnable {
                 _readSelectorThread[i] = new ReadSelectorThread(pivot, "LRMI-Selector-Read-Thread-" + i);
                 _writeSelectorThread[i] = new WriteSelectorThread(pivot, "LRMI-Selector-Write-Thread-" + i);
             }
+            for (int i = 0; i < _dedicatedLaneReadSelectorThread.length; ++i)
+                _dedicatedLaneReadSelectorThread[i] = new ReadSelectorThread(pivot, "LRMI-Selector-Read-Lane-Thread-" + i);
 
-            _acceptSelectorThread = new AcceptSelectorThread(this, "LRMI-Selector-Accept-Thread-" + _port,
-                    serverSocketChannel);
+            _unixDomainServerChannel = bindUnixDomainSocket(_port);
+            _acceptSelectorThread = _unixDomainServerChannel == null
+                    ? new AcceptSelectorThread(this, "LRMI-Selector-Accept-Thread-" + _port, serverSocketChannel)
+                    : new AcceptSelectorThread(this, "LRMI-Selector-Accept-Thread-" + _port, serverSocketChannel, _unixDomainServerChannel);
             _logger.info("Listening to incoming connections on {} (reader threads: {}, writer threads: {})",
                     getBindInetSocketAddress(), readSelectorThreads, readSelectorThreads);
         } catch (IOException e) {
@@ -86,6 +106,19 @@ public class SelectorManager extends ManagedRunnable {
         }
     }
 
+    private static ServerSocketChannel bindUnixDomainSocket(int port) {
+        if (!UnixDomainSockets.isEnabled())
+            return null;
+        try {
+            ServerSocketChannel channel = UnixDomainSockets.bind(LRMIRuntime.getRuntime().getID(), port);
+            _logger.info("Listening to incoming connections of this host on unix domain socket {}", channel.getLocalAddress());
+            return channel;
+        } catch (IOException e) {
+            _logger.warn("Failed to bind unix domain socket, local clients connect over tcp", e);
+            return null;
+        }
+    }
+
     private static int bind(ServerSocket serverSocket, String host, String port) throws IOException {
         int backlog = Integer.getInteger(SystemProperties.LRMI_ACCEPT_BACKLOG, SystemProperties.LRMI_ACCEPT_BACKLOG_DEFUALT);
 
@@ -141,12 +174,20 @@ public class SelectorManager extends ManagedRunnable {
         if (_acceptSelectorThread != null)
             _acceptSelectorThread.requestShutdown();
 
+        if (_unixDomainServerChannel != null)
+            UnixDomainSockets.close(_unixDomainServerChannel, LRMIRuntime.getRuntime().getID(), _port);
+
         // close readers
         for (ReadSelectorThread selectorThread : _readSelectorThread) {
             if (selectorThread != null)
                 selectorThread.requestShutdown();
         }
 
+        for (ReadSelectorThread selectorThread : _dedicatedLaneReadSelectorThread) {
+            if (selectorThread != null)
+                selectorThread.requestShutdown();
+        }
+
         // close writers
         for (WriteSelectorThread selectorThread : _writeSelectorThread) {
             if (selectorThread != null)
@@ -167,7 +208,54 @@ public class SelectorManager extends ManagedRunnable {
     }
 
     public ReadSelectorThread getReadHandler(SelectableChannel channel) {
-        return getHandler(_readSelectorThread, channel);
+        if (!LOAD_BALANCING || _readSelectorThread.length == 1)
+            return getHandler(_readSelectorThread, channel);
+        return getLeastLoadedReadHandler();
+    }
+
+    private ReadSelectorThread getLeastLoadedReadHandler() {
+        ReadSelectorThread result = _readSelectorThread[0];
+        for (int i = 1; i < _readSelectorThread.length; i++) {
+            if (_readSelectorThread[i].isLessLoadedThan(result))
+                result = _readSelectorThread[i];
+        }
+        return result;
+    }
+
+    /**
+     * Called by the read selector thread which serves the given channel when a request is read from
+     * it.
+     *
+     * @return the read selector thread the channel should be moved to in order to balance the load
+     * of the read selector threads, null if it should stay
+     * @since 16.5
+     */
+    public ReadSelectorThread getRebalanceTarget(ReadSelectorThread current, ChannelEntry channelEntry) {
+        if (!REBALANCE || _readSelectorThread.length == 1 || !current.isHotChannel(channelEntry)
+                || channelEntry.isMultiplexed() || channelEntry.isDedicatedLane())
+            return null;
+        final ReadSelectorThread target = getLeastLoadedReadHandler();
+        // only move if the busier of the two selectors becomes less busy, so channels do not bounce
+        if (target == current || target.getLoad() + current.getHotChannelLoad() >= current.getLoad())
+            return null;
+        final long lastRebalanceTime = _lastRebalanceTime.get();
+        final long now = System.nanoTime();
+        if (now - lastRebalanceTime < REBALANCE_INTERVAL_NANOS || !_lastRebalanceTime.compareAndSet(lastRebalanceTime, now))
+            return null;
+        if (_logger.isDebugEnabled())
+            _logger.debug("Moving channel " + channelEntry.getSocketChannel() + " from " + current.getName() + " (load " + current.getLoad() +
+                    ") to " + target.getName() + " (load " + target.getLoad() + ")");
+        return target;
+    }
+
+    /**
+     * @return the read selector thread which should serve the given channel once it is known to be
+     * dedicated to a priority class, null if such channels are served by the regular read selector
+     * threads
+     * @since 16.5
+     */
+    public ReadSelectorThread getDedicatedLaneReadHandler(SelectableChannel channel) {
+        return _dedicatedLaneReadSelectorThread.length == 0 ? null : getHandler(_dedicatedLaneReadSelectorThread, channel);
     }
 
     public WriteSelectorThread getWriteHandler(SelectableChannel channel) {
@@ -17,6 +17,7 @@
 package com.gigaspaces.lrmi.nio.selector.handler;
 
 import com.gigaspaces.logger.Constants;
+import com.gigaspaces.lrmi.nio.UnixDomainSockets;
 import com.gigaspaces.time.SystemTime;
 import com.j_spaces.kernel.ManagedRunnable;
 import org.slf4j.Logger;
@@ -40,6 +41,7 @@ public abstract class AbstractSelectorThread extends ManagedRunnable implements
 
     final private Selector _selector;
     private long lastCleanup = 0;
+    private volatile long _busyTimeNanos;
 
     protected volatile Thread ownerThread;
 
@@ -56,10 +58,15 @@ public abstract class AbstractSelectorThread extends ManagedRunnable implements
 
     private void doSelect() {
         SelectionKey key = null;
+        final long cycleStart = System.nanoTime();
+        long selectStart = cycleStart;
+        long selectEnd = cycleStart;
         try {
             enableSelectionKeys();
             checkForDeadConnections();
+            selectStart = System.nanoTime();
             _selector.select(SELECT_TIMEOUT);
+            selectEnd = System.nanoTime();
             Set<SelectionKey> readyKeys = _selector.selectedKeys();
             if (readyKeys == null || readyKeys.isEmpty()) {
                 return;
@@ -98,9 +105,33 @@ public abstract class AbstractSelectorThread extends ManagedRunnable implements
             if (key != null) {
                 key.cancel();
             }
+        } finally {
+            final long cycleEnd = System.nanoTime();
+            final long busyNanos = (selectStart - cycleStart) + (cycleEnd - Math.max(selectEnd, selectStart));
+            _busyTimeNanos += busyNanos;
+            onSelectCycle(busyNanos, cycleEnd);
         }
     }
 
+    /**
+     * Called by the selector thread at the end of each select cycle.
+     *
+     * @param busyNanos the time this cycle spent outside the select call
+     * @param now       the end of this cycle, in nano time
+     * @since 16.5
+     */
+    protected void onSelectCycle(long busyNanos, long now) {
+    }
+
+    /**
+     * @return the total time in nanoseconds this selector thread spent handling events rather than
+     * waiting for them
+     * @since 16.5
+     */
+    public long getBusyTimeNanos() {
+        return _busyTimeNanos;
+    }
+
     private void delay(IOException ex) {
         try {
             Thread.sleep(1000);
@@ -180,6 +211,16 @@ public abstract class AbstractSelectorThread extends ManagedRunnable implements
     protected void closeChannel(SocketChannel channel) {
         if (channel == null)
             return;
+        if (UnixDomainSockets.isUnixDomain(channel)) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                if (_logger.isDebugEnabled()) {
+                    _logger.debug("error while closing a channel", ex);
+                }
+            }
+            return;
+        }
         Socket socket = channel.socket();
         try {
             socket.shutdownInput();
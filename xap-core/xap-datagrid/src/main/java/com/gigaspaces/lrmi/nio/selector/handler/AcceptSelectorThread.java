@@ -35,12 +35,14 @@ import java.nio.channels.SocketChannel;
 public class AcceptSelectorThread extends AbstractSelectorThread {
     private final SelectorManager selectorManager;
 
-    public AcceptSelectorThread(SelectorManager selectorManager, String name, ServerSocketChannel serverSocketChannel)
+    public AcceptSelectorThread(SelectorManager selectorManager, String name, ServerSocketChannel... serverSocketChannels)
             throws IOException {
         super();
         this.selectorManager = selectorManager;
-        serverSocketChannel.configureBlocking(false);
-        serverSocketChannel.register(getSelector(), SelectionKey.OP_ACCEPT);
+        for (ServerSocketChannel serverSocketChannel : serverSocketChannels) {
+            serverSocketChannel.configureBlocking(false);
+            serverSocketChannel.register(getSelector(), SelectionKey.OP_ACCEPT);
+        }
         GSThread.daemon(this, name).start();
     }
 
@@ -61,6 +63,6 @@ public class AcceptSelectorThread extends AbstractSelectorThread {
 
     @Override
     protected void enableSelectionKeys() {
-        /* Empty implementation only one key should be registered on this selector. */
+        /* Empty implementation only the server channels keys are registered on this selector. */
     }
 }
@@ -27,8 +27,11 @@ import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -39,18 +42,53 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 @com.gigaspaces.api.InternalApi
 public class ReadSelectorThread extends AbstractSelectorThread {
+    private static final long LOAD_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // loads closer than this are considered equal, and the number of channels decides
+    private static final double LOAD_TOLERANCE = 0.05;
+    private static final List<ReadSelectorThread> _liveSelectors = new CopyOnWriteArrayList<ReadSelectorThread>();
+
     private final Pivot _pivot;
+    private final String _name;
+
+    // load window, accessed by the selector thread only
+    private long _windowStart = System.nanoTime();
+    private long _windowBusyNanos;
+    private int _window;
+    private int _windowEvents;
+    private ChannelEntry _windowHottestChannel;
+    private int _windowHottestChannelEvents;
+    private ChannelEntry _hotChannel;
+    private double _hotChannelLoad;
+
+    private volatile double _load;
+    private volatile long _lastCycleEnd = _windowStart;
+    private volatile int _channels;
 
     public ReadSelectorThread(Pivot pivot, String name) throws IOException {
         super();
         this._pivot = pivot;
+        this._name = name;
         GSThread.daemon(this, name).start();
+        _liveSelectors.add(this);
+    }
+
+    /**
+     * @return the read selector threads of this process which were not shut down
+     * @since 16.5
+     */
+    public static List<ReadSelectorThread> getLiveSelectors() {
+        return _liveSelectors;
+    }
+
+    public String getName() {
+        return _name;
     }
 
     final private Queue<SelectionKey> _keysToEnable = new ConcurrentLinkedQueue<SelectionKey>();
     final private AtomicInteger _keysToEnableCounter = new AtomicInteger();
     final private Queue<SocketChannel> _keysToCreate = new ConcurrentLinkedQueue<SocketChannel>();
     final private AtomicInteger _keysToCreateCounter = new AtomicInteger();
+    final private Queue<ChannelAdoption> _channelsToAdopt = new ConcurrentLinkedQueue<ChannelAdoption>();
 
     @Override
     protected void handleConnection(SelectionKey key) throws IOException, InterruptedException {
@@ -68,6 +106,7 @@ public class ReadSelectorThread extends AbstractSelectorThread {
 
         // in case the client already disconnected_keysToCreate
         if (channelEntry != null) {
+            countEvent(channelEntry);
             //Check if we need protocol validation
             if (_pivot.isProtocolValidationEnabled() && !channelEntry.isProtocolValidated()) {
                 Reader.ProtocolValidationContext ctx = (ProtocolValidationContext) key.attachment();
@@ -90,6 +129,111 @@ public class ReadSelectorThread extends AbstractSelectorThread {
         }
     }
 
+    private void countEvent(ChannelEntry channelEntry) {
+        _windowEvents++;
+        int events = channelEntry.countSelectorEvent(this, _window);
+        if (events > _windowHottestChannelEvents) {
+            _windowHottestChannel = channelEntry;
+            _windowHottestChannelEvents = events;
+        }
+    }
+
+    @Override
+    protected void onSelectCycle(long busyNanos, long now) {
+        _lastCycleEnd = now;
+        _windowBusyNanos += busyNanos;
+        final long windowNanos = now - _windowStart;
+        if (windowNanos < LOAD_WINDOW_NANOS)
+            return;
+
+        final double load = (_load + Math.min(1, (double) _windowBusyNanos / windowNanos)) / 2;
+        final int channels = getSelector().keys().size();
+        // a channel is hot if it raised at least twice its share of the events of this selector
+        if (channels > 1 && _windowHottestChannelEvents * (long) channels >= 2L * _windowEvents) {
+            _hotChannel = _windowHottestChannel;
+            _hotChannelLoad = load * _windowHottestChannelEvents / _windowEvents;
+        } else {
+            _hotChannel = null;
+        }
+        _load = load;
+        _channels = channels;
+        _window++;
+        _windowStart = now;
+        _windowBusyNanos = 0;
+        _windowEvents = 0;
+        _windowHottestChannel = null;
+        _windowHottestChannelEvents = 0;
+    }
+
+    /**
+     * @return the recent fraction of time this selector thread was busy handling events, between 0
+     * and 1
+     * @since 16.5
+     */
+    public double getLoad() {
+        // a thread blocked in select for a whole window is idle
+        return System.nanoTime() - _lastCycleEnd > LOAD_WINDOW_NANOS ? 0 : _load;
+    }
+
+    /**
+     * @return the number of channels registered with this selector thread, including the ones
+     * waiting to be registered
+     * @since 16.5
+     */
+    public int getChannelsCount() {
+        return _channels + _keysToCreateCounter.get();
+    }
+
+    /**
+     * @return true if this selector thread should be preferred over the given one for new channels
+     * @since 16.5
+     */
+    public boolean isLessLoadedThan(ReadSelectorThread other) {
+        final double load = getLoad();
+        final double otherLoad = other.getLoad();
+        if (Math.abs(load - otherLoad) > LOAD_TOLERANCE)
+            return load < otherLoad;
+        return getChannelsCount() < other.getChannelsCount();
+    }
+
+    /**
+     * Must be called by this selector thread.
+     *
+     * @return true if the given channel raised an outstanding part of the read events of this
+     * selector thread in the previous load window
+     * @since 16.5
+     */
+    public boolean isHotChannel(ChannelEntry channelEntry) {
+        return _hotChannel == channelEntry;
+    }
+
+    /**
+     * Must be called by this selector thread.
+     *
+     * @return the part of the load of this selector thread which is caused by its hot channel
+     * @since 16.5
+     */
+    public double getHotChannelLoad() {
+        return _hotChannelLoad;
+    }
+
+    /**
+     * Called by this selector thread once its hot channel is moved to another selector thread.
+     *
+     * @since 16.5
+     */
+    public void onHotChannelMoved() {
+        _load = Math.max(0, _load - _hotChannelLoad);
+        _hotChannel = null;
+        _hotChannelLoad = 0;
+    }
+
+    @Override
+    protected void waitWhileFinish() {
+        _liveSelectors.remove(this);
+        super.waitWhileFinish();
+    }
+
     @Override
     protected void enableSelectionKeys() {
         int size = _keysToEnableCounter.get();
@@ -114,6 +258,41 @@ public class ReadSelectorThread extends AbstractSelectorThread {
             }
             _pivot.newConnection(this, readKey);
         }
+
+        ChannelAdoption adoption;
+        while ((adoption = _channelsToAdopt.poll()) != null) {
+            SelectionKey readKey;
+            try {
+                // read interest is restored once the pending task returns the socket
+                readKey = register(adoption.channelEntry.getSocketChannel(), 0);
+            } catch (ClosedChannelException e) {
+                _pivot.closeConnection(adoption.channelEntry);
+                continue;
+            }
+            adoption.channelEntry.setReadSelector(this, readKey);
+            adoption.task.run();
+        }
+    }
+
+    /**
+     * Moves a channel, whose read selection key in its previous selector was already canceled, to
+     * this selector. The given task is run once the channel is registered.
+     *
+     * @since 16.5
+     */
+    public void adoptChannel(ChannelEntry channelEntry, Runnable task) {
+        _channelsToAdopt.add(new ChannelAdoption(channelEntry, task));
+        getSelector().wakeup();
+    }
+
+    private static final class ChannelAdoption {
+        private final ChannelEntry channelEntry;
+        private final Runnable task;
+
+        private ChannelAdoption(ChannelEntry channelEntry, Runnable task) {
+            this.channelEntry = channelEntry;
+            this.task = task;
+        }
     }
 
     /**
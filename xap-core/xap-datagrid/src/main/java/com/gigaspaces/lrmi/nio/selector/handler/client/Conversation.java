@@ -22,6 +22,7 @@ import com.gigaspaces.lrmi.LRMIUtilities;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
@@ -44,8 +45,15 @@ public class Conversation {
     private AbstractChat currentChat;
 
     public Conversation(InetSocketAddress address) throws IOException {
+        this(SocketChannel.open(), address);
+    }
+
+    /**
+     * @since 16.5
+     */
+    public Conversation(SocketChannel channel, SocketAddress address) throws IOException {
         future = new SettableFuture<Conversation>();
-        channel = SocketChannel.open();
+        this.channel = channel;
         chats = new ArrayList<AbstractChat>();
         try {
             channel.configureBlocking(false);
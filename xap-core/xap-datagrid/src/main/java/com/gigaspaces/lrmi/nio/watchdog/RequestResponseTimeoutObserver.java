@@ -23,6 +23,7 @@ import com.gigaspaces.logger.LogLevel;
 import com.gigaspaces.lrmi.ConnectionResource;
 import com.gigaspaces.lrmi.nio.CPeer;
 import com.gigaspaces.lrmi.nio.ChannelEntry;
+import com.gigaspaces.lrmi.nio.NIOUtils;
 import com.gigaspaces.lrmi.nio.ProtocolValidation;
 import com.gigaspaces.lrmi.nio.ReplyPacket;
 import com.gigaspaces.lrmi.nio.SystemRequestHandler;
@@ -132,7 +133,7 @@ public class RequestResponseTimeoutObserver extends RequestTimeoutObserver {
             return super.getFailureToCloseInvalidConnectionMessage(serverAddress, watchedSocketChannel);
 
         return "A connection to the ServerEndPoint [" +
-                watchedSocketChannel.socket().getRemoteSocketAddress() +
+                NIOUtils.getRemoteSocketAddress(watchedSocketChannel) +
                 "] that has no invocation in progress at the server peer, could not be closed. ";
     }
 
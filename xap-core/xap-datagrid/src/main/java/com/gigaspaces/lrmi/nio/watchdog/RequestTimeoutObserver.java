@@ -23,6 +23,8 @@ import com.gigaspaces.logger.LogLevel;
 import com.gigaspaces.lrmi.ConnectionResource;
 import com.gigaspaces.lrmi.LRMIUtilities;
 import com.gigaspaces.lrmi.nio.CPeer;
+import com.gigaspaces.lrmi.nio.NIOUtils;
+import com.gigaspaces.lrmi.nio.UnixDomainSockets;
 import com.gigaspaces.lrmi.nio.async.AsyncContext;
 import com.gigaspaces.lrmi.nio.watchdog.Watchdog.WatchedObject;
 import com.gigaspaces.time.SystemTime;
@@ -77,17 +79,29 @@ public class RequestTimeoutObserver
         long startInvocationVersion = -1;
 
         try {
-            socketChannel = SocketChannel.open();
-            LRMIUtilities.initNewSocketProperties(socketChannel);
-            Socket newSock = socketChannel.socket();
             WatchedObject watched = bucket.iterator().next();
             startInvocationVersion = watched.getVersion();
 
             // Test connection to server
             // Open a new socket
-            serverAddress = watched.getSocket().socket().getRemoteSocketAddress();
+            serverAddress = NIOUtils.getRemoteSocketAddress(watched.getSocket());
             if (serverAddress == null)
-                throw new IOException("Watched socket was already closed: " + watched.getSocket().socket());
+                throw new IOException("Watched socket was already closed: " + watched.getSocket());
+
+            if (UnixDomainSockets.isUnixDomain(watched.getSocket())) {
+                // The server state of the watched invocation is looked up by the client tcp port,
+                // so only the server reachability is checked for a unix domain socket
+                socketChannel = UnixDomainSockets.open();
+                socketChannel.connect(serverAddress);
+                if (_logger.isDebugEnabled())
+                    _logger.debug("Established new connection with the ServerEndPoint [" + serverAddress + "], assuming connection is valid");
+                watched.startWatch();
+                return;
+            }
+
+            socketChannel = SocketChannel.open();
+            LRMIUtilities.initNewSocketProperties(socketChannel);
+            Socket newSock = socketChannel.socket();
 
             final int localPort = watched.getSocket().socket().getLocalPort();
 
@@ -143,7 +157,7 @@ public class RequestTimeoutObserver
 
     protected String getFailureToCloseInvalidConnectionMessage(SocketAddress serverAddress, SocketChannel watchedSocketChannel) {
         return "A connection to the ServerEndPoint [" +
-                watchedSocketChannel.socket().getRemoteSocketAddress() +
+                NIOUtils.getRemoteSocketAddress(watchedSocketChannel) +
                 "] that is not reachable, could not be closed. ";
     }
 
@@ -151,13 +165,10 @@ public class RequestTimeoutObserver
         String localAddress = "not connected";
         if (socketChannel != null) {
             //Avoid possible NPE if socket gets disconnected
-            Socket socket = socketChannel.socket();
-            if (socket != null) {
-                SocketAddress localSocketAddress = socket.getLocalSocketAddress();
-                //Avoid possible NPE if socket gets disconnected
-                if (localSocketAddress != null)
-                    localAddress = localSocketAddress.toString();
-            }
+            SocketAddress localSocketAddress = NIOUtils.getLocalSocketAddress(socketChannel);
+            //Avoid possible NPE if socket gets disconnected
+            if (localSocketAddress != null)
+                localAddress = localSocketAddress.toString();
         }
         return localAddress;
     }
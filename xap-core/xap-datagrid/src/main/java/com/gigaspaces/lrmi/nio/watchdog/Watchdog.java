@@ -22,6 +22,7 @@ import com.gigaspaces.internal.utils.concurrent.GSThread;
 import com.gigaspaces.logger.Constants;
 import com.gigaspaces.logger.LogLevel;
 import com.gigaspaces.lrmi.ConnectionResource;
+import com.gigaspaces.lrmi.nio.NIOUtils;
 import com.j_spaces.core.service.ServiceConfigLoader;
 import com.j_spaces.kernel.SystemProperties;
 
@@ -551,8 +552,8 @@ public class Watchdog extends GSThread {
         public boolean equals(Object obj) {
             if (!(obj instanceof WatchedObject))
                 return false;
-            SocketAddress myAddress = _socket.socket().getRemoteSocketAddress();
-            SocketAddress hisAddress = ((WatchedObject) obj)._socket.socket().getRemoteSocketAddress();
+            SocketAddress myAddress = NIOUtils.getRemoteSocketAddress(_socket);
+            SocketAddress hisAddress = NIOUtils.getRemoteSocketAddress(((WatchedObject) obj)._socket);
             if (myAddress != null)
                 return myAddress.equals(hisAddress);
             return false;
@@ -560,7 +561,7 @@ public class Watchdog extends GSThread {
 
         @Override
         public int hashCode() {
-            SocketAddress address = _socket.socket().getRemoteSocketAddress();
+            SocketAddress address = NIOUtils.getRemoteSocketAddress(_socket);
             if (null == address)
                 return 0;
             return address.hashCode();
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.management.space;
+
+import com.gigaspaces.internal.io.IOUtils;
+import com.gigaspaces.internal.utils.Textualizable;
+import com.gigaspaces.internal.utils.Textualizer;
+import com.gigaspaces.metadata.index.SpaceIndexType;
+import com.gigaspaces.serialization.SmartExternalizable;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+
+/**
+ * An index recommended by the space index advisor for queries which scanned all the entries of a
+ * type, or a large part of them, for lack of a suitable index.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class IndexRecommendation implements SmartExternalizable, Textualizable {
+    private static final long serialVersionUID = 1L;
+
+    private String _typeName;
+    private String[] _properties;
+    private SpaceIndexType _indexType;
+    private long _occurrences;
+    private long _averageScannedEntries;
+    private double _selectivity;
+
+    /**
+     * Required for Externalizable
+     */
+    public IndexRecommendation() {
+    }
+
+    public IndexRecommendation(String typeName, String[] properties, SpaceIndexType indexType, long occurrences,
+                               long averageScannedEntries, double selectivity) {
+        this._typeName = typeName;
+        this._properties = properties;
+        this._indexType = indexType;
+        this._occurrences = occurrences;
+        this._averageScannedEntries = averageScannedEntries;
+        this._selectivity = selectivity;
+    }
+
+    @Override
+    public String toString() {
+        return Textualizer.toString(this);
+    }
+
+    @Override
+    public void toText(Textualizer textualizer) {
+        textualizer.append("typeName", _typeName);
+        textualizer.append("properties", Arrays.toString(_properties));
+        textualizer.append("indexType", _indexType);
+        textualizer.append("occurrences", _occurrences);
+        textualizer.append("averageScannedEntries", _averageScannedEntries);
+        textualizer.append("selectivity", _selectivity);
+    }
+
+    public String getTypeName() {
+        return _typeName;
+    }
+
+    /**
+     * @return the indexed property, or the properties of a compound index
+     */
+    public String[] getProperties() {
+        return _properties;
+    }
+
+    public boolean isCompound() {
+        return _properties.length > 1;
+    }
+
+    public SpaceIndexType getIndexType() {
+        return _indexType;
+    }
+
+    /**
+     * @return the number of sampled queries which would have used the index
+     */
+    public long getOccurrences() {
+        return _occurrences;
+    }
+
+    /**
+     * @return the average number of entries those queries scanned
+     */
+    public long getAverageScannedEntries() {
+        return _averageScannedEntries;
+    }
+
+    /**
+     * @return the observed fraction of the scanned entries which match the indexed condition, -1 if
+     * not observed
+     */
+    public double getSelectivity() {
+        return _selectivity;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        IOUtils.writeString(out, _typeName);
+        IOUtils.writeStringArray(out, _properties);
+        out.writeByte(_indexType.ordinal());
+        out.writeLong(_occurrences);
+        out.writeLong(_averageScannedEntries);
+        out.writeDouble(_selectivity);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        this._typeName = IOUtils.readString(in);
+        this._properties = IOUtils.readStringArray(in);
+        this._indexType = SpaceIndexType.values()[in.readByte()];
+        this._occurrences = in.readLong();
+        this._averageScannedEntries = in.readLong();
+        this._selectivity = in.readDouble();
+    }
+}
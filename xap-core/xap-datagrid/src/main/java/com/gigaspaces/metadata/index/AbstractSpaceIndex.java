@@ -163,13 +163,12 @@ public abstract class AbstractSpaceIndex extends AbstractExternalizable implemen
         final byte flags = buildFlags();
         out.writeByte(flags);
 
-        if ((flags & FLAG_VERSION) != 0) {
-            final PlatformLogicalVersion version = LRMIInvocationContext.getEndpointLogicalVersion();
+        final PlatformLogicalVersion version = LRMIInvocationContext.getEndpointLogicalVersion();
+        if ((flags & FLAG_VERSION) != 0)
             out.writeObject(version);
-        }
 
         IOUtils.writeString(out, _name);
-        out.writeByte(SpaceIndexTypeHelper.toCode(_indexType));
+        out.writeByte(SpaceIndexTypeHelper.toCode(_indexType, version));
     }
 
     @Override
@@ -62,7 +62,13 @@ public enum SpaceIndexType {
      * Index that supports both equality and comparison.
      * @since 12.3
      */
-    EQUAL_AND_ORDERED;
+    EQUAL_AND_ORDERED,
+    /**
+     * Index that supports equality, and in addition keeps a compressed bitmap of the matching entries
+     * per value. Suited for low-cardinality properties which are combined by AND/OR conditions.
+     * @since 16.5
+     */
+    BITMAP;
 
     /**
      * @return true if this index type indicates an indexed state, false otherwise.
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock free latency histogram with log-linear buckets of microseconds, in the spirit of HDR
+ * histograms: values below 32 are counted exactly, larger values are counted in 16 buckets per power
+ * of two, which bounds the relative error to 1/16. Recording threads are spread over striped
+ * counters which are merged on read, so concurrent recording hardly contends.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BUCKETS = SUB_BUCKETS << 1;
+    private static final int MIN_MAGNITUDE = SUB_BUCKET_BITS + 1;
+    // about 25 days, larger values are counted in the last bucket
+    private static final int MAX_MAGNITUDE = 40;
+    static final int BUCKETS = LINEAR_BUCKETS + (MAX_MAGNITUDE - MIN_MAGNITUDE + 1) * SUB_BUCKETS;
+    private static final int STRIPES = stripes();
+
+    private final AtomicReferenceArray<AtomicLongArray> _stripes = new AtomicReferenceArray<AtomicLongArray>(STRIPES);
+    private long[] _lastCounts = new long[BUCKETS];
+    private Snapshot _lastInterval;
+    private long _lastIntervalTime;
+
+    private static int stripes() {
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors() && stripes < 8)
+            stripes <<= 1;
+        return stripes;
+    }
+
+    /**
+     * Records a latency.
+     */
+    public void record(long duration, TimeUnit unit) {
+        recordMicros(unit.toMicros(duration));
+    }
+
+    public void recordMicros(long micros) {
+        final int stripeIndex = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        AtomicLongArray stripe = _stripes.get(stripeIndex);
+        if (stripe == null) {
+            _stripes.compareAndSet(stripeIndex, null, new AtomicLongArray(BUCKETS));
+            stripe = _stripes.get(stripeIndex);
+        }
+        stripe.getAndIncrement(bucketOf(micros));
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < LINEAR_BUCKETS)
+            return micros < 0 ? 0 : (int) micros;
+        final int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude > MAX_MAGNITUDE)
+            return BUCKETS - 1;
+        final int subBucket = (int) (micros >>> (magnitude - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (magnitude - MIN_MAGNITUDE) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the highest value counted by the given bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS)
+            return bucket;
+        final int offset = bucket - LINEAR_BUCKETS;
+        final int shift = offset / SUB_BUCKETS + MIN_MAGNITUDE - SUB_BUCKET_BITS;
+        final long top = offset % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    private long[] mergeCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < STRIPES; i++) {
+            AtomicLongArray stripe = _stripes.get(i);
+            if (stripe != null) {
+                for (int b = 0; b < BUCKETS; b++)
+                    counts[b] += stripe.get(b);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return a snapshot of all the latencies recorded so far
+     */
+    public Snapshot getSnapshot() {
+        return new Snapshot(mergeCounts());
+    }
+
+    /**
+     * Returns a snapshot of the latencies recorded since the previous interval. Calls made within
+     * the given minimal interval of the previous one return the same snapshot, so several readers of
+     * the same sample see the same interval.
+     */
+    public synchronized Snapshot getIntervalSnapshot(long minIntervalMillis) {
+        final long now = System.nanoTime();
+        if (_lastInterval != null && now - _lastIntervalTime < TimeUnit.MILLISECONDS.toNanos(minIntervalMillis))
+            return _lastInterval;
+        final long[] counts = mergeCounts();
+        final long[] delta = new long[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++)
+            delta[b] = counts[b] - _lastCounts[b];
+        _lastCounts = counts;
+        _lastInterval = new Snapshot(delta);
+        _lastIntervalTime = now;
+        return _lastInterval;
+    }
+
+    /**
+     * Immutable view of the counts of a histogram, values are in microseconds.
+     */
+    public static class Snapshot {
+        private final long[] _counts;
+        private final long _count;
+
+        private Snapshot(long[] counts) {
+            long count = 0;
+            for (long c : counts)
+                count += c;
+            _counts = counts;
+            _count = count;
+        }
+
+        public long getCount() {
+            return _count;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return the value below which the given percentile of the values fall, 0 if empty
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (_count == 0)
+                return 0;
+            final long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * _count));
+            long seen = 0;
+            for (int b = 0; b < _counts.length; b++) {
+                seen += _counts[b];
+                if (seen >= rank)
+                    return highestValueOf(b);
+            }
+            return highestValueOf(_counts.length - 1);
+        }
+
+        public long getMax() {
+            for (int b = _counts.length - 1; b >= 0; b--) {
+                if (_counts[b] != 0)
+                    return highestValueOf(b);
+            }
+            return 0;
+        }
+
+        public double getMean() {
+            if (_count == 0)
+                return 0;
+            double sum = 0;
+            for (int b = 0; b < _counts.length; b++) {
+                if (_counts[b] != 0)
+                    sum += (double) _counts[b] * (b == 0 ? 0 : (highestValueOf(b - 1) + 1 + highestValueOf(b)) / 2.0);
+            }
+            return sum / _count;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.metrics;
+
+import com.j_spaces.kernel.SystemProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A named set of {@link LatencyHistogram}s which are created on first use, and exported as
+ * percentile gauges once a {@link MetricRegistrator} is attached. Each sample of the gauges reflects
+ * the latencies recorded since the previous sample.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class LatencyHistogramRegistry {
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(SystemProperties.METRICS_LATENCY_HISTOGRAMS, SystemProperties.METRICS_LATENCY_HISTOGRAMS_DEFAULT));
+    // gauges of the same sample are read together, well within this interval
+    private static final long SAMPLE_INTERVAL_MILLIS = 1000;
+
+    private final Map<String, LatencyHistogram> _histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+    private MetricRegistrator _registrator;
+
+    /**
+     * @return true if latency histograms are recorded, see {@link SystemProperties#METRICS_LATENCY_HISTOGRAMS}
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return the histogram of the given name, created if it does not exist
+     */
+    public LatencyHistogram get(String name) {
+        LatencyHistogram histogram = _histograms.get(name);
+        if (histogram != null)
+            return histogram;
+        synchronized (this) {
+            histogram = _histograms.get(name);
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                _histograms.put(name, histogram);
+                if (_registrator != null)
+                    register(_registrator, name, histogram);
+            }
+            return histogram;
+        }
+    }
+
+    /**
+     * Exports the existing and future histograms through the given registrator.
+     */
+    public synchronized void setRegistrator(MetricRegistrator registrator) {
+        _registrator = registrator;
+        for (Map.Entry<String, LatencyHistogram> entry : _histograms.entrySet())
+            register(registrator, entry.getKey(), entry.getValue());
+    }
+
+    private static void register(MetricRegistrator registrator, String name, final LatencyHistogram histogram) {
+        registrator.register(registrator.toPath(name, "count"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return histogram.getIntervalSnapshot(SAMPLE_INTERVAL_MILLIS).getCount();
+            }
+        });
+        registrator.register(registrator.toPath(name, "mean"), new Gauge<Double>() {
+            @Override
+            public Double getValue() {
+                return histogram.getIntervalSnapshot(SAMPLE_INTERVAL_MILLIS).getMean();
+            }
+        });
+        registerPercentile(registrator, registrator.toPath(name, "p50"), histogram, 50);
+        registerPercentile(registrator, registrator.toPath(name, "p99"), histogram, 99);
+        registerPercentile(registrator, registrator.toPath(name, "p999"), histogram, 99.9);
+        registerPercentile(registrator, registrator.toPath(name, "max"), histogram, 100);
+    }
+
+    private static void registerPercentile(MetricRegistrator registrator, String path, final LatencyHistogram histogram, final double percentile) {
+        registrator.register(path, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return histogram.getIntervalSnapshot(SAMPLE_INTERVAL_MILLIS).getValueAtPercentile(percentile);
+            }
+        });
+    }
+}
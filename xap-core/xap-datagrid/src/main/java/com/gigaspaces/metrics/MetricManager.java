@@ -16,6 +16,7 @@
 
 package com.gigaspaces.metrics;
 
+import com.gigaspaces.internal.lrmi.LRMILatencyMonitor;
 import com.gigaspaces.internal.os.ProcessCpuSampler;
 import com.gigaspaces.internal.os.ProcessCpuSamplerFactory;
 import com.gigaspaces.internal.oshi.OshiChecker;
@@ -29,6 +30,7 @@ import com.gigaspaces.lrmi.LRMIRuntime;
 import com.gigaspaces.lrmi.nio.CPeer;
 import com.gigaspaces.lrmi.nio.Reader;
 import com.gigaspaces.lrmi.nio.Writer;
+import com.gigaspaces.lrmi.nio.async.LRMIThreadPoolExecutor;
 import com.gigaspaces.metrics.factories.*;
 import com.gigaspaces.start.SystemBoot;
 import com.gigaspaces.start.SystemInfo;
@@ -401,13 +403,38 @@ public class MetricManager implements Closeable {
         registrator.register("pending-writes", new LongCounter(Writer.getPendingWritesCounter()));
         registrator.register(MetricConstants.CONNECTIONS_METRIC_NAME, new LongCounter(CPeer.getConnectionsCounter()));
         registrator.register(MetricConstants.ACTIVE_CONNECTIONS_METRIC_NAME, new LongCounter(ConnectionPool.getActiveConnectionsCounter()));
-        registerThreadPoolMetrics(registrator.extend("connection-pool"), lrmiRuntime.getThreadPool());
-        registerThreadPoolMetrics(registrator.extend("liveness-pool"), lrmiRuntime.getLivenessPriorityThreadPool());
-        registerThreadPoolMetrics(registrator.extend("monitoring-pool"), lrmiRuntime.getMonitoringPriorityThreadPool());
-        registerThreadPoolMetrics(registrator.extend("custom-pool"), lrmiRuntime.getCustomThreadPool());
+        registerLrmiThreadPoolMetrics(registrator.extend("connection-pool"), lrmiRuntime.getThreadPool());
+        registerLrmiThreadPoolMetrics(registrator.extend("liveness-pool"), lrmiRuntime.getLivenessPriorityThreadPool());
+        registerLrmiThreadPoolMetrics(registrator.extend("monitoring-pool"), lrmiRuntime.getMonitoringPriorityThreadPool());
+        registerLrmiThreadPoolMetrics(registrator.extend("custom-pool"), lrmiRuntime.getCustomThreadPool());
+        registerLrmiThreadPoolMetrics(registrator.extend("replication-pool"), lrmiRuntime.getReplicationThreadPool());
+        LRMILatencyMonitor.registerMetrics(registrator.extend("latency"));
         return registrator;
     }
 
+    private static void registerLrmiThreadPoolMetrics(MetricRegistrator registrator, DynamicThreadPoolExecutor threadPool) {
+        registerThreadPoolMetrics(registrator, threadPool);
+        if (threadPool instanceof LRMIThreadPoolExecutor) {
+            final LRMIThreadPoolExecutor lrmiThreadPool = (LRMIThreadPoolExecutor) threadPool;
+            // Average time in milliseconds the tasks started since the previous sample waited in the queue
+            registrator.register("queue-wait-time", new Gauge<Double>() {
+                private long lastWaitNanos;
+                private long lastStartedTasks;
+
+                @Override
+                public synchronized Double getValue() throws Exception {
+                    long waitNanos = lrmiThreadPool.getTotalQueueWaitTimeNanos();
+                    long startedTasks = lrmiThreadPool.getStartedTasksCount();
+                    long tasks = startedTasks - lastStartedTasks;
+                    double result = tasks == 0 ? 0 : (waitNanos - lastWaitNanos) / (tasks * 1000000d);
+                    lastWaitNanos = waitNanos;
+                    lastStartedTasks = startedTasks;
+                    return result;
+                }
+            });
+        }
+    }
+
     public static void registerThreadPoolMetrics(MetricRegistrator registrator, final DynamicThreadPoolExecutor dynamicThreadPoolExecutor) {
         registrator.register("active-threads", new Gauge<Integer>() {
             @Override
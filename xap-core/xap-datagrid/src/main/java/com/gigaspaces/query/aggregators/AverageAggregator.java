@@ -18,6 +18,8 @@
 package com.gigaspaces.query.aggregators;
 
 import com.gigaspaces.internal.io.IOUtils;
+import com.gigaspaces.internal.utils.math.MutableDouble;
+import com.gigaspaces.internal.utils.math.MutableLong;
 import com.gigaspaces.internal.utils.math.MutableNumber;
 import com.gigaspaces.internal.version.PlatformLogicalVersion;
 import com.gigaspaces.lrmi.LRMIInvocationContext;
@@ -75,6 +77,25 @@ public class AverageAggregator extends AbstractPathAggregator<AverageAggregator.
         return "AVG";
     }
 
+    boolean isWidest() {
+        return widest;
+    }
+
+    /**
+     * Adds the sum and count of a batch of values aggregated by a {@link ColumnarAggregator}
+     */
+    void addBatch(long sum, long count) {
+        if (result == null)
+            result = new AverageTuple(new MutableLong(), widest);
+        result.addBatch(sum, count);
+    }
+
+    void addBatch(double sum, long count) {
+        if (result == null)
+            result = new AverageTuple(new MutableDouble(), widest);
+        result.addBatch(sum, count);
+    }
+
     public AverageAggregator setWidest(boolean widest) {
         this.widest = widest;
         return this;
@@ -98,6 +119,27 @@ public class AverageAggregator extends AbstractPathAggregator<AverageAggregator.
             this.widest = widest;
         }
 
+        private AverageTuple(MutableNumber sum, boolean widest) {
+            this.sum = sum;
+            this.widest = widest;
+        }
+
+        private void addBatch(long deltaSum, long deltaCount) {
+            this.count += deltaCount;
+            if (sum instanceof MutableLong)
+                ((MutableLong) sum).add(deltaSum);
+            else
+                sum.add(deltaSum);
+        }
+
+        private void addBatch(double deltaSum, long deltaCount) {
+            this.count += deltaCount;
+            if (sum instanceof MutableDouble)
+                ((MutableDouble) sum).add(deltaSum);
+            else
+                sum.add(deltaSum);
+        }
+
         public AverageTuple add(Number deltaSum, long deltaCount) {
             this.count += deltaCount;
             this.sum.add(deltaSum);
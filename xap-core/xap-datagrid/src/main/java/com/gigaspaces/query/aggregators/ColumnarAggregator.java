@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.query.aggregators;
+
+import com.gigaspaces.client.storage_adapters.class_storage_adapters.DirectClassBinaryStorageAdapter;
+import com.gigaspaces.internal.metadata.ITypeDesc;
+import com.gigaspaces.internal.metadata.PropertyInfo;
+import com.gigaspaces.internal.serialization.DoubleClassSerializer;
+import com.gigaspaces.internal.serialization.FloatClassSerializer;
+import com.gigaspaces.internal.serialization.IClassSerializer;
+import com.gigaspaces.internal.serialization.IntegerClassSerializer;
+import com.gigaspaces.internal.serialization.LongClassSerializer;
+import com.gigaspaces.internal.serialization.primitives.DoublePrimitiveClassSerializer;
+import com.gigaspaces.internal.serialization.primitives.FloatPrimitiveClassSerializer;
+import com.gigaspaces.internal.serialization.primitives.IntPrimitiveClassSerializer;
+import com.gigaspaces.internal.serialization.primitives.LongPrimitiveClassSerializer;
+import com.gigaspaces.internal.server.storage.HybridEntryData;
+import com.gigaspaces.internal.server.storage.IEntryData;
+import com.gigaspaces.metadata.StorageType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates numeric properties of scanned entries column by column instead of entry by entry.
+ * The values of the aggregated properties are read into primitive arrays - directly from the
+ * packed properties of {@link HybridEntryData} when the type uses the {@link
+ * DirectClassBinaryStorageAdapter}, without unpacking the entry or boxing the values - and each
+ * batch is summed in a tight loop and added to the aggregators at once.
+ *
+ * Supports count, sum and average of fixed numeric properties, which covers the analytics
+ * aggregations where boxing and deserialization dominate. Entries of a type whose properties cannot
+ * be read this way are rejected, and should be aggregated one by one through the aggregators.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ColumnarAggregator {
+    static final int BATCH_SIZE = 1024;
+
+    private static final TypeLayout UNSUPPORTED = new TypeLayout(null);
+
+    private final List<SpaceEntriesAggregator> _aggregators;
+    //the column of each aggregator, -1 for a count of entries
+    private final int[] _aggregatorColumns;
+    private final String[] _paths;
+    private final Column[] _columns;
+    private final Map<ITypeDesc, TypeLayout> _layouts = new IdentityHashMap<ITypeDesc, TypeLayout>();
+    private ITypeDesc _lastTypeDesc;
+    private TypeLayout _lastLayout;
+    private int _rows;
+
+    private ColumnarAggregator(List<SpaceEntriesAggregator> aggregators, int[] aggregatorColumns, List<String> paths) {
+        _aggregators = aggregators;
+        _aggregatorColumns = aggregatorColumns;
+        _paths = paths.toArray(new String[0]);
+        _columns = new Column[_paths.length];
+        for (int i = 0; i < _columns.length; i++)
+            _columns[i] = new Column();
+    }
+
+    /**
+     * @return a columnar aggregator for the given aggregators, or null if any of them cannot be
+     * aggregated by columns
+     */
+    public static ColumnarAggregator createIfSupported(Collection<SpaceEntriesAggregator> aggregators) {
+        List<SpaceEntriesAggregator> list = new ArrayList<SpaceEntriesAggregator>(aggregators);
+        int[] aggregatorColumns = new int[list.size()];
+        List<String> paths = new ArrayList<String>();
+        for (int i = 0; i < aggregatorColumns.length; i++) {
+            SpaceEntriesAggregator aggregator = list.get(i);
+            Class<?> aggregatorClass = aggregator.getClass();
+            if (aggregatorClass == SumAggregator.class) {
+                if (!((SumAggregator) aggregator).isWidest())
+                    return null;
+            } else if (aggregatorClass == AverageAggregator.class) {
+                if (!((AverageAggregator) aggregator).isWidest())
+                    return null;
+            } else if (aggregatorClass != CountAggregator.class) {
+                return null;
+            }
+            AbstractPathAggregator<?> pathAggregator = (AbstractPathAggregator<?>) aggregator;
+            if (pathAggregator.getFunctionCallColumn() != null)
+                return null;
+            String path = pathAggregator.getPath();
+            if (path == null) {
+                //count(*) has no path
+                aggregatorColumns[i] = -1;
+                continue;
+            }
+            if (path.contains("."))
+                return null;
+            int column = paths.indexOf(path);
+            if (column == -1) {
+                column = paths.size();
+                paths.add(path);
+            }
+            aggregatorColumns[i] = column;
+        }
+        return new ColumnarAggregator(list, aggregatorColumns, paths);
+    }
+
+    /**
+     * Reads the aggregated properties of the entry into the current batch.
+     *
+     * @return false if the entry type cannot be aggregated by columns, in which case nothing was
+     * read
+     */
+    public boolean aggregate(IEntryData entryData) {
+        ITypeDesc typeDesc = entryData.getEntryTypeDesc().getTypeDesc();
+        if (typeDesc != _lastTypeDesc) {
+            TypeLayout layout = _layouts.get(typeDesc);
+            if (layout == null) {
+                layout = createLayout(typeDesc);
+                _layouts.put(typeDesc, layout);
+            }
+            _lastTypeDesc = typeDesc;
+            _lastLayout = layout;
+        }
+        if (_lastLayout == UNSUPPORTED)
+            return false;
+        byte[] packedProperties = entryData instanceof HybridEntryData ? ((HybridEntryData) entryData).getPackedSerializedProperties() : null;
+        for (int i = 0; i < _columns.length; i++)
+            _lastLayout._readers[i].read(entryData, packedProperties, _columns[i]);
+        if (++_rows == BATCH_SIZE)
+            flush();
+        return true;
+    }
+
+    /**
+     * Adds the current batch to the aggregators. Must be called before the aggregators results
+     * are used.
+     */
+    public void flush() {
+        if (_rows == 0)
+            return;
+        for (Column column : _columns)
+            column.sum();
+        for (int i = 0; i < _aggregatorColumns.length; i++) {
+            SpaceEntriesAggregator aggregator = _aggregators.get(i);
+            if (_aggregatorColumns[i] == -1) {
+                ((CountAggregator) aggregator).addBatch(_rows);
+                continue;
+            }
+            Column column = _columns[_aggregatorColumns[i]];
+            if (aggregator instanceof CountAggregator) {
+                ((CountAggregator) aggregator).addBatch(column._longsCount + column._doublesCount);
+            } else if (aggregator instanceof SumAggregator) {
+                if (column._longsCount != 0)
+                    ((SumAggregator) aggregator).addBatch(column._longsSum);
+                if (column._doublesCount != 0)
+                    ((SumAggregator) aggregator).addBatch(column._doublesSum);
+            } else {
+                if (column._longsCount != 0)
+                    ((AverageAggregator) aggregator).addBatch(column._longsSum, column._longsCount);
+                if (column._doublesCount != 0)
+                    ((AverageAggregator) aggregator).addBatch(column._doublesSum, column._doublesCount);
+            }
+        }
+        for (Column column : _columns)
+            column.clear();
+        _rows = 0;
+    }
+
+    private TypeLayout createLayout(ITypeDesc typeDesc) {
+        boolean directAccess = typeDesc.getClassBinaryStorageAdapter() != null
+                && typeDesc.getClassBinaryStorageAdapter().getClass() == DirectClassBinaryStorageAdapter.class;
+        ColumnReader[] readers = new ColumnReader[_paths.length];
+        for (int i = 0; i < readers.length; i++) {
+            int position = typeDesc.getFixedPropertyPosition(_paths[i]);
+            if (position == -1)
+                return UNSUPPORTED;
+            PropertyInfo property = typeDesc.getFixedProperty(position);
+            if (property.getStorageAdapter() != null)
+                return UNSUPPORTED;
+            Boolean floating = isFloatingPoint(property.getType());
+            if (floating == null)
+                return UNSUPPORTED;
+            int serializedIndex = -1;
+            int encoding = ColumnReader.BOXED;
+            if (property.isBinarySpaceProperty(typeDesc)) {
+                serializedIndex = -typeDesc.getPositionsForSplitting()[position] - 1;
+                if (directAccess)
+                    encoding = getEncoding(property.getClassSerializer());
+            } else if (property.getStorageType() == StorageType.BINARY || property.getStorageType() == StorageType.COMPRESSED) {
+                //stored as a serialized object rather than as a number
+                return UNSUPPORTED;
+            }
+            Number defaultValue = encoding == ColumnReader.BOXED ? null : (Number) property.getClassSerializer().getDefaultValue();
+            readers[i] = new ColumnReader(position, serializedIndex, encoding, floating, defaultValue);
+        }
+        return new TypeLayout(readers);
+    }
+
+    /**
+     * @return null if the type is not a supported numeric type
+     */
+    private static Boolean isFloatingPoint(Class<?> type) {
+        if (type == Long.class || type == long.class || type == Integer.class || type == int.class
+                || type == Short.class || type == short.class || type == Byte.class || type == byte.class)
+            return Boolean.FALSE;
+        if (type == Double.class || type == double.class || type == Float.class || type == float.class)
+            return Boolean.TRUE;
+        return null;
+    }
+
+    private static int getEncoding(IClassSerializer<?> serializer) {
+        //only the exact serializers are known to use a fixed size encoding
+        Class<?> serializerClass = serializer.getClass();
+        if (serializerClass == LongClassSerializer.class || serializerClass == LongPrimitiveClassSerializer.class)
+            return ColumnReader.LONG;
+        if (serializerClass == IntegerClassSerializer.class || serializerClass == IntPrimitiveClassSerializer.class)
+            return ColumnReader.INT;
+        if (serializerClass == DoubleClassSerializer.class || serializerClass == DoublePrimitiveClassSerializer.class)
+            return ColumnReader.DOUBLE;
+        if (serializerClass == FloatClassSerializer.class || serializerClass == FloatPrimitiveClassSerializer.class)
+            return ColumnReader.FLOAT;
+        return ColumnReader.BOXED;
+    }
+
+    private static class TypeLayout {
+        private final ColumnReader[] _readers;
+
+        private TypeLayout(ColumnReader[] readers) {
+            _readers = readers;
+        }
+    }
+
+    /**
+     * Reads a property of the entries of a specific type
+     */
+    private static class ColumnReader {
+        private static final int BOXED = 0;
+        private static final int LONG = 1;
+        private static final int INT = 2;
+        private static final int DOUBLE = 3;
+        private static final int FLOAT = 4;
+
+        private final int _position;
+        private final int _serializedIndex;
+        private final int _encoding;
+        private final boolean _floating;
+        private final Number _defaultValue;
+
+        private ColumnReader(int position, int serializedIndex, int encoding, boolean floating, Number defaultValue) {
+            _position = position;
+            _serializedIndex = serializedIndex;
+            _encoding = encoding;
+            _floating = floating;
+            _defaultValue = defaultValue;
+        }
+
+        private void read(IEntryData entryData, byte[] packedProperties, Column column) {
+            if (_encoding == BOXED || packedProperties == null) {
+                column.add((Number) entryData.getFixedPropertyValue(_position), _floating);
+                return;
+            }
+            int offset = DirectClassBinaryStorageAdapter.getFieldOffset(packedProperties, _serializedIndex);
+            if (offset == -1) {
+                column.add(_defaultValue, _floating);
+                return;
+            }
+            switch (_encoding) {
+                case LONG:
+                    column.addLong(readLong(packedProperties, offset));
+                    break;
+                case INT:
+                    column.addLong(readInt(packedProperties, offset));
+                    break;
+                case DOUBLE:
+                    column.addDouble(Double.longBitsToDouble(readLong(packedProperties, offset)));
+                    break;
+                default:
+                    column.addDouble(Float.intBitsToFloat(readInt(packedProperties, offset)));
+            }
+        }
+
+        private static long readLong(byte[] bytes, int offset) {
+            return ((long) readInt(bytes, offset) << 32) | (readInt(bytes, offset + 4) & 0xffffffffL);
+        }
+
+        private static int readInt(byte[] bytes, int offset) {
+            return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16)
+                    | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+        }
+    }
+
+    /**
+     * The non null values of a property in the current batch
+     */
+    private static class Column {
+        private final long[] _longs = new long[BATCH_SIZE];
+        private final double[] _doubles = new double[BATCH_SIZE];
+        private int _longsCount;
+        private int _doublesCount;
+        private long _longsSum;
+        private double _doublesSum;
+
+        private void add(Number value, boolean floating) {
+            if (value == null)
+                return;
+            if (floating)
+                addDouble(value.doubleValue());
+            else
+                addLong(value.longValue());
+        }
+
+        private void addLong(long value) {
+            _longs[_longsCount++] = value;
+        }
+
+        private void addDouble(double value) {
+            _doubles[_doublesCount++] = value;
+        }
+
+        private void sum() {
+            long longsSum = 0;
+            for (int i = 0; i < _longsCount; i++)
+                longsSum += _longs[i];
+            double doublesSum = 0;
+            for (int i = 0; i < _doublesCount; i++)
+                doublesSum += _doubles[i];
+            _longsSum = longsSum;
+            _doublesSum = doublesSum;
+        }
+
+        private void clear() {
+            _longsCount = 0;
+            _doublesCount = 0;
+        }
+    }
+}
@@ -52,6 +52,13 @@ public class CountAggregator extends AbstractPathAggregator<Long> {
             result++;
     }
 
+    /**
+     * Adds the count of a batch aggregated by a {@link ColumnarAggregator}
+     */
+    void addBatch(long count) {
+        result += count;
+    }
+
     @Override
     public void aggregateIntermediateResult(Long partitionResult) {
         this.result += partitionResult;
@@ -109,8 +109,11 @@ public class DistinctAggregator<T> extends SpaceEntriesAggregator<DistinctResult
             return null;
 
 
-        for (RawEntry entry : map.values()) {
-            context.applyProjectionTemplate(entry);
+        //no context when only intermediate results were merged, which are already projected
+        if (context != null) {
+            for (RawEntry entry : map.values()) {
+                context.applyProjectionTemplate(entry);
+            }
         }
         return new DistinctResult(map);
     }
@@ -42,6 +42,9 @@ public class OrderByAggregator<T> extends SpaceEntriesAggregator<OrderByAggregat
     private transient List<OrderByElement> list;
     private transient HashMap<OrderByValues, OrderByElement> map;
     private transient int aggregatedCount = 0;
+    //set while the aggregated entries are known to be ascending by the first order by path
+    private transient boolean sortedInput;
+    private transient boolean saturated;
 
     private int limit = Integer.MAX_VALUE;
     private List<OrderByPath> orderByPaths = new LinkedList<>();
@@ -107,10 +110,52 @@ public class OrderByAggregator<T> extends SpaceEntriesAggregator<OrderByAggregat
         if (aggregatedCount > limit) {
             list.sort(new OrderByElementComparator(this.orderByPaths));
             evictHighestRaw();
+            if (sortedInput)
+                saturated = isAfterLast(values);
         }
 
     }
 
+    /**
+     * Notifies that the entries aggregated from now on are ascending by the given path, until
+     * {@link #endSortedScan()} is called.
+     *
+     * @return true if the aggregator can tell when the rest of the scan can't change its result
+     * @since 16.5
+     */
+    public boolean beginSortedScan(String path) {
+        OrderByPath first = orderByPaths.isEmpty() ? null : orderByPaths.get(0);
+        sortedInput = limit != Integer.MAX_VALUE && first != null && first.getOrderBy() == OrderBy.ASC
+                && first.getPath().equals(path);
+        saturated = false;
+        return sortedInput;
+    }
+
+    /**
+     * @return true if the sorted scan has passed the highest value kept by the aggregator, so the
+     * rest of the scanned entries would all be evicted
+     * @since 16.5
+     */
+    public boolean isSortedScanSaturated() {
+        return saturated;
+    }
+
+    /**
+     * @since 16.5
+     */
+    public void endSortedScan() {
+        sortedInput = false;
+        saturated = false;
+    }
+
+    private boolean isAfterLast(OrderByValues values) {
+        if (list.isEmpty())
+            return true;
+        Comparable value = (Comparable) values.getValues()[0];
+        Comparable highest = (Comparable) list.get(list.size() - 1).getValue(0);
+        return value != null && highest != null && value.compareTo(highest) > 0;
+    }
+
 
     @Override
     public void aggregateIntermediateResult(OrderByScanResult partitionResult) {
@@ -153,9 +198,11 @@ public class OrderByAggregator<T> extends SpaceEntriesAggregator<OrderByAggregat
 
         OrderByScanResult orderByResult = new OrderByScanResult();
         if (list != null) {
-            list.forEach(orderByElement ->
-                    orderByElement.getRawEntries().forEach(rawEntry ->
-                            context.applyProjectionTemplate(rawEntry)));
+            //no context when only intermediate results were merged, which are already projected
+            if (context != null)
+                list.forEach(orderByElement ->
+                        orderByElement.getRawEntries().forEach(rawEntry ->
+                                context.applyProjectionTemplate(rawEntry)));
             list.sort(new OrderByElementComparator(this.orderByPaths));
             orderByResult.setResultList(list);
         }
@@ -17,6 +17,8 @@
 
 package com.gigaspaces.query.aggregators;
 
+import com.gigaspaces.internal.utils.math.MutableDouble;
+import com.gigaspaces.internal.utils.math.MutableLong;
 import com.gigaspaces.internal.utils.math.MutableNumber;
 import com.gigaspaces.internal.version.PlatformLogicalVersion;
 import com.gigaspaces.lrmi.LRMIInvocationContext;
@@ -77,6 +79,34 @@ public class SumAggregator extends AbstractPathAggregator<MutableNumber> {
         }
     }
 
+    boolean isWidest() {
+        return widest;
+    }
+
+    /**
+     * Adds the sum of a batch of integral values aggregated by a {@link ColumnarAggregator}
+     */
+    void addBatch(long sum) {
+        if (result == null)
+            result = new MutableLong();
+        if (result instanceof MutableLong)
+            ((MutableLong) result).add(sum);
+        else
+            result.add(sum);
+    }
+
+    /**
+     * Adds the sum of a batch of floating point values aggregated by a {@link ColumnarAggregator}
+     */
+    void addBatch(double sum) {
+        if (result == null)
+            result = new MutableDouble();
+        if (result instanceof MutableDouble)
+            ((MutableDouble) result).add(sum);
+        else
+            result.add(sum);
+    }
+
     public SumAggregator setWidest(boolean widest) {
         this.widest = widest;
         return this;
@@ -1230,7 +1230,9 @@ public class PbsEntryFormatter {
             output.writeInt(indexes.size());
             for (Entry<String, SpaceIndex> index : indexes.entrySet()) {
                 output.writeString(index.getKey());
-                output.writeByte(SpaceIndexTypeHelper.toCode(index.getValue().getIndexType()));
+                SpaceIndexType indexType = index.getValue().getIndexType();
+                // PBS peers do not know the bitmap index, it falls back to the equal index
+                output.writeByte(SpaceIndexTypeHelper.toCode(indexType == SpaceIndexType.BITMAP ? SpaceIndexType.EQUAL : indexType));
                 output.writeBoolean(index.getValue().isUnique());
             }
         }
@@ -416,6 +416,18 @@ public interface Constants {
         String ENGINE_QUERY_RESULT_SIZE_LIMIT_MEMORY_CHECK_BATCH_SIZE = "engine.query.result.size.limit.memory.check.batch.size";
         String ENGINE_QUERY_RESULT_SIZE_LIMIT_MEMORY_CHECK_BATCH_SIZE_DEFAULT = "0";
 
+        String ENGINE_PARALLEL_SCAN_ENABLED_PROP = "engine.parallel_scan.enabled";
+        String ENGINE_PARALLEL_SCAN_ENABLED_DEFAULT = "false";
+        /**
+         * number of threads scanning a single query, 0 means a quarter of the available processors
+         */
+        String ENGINE_PARALLEL_SCAN_THREADS_PROP = "engine.parallel_scan.threads";
+        String ENGINE_PARALLEL_SCAN_THREADS_DEFAULT = "0";
+        String ENGINE_PARALLEL_SCAN_MAX_CONCURRENT_SCANS_PROP = "engine.parallel_scan.max_concurrent_scans";
+        String ENGINE_PARALLEL_SCAN_MAX_CONCURRENT_SCANS_DEFAULT = "2";
+        String ENGINE_PARALLEL_SCAN_MIN_ENTRIES_PROP = "engine.parallel_scan.min_entries";
+        String ENGINE_PARALLEL_SCAN_MIN_ENTRIES_DEFAULT = "100000";
+
         String ENGINE_DEMOTE_MIN_TIMEOUT = "engine.demote.min-timeout";
         String ENGINE_DEMOTE_MIN_TIMEOUT_DEFAULT = "5s";
         String ENGINE_DEMOTE_COMPLETION_EVENT_TIMEOUT = "engine.demote.completion-event-timeout";
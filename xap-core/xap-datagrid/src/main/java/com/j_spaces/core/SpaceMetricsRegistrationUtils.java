@@ -19,6 +19,7 @@ import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
 import com.gigaspaces.internal.server.metadata.TypeCounters;
 import com.gigaspaces.internal.server.space.SpaceEngine;
 import com.gigaspaces.internal.server.space.SpaceImpl;
+import com.gigaspaces.internal.server.space.index_advisor.QueryWorkloadRecorder;
 import com.gigaspaces.metadata.index.SpaceIndex;
 import com.gigaspaces.metrics.Gauge;
 import com.gigaspaces.metrics.LongCounter;
@@ -95,6 +96,28 @@ public class SpaceMetricsRegistrationUtils {
                 foreignQueriesHandler.getIndexedPathsUsageCounters(typeName).forEach((k, v) ->
                         registerIndexUsageMetric(typeName, k, v));
             }
+            // register scans recorded by the index advisor
+            final QueryWorkloadRecorder recorder = cacheManager.getQueryWorkloadRecorder();
+            if (recorder.isEnabled()) {
+                spaceEngine.getDataTypeMetricRegistrar(typeName).register("full-scans-total", new Gauge<Long>() {
+                    @Override
+                    public Long getValue() {
+                        if (!spaceImpl.isPrimary())
+                            return null;
+                        QueryWorkloadRecorder.TypeWorkload workload = recorder.getWorkload(typeName);
+                        return workload == null ? 0 : workload.getFullScans();
+                    }
+                });
+                spaceEngine.getDataTypeMetricRegistrar(typeName).register("poorly-indexed-scans-total", new Gauge<Long>() {
+                    @Override
+                    public Long getValue() {
+                        if (!spaceImpl.isPrimary())
+                            return null;
+                        QueryWorkloadRecorder.TypeWorkload workload = recorder.getWorkload(typeName);
+                        return workload == null ? 0 : workload.getPoorlyIndexedScans();
+                    }
+                });
+            }
         }
     }
 
@@ -102,8 +125,9 @@ public class SpaceMetricsRegistrationUtils {
         final String typeName = typeDesc.getTypeName();
 
         MetricManager.MetricFlagsState metricFlagsState = spaceEngine.getMetricManager().getMetricFlagsState();
-        //unregister read-count + data-types
-        if (metricFlagsState.isDataReadCountsMetricEnabled() || metricFlagsState.isDataTypesMetricEnabled()) {
+        //unregister read-count + data-types + index advisor scans
+        if (metricFlagsState.isDataReadCountsMetricEnabled() || metricFlagsState.isDataTypesMetricEnabled()
+                || metricFlagsState.isDataIndexHitsMetricEnabled()) {
             spaceEngine.clearDataTypeMetricRegistrarIfExists(typeName);
         }
         //unregister index-hits
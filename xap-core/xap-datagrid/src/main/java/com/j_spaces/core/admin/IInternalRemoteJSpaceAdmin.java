@@ -26,6 +26,7 @@ import com.gigaspaces.internal.server.space.IRemoteSpace;
 import com.gigaspaces.internal.server.space.suspend.SuspendTypeChangedInternalListener;
 import com.gigaspaces.internal.transport.ITemplatePacket;
 import com.gigaspaces.lrmi.nio.info.NIOInfoProvider;
+import com.gigaspaces.management.space.IndexRecommendation;
 import com.gigaspaces.management.space.LocalCacheDetails;
 import com.gigaspaces.management.space.LocalViewDetails;
 import com.gigaspaces.management.transport.ITransportConnection;
@@ -287,6 +288,23 @@ public interface IInternalRemoteJSpaceAdmin extends IRemoteJSpaceAdmin, NIOInfoP
      */
     public Map<String, LocalViewDetails> getLocalViewDetails() throws RemoteException;
 
+    /**
+     * Returns the indexes recommended for the queries which scanned all the entries of a type, or
+     * a large part of them, ordered by the scan work they are expected to save.
+     *
+     * @since 16.5
+     */
+    List<IndexRecommendation> getIndexRecommendations() throws RemoteException;
+
+    /**
+     * Adds the recommended indexes to their types. Indexes are added by primary spaces only, and
+     * replicated to their backups.
+     *
+     * @return the applied recommendations
+     * @since 16.5
+     */
+    List<IndexRecommendation> applyIndexRecommendations() throws RemoteException;
+
     /**
      * Attempt to start this space.
      *
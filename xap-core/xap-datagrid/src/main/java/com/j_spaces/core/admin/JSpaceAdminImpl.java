@@ -29,6 +29,7 @@ import com.gigaspaces.internal.transport.ITemplatePacket;
 import com.gigaspaces.lrmi.LRMIMonitoringDetails;
 import com.gigaspaces.lrmi.nio.info.NIODetails;
 import com.gigaspaces.lrmi.nio.info.NIOStatistics;
+import com.gigaspaces.management.space.IndexRecommendation;
 import com.gigaspaces.management.space.LocalCacheDetails;
 import com.gigaspaces.management.space.LocalViewDetails;
 import com.gigaspaces.management.transport.ITransportConnection;
@@ -393,4 +394,14 @@ public class JSpaceAdminImpl extends ServiceAdminImpl
     public Map<String, LocalViewDetails> getLocalViewDetails() throws RemoteException {
         return ((IInternalRemoteJSpaceAdmin) m_service).getLocalViewDetails();
     }
+
+    @Override
+    public List<IndexRecommendation> getIndexRecommendations() throws RemoteException {
+        return ((IInternalRemoteJSpaceAdmin) m_service).getIndexRecommendations();
+    }
+
+    @Override
+    public List<IndexRecommendation> applyIndexRecommendations() throws RemoteException {
+        return ((IInternalRemoteJSpaceAdmin) m_service).applyIndexRecommendations();
+    }
 }
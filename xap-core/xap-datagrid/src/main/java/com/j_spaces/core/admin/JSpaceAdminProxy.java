@@ -32,6 +32,7 @@ import com.gigaspaces.internal.transport.ITemplatePacket;
 import com.gigaspaces.lrmi.LRMIMonitoringDetails;
 import com.gigaspaces.lrmi.nio.info.NIODetails;
 import com.gigaspaces.lrmi.nio.info.NIOStatistics;
+import com.gigaspaces.management.space.IndexRecommendation;
 import com.gigaspaces.management.space.LocalCacheDetails;
 import com.gigaspaces.management.space.LocalViewDetails;
 import com.gigaspaces.management.transport.ITransportConnection;
@@ -433,6 +434,16 @@ public class JSpaceAdminProxy
         return ((IInternalRemoteJSpaceAdmin) adminImpl).getLocalViewDetails();
     }
 
+    @Override
+    public List<IndexRecommendation> getIndexRecommendations() throws RemoteException {
+        return ((IInternalRemoteJSpaceAdmin) adminImpl).getIndexRecommendations();
+    }
+
+    @Override
+    public List<IndexRecommendation> applyIndexRecommendations() throws RemoteException {
+        return ((IInternalRemoteJSpaceAdmin) adminImpl).applyIndexRecommendations();
+    }
+
     @Override
     public void updateClusterInfo() throws RemoteException {
         ((IInternalRemoteJSpaceAdmin) adminImpl).updateClusterInfo();
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.core.cache;
+
+import com.gigaspaces.internal.utils.collections.CompressedBitmap;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bitmap side structure of a {@link com.gigaspaces.metadata.index.SpaceIndexType#BITMAP} index.
+ * Keeps, per index value, a compressed bitmap of the ordinals (see {@link EntryOrdinalTable}) of the
+ * entries holding that value, so that conditions over several such indexes can be combined
+ * without touching the entries. The regular hash store of the index is kept as well and serves
+ * plain equality lookups.
+ *
+ * <p>Each value bitmap is guarded by its own monitor. The bitmaps returned to the query side are
+ * private copies.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class BitmapIndex {
+    private final ConcurrentHashMap<Object, ValueBitmap> _valueBitmaps = new ConcurrentHashMap<Object, ValueBitmap>();
+    private volatile EntryOrdinalTable _ordinals;
+
+    private static final class ValueBitmap {
+        private final CompressedBitmap _bitmap = new CompressedBitmap();
+        //set under lock when the bitmap became empty and was unmapped
+        private boolean _detached;
+    }
+
+    /**
+     * @return the ordinal table the index is bound to, null if no entry was inserted yet
+     */
+    public EntryOrdinalTable getOrdinals() {
+        return _ordinals;
+    }
+
+    public void insert(Object value, IEntryCacheInfo pEntry, TypeData pType) {
+        if (value == null)
+            return;
+        EntryOrdinalTable ordinals = _ordinals;
+        if (ordinals == null)
+            _ordinals = ordinals = pType.getEntryOrdinals();
+        int ordinal = ordinals.acquire(pEntry);
+        while (true) {
+            ValueBitmap valueBitmap = _valueBitmaps.computeIfAbsent(value, v -> new ValueBitmap());
+            synchronized (valueBitmap) {
+                if (valueBitmap._detached)
+                    continue;
+                valueBitmap._bitmap.add(ordinal);
+                break;
+            }
+        }
+    }
+
+    public void remove(Object value, IEntryCacheInfo pEntry) {
+        EntryOrdinalTable ordinals = _ordinals;
+        if (value == null || ordinals == null)
+            return;
+        int ordinal = ordinals.getOrdinal(pEntry);
+        if (ordinal < 0)
+            return;
+        //the bit is cleared before the ordinal is released, a released ordinal can be reassigned at once
+        ValueBitmap valueBitmap = _valueBitmaps.get(value);
+        if (valueBitmap != null) {
+            boolean empty;
+            synchronized (valueBitmap) {
+                valueBitmap._bitmap.remove(ordinal);
+                empty = valueBitmap._bitmap.isEmpty();
+                if (empty)
+                    valueBitmap._detached = true;
+            }
+            if (empty)
+                _valueBitmaps.remove(value, valueBitmap);
+        }
+        ordinals.release(pEntry);
+    }
+
+    /**
+     * @return a private copy of the bitmap of the entries holding the value
+     */
+    public CompressedBitmap getEntries(Object value) {
+        ValueBitmap valueBitmap = _valueBitmaps.get(value);
+        if (valueBitmap == null)
+            return new CompressedBitmap();
+        synchronized (valueBitmap) {
+            return valueBitmap._bitmap.copy();
+        }
+    }
+
+    /**
+     * @return a private copy of the bitmap of the entries holding a non-null value
+     */
+    public CompressedBitmap getNonNullEntries() {
+        CompressedBitmap res = new CompressedBitmap();
+        for (Object value : _valueBitmaps.keySet())
+            or(value, res);
+        return res;
+    }
+
+    /**
+     * intersects the target with the entries holding the value
+     */
+    public void and(Object value, CompressedBitmap target) {
+        ValueBitmap valueBitmap = _valueBitmaps.get(value);
+        if (valueBitmap == null) {
+            target.clear();
+            return;
+        }
+        synchronized (valueBitmap) {
+            target.and(valueBitmap._bitmap);
+        }
+    }
+
+    /**
+     * adds the entries holding the value to the target
+     */
+    public void or(Object value, CompressedBitmap target) {
+        ValueBitmap valueBitmap = _valueBitmaps.get(value);
+        if (valueBitmap == null)
+            return;
+        synchronized (valueBitmap) {
+            target.or(valueBitmap._bitmap);
+        }
+    }
+
+    public Set<Object> getValues() {
+        return _valueBitmaps.keySet();
+    }
+}
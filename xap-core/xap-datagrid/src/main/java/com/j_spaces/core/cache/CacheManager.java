@@ -39,6 +39,7 @@ import com.gigaspaces.internal.server.space.*;
 import com.gigaspaces.internal.server.space.SpaceEngine.EntryRemoveReasonCodes;
 import com.gigaspaces.internal.server.space.SpaceEngine.TemplateRemoveReasonCodes;
 import com.gigaspaces.internal.server.space.eviction.*;
+import com.gigaspaces.internal.server.space.index_advisor.QueryWorkloadRecorder;
 import com.gigaspaces.internal.server.space.metadata.IServerTypeDescListener;
 import com.gigaspaces.internal.server.space.metadata.SpaceTypeManager;
 import com.gigaspaces.internal.server.space.metadata.TypeDataFactory;
@@ -212,6 +213,7 @@ public class CacheManager extends AbstractCacheManager
 
     private final FifoBackgroundDispatcher _fifoBackgroundDispatcher;
     private final FifoGroupCacheImpl _fifoGroupCacheImpl;
+    private final QueryWorkloadRecorder _queryWorkloadRecorder;
 
     private MVCCCacheManagerHandler _mvccCacheManagerHandler;
 
@@ -381,6 +383,9 @@ public class CacheManager extends AbstractCacheManager
         _templatesManager = new TemplatesManager(this, numNotifyFifoThreads, numNonNotifyFifoThreads);
         _templateExpirationManager = new TemplateExpirationManager(this);
         _fifoGroupCacheImpl = new FifoGroupCacheImpl(this, _logger);
+        _queryWorkloadRecorder = new QueryWorkloadRecorder(
+                Boolean.parseBoolean(System.getProperty(SystemProperties.CACHE_MANAGER_INDEX_ADVISOR_ENABLED, SystemProperties.CACHE_MANAGER_INDEX_ADVISOR_ENABLED_DEFAULT)),
+                Integer.parseInt(System.getProperty(SystemProperties.CACHE_MANAGER_INDEX_ADVISOR_SAMPLE_RATE, SystemProperties.CACHE_MANAGER_INDEX_ADVISOR_SAMPLE_RATE_DEFAULT)));
         if (_engine.getSpaceImpl().isMvccEnabled()){
             _mvccCacheManagerHandler = new MVCCCacheManagerHandler(this);
         }
@@ -4595,6 +4600,8 @@ public class CacheManager extends AbstractCacheManager
         if (template.isFifoGroupPoll())
             return _fifoGroupCacheImpl.getScannableEntriesMinIndex(context, typeData, numOfFields, template);
         IStoredList<IEntryCacheInfo> res = getEntriesMinIndex(context, typeData, numOfFields, template);
+        if (_queryWorkloadRecorder.isEnabled())
+            _queryWorkloadRecorder.onScan(typeData, template, numOfFields, res);
         if (res != null && context.isIndicesIntersectionEnabled() && context.getChosenIntersectedList(false) != null)
             return context.getChosenIntersectedList(true/*final*/);
         if (res != null && !res.isMultiObjectCollection())
@@ -5018,6 +5025,9 @@ public class CacheManager extends AbstractCacheManager
                 || (entryType.isBlobStoreClass() && resultSL.size() > 0)) {
             final TypeDataIndex[] indexes = entryType.getIndexes();
             TypeDataIndex selectedShortestIndex = null;
+            //the ordered index scanned by resultOIS and its explain plan option
+            TypeDataIndex selectedRangeIndex = null;
+            IndexInfo selectedRangeIndexInfo = null;
             for (TypeDataIndex<Object> index : indexes) {
                 int pos = index.getPos();
                 if (pos >= numOfFields)
@@ -5130,7 +5140,9 @@ public class CacheManager extends AbstractCacheManager
                             continue; //ordered index not defined
                         }
                         indexUsed = true;
-                        if (resultOIS == null || entryType.isBlobStoreClass()) {
+                        //with estimated range sizes each range is considered, the cheapest is kept
+                        if (resultOIS == null || entryType.isBlobStoreClass()
+                                || (uidsSize == Integer.MAX_VALUE && IndexCostModel.hasEstimate(resultOIS))) {
                             final Object rangeValue = template.getRangeValue(pos);
                             final boolean isInclusive = rangeValue == null ? false : template.getRangeInclusion(pos);
                             //range limit passed- query with "up to" range
@@ -5144,6 +5156,8 @@ public class CacheManager extends AbstractCacheManager
                             }
                             if (resultOIS == null)
                                 return null;  //no values
+                            final boolean keepOriginalOIS = uidsSize != Integer.MAX_VALUE
+                                    || (originalOIS != null && !entryType.isBlobStoreClass() && IndexCostModel.isCheaper(originalOIS, resultOIS));
 
                             if (context.getExplainPlanContext() != null) {
                                 if (context.getExplainPlanContext().getMatch() == null) {
@@ -5173,25 +5187,39 @@ public class CacheManager extends AbstractCacheManager
                                 else {
                                     indexInfo = new IndexInfo(entryType.getProperty(pos).getName(), indexSize, index.getIndexType(), templateValue, ExplainPlanUtil.getQueryOperator(extendedMatchCode));
                                 }
+                                if (resultOIS.getEstimatedSize() >= 0)
+                                    indexInfo.setEstimatedSize(resultOIS.getEstimatedSize());
                                 context.getExplainPlanContext().getMatch().addOption(indexInfo);
-                                if (resultSL == null && uidsSize == Integer.MAX_VALUE) {
+                                if (resultSL == null && !keepOriginalOIS) {
                                     context.getExplainPlanContext().getMatch().setChosen(indexInfo);
                                 }
+                                if (!keepOriginalOIS)
+                                    selectedRangeIndexInfo = indexInfo;
                             }
 
-                            if (resultSL == null && uidsSize == Integer.MAX_VALUE) {
-                                selectedShortestIndex = index;
+                            if (!keepOriginalOIS) {
+                                selectedRangeIndex = index;
+                                if (resultSL == null)
+                                    selectedShortestIndex = index;
                             }
 
                             if (context.isIndicesIntersectionEnabled())
                                 intersectedList = addToIntersectedList(context, intersectedList, resultOIS, template.isFifoTemplate(), false/*shortest*/, entryType);
-                            if (uidsSize != Integer.MAX_VALUE)
+                            if (keepOriginalOIS)
                                 resultOIS = originalOIS;
                         }
                         break; //evaluate
                 }//switch
             } // for
 
+            //a range scan estimated to return less entries than the shortest list is scanned instead
+            if (resultSL != null && selectedRangeIndex != null && uidsSize == Integer.MAX_VALUE
+                    && IndexCostModel.isCheaper(resultOIS, resultSL.size())) {
+                selectedShortestIndex = selectedRangeIndex;
+                if (context.getExplainPlanContext() != null && selectedRangeIndexInfo != null)
+                    context.getExplainPlanContext().getMatch().setChosen(selectedRangeIndexInfo);
+            }
+
             if (context.getIndexMetricsContext() != null && selectedShortestIndex != null) {
                 context.getIndexMetricsContext().addChosenIndex(selectedShortestIndex.getUsageCounter());
             }
@@ -5218,7 +5246,8 @@ public class CacheManager extends AbstractCacheManager
             return resultOIS;
         }
 
-        if (resultOIS == null || (resultSL.size() < entryType.getEntries().size() && (uidsSize == Integer.MAX_VALUE || resultSL.size() <= uidsSize))) {
+        if (resultOIS == null || (resultSL.size() < entryType.getEntries().size() && (uidsSize == Integer.MAX_VALUE ?
+                !IndexCostModel.isCheaper(resultOIS, resultSL.size()) : resultSL.size() <= uidsSize))) {
             if (_logger.isTraceEnabled())
                 logSearchCompoundSelection(entryType, resultSL, compound_selection, compound_name);
             if (context.isIndicesIntersectionEnabled()) {
@@ -5280,6 +5309,8 @@ public class CacheManager extends AbstractCacheManager
         if (template.isFifoGroupPoll())
             return _fifoGroupCacheImpl.getScannableEntriesMinIndexExtended(context, entryType, numOfFields, template);
         Object chosen = getEntriesMinIndexExtended(context, entryType, numOfFields, template);
+        if (_queryWorkloadRecorder.isEnabled())
+            _queryWorkloadRecorder.onScan(entryType, template, numOfFields, chosen);
         if (chosen != null && context.isIndicesIntersectionEnabled() && context.getChosenIntersectedList(false) != null)
             return context.getChosenIntersectedList(true/*final*/);
         if (chosen != null && (chosen instanceof IEntryCacheInfo))
@@ -5959,6 +5990,10 @@ public class CacheManager extends AbstractCacheManager
         return _fifoGroupCacheImpl;
     }
 
+    public QueryWorkloadRecorder getQueryWorkloadRecorder() {
+        return _queryWorkloadRecorder;
+    }
+
     private void updateReplicationContextForUpdateEntry(IReplicationOutContext replicationContext, IEntryData originalData, Context context,
                                                         boolean[] partialUpdatedValuesIndicators) {
 
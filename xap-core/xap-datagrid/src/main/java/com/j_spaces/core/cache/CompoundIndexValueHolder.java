@@ -110,7 +110,12 @@ public class CompoundIndexValueHolder
                 continue;
             Comparable v1 = (Comparable) _values[i];
             Comparable v2 = (Comparable) o.getValueBySegment(i + 1);
-            if ((res = v1.compareTo(v2)) != 0)
+            //an edge of a range scan bound is compared by the edge, the segment value can't compare to it
+            if (v2 instanceof LowEdge || v2 instanceof HighEdge)
+                res = -v2.compareTo(v1);
+            else
+                res = v1.compareTo(v2);
+            if (res != 0)
                 return res;
         }
         return 0;
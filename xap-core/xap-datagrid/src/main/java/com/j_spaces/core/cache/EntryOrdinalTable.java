@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.core.cache;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Assigns a dense int ordinal to the entries of a type which are kept in bitmap indexes. An ordinal
+ * is reference counted by the bitmap indexes holding the entry and is recycled once the entry is
+ * removed from all of them, so the ordinal space stays close to the number of entries of the type.
+ *
+ * <p>The entry of an ordinal is kept in pages indexed by the ordinal. The ordinal of an entry is
+ * found in segments of open addressing tables keyed by the identity of the entry, which hold only
+ * the ordinal and its reference count, so no object is allocated per entry.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class EntryOrdinalTable {
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int SEGMENT_SHIFT = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_SHIFT;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    private final Segment[] _segments = new Segment[SEGMENTS];
+    //ordinal -> entry, grows by pages
+    private volatile AtomicReferenceArray<IEntryCacheInfo>[] _pages = new AtomicReferenceArray[0];
+    //guarded by this
+    private int[] _freeOrdinals = new int[16];
+    private int _numOfFreeOrdinals;
+    private int _nextOrdinal;
+
+    public EntryOrdinalTable() {
+        for (int i = 0; i < SEGMENTS; i++)
+            _segments[i] = new Segment();
+    }
+
+    /**
+     * linear probing table of the ordinals of the entries whose identity hash falls in the segment,
+     * guarded by its monitor
+     */
+    private final class Segment {
+        //ordinal + 1 per slot, 0 marks an empty slot
+        private int[] _slots = new int[INITIAL_SEGMENT_CAPACITY];
+        private int[] _refs = new int[INITIAL_SEGMENT_CAPACITY];
+        private int _size;
+
+        private int find(IEntryCacheInfo pEntry, int hash) {
+            int mask = _slots.length - 1;
+            for (int i = (hash >>> SEGMENT_SHIFT) & mask; _slots[i] != 0; i = (i + 1) & mask)
+                if (getEntry(_slots[i] - 1) == pEntry)
+                    return i;
+            return -1;
+        }
+
+        private int acquire(IEntryCacheInfo pEntry, int hash) {
+            int slot = find(pEntry, hash);
+            if (slot >= 0) {
+                _refs[slot]++;
+                return _slots[slot] - 1;
+            }
+            if ((_size + 1) * 2 > _slots.length)
+                resize();
+            int ordinal = allocate();
+            setEntry(ordinal, pEntry);
+            place(hash, ordinal + 1, 1);
+            _size++;
+            return ordinal;
+        }
+
+        private void release(IEntryCacheInfo pEntry, int hash) {
+            int slot = find(pEntry, hash);
+            if (slot < 0 || --_refs[slot] > 0)
+                return;
+            int ordinal = _slots[slot] - 1;
+            delete(slot);
+            _size--;
+            setEntry(ordinal, null);
+            free(ordinal);
+        }
+
+        private void place(int hash, int slotValue, int refs) {
+            int mask = _slots.length - 1;
+            int i = (hash >>> SEGMENT_SHIFT) & mask;
+            while (_slots[i] != 0)
+                i = (i + 1) & mask;
+            _slots[i] = slotValue;
+            _refs[i] = refs;
+        }
+
+        /**
+         * empties the slot and shifts back the following slots of the probe sequence, so lookups
+         * need no tombstones
+         */
+        private void delete(int slot) {
+            int mask = _slots.length - 1;
+            int i = slot;
+            for (int j = (i + 1) & mask; _slots[j] != 0; j = (j + 1) & mask) {
+                int home = (hash(getEntry(_slots[j] - 1)) >>> SEGMENT_SHIFT) & mask;
+                //the slot may move back to i only if its home is not within (i, j]
+                if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                    _slots[i] = _slots[j];
+                    _refs[i] = _refs[j];
+                    i = j;
+                }
+            }
+            _slots[i] = 0;
+            _refs[i] = 0;
+        }
+
+        private void resize() {
+            int[] slots = _slots;
+            int[] refs = _refs;
+            _slots = new int[slots.length * 2];
+            _refs = new int[refs.length * 2];
+            for (int i = 0; i < slots.length; i++)
+                if (slots[i] != 0)
+                    place(hash(getEntry(slots[i] - 1)), slots[i], refs[i]);
+        }
+    }
+
+    private static int hash(IEntryCacheInfo pEntry) {
+        int h = System.identityHashCode(pEntry);
+        return h ^ (h >>> 16);
+    }
+
+    private Segment segmentFor(int hash) {
+        return _segments[hash & (SEGMENTS - 1)];
+    }
+
+    /**
+     * @return the ordinal of the entry, a new ordinal is assigned if the entry has none
+     */
+    public int acquire(IEntryCacheInfo pEntry) {
+        int hash = hash(pEntry);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            return segment.acquire(pEntry, hash);
+        }
+    }
+
+    /**
+     * @return the ordinal of the entry, -1 if the entry has none
+     */
+    public int getOrdinal(IEntryCacheInfo pEntry) {
+        int hash = hash(pEntry);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.find(pEntry, hash);
+            return slot >= 0 ? segment._slots[slot] - 1 : -1;
+        }
+    }
+
+    /**
+     * drops a reference to the ordinal of the entry, the ordinal is recycled when no reference is
+     * left
+     */
+    public void release(IEntryCacheInfo pEntry) {
+        int hash = hash(pEntry);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            segment.release(pEntry, hash);
+        }
+    }
+
+    /**
+     * @return the entry currently holding the ordinal, null if none
+     */
+    public IEntryCacheInfo getEntry(int ordinal) {
+        AtomicReferenceArray<IEntryCacheInfo>[] pages = _pages;
+        int page = ordinal >>> PAGE_SHIFT;
+        return page < pages.length ? pages[page].get(ordinal & (PAGE_SIZE - 1)) : null;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : _segments) {
+            synchronized (segment) {
+                size += segment._size;
+            }
+        }
+        return size;
+    }
+
+    private synchronized int allocate() {
+        if (_numOfFreeOrdinals > 0)
+            return _freeOrdinals[--_numOfFreeOrdinals];
+        int ordinal = _nextOrdinal++;
+        if ((ordinal >>> PAGE_SHIFT) >= _pages.length) {
+            AtomicReferenceArray<IEntryCacheInfo>[] pages = new AtomicReferenceArray[_pages.length + 1];
+            System.arraycopy(_pages, 0, pages, 0, _pages.length);
+            pages[_pages.length] = new AtomicReferenceArray<IEntryCacheInfo>(PAGE_SIZE);
+            _pages = pages;
+        }
+        return ordinal;
+    }
+
+    private synchronized void free(int ordinal) {
+        if (_numOfFreeOrdinals == _freeOrdinals.length) {
+            int[] freeOrdinals = new int[_freeOrdinals.length * 2];
+            System.arraycopy(_freeOrdinals, 0, freeOrdinals, 0, _numOfFreeOrdinals);
+            _freeOrdinals = freeOrdinals;
+        }
+        _freeOrdinals[_numOfFreeOrdinals++] = ordinal;
+    }
+
+    private void setEntry(int ordinal, IEntryCacheInfo pEntry) {
+        _pages[ordinal >>> PAGE_SHIFT].set(ordinal & (PAGE_SIZE - 1), pEntry);
+    }
+}
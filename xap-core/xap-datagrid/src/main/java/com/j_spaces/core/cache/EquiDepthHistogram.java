@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.core.cache;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Immutable equi-depth histogram of the values of an ordered index. Each bucket holds about the
+ * same number of entries and is described by its inclusive upper bound, so that the number of
+ * entries in a range can be estimated regardless of the value distribution. Numeric and date
+ * values are interpolated inside a bucket, other values are assumed to fall in its middle.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class EquiDepthHistogram {
+    private final Object _lowerBound;
+    private final Object[] _upperBounds;
+    //number of entries up to and including each bucket
+    private final long[] _cumulativeCounts;
+    private final long[] _distinctCounts;
+
+    private EquiDepthHistogram(Object lowerBound, Object[] upperBounds, long[] cumulativeCounts, long[] distinctCounts) {
+        _lowerBound = lowerBound;
+        _upperBounds = upperBounds;
+        _cumulativeCounts = cumulativeCounts;
+        _distinctCounts = distinctCounts;
+    }
+
+    /**
+     * @return the number of entries the histogram was built from
+     */
+    public long getTotal() {
+        return _cumulativeCounts.length == 0 ? 0 : _cumulativeCounts[_cumulativeCounts.length - 1];
+    }
+
+    public int getNumOfBuckets() {
+        return _upperBounds.length;
+    }
+
+    /**
+     * @param from          lower limit of the range, null if unlimited
+     * @param fromInclusive is the lower limit included
+     * @param to            upper limit of the range, null if unlimited
+     * @param toInclusive   is the upper limit included
+     * @return the estimated number of entries in the range
+     */
+    public long estimate(Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+        long below = from == null ? 0 : countBelow(from, !fromInclusive);
+        long upTo = to == null ? getTotal() : countBelow(to, toInclusive);
+        return Math.max(0, upTo - below);
+    }
+
+    /**
+     * @return the estimated number of entries holding a value less than (or equal to) the given
+     * value
+     */
+    private long countBelow(Object value, boolean inclusive) {
+        int bucket = findBucket(value);
+        if (bucket == _upperBounds.length)
+            return getTotal();
+        long before = bucket == 0 ? 0 : _cumulativeCounts[bucket - 1];
+        long count = _cumulativeCounts[bucket] - before;
+        double perValue = (double) count / _distinctCounts[bucket];
+        if (compare(value, _upperBounds[bucket]) == 0)
+            return before + Math.round(inclusive ? count : count - perValue);
+
+        Object lower = bucket == 0 ? _lowerBound : _upperBounds[bucket - 1];
+        if (bucket == 0) {
+            int cmp = compare(value, lower);
+            if (cmp < 0)
+                return 0;
+            if (cmp == 0)
+                return inclusive ? Math.round(perValue) : 0;
+        }
+        double fraction = interpolate(lower, _upperBounds[bucket], value);
+        return before + Math.round(fraction * count);
+    }
+
+    /**
+     * @return the first bucket whose upper bound is not less than the value
+     */
+    private int findBucket(Object value) {
+        int low = 0;
+        int high = _upperBounds.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(_upperBounds[mid], value) < 0)
+                low = mid + 1;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    private static int compare(Object o1, Object o2) {
+        return ((Comparable) o1).compareTo(o2);
+    }
+
+    private static double interpolate(Object lower, Object upper, Object value) {
+        double l, u, v;
+        if (lower instanceof Number && upper instanceof Number && value instanceof Number) {
+            l = ((Number) lower).doubleValue();
+            u = ((Number) upper).doubleValue();
+            v = ((Number) value).doubleValue();
+        } else if (lower instanceof Date && upper instanceof Date && value instanceof Date) {
+            l = ((Date) lower).getTime();
+            u = ((Date) upper).getTime();
+            v = ((Date) value).getTime();
+        } else {
+            return 0.5;
+        }
+        if (!(u > l))
+            return 0.5;
+        return Math.min(1, Math.max(0, (v - l) / (u - l)));
+    }
+
+    @Override
+    public String toString() {
+        return "EquiDepthHistogram{buckets=" + getNumOfBuckets() + ", total=" + getTotal() + "}";
+    }
+
+    /**
+     * Builds a histogram from the values of an index in ascending order.
+     */
+    public static class Builder {
+        private final long _depth;
+        private final List<Object> _upperBounds = new ArrayList<Object>();
+        private final List<long[]> _counts = new ArrayList<long[]>();
+        private Object _lowerBound;
+        private Object _last;
+        private long _bucketCount;
+        private long _bucketDistinct;
+
+        /**
+         * @param expectedTotal expected number of entries, determines the depth of the buckets
+         * @param numOfBuckets  desired number of buckets
+         */
+        public Builder(long expectedTotal, int numOfBuckets) {
+            _depth = Math.max(1, expectedTotal / Math.max(1, numOfBuckets));
+        }
+
+        /**
+         * adds a value greater than all the values added so far
+         *
+         * @param count number of entries holding the value
+         */
+        public Builder add(Object value, long count) {
+            if (count <= 0)
+                return this;
+            if (_lowerBound == null)
+                _lowerBound = value;
+            //a frequent value gets a bucket of its own so its count is kept exact
+            if (count >= _depth && _bucketCount > 0)
+                closeBucket();
+            _last = value;
+            _bucketCount += count;
+            _bucketDistinct++;
+            if (_bucketCount >= _depth)
+                closeBucket();
+            return this;
+        }
+
+        public EquiDepthHistogram build() {
+            if (_bucketCount > 0)
+                closeBucket();
+            int size = _upperBounds.size();
+            long[] cumulative = new long[size];
+            long[] distinct = new long[size];
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += _counts.get(i)[0];
+                cumulative[i] = sum;
+                distinct[i] = _counts.get(i)[1];
+            }
+            return new EquiDepthHistogram(_lowerBound, _upperBounds.toArray(), cumulative, distinct);
+        }
+
+        private void closeBucket() {
+            _upperBounds.add(_last);
+            _counts.add(new long[]{_bucketCount, _bucketDistinct});
+            _bucketCount = 0;
+            _bucketDistinct = 0;
+        }
+    }
+}
@@ -19,19 +19,22 @@ package com.j_spaces.core.cache;
 
 import com.gigaspaces.internal.server.storage.IEntryHolder;
 import com.gigaspaces.internal.utils.collections.CheckedConcurrentSkipListMap;
+import com.gigaspaces.internal.utils.collections.ConcurrentBTreeMap;
 import com.j_spaces.core.client.DuplicateIndexValueException;
 import com.j_spaces.core.client.TemplateMatchCodes;
 import com.j_spaces.kernel.IObjectInfo;
 import com.j_spaces.kernel.IStoredList;
-import com.j_spaces.kernel.StoredListFactory;
+import com.j_spaces.kernel.SystemProperties;
 import com.j_spaces.kernel.list.IScanListIterator;
 import com.j_spaces.kernel.list.MultiStoredList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Map;
 import java.util.NavigableMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Handles data manipulation of space extended index
@@ -44,17 +47,26 @@ import java.util.concurrent.ConcurrentSkipListMap;
 public class ExtendedIndexHandler<K>
         implements IExtendedEntriesIndex<K, IEntryCacheInfo> {
     private static final Logger _logger = LoggerFactory.getLogger(com.gigaspaces.logger.Constants.LOGGER_CACHE);
-    private final ConcurrentSkipListMap<Object, IStoredList<IEntryCacheInfo>> _orderedStore;
-    private final ConcurrentSkipListMap<Object, IEntryCacheInfo> _uniqueOrderedStore;
+    private final ConcurrentNavigableMap<Object, IStoredList<IEntryCacheInfo>> _orderedStore;
+    private final ConcurrentNavigableMap<Object, IEntryCacheInfo> _uniqueOrderedStore;
     private final TypeDataIndex _index;
     private final RecentExtendedIndexUpdates _recentExtendedIndexUpdates;
+    private volatile EquiDepthHistogram _histogram;
+    //index modifications count when the histogram was built
+    private volatile long _histogramModifications;
+    private final AtomicBoolean _histogramRebuilding = new AtomicBoolean();
 
     private static final boolean FORCE_ORDERED_SCAN = true;
+    private static final int HISTOGRAM_BUCKETS = 64;
+    //the histogram is rebuilt once the index was modified by this fraction of the entries it was built from
+    private static final double HISTOGRAM_REBUILD_RATIO = 0.1;
+    private static final int HISTOGRAM_MIN_REBUILD_MODIFICATIONS = 1000;
+    private static final boolean USE_BTREE_ORDERED_STORE = Boolean.parseBoolean(System.getProperty(SystemProperties.CACHE_MANAGER_BTREE_ORDERED_INDEX, SystemProperties.CACHE_MANAGER_BTREE_ORDERED_INDEX_DEFAULT));
 
     public ExtendedIndexHandler(TypeDataIndex index) {
         _index = index;
-        _orderedStore = new CheckedConcurrentSkipListMap<>();
-        _uniqueOrderedStore = _index.isUniqueIndex() ? (ConcurrentSkipListMap<Object, IEntryCacheInfo>) ((ConcurrentSkipListMap) _orderedStore) : null;
+        _orderedStore = USE_BTREE_ORDERED_STORE ? new ConcurrentBTreeMap<Object, IStoredList<IEntryCacheInfo>>() : new CheckedConcurrentSkipListMap<Object, IStoredList<IEntryCacheInfo>>();
+        _uniqueOrderedStore = _index.isUniqueIndex() ? (ConcurrentNavigableMap<Object, IEntryCacheInfo>) ((ConcurrentNavigableMap) _orderedStore) : null;
         if (index.getCacheManager().getEngine().getLeaseManager().isSupportsRecentExtendedUpdates())
             _recentExtendedIndexUpdates = new RecentExtendedIndexUpdates(index.getCacheManager());
         else
@@ -63,7 +75,7 @@ public class ExtendedIndexHandler<K>
 
 
     @Override
-    public ConcurrentSkipListMap<Object, IStoredList<IEntryCacheInfo>> getOrderedStore() {
+    public ConcurrentNavigableMap<Object, IStoredList<IEntryCacheInfo>> getOrderedStore() {
         return _orderedStore;
     }
 
@@ -148,7 +160,7 @@ public class ExtendedIndexHandler<K>
                 }
                 //a single object is stored, create a SL and add it
                 if (newSL == null)
-                    newSL = StoredListFactory.createConcurrentList(pType.isAllowFifoIndexScans());
+                    newSL = _index.createValueList(pType.isAllowFifoIndexScans());
 
                 otheroi = newSL.addUnlocked(currentSL.getObjectFromHead());
                 myoi = newSL.addUnlocked(pEntry);
@@ -291,9 +303,11 @@ public class ExtendedIndexHandler<K>
     public IScanListIterator<IEntryCacheInfo> establishScan(K startPos, short relation, K endPos, boolean endPosInclusive, boolean ordered) {
         ordered |= FORCE_ORDERED_SCAN; //should we force ordered scan always ?
         long startTime = _recentExtendedIndexUpdates != null ? System.currentTimeMillis() : 0;
-        IScanListIterator<IEntryCacheInfo> res = ordered ?
+        ExtendedIndexIterator<IEntryCacheInfo> res = ordered ?
                 establishScanOrdered(startPos, relation, endPos, endPosInclusive) :
                 establishScanUnOrdered(startPos, relation, endPos, endPosInclusive);
+        if (IndexCostModel.isEnabled())
+            res.setEstimatedSize(estimateScanSize(startPos, relation, endPos, endPosInclusive));
 
         if (_recentExtendedIndexUpdates != null && !_recentExtendedIndexUpdates.isEmpty()) {
             MultiStoredList<IEntryCacheInfo> msl = new MultiStoredList<>();
@@ -360,6 +374,76 @@ public class ExtendedIndexHandler<K>
         return new ExtendedIndexIterator<>(mapToScan, _index,originalStart,originalStartCondition, originalEnd,originalEndCondition);
     }
 
+    /**
+     * estimates the number of entries a scan established with the same arguments returns, see
+     * {@link #establishScan(Object, short, Object, boolean)}
+     *
+     * @return the estimated number of entries, -1 if unknown
+     */
+    public int estimateScanSize(Object startPos, short relation, Object endPos, boolean endPosInclusive) {
+        EquiDepthHistogram histogram = getHistogram();
+        if (histogram == null || histogram.getTotal() == 0)
+            return -1;
+        boolean reversedScan = (relation == TemplateMatchCodes.LT || relation == TemplateMatchCodes.LE);
+        long estimate;
+        try {
+            estimate = reversedScan ?
+                    histogram.estimate(endPos, endPosInclusive, startPos, relation == TemplateMatchCodes.LE) :
+                    histogram.estimate(startPos, relation == TemplateMatchCodes.GE, endPos, endPosInclusive);
+        } catch (ClassCastException e) {
+            return -1; //value not comparable with the indexed values
+        }
+        //scale to the current number of values
+        double scaled = (double) estimate * _index.getStatistics().getNumOfValues() / histogram.getTotal();
+        return (int) Math.min(Integer.MAX_VALUE, Math.round(scaled));
+    }
+
+    /**
+     * @return the last histogram of the index values, null if none was built yet or the cost based
+     * index choice is disabled. When the index was modified considerably since it was built a new
+     * one is built in the background, the calling thread never scans the index.
+     */
+    public EquiDepthHistogram getHistogram() {
+        IndexStatistics statistics = _index.getStatistics();
+        if (statistics == null)
+            return null;
+        EquiDepthHistogram histogram = _histogram;
+        long modifications = statistics.getNumOfModifications();
+        if (histogram != null && modifications - _histogramModifications <
+                Math.max(HISTOGRAM_MIN_REBUILD_MODIFICATIONS, (long) (histogram.getTotal() * HISTOGRAM_REBUILD_RATIO)))
+            return histogram;
+        if (_histogramRebuilding.compareAndSet(false, true)) {
+            try {
+                IndexCostModel.buildHistogram(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            buildHistogram();
+                        } finally {
+                            _histogramRebuilding.set(false);
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                _histogramRebuilding.set(false);
+                throw e;
+            }
+        }
+        return histogram;
+    }
+
+    private void buildHistogram() {
+        IndexStatistics statistics = _index.getStatistics();
+        long modifications = statistics.getNumOfModifications();
+        EquiDepthHistogram.Builder builder = new EquiDepthHistogram.Builder(statistics.getNumOfValues(), HISTOGRAM_BUCKETS);
+        for (Map.Entry<Object, IStoredList<IEntryCacheInfo>> entry : _orderedStore.entrySet()) {
+            IStoredList<IEntryCacheInfo> entries = entry.getValue();
+            builder.add(entry.getKey(), entries.isMultiObjectCollection() ? entries.size() : 1);
+        }
+        _histogramModifications = modifications;
+        _histogram = builder.build();
+    }
+
     public Object getMin() {
         return _orderedStore.firstKey();
     }
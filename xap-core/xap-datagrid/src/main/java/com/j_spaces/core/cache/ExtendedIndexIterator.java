@@ -43,6 +43,9 @@ public class ExtendedIndexIterator<V>
     private final short _originalStartCondition;
     private final Object _originalEnd;
     private final short _originalEndCondition;
+    private int _estimatedSize = -1;
+    //the path the returned entries are ascending by, null if unknown
+    private String _orderedByPath;
 
     public ExtendedIndexIterator(NavigableMap mapToScan, TypeDataIndex idx,
                                  Object originalStart,short originalStartCondition,Object originalEnd, short originalEndCondition){
@@ -210,4 +213,26 @@ public class ExtendedIndexIterator<V>
         this._rightColumnPosition = rightColumnPosition;
     }
 
+    @Override
+    public int getEstimatedSize() {
+        return _estimatedSize;
+    }
+
+    public void setEstimatedSize(int estimatedSize) {
+        this._estimatedSize = estimatedSize;
+    }
+
+    /**
+     * @return the path the scanned entries are ascending by, null if they are not known to be
+     * ordered by a path
+     * @since 16.5
+     */
+    public String getOrderedByPath() {
+        return _orderedByPath;
+    }
+
+    public void setOrderedByPath(String orderedByPath) {
+        this._orderedByPath = orderedByPath;
+    }
+
 }
@@ -26,7 +26,7 @@ import com.j_spaces.kernel.IStoredList;
 
 import java.util.NavigableMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentNavigableMap;
 
 /**
  * Handles extended index of fifo groups scans
@@ -40,7 +40,7 @@ public class FifoGroupsExtendedIndexHandler<K>
         implements IExtendedEntriesIndex<K, IEntryCacheInfo> {
     private final IExtendedIndex<K, IEntryCacheInfo> _base;
 
-    private final ConcurrentSkipListMap<Object, IStoredList<IEntryCacheInfo>> _orderedStore;
+    private final ConcurrentNavigableMap<Object, IStoredList<IEntryCacheInfo>> _orderedStore;
     private final TypeDataIndex _index;
     private final RecentExtendedIndexUpdates _recentExtendedIndexUpdates;
 
@@ -183,7 +183,7 @@ public class FifoGroupsExtendedIndexHandler<K>
     }
 
     @Override
-    public ConcurrentSkipListMap<Object, IStoredList<IEntryCacheInfo>> getOrderedStore() {
+    public ConcurrentNavigableMap<Object, IStoredList<IEntryCacheInfo>> getOrderedStore() {
         throw new UnsupportedOperationException();
     }
 
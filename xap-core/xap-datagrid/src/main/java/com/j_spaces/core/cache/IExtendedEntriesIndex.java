@@ -27,7 +27,7 @@ package com.j_spaces.core.cache;
 import com.j_spaces.kernel.IStoredList;
 
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentNavigableMap;
 
 /**
  * Created by yechielf on 09/08/2015.
@@ -40,7 +40,7 @@ public interface IExtendedEntriesIndex<K, V> extends IExtendedIndex<K, V> {
 
     ConcurrentMap<Object, IEntryCacheInfo> getUniqueEntriesStore();
 
-    ConcurrentSkipListMap<Object, IStoredList<IEntryCacheInfo>> getOrderedStore();
+    ConcurrentNavigableMap<Object, IStoredList<IEntryCacheInfo>> getOrderedStore();
 
     void onUpdate(IEntryCacheInfo eci);
 
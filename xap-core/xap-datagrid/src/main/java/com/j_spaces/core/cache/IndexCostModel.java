@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.core.cache;
+
+import com.gigaspaces.internal.utils.concurrent.GSThreadFactory;
+import com.j_spaces.kernel.SystemProperties;
+import com.j_spaces.kernel.list.IScanListIterator;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost rules used when choosing the index a query scans. Index lists have an exact size, range
+ * scans of ordered indexes carry a size estimated from the index histogram (see {@link
+ * ExtendedIndexHandler#estimateScanSize}); the cheapest candidate is the one expected to return
+ * the least entries. The histograms are built in the background, off the query threads.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public final class IndexCostModel {
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(SystemProperties.CACHE_MANAGER_COST_BASED_INDEX_CHOICE, SystemProperties.CACHE_MANAGER_COST_BASED_INDEX_CHOICE_DEFAULT));
+
+    //a range scan navigates the ordered index per value and its size is only estimated,
+    //it replaces an index list only when clearly cheaper
+    private static final int RANGE_SCAN_COST_FACTOR = 2;
+
+    private IndexCostModel() {
+    }
+
+    //created on first use, its thread ends once idle
+    private static final class HistogramBuilder {
+        private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ThreadPoolExecutor createExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new GSThreadFactory("IndexHistogramBuilder", true));
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * runs a histogram build on the shared background thread
+     */
+    static void buildHistogram(Runnable build) {
+        HistogramBuilder.EXECUTOR.execute(build);
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return true if the scan has no exact size but a size estimate
+     */
+    public static boolean hasEstimate(IScanListIterator<?> scan) {
+        return ENABLED && scan != null && !scan.hasSize() && scan.getEstimatedSize() >= 0;
+    }
+
+    /**
+     * @return true if the scan is expected to be cheaper than scanning an index list of the given
+     * size
+     */
+    public static boolean isCheaper(IScanListIterator<?> scan, int listSize) {
+        return hasEstimate(scan) && (long) scan.getEstimatedSize() * RANGE_SCAN_COST_FACTOR < listSize;
+    }
+
+    /**
+     * @return true if both scans have estimates and the first is expected to be cheaper
+     */
+    public static boolean isCheaper(IScanListIterator<?> scan, IScanListIterator<?> other) {
+        return hasEstimate(scan) && hasEstimate(other) && scan.getEstimatedSize() < other.getEstimatedSize();
+    }
+}
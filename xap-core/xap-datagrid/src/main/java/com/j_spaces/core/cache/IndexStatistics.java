@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.core.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of an entries index, updated incrementally as non-null values are inserted to and
+ * removed from the index store. The counters are not synchronized with the store and serve as
+ * estimates only.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class IndexStatistics {
+    private final LongAdder _numOfValues = new LongAdder();
+    private final LongAdder _numOfModifications = new LongAdder();
+
+    /**
+     * a non-null value was indexed for an entry
+     */
+    void onValueInserted() {
+        _numOfValues.increment();
+        _numOfModifications.increment();
+    }
+
+    /**
+     * a non-null value of an entry was removed from the index
+     */
+    void onValueRemoved() {
+        _numOfValues.decrement();
+        _numOfModifications.increment();
+    }
+
+    /**
+     * @return the number of non-null values kept in the index
+     */
+    public long getNumOfValues() {
+        return Math.max(0, _numOfValues.sum());
+    }
+
+    /**
+     * @return the number of insertions and removals since the index was created
+     */
+    public long getNumOfModifications() {
+        return _numOfModifications.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "IndexStatistics{values=" + getNumOfValues() + ", modifications=" + getNumOfModifications() + "}";
+    }
+}
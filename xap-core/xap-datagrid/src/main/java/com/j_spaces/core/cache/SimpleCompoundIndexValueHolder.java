@@ -99,19 +99,22 @@ public class SimpleCompoundIndexValueHolder
 
         int res = 0;
         if (o.getValueBySegment(1) != _val1) {
-            Comparable v1 = (Comparable) _val1;
-            Comparable v2 = (Comparable) o.getValueBySegment(1);
-            if ((res = v1.compareTo(v2)) != 0)
+            if ((res = compareSegment(_val1, o.getValueBySegment(1))) != 0)
                 return res;
         }
         if (o.getValueBySegment(2) != _val2) {
-            Comparable v1 = (Comparable) _val2;
-            Comparable v2 = (Comparable) o.getValueBySegment(2);
-            res = v1.compareTo(v2);
+            res = compareSegment(_val2, o.getValueBySegment(2));
         }
         return res;
     }
 
+    private static int compareSegment(Object value, Object other) {
+        //an edge of a range scan bound is compared by the edge, the segment value can't compare to it
+        if (other instanceof LowEdge || other instanceof HighEdge)
+            return -((Comparable) other).compareTo(value);
+        return ((Comparable) value).compareTo(other);
+    }
+
     public Object[] getValues() {
         return new Object[]{_val1, _val2};
     }
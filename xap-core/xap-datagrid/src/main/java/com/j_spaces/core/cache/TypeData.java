@@ -148,6 +148,8 @@ public class TypeData {
     private final SequenceNumberGenerator _sequenceNumberGenerator;
     private final TypeDataIndex<?> _sequenceNumberIndex; //null if not indexed or undefined
     private final LongCounter _mvccUidsLogicallyDeletedCounter;
+    //dense ordinals of the entries kept in bitmap indexes, shared by the replacing type-data
+    private final EntryOrdinalTable _entryOrdinals;
 
     //reasons for replacing type-data
     public static enum TypeDataRecreationReasons {
@@ -170,6 +172,7 @@ public class TypeData {
             throw new IllegalArgumentException("Cannot create TypeData for inactive type descriptor - '" + serverTypeDesc.getTypeName() + "'.");
 
         _cacheManager = typeDataFactory.getCcheManager();
+        _entryOrdinals = new EntryOrdinalTable();
         _nextInFifoOrder = new AtomicInteger(0);
         m_NumRegularNotifyTemplatesStored = new AtomicInteger(0);
         _numDurableNotifyTemplatesStored = new AtomicInteger(0);
@@ -455,6 +458,7 @@ public class TypeData {
 
         _entries = originalTypeData._entries;
         _typeLock = originalTypeData._typeLock;
+        _entryOrdinals = originalTypeData._entryOrdinals;
 
         _hasInitialIndexes = originalTypeData._hasInitialIndexes;
         _anyInitialExtendedIndex = originalTypeData._anyInitialExtendedIndex;
@@ -761,6 +765,10 @@ public class TypeData {
         return _entries;
     }
 
+    public EntryOrdinalTable getEntryOrdinals() {
+        return _entryOrdinals;
+    }
+
     public IScanListIterator<IEntryCacheInfo> scanTypeEntries()
     {
         if (getEntries() == null)
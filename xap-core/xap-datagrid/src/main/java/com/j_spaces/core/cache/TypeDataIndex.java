@@ -31,6 +31,8 @@ import com.gigaspaces.internal.server.storage.IEntryData;
 import com.gigaspaces.internal.server.storage.IEntryHolder;
 import com.gigaspaces.internal.server.storage.ShadowEntryHolder;
 import com.gigaspaces.internal.utils.StringUtils;
+import com.gigaspaces.internal.utils.collections.ConcurrentIntKeyHashMap;
+import com.gigaspaces.internal.utils.collections.ConcurrentLongKeyHashMap;
 import com.gigaspaces.internal.utils.collections.economy.EconomyConcurrentHashMap;
 import com.gigaspaces.internal.utils.collections.economy.HashEntryHandlerSpaceEntry;
 import com.gigaspaces.internal.utils.collections.economy.IEconomyConcurrentMap;
@@ -117,6 +119,8 @@ public class TypeDataIndex<K> {
     private int _estimatedUniqueNonNullValues;
 
     private final boolean _useEconomyHashMap;
+    //keep the entries of a value in a list which is striped once it becomes contended
+    private final boolean _useStripedLists;
 
     private Class<?> _valueType;
 
@@ -143,6 +147,12 @@ public class TypeDataIndex<K> {
     //thin extended index ==> only skip-list no hash map
     private final boolean _thinExtendedIndex;
 
+    //per-value entry bitmaps of a BITMAP index, kept in addition to the hash store
+    private final BitmapIndex _bitmapIndex;
+
+    //counts of the non-null values of an ordered index, kept only for the cost based index choice
+    private final IndexStatistics _statistics;
+
     private static final Set<String> _immutableTypes = initImmutableTypes();
 
     public TypeDataIndex(CacheManager cacheManager, ISpaceIndex index, int pos, boolean useEconomyHashmap, int indexCreationNumber) {
@@ -158,6 +168,7 @@ public class TypeDataIndex<K> {
         this._logger = LoggerFactory.getLogger(com.gigaspaces.logger.Constants.LOGGER_CACHE + "." + cacheManager.getEngine().getSpaceImpl().getNodeName());
         _cacheManager = cacheManager;
         _useEconomyHashMap = useEconomyHashmap;
+        _useStripedLists = Boolean.parseBoolean(System.getProperty(SystemProperties.ENGINE_STORED_LIST_STRIPED, SystemProperties.ENGINE_STORED_LIST_STRIPED_DEFAULT));
         _indexCreationNumber = indexCreationNumber;
 
         this._position = pos;
@@ -165,6 +176,8 @@ public class TypeDataIndex<K> {
         _thinExtendedIndex = _indexType == SpaceIndexType.ORDERED ;
         _indexDefinition = index;
         _unique = index.isUnique();
+        //a multi-value index may hold the same value twice per entry- not a set, no bitmap kept
+        _bitmapIndex = _indexType == SpaceIndexType.BITMAP && !_unique && !index.isMultiValuePerEntryIndex() ? new BitmapIndex() : null;
         int numOfCHMSegents = Integer.getInteger(SystemProperties.CACHE_MANAGER_HASHMAP_SEGMENTS, SystemProperties.CACHE_MANAGER_HASHMAP_SEGMENTS_DEFAULT);
 
         if (!_thinExtendedIndex) {
@@ -172,8 +185,8 @@ public class TypeDataIndex<K> {
                 this._uniqueEntriesStore = index.isUnique() ? new EconomyConcurrentHashMap<Object, IEntryCacheInfo>(16, 0.75f, numOfCHMSegents, new HashEntryHandlerSpaceEntry(pos)) : null;
                 this._nonUniqueEntriesStore = new EconomyConcurrentHashMap<Object, IStoredList<IEntryCacheInfo>>(16, 0.75f, numOfCHMSegents, new HashEntryHandlerSpaceEntry<Object>(pos));
             } else {
-                this._uniqueEntriesStore = index.isUnique() ? new ConcurrentHashMap<Object, IEntryCacheInfo>(16, 0.75f, numOfCHMSegents) : null;
-                this._nonUniqueEntriesStore = new ConcurrentHashMap<Object, IStoredList<IEntryCacheInfo>>(16, 0.75f, numOfCHMSegents);
+                this._uniqueEntriesStore = index.isUnique() ? TypeDataIndex.<IEntryCacheInfo>createEntriesStore(valueClass, numOfCHMSegents) : null;
+                this._nonUniqueEntriesStore = TypeDataIndex.<IStoredList<IEntryCacheInfo>>createEntriesStore(valueClass, numOfCHMSegents);
             }
         } else {
             this._uniqueEntriesStore = null;
@@ -187,6 +200,7 @@ public class TypeDataIndex<K> {
         _RTNullTemplates = StoredListFactory.createConcurrentSegmentedList(true/* supportFifoPerSegment*/,1 /* inputNumOfSegments*/,true /* padded*/);
         _NNullTemplates = StoredListFactory.createConcurrentSegmentedList(true/* supportFifoPerSegment*/,1 /* inputNumOfSegments*/,true /* padded*/);
 
+        _statistics = _indexType.isOrdered() && IndexCostModel.isEnabled() ? new IndexStatistics() : null;
         if (_indexType.isOrdered()) {
             _concurrentExtendedIndex = new ExtendedIndexHandler<K>(this);
 
@@ -241,10 +255,39 @@ public class TypeDataIndex<K> {
         }
     }
 
+    /**
+     * index values of a long/int property are kept unboxed in the hash store- no per-value node or
+     * key object is retained by the index
+     */
+    private static <V> ConcurrentMap<Object, V> createEntriesStore(Class<?> valueClass, int numOfSegments) {
+        if (valueClass != null && Boolean.parseBoolean(System.getProperty(SystemProperties.CACHE_MANAGER_PRIMITIVE_KEY_INDEX, SystemProperties.CACHE_MANAGER_PRIMITIVE_KEY_INDEX_DEFAULT))) {
+            if (valueClass == long.class || valueClass == Long.class)
+                return new ConcurrentLongKeyHashMap<V>(16, numOfSegments);
+            if (valueClass == int.class || valueClass == Integer.class)
+                return new ConcurrentIntKeyHashMap<V>(16, numOfSegments);
+        }
+        return new ConcurrentHashMap<Object, V>(16, 0.75f, numOfSegments);
+    }
+
     public boolean isExtendedIndex() {
         return _concurrentExtendedIndex != null;
     }
 
+    /**
+     * @return the entry bitmaps of a BITMAP index, null for other index types
+     */
+    public BitmapIndex getBitmapIndex() {
+        return _bitmapIndex;
+    }
+
+    /**
+     * @return the statistics of the index, null unless it is an ordered index and the cost based
+     * index choice is enabled
+     */
+    public IndexStatistics getStatistics() {
+        return _statistics;
+    }
+
     public IExtendedEntriesIndex<K, IEntryCacheInfo> getExtendedIndex() {
         return _concurrentExtendedIndex;
     }
@@ -253,6 +296,13 @@ public class TypeDataIndex<K> {
         return _concurrentExtendedFifoGroupsIndex;
     }
 
+    /**
+     * create the list which keeps the entries of an index value once it has more than one entry
+     */
+    IStoredList<IEntryCacheInfo> createValueList(boolean supportFifo) {
+        return _useStripedLists ? StoredListFactory.<IEntryCacheInfo>createStripedList(supportFifo) : StoredListFactory.<IEntryCacheInfo>createConcurrentList(supportFifo);
+    }
+
     boolean considerValueClone() {
         return _considerValueClone;
     }
@@ -484,7 +534,7 @@ public class TypeDataIndex<K> {
                         if (_useEconomyHashMap)
                             newSL = StoredListFactory.createConcurrentSegmentedList(false /*segmented*/, pType.isAllowFifoIndexScans(), fieldValue);
                         else
-                            newSL = StoredListFactory.createConcurrentList(pType.isAllowFifoIndexScans());
+                            newSL = createValueList(pType.isAllowFifoIndexScans());
                     }
                     otheroi = newSL.addUnlocked(currentSL.getObjectFromHead());
                     myoi = newSL.addUnlocked(pEntry);
@@ -509,8 +559,12 @@ public class TypeDataIndex<K> {
 
             if (!isUniqueIndex())
                 markIndexValue(uniqueValue);
+            if (_statistics != null)
+                _statistics.onValueInserted();
             if (backRefs != null)
                 backRefs.add(isUniqueIndex() ? pEntry : oi);
+            if (_bitmapIndex != null)
+                _bitmapIndex.insert(fieldValue, pEntry, pType);
 
 
             if (isExtendedIndex()) {
@@ -681,6 +735,8 @@ public class TypeDataIndex<K> {
             }
         } else // there is a non-null value
         {
+            if (_bitmapIndex != null)
+                _bitmapIndex.remove(fieldValue, pEntry);
             removeNotNullIndex(eh,
                     deletedBackRefs,
                     fieldValue,
@@ -709,6 +765,8 @@ public class TypeDataIndex<K> {
                                     ArrayList<IObjectInfo<IEntryCacheInfo>> deletedBackRefs,
                                     K fieldValue, final int refpos, IEntryCacheInfo pEntry,
                                     IObjectInfo oi, boolean fromFailure) {
+        if (_statistics != null)
+            _statistics.onValueRemoved();
         if (isUniqueIndex() /*&& oi == pEntry TBD open-up when unique index is a general feature*/) {
             removeUniqueIndexedField(fieldValue, pEntry);
         } else {
@@ -30,5 +30,11 @@ public enum RedoLogSwapStorageType {
     /**
      * Redo log packets are stored using SQLite - a SQL database engine
      */
-    SQLITE
+    SQLITE,
+    /**
+     * Redo log packets are serialized/deserialized to/from preallocated memory mapped segment files
+     *
+     * @since 16.5
+     */
+    MAPPED_SEGMENTS
 }
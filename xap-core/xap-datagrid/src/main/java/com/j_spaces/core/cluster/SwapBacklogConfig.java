@@ -138,8 +138,13 @@ public class SwapBacklogConfig
         if (_writerBufferSize != WRITE_BUFFER_SIZE_DEFAULT)
             out.writeInt(_writerBufferSize);
         if (version.greaterOrEquals(PlatformLogicalVersion.v16_1_1)) {
-            if (_swapStorageType != SWAP_STORAGE_TYPE_DEFAULT)
-                out.writeInt(_swapStorageType.ordinal());
+            if (_swapStorageType != SWAP_STORAGE_TYPE_DEFAULT) {
+                // older endpoints do not know the mapped segments storage, it falls back to the byte buffer one
+                if (_swapStorageType == RedoLogSwapStorageType.MAPPED_SEGMENTS && !version.greaterThan(PlatformLogicalVersion.v16_4_0))
+                    out.writeInt(RedoLogSwapStorageType.BYTE_BUFFER.ordinal());
+                else
+                    out.writeInt(_swapStorageType.ordinal());
+            }
         }
     }
 
@@ -1,13 +1,24 @@
 package com.j_spaces.core.cluster.startup;
 
+import com.gigaspaces.internal.cluster.node.impl.ReplicationSingleOperationType;
 import com.gigaspaces.internal.cluster.node.impl.backlog.globalorder.GlobalOrderDiscardedReplicationPacket;
 import com.gigaspaces.internal.cluster.node.impl.packets.IReplicationOrderedPacket;
 import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketData;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketEntryData;
 import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationTransactionalPacketEntryData;
 import com.gigaspaces.internal.cluster.node.impl.packets.data.operations.AbstractTransactionReplicationPacketData;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.operations.PartialUpdateReplicationPacketData;
 import com.j_spaces.core.cluster.ReplicationPolicy;
+import com.j_spaces.kernel.SystemProperties;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Yael Nahon
@@ -15,6 +26,15 @@ import java.util.ListIterator;
  */
 public class RedoLogCompactionUtil {
 
+    private static final boolean COALESCING_ENABLED = Boolean.getBoolean(SystemProperties.REPLICATION_REDO_LOG_COALESCING);
+
+    /**
+     * @since 16.5
+     */
+    public static boolean isCoalescingEnabled() {
+        return COALESCING_ENABLED;
+    }
+
     public static long calculateWeight(long weight, long discardedCount) {
         return (long) (weight + discardedCount * ReplicationPolicy.DEFAULT_DISCARDED_PACKET_WEIGHT_LOAD_FACTOR);
     }
@@ -57,6 +77,112 @@ public class RedoLogCompactionUtil {
         return new CompactionResult(discardedCount, deletedFromTxns);
     }
 
+    /**
+     * Performs {@link #compact(long, long, ListIterator)} and, if coalescing is enabled, {@link
+     * #coalesce(long, long, List)} over the given packets
+     *
+     * @since 16.5
+     */
+    public static CompactionResult compact(long from, long to, List packets) {
+        CompactionResult result = compact(from, to, packets.listIterator());
+        if (COALESCING_ENABLED)
+            result.appendResult(coalesce(from, to, packets));
+        return result;
+    }
+
+    /**
+     * Replaces non transactional packets in the given range with discarded packets when a later
+     * packet in the range of the same uid makes them redundant: a full update or a remove
+     * supersedes the preceding updates and changes of the entry, and a remove also supersedes the
+     * write which created it. The superseding packet keeps its key, so the order between the
+     * operations of different uids is preserved. Packets of an entry which take part in a
+     * transaction or in any other operation are never coalesced across it.
+     *
+     * @since 16.5
+     */
+    public static CompactionResult coalesce(long from, long to, List packets) {
+        final Set<Long> supersededKeys = new HashSet<Long>();
+        final Map<String, List<IReplicationOrderedPacket>> pendingByUid = new HashMap<String, List<IReplicationOrderedPacket>>();
+        for (Iterator iterator = packets.iterator(); iterator.hasNext(); ) {
+            IReplicationOrderedPacket current = (IReplicationOrderedPacket) iterator.next();
+            if (current.getKey() < from)
+                continue;
+            if (current.getKey() > to)
+                break;
+            if (current.isDiscardedPacket() || !current.isDataPacket())
+                continue;
+            IReplicationPacketData<?> data = current.getData();
+            if (!data.isSingleEntryData()) {
+                // a transaction is a barrier for the entries it contains
+                for (IReplicationPacketEntryData entryData : data)
+                    pendingByUid.remove(entryData.getUid());
+                continue;
+            }
+            IReplicationPacketEntryData entryData = data.getSingleEntryData();
+            if (entryData == null || entryData.getUid() == null)
+                continue;
+            String uid = entryData.getUid();
+            List<IReplicationOrderedPacket> pending = pendingByUid.get(uid);
+            switch (entryData.getOperationType()) {
+                case WRITE:
+                    pending = new ArrayList<IReplicationOrderedPacket>(2);
+                    pending.add(current);
+                    pendingByUid.put(uid, pending);
+                    break;
+                case CHANGE:
+                    if (pending == null)
+                        pendingByUid.put(uid, pending = new ArrayList<IReplicationOrderedPacket>(2));
+                    pending.add(current);
+                    break;
+                case UPDATE:
+                    if (entryData instanceof PartialUpdateReplicationPacketData) {
+                        if (pending == null)
+                            pendingByUid.put(uid, pending = new ArrayList<IReplicationOrderedPacket>(2));
+                        pending.add(current);
+                        break;
+                    }
+                    IReplicationOrderedPacket write = null;
+                    if (pending != null) {
+                        for (IReplicationOrderedPacket packet : pending) {
+                            if (packet.getData().getSingleEntryData().getOperationType() == ReplicationSingleOperationType.WRITE)
+                                write = packet;
+                            else
+                                supersededKeys.add(packet.getKey());
+                        }
+                    }
+                    pending = new ArrayList<IReplicationOrderedPacket>(2);
+                    if (write != null)
+                        pending.add(write);
+                    pending.add(current);
+                    pendingByUid.put(uid, pending);
+                    break;
+                case REMOVE_ENTRY:
+                    if (pending != null) {
+                        for (IReplicationOrderedPacket packet : pending)
+                            supersededKeys.add(packet.getKey());
+                        pendingByUid.remove(uid);
+                    }
+                    break;
+                default:
+                    pendingByUid.remove(uid);
+            }
+        }
+
+        long discardedCount = 0;
+        if (!supersededKeys.isEmpty()) {
+            for (ListIterator iterator = packets.listIterator(); iterator.hasNext(); ) {
+                IReplicationOrderedPacket current = (IReplicationOrderedPacket) iterator.next();
+                if (current.getKey() > to)
+                    break;
+                if (supersededKeys.contains(current.getKey())) {
+                    iterator.set(new GlobalOrderDiscardedReplicationPacket(current.getKey()));
+                    discardedCount++;
+                }
+            }
+        }
+        return new CompactionResult(discardedCount, 0);
+    }
+
     public static int compactTxn(ListIterator<IReplicationTransactionalPacketEntryData> iterator) {
         int result = 0;
         while (iterator.hasNext()) {
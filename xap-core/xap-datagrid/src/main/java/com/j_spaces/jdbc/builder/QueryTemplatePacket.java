@@ -253,19 +253,12 @@ public class QueryTemplatePacket extends ExternalTemplatePacket {
                 for (SpaceIndex idx : typeDesc.getCompoundIndexes()) {
                     possibleSegments.clear();
                     CompoundIndex index = (CompoundIndex) idx;
-                    for (ISpaceCompoundIndexSegment seg : index.getCompoundIndexSegments()) {
-                        Range checkedRange = possibleCompoundSegments.get(seg.getName());
-                        if (checkedRange != null && checkedRange.getFunctionCallDescription() == null) {
-                            possibleSegments.add(possibleCompoundSegments.get(seg.getName()));
-                        } else {
-                            possibleSegments.clear();
-                            break;  //not relevant
-                        }
-                    }
+                    boolean allSegments = collectCompoundIndexSegments(index, possibleCompoundSegments, possibleSegments);
                     if (!possibleSegments.isEmpty())
                     //noinspection SpellCheckingInspection
                     {//maybe we can derive a compound indexscanner out of this.
-                        IQueryIndexScanner indexScanner = buildCompoundIndexScannerFromSegmentRanges(index, possibleSegments);
+                        IQueryIndexScanner indexScanner = allSegments ? buildCompoundIndexScannerFromSegmentRanges(index, possibleSegments) :
+                                buildPrefixRangeCompoundIndexScanner(index, possibleSegments);
                         if (indexScanner != null) {
                             queryIndexes.add(indexScanner);
                             anyCompoundIndexCreated = true;
@@ -315,9 +308,32 @@ public class QueryTemplatePacket extends ExternalTemplatePacket {
             }
     }
 
+    /**
+     * collects the ranges of the leading segments of the compound index, up to the first segment
+     * which has no usable range
+     *
+     * @return true if all the segments of the index have a range
+     */
+    private static boolean collectCompoundIndexSegments(CompoundIndex index, Map<String, Range> possibleCompoundSegments, List<Range> possibleSegments) {
+        for (ISpaceCompoundIndexSegment seg : index.getCompoundIndexSegments()) {
+            Range checkedRange = possibleCompoundSegments.get(seg.getName());
+            if (checkedRange != null && checkedRange.getFunctionCallDescription() == null) {
+                possibleSegments.add(checkedRange);
+            } else {
+                //a prefix of a single segment is of no use- the segment's own index serves it
+                if (possibleSegments.size() < 2)
+                    possibleSegments.clear();
+                return false;
+            }
+        }
+        return true;
+    }
+
     private IQueryIndexScanner buildCompoundIndexScannerFromSegmentRanges(CompoundIndex index, List<Range> possibleSegments) {
-        if (possibleSegments.get(0).isEqualValueRange())
-            return ExacValueCompoundIndexScanner.build(index.getName(), possibleSegments);
+        if (possibleSegments.get(0).isEqualValueRange()) {
+            IQueryIndexScanner exactValueScanner = ExacValueCompoundIndexScanner.build(index.getName(), possibleSegments);
+            return exactValueScanner != null ? exactValueScanner : buildPrefixRangeCompoundIndexScanner(index, possibleSegments);
+        }
         if (possibleSegments.get(0).isSegmentRange()) {
             if (!index.getIndexType().isOrdered())
                 return null;
@@ -327,6 +343,16 @@ public class QueryTemplatePacket extends ExternalTemplatePacket {
         return null;
     }
 
+    /**
+     * equality of the leading segments and a range of the next one are scanned as a single key range
+     * of an ordered compound index
+     */
+    private IQueryIndexScanner buildPrefixRangeCompoundIndexScanner(CompoundIndex index, List<Range> possibleSegments) {
+        if (!index.getIndexType().isOrdered())
+            return null;
+        return PrefixRangeCompoundIndexScanner.build(index.getName(), possibleSegments);
+    }
+
     private void insertContainsItemsRanges(List<IContainsItemsCustomQuery> lq, HashMap<String, List<Range>> containsSamePathRanges, IContainsItemsCustomQuery root, HashMap<ContainsItemIntersectionBase, ContainsItemValueRange> containsIntersections) {//insert contains-items ranges. Not used as independent ranges but just for indexing
         for (IContainsItemsCustomQuery q : lq) {
             if (q.isRootHandler()) {
@@ -457,19 +483,12 @@ public class QueryTemplatePacket extends ExternalTemplatePacket {
                 for (SpaceIndex idx : typeDesc.getCompoundIndexes()) {
                     possibleSegments.clear();
                     CompoundIndex index = (CompoundIndex) idx;
-                    for (ISpaceCompoundIndexSegment seg : index.getCompoundIndexSegments()) {
-                        Range checkedRange = possibleCompoundSegments.get(seg.getName());
-                        if (checkedRange != null && checkedRange.getFunctionCallDescription() == null) {
-                            possibleSegments.add(possibleCompoundSegments.get(seg.getName()));
-                        } else {
-                            possibleSegments.clear();
-                            break;  //not relevant
-                        }
-                    }
+                    boolean allSegments = collectCompoundIndexSegments(index, possibleCompoundSegments, possibleSegments);
                     if (!possibleSegments.isEmpty())
                     //noinspection SpellCheckingInspection
                     {//maybe we can derive a compound indexscanner out of this.
-                        IQueryIndexScanner indexScanner = buildCompoundIndexScannerFromSegmentRanges(index, possibleSegments);
+                        IQueryIndexScanner indexScanner = allSegments ? buildCompoundIndexScannerFromSegmentRanges(index, possibleSegments) :
+                                buildPrefixRangeCompoundIndexScanner(index, possibleSegments);
                         if (indexScanner != null) {
                             queryIndexes.add(indexScanner);
                             if (usedByRanges != null && !usedByRanges.isEmpty()) {
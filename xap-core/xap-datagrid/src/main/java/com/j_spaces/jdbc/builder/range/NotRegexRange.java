@@ -144,7 +144,7 @@ public class NotRegexRange extends SingleValueRange {
 
     @Override
     public IQueryIndexScanner getIndexScanner() {
-        return new NotRegexIndexScanner(getPath(), (String) getValue());
+        return new NotRegexIndexScanner(getPath(), getValue().toString());
     }
 
     @Override
@@ -56,6 +56,16 @@ public final class StoredListFactory {
         return new ConcurrentStoredList<T>(false /* segmented*/, supportsFifo);
     }
 
+    /**
+     * Creates a concurrent stored list which is split to per-core stripes once it becomes
+     * contended - used for index value lists.
+     *
+     * @return IStoredList
+     */
+    public static <T> IStoredList<T> createStripedList(boolean supportsFifo) {
+        return new StripedStoredList<T>(supportsFifo);
+    }
+
     /**
      * Creates a concurrent segmented stored list - used for highly concurrent lists.
      *
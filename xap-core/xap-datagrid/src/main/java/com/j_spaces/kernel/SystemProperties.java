@@ -175,6 +175,201 @@ public class SystemProperties extends CommonSystemProperties {
     public final static String LRMI_USE_SECURE_RADNDOM = "com.gs.transport_protocol.lrme.use_secure_random";
     public final static String LRMI_USE_ASYNC_CONNECT = "com.gs.transport_protocol.lrmi.use_async_connect";
 
+    /**
+     * Set to true in order to multiplex the synchronous invocations of a remote proxy over a few
+     * shared connections, instead of checking out a dedicated connection for each invocation.
+     * Applies only to services of version 16.5 or later. Defaults to false.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_MULTIPLEXED = "com.gs.transport_protocol.lrmi.multiplexed";
+    public final static String LRMI_MULTIPLEXED_DEFAULT = "false";
+
+    /**
+     * The number of multiplexed connections of a remote proxy. Defaults to 2.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_MULTIPLEXED_CONNECTIONS = "com.gs.transport_protocol.lrmi.multiplexed.connections";
+    public final static int LRMI_MULTIPLEXED_CONNECTIONS_DEFAULT = 2;
+
+    /**
+     * The maximal number of in-flight invocations on a multiplexed connection, further invocations
+     * wait for one of them to complete. Defaults to 256.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_MULTIPLEXED_MAX_IN_FLIGHT = "com.gs.transport_protocol.lrmi.multiplexed.max-in-flight";
+    public final static int LRMI_MULTIPLEXED_MAX_IN_FLIGHT_DEFAULT = 256;
+
+    /**
+     * Set to true in order to run the server side LRMI invocations, and the space engine processor
+     * which completes the waiting templates, on virtual threads instead of platform threads. The
+     * thread pools keep their monitoring surface, only their maximal size is taken from {@link
+     * #LRMI_VIRTUAL_THREADS_MAX}. Requires a JVM which supports virtual threads, otherwise platform
+     * threads are used. Defaults to false.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_VIRTUAL_THREADS = "com.gs.transport_protocol.lrmi.virtual-threads";
+    public final static String LRMI_VIRTUAL_THREADS_DEFAULT = "false";
+
+    /**
+     * The maximal number of virtual threads of each thread pool when {@link #LRMI_VIRTUAL_THREADS}
+     * is set. Defaults to 10000.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_VIRTUAL_THREADS_MAX = "com.gs.transport_protocol.lrmi.virtual-threads.max";
+    public final static int LRMI_VIRTUAL_THREADS_MAX_DEFAULT = 10000;
+
+    /**
+     * Set to true in order to marshal LRMI packets into a chain of pooled direct buffers which is
+     * written with a gathering write, and to read large packets with a scattering read into such
+     * buffers, instead of copying them through heap arrays. Not used for filtered (e.g. SSL) or
+     * throttled connections. Defaults to false.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_DIRECT_BUFFERS = "com.gs.transport_protocol.lrmi.direct-buffers";
+    public final static String LRMI_DIRECT_BUFFERS_DEFAULT = "false";
+
+    /**
+     * The size in bytes of each pooled direct buffer, packets which are read are placed in direct
+     * buffers only if they are at least that large. Defaults to 64KB.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_DIRECT_BUFFERS_CHUNK_SIZE = "com.gs.transport_protocol.lrmi.direct-buffers.chunk-size";
+    public final static int LRMI_DIRECT_BUFFERS_CHUNK_SIZE_DEFAULT = 64 * 1024;
+
+    /**
+     * The maximal number of direct buffers kept by the pool. Defaults to 256.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_DIRECT_BUFFERS_POOL_CAPACITY = "com.gs.transport_protocol.lrmi.direct-buffers.pool-capacity";
+    public final static int LRMI_DIRECT_BUFFERS_POOL_CAPACITY_DEFAULT = 256;
+
+    /**
+     * Messages smaller than this number of bytes are not compressed by the fast compression network
+     * filter. Defaults to 1024.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_FAST_COMPRESSION_THRESHOLD = "com.gs.transport_protocol.lrmi.fast-compression.threshold";
+    public final static int LRMI_FAST_COMPRESSION_THRESHOLD_DEFAULT = 1024;
+
+    /**
+     * The maximal compressed to original size ratio for which the fast compression network filter
+     * keeps compressing a connection's messages. Defaults to 0.9.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_FAST_COMPRESSION_MAX_RATIO = "com.gs.transport_protocol.lrmi.fast-compression.max-ratio";
+    public final static double LRMI_FAST_COMPRESSION_MAX_RATIO_DEFAULT = 0.9;
+
+    /**
+     * Set to true in order to send liveness, monitoring and replication invocations over
+     * connections dedicated to their priority class instead of the connections shared with the
+     * regular invocations. The server serves such connections by dedicated selector threads and
+     * thread pools, so a flood of regular invocations does not delay them. Defaults to false.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_PRIORITY_LANES = "com.gs.transport_protocol.lrmi.priority-lanes";
+    public final static String LRMI_PRIORITY_LANES_DEFAULT = "false";
+
+    /**
+     * The maximal number of connections of each priority class to a remote service when {@link
+     * #LRMI_PRIORITY_LANES} is set. Defaults to 4.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_PRIORITY_LANES_CONNECTION_POOL_SIZE = "com.gs.transport_protocol.lrmi.priority-lanes.connection-pool-size";
+    public final static int LRMI_PRIORITY_LANES_CONNECTION_POOL_SIZE_DEFAULT = 4;
+
+    /**
+     * The number of server side selector threads which read the connections dedicated to a
+     * priority class, 0 to read them by the regular selector threads. Defaults to 1.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_PRIORITY_LANES_SELECTOR_THREADS = "com.gs.transport_protocol.lrmi.priority-lanes.selector.threads";
+    public final static int LRMI_PRIORITY_LANES_SELECTOR_THREADS_DEFAULT = 1;
+
+    /**
+     * The minimal number of threads of the thread pool which executes the replication invocations
+     * sent over dedicated connections. Defaults to 1.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_REPLICATION_MIN_THREADS = "com.gs.transport_protocol.lrmi.replication.threadpool.min-threads";
+    public final static int LRMI_REPLICATION_MIN_THREADS_DEFAULT = 1;
+
+    /**
+     * The maximal number of threads of the thread pool which executes the replication invocations
+     * sent over dedicated connections. Defaults to 64.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_REPLICATION_MAX_THREADS = "com.gs.transport_protocol.lrmi.replication.threadpool.max-threads";
+    public final static int LRMI_REPLICATION_MAX_THREADS_DEFAULT = 64;
+
+    /**
+     * The queue capacity of the thread pool which executes the replication invocations sent over
+     * dedicated connections. Defaults to unbounded.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_REPLICATION_QUEUE_CAPACITY = "com.gs.transport_protocol.lrmi.replication.threadpool.queue-size";
+    public final static int LRMI_REPLICATION_QUEUE_CAPACITY_DEFAULT = Integer.MAX_VALUE;
+
+    /**
+     * Set to false in order to assign accepted connections to the read selector threads by their
+     * hash instead of by the measured load of the selector threads. Defaults to true.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_SELECTOR_LOAD_BALANCING = "com.gs.transport_protocol.lrmi.selector.load-balancing";
+    public final static String LRMI_SELECTOR_LOAD_BALANCING_DEFAULT = "true";
+
+    /**
+     * Set to true in order to move the hottest connection of a busy read selector thread to the
+     * least loaded one, when doing so lowers the load of the busiest of the two. Defaults to false.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_SELECTOR_REBALANCE = "com.gs.transport_protocol.lrmi.selector.rebalance";
+    public final static String LRMI_SELECTOR_REBALANCE_DEFAULT = "false";
+
+    /**
+     * The minimal interval in milliseconds between two connections moves when {@link
+     * #LRMI_SELECTOR_REBALANCE} is set. Defaults to 10 seconds.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_SELECTOR_REBALANCE_INTERVAL = "com.gs.transport_protocol.lrmi.selector.rebalance.interval";
+    public final static long LRMI_SELECTOR_REBALANCE_INTERVAL_DEFAULT = 10000;
+
+    /**
+     * Set to true in order to accept LRMI connections over a Unix domain socket as well, and to
+     * connect over it to services which run on the same host and accept such connections. Requires
+     * Java 16 or later, ignored otherwise. Defaults to false.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_UNIX_DOMAIN_SOCKETS = "com.gs.transport_protocol.lrmi.unix-domain-sockets";
+    public final static String LRMI_UNIX_DOMAIN_SOCKETS_DEFAULT = "false";
+
+    /**
+     * The directory of the Unix domain socket files when {@link #LRMI_UNIX_DOMAIN_SOCKETS} is set.
+     * Must be the same for all the processes of the host. Defaults to the temporary directory.
+     *
+     * @since 16.5
+     */
+    public final static String LRMI_UNIX_DOMAIN_SOCKETS_DIR = "com.gs.transport_protocol.lrmi.unix-domain-sockets.dir";
+
     /**
      * Provide a custom network mapper (Full class name).
      */
@@ -410,6 +605,32 @@ public class SystemProperties extends CommonSystemProperties {
 
     public final static String STORAGE_TYPE_SERIALIZATION_ZIP_IDEMPOTENT = "com.gs.client.storage-type-serialization.zip.idempotent";
 
+    /**
+     * Enables coalescing of concurrent single write and read by id operations of a space proxy
+     * into write multiple and read by ids batches. Defaults to false.
+     *
+     * @since 16.5
+     */
+    public final static String CLIENT_AUTO_BATCHING = "com.gs.client.auto-batching.enabled";
+    public final static boolean CLIENT_AUTO_BATCHING_DEFAULT = false;
+
+    /**
+     * The maximal time in microseconds an operation waits for more operations to join its batch.
+     * Defaults to 200.
+     *
+     * @since 16.5
+     */
+    public final static String CLIENT_AUTO_BATCHING_MAX_DELAY = "com.gs.client.auto-batching.max-delay";
+    public final static long CLIENT_AUTO_BATCHING_MAX_DELAY_DEFAULT = 200;
+
+    /**
+     * The maximal number of operations in a batch. Defaults to 64.
+     *
+     * @since 16.5
+     */
+    public final static String CLIENT_AUTO_BATCHING_MAX_SIZE = "com.gs.client.auto-batching.max-size";
+    public final static int CLIENT_AUTO_BATCHING_MAX_SIZE_DEFAULT = 64;
+
     public static final String AES_PASSPHRASE = "com.gs.property-storage.aes.passphrase";
     public static final String AES_PASSPHRASE_PATH = "com.gs.property-storage.aes.passphrase-path";
     public static final String AES_KEY_LENGTH = "com.gs.property-storage.aes.key-length";
@@ -510,6 +731,16 @@ public class SystemProperties extends CommonSystemProperties {
     public final static String
         RECORDING_OF_ALL_METRICS_TO_HSQLDB_ENABLED = "com.gs.hsqldb.all-metrics-recording.enabled";
 
+    /**
+     * Set to true in order to record latency histograms of the LRMI invocations, per remote method,
+     * and of the space operations, per operation, and export their percentiles as metrics. Defaults
+     * to false.
+     *
+     * @since 16.5
+     */
+    public final static String METRICS_LATENCY_HISTOGRAMS = "com.gs.metrics.latency-histograms.enabled";
+    public final static String METRICS_LATENCY_HISTOGRAMS_DEFAULT = "false";
+
     /**
      * System variable for look&feel class definition
      */
@@ -647,6 +878,23 @@ public class SystemProperties extends CommonSystemProperties {
      */
     public final static int ENGINE_STORED_LIST_LOCKS_DEFAULT = 10 * Runtime.getRuntime().availableProcessors();
 
+    /**
+     * Keep the entries of an index value which has more than one entry in a striped stored list,
+     * which spreads concurrent insertions over per-core stripes once the list becomes contended,
+     * default is false.
+     */
+    public final static String ENGINE_STORED_LIST_STRIPED = "com.gs.engine.storedListStriped";
+
+    public final static String ENGINE_STORED_LIST_STRIPED_DEFAULT = "false";
+
+    /**
+     * Number of contended insertions to a striped stored list after which the list is split to
+     * per-core stripes.
+     */
+    public final static String ENGINE_STORED_LIST_STRIPING_THRESHOLD = "com.gs.engine.storedListStripingThreshold";
+
+    public final static int ENGINE_STORED_LIST_STRIPING_THRESHOLD_DEFAULT = 64;
+
 
     /**
      * Number of segments used by the concurrent server-based lru . Two different segments can be
@@ -704,6 +952,44 @@ public class SystemProperties extends CommonSystemProperties {
      */
     public final static int CACHE_MANAGER_HASHMAP_SEGMENTS_DEFAULT = 64;
 
+    /**
+     * Use maps which keep keys unboxed for indexes over long/int properties, default is true.
+     */
+    public final static String CACHE_MANAGER_PRIMITIVE_KEY_INDEX = "com.gs.cacheManager.primitiveKeyIndex";
+
+    public final static String CACHE_MANAGER_PRIMITIVE_KEY_INDEX_DEFAULT = "true";
+
+    /**
+     * Back ordered (extended) entries indexes with a leaf-packed concurrent b-tree instead of a
+     * skip-list, default is false.
+     */
+    public final static String CACHE_MANAGER_BTREE_ORDERED_INDEX = "com.gs.cacheManager.btreeOrderedIndex";
+
+    public final static String CACHE_MANAGER_BTREE_ORDERED_INDEX_DEFAULT = "false";
+
+    /**
+     * Choose between range scans of ordered indexes and equality index lists by the index
+     * statistics based cost estimates, default is false.
+     */
+    public final static String CACHE_MANAGER_COST_BASED_INDEX_CHOICE = "com.gs.cacheManager.costBasedIndexChoice";
+
+    public final static String CACHE_MANAGER_COST_BASED_INDEX_CHOICE_DEFAULT = "false";
+
+    /**
+     * Record queries which scan all or most of the entries of a type, to be used by the index
+     * advisor, default is false.
+     */
+    public final static String CACHE_MANAGER_INDEX_ADVISOR_ENABLED = "com.gs.cacheManager.indexAdvisor.enabled";
+
+    public final static String CACHE_MANAGER_INDEX_ADVISOR_ENABLED_DEFAULT = "false";
+
+    /**
+     * One of how many poorly indexed queries is sampled by the index advisor, default is 16.
+     */
+    public final static String CACHE_MANAGER_INDEX_ADVISOR_SAMPLE_RATE = "com.gs.cacheManager.indexAdvisor.sampleRate";
+
+    public final static String CACHE_MANAGER_INDEX_ADVISOR_SAMPLE_RATE_DEFAULT = "16";
+
     /**
      * The timeout that a caller to the lease manager reaper force cycle is ready to wait for the
      * cycle to be completed
@@ -788,6 +1074,97 @@ public class SystemProperties extends CommonSystemProperties {
     public static final String REPLICATION_USE_BACKUP_BLOBSTORE_BULKS = "com.gs.replication.blobstore.use_backup_bulks";
     public static final String REPLICATION_USE_BACKUP_BLOBSTORE_BULKS_DEFAULT = "true";
 
+    /**
+     * Number of lanes a backup uses to replay incoming replication packets concurrently. Packets
+     * are partitioned by entry uid so each uid is still replayed in order, 0 or 1 replays on the
+     * incoming thread only.
+     *
+     * @since 16.5
+     */
+    public static final String REPLICATION_PARALLEL_REPLAY_THREADS = "com.gs.replication.parallel_replay.threads";
+    public static final int REPLICATION_PARALLEL_REPLAY_THREADS_DEFAULT = 0;
+
+    /**
+     * Minimal number of ready packets for which a backup replays in parallel, smaller runs are
+     * replayed on the incoming thread.
+     *
+     * @since 16.5
+     */
+    public static final String REPLICATION_PARALLEL_REPLAY_MIN_PACKETS = "com.gs.replication.parallel_replay.min_packets";
+    public static final int REPLICATION_PARALLEL_REPLAY_MIN_PACKETS_DEFAULT = 16;
+
+    /**
+     * When mirror redo log compaction is enabled, also replaces packets which are superseded by a
+     * later packet of the same entry with discarded packets, so a lagging mirror receives only the
+     * net effect of consecutive updates.
+     *
+     * @since 16.5
+     */
+    public static final String REPLICATION_REDO_LOG_COALESCING = "com.gs.replication.redolog.coalescing";
+
+    /**
+     * When true, each space copy consumer of a recovering space fetches the next batch from the
+     * source while it consumes the current one.
+     *
+     * @since 16.5
+     */
+    public static final String REPLICATION_REPLICA_PREFETCH = "com.gs.replication.replica.prefetch";
+
+    /**
+     * Upper bound of the fetch batch size of a recovering space. When larger than the configured
+     * fetch batch size, the batch size of each space copy consumer adapts to its measured
+     * throughput between the two, 0 keeps the configured size.
+     *
+     * @since 16.5
+     */
+    public static final String REPLICATION_REPLICA_MAX_FETCH_BATCH_SIZE = "com.gs.replication.replica.max_fetch_batch_size";
+    public static final int REPLICATION_REPLICA_MAX_FETCH_BATCH_SIZE_DEFAULT = 0;
+
+    /**
+     * When enabled, an in-memory backup space writes a local checkpoint of its content on a
+     * graceful shutdown, and on its next start loads it and resumes replication from the key the
+     * checkpoint was taken at instead of recovering all of its content from the primary.
+     *
+     * @since 16.5
+     */
+    public static final String SPACE_CHECKPOINT_ENABLED = "com.gs.space.checkpoint.enabled";
+
+    /**
+     * Number of threads which deserialize and insert the content of a local checkpoint, 0 uses
+     * the number of available processors.
+     *
+     * @since 16.5
+     */
+    public static final String SPACE_CHECKPOINT_LOAD_THREADS = "com.gs.space.checkpoint.load_threads";
+    public static final int SPACE_CHECKPOINT_LOAD_THREADS_DEFAULT = 0;
+
+    /**
+     * When true, the batch size and idle delay of each asynchronous and reliable asynchronous
+     * replication channel adapt to the measured round trip of its batches instead of staying at
+     * the configured batch size and interval.
+     *
+     * @since 16.5
+     */
+    public static final String REPLICATION_ASYNC_ADAPTIVE = "com.gs.replication.async.adaptive";
+
+    /**
+     * Upper bound of the batch size of an adaptive replication channel, 0 uses 8 times the
+     * configured batch size. The lower bound is an eighth of the configured batch size.
+     *
+     * @since 16.5
+     */
+    public static final String REPLICATION_ASYNC_ADAPTIVE_MAX_BATCH_SIZE = "com.gs.replication.async.adaptive.max_batch_size";
+    public static final int REPLICATION_ASYNC_ADAPTIVE_MAX_BATCH_SIZE_DEFAULT = 0;
+
+    /**
+     * Time in milliseconds a batch of an adaptive replication channel may take beyond its fastest
+     * observed round trip before the batch size is reduced so the target is not overloaded.
+     *
+     * @since 16.5
+     */
+    public static final String REPLICATION_ASYNC_ADAPTIVE_MAX_APPLY_TIME = "com.gs.replication.async.adaptive.max_apply_time";
+    public static final long REPLICATION_ASYNC_ADAPTIVE_MAX_APPLY_TIME_DEFAULT = 100;
+
     public static final String DIRECT_PERSISTENCY_RECOVER_RETRIES = "com.gs.direct_persistency.recover_retries";
     public static final int DIRECT_PERSISTENCY_RECOVER_RETRIES_DEFAULT = 10;
 
@@ -36,7 +36,10 @@ public class ConcurrentSegmentedStoredList<T>
     /* array of segments. only head is kept per segment*/
     final private StoredListChainSegment<T>[] _segments;
     final private LongAdder  _listSize;
-
+    // counts the number of adds - used to spread the objects evenly between segments
+    private int addCounter = 0;
+    // counts the number of scans - used to spread the start between segments
+    private int scanCounter = 0;
 
 
     public ConcurrentSegmentedStoredList(boolean supportFifoPerSegment,int inputNumOfSegments,boolean padded) {
@@ -83,6 +86,17 @@ public class ConcurrentSegmentedStoredList<T>
         return _segments[seg];
     }
 
+    //draw a segment number for insertions/scans
+    @Override
+    protected int drawSegmentNumber(boolean add) {
+        if (getNumSegments() == 1)
+            return 0;
+        int tnum = (int) Thread.currentThread().getId();
+        if (tnum % getNumSegments() == 0)
+            tnum++;
+        return add ? Math.abs(((tnum * addCounter++) % getNumSegments())) : Math.abs(((tnum * scanCounter++) % getNumSegments()));
+    }
+
     @Override
     protected int incremenetAndGetSize()
     {
@@ -45,11 +45,6 @@ public class ConcurrentStoredList<T>
     final private static ThreadLocalPool<SegmentedListIterator> _SLHolderPool =
             new ThreadLocalPool<SegmentedListIterator>(new SegmentedListIteratorFactory());
 
-    // counts the number of adds - used to spread the objects evenly between segments
-    private int addCounter = 0;
-    // counts the number of scans - used to spread the start between segments
-    private int scanCounter = 0;
-
     private static final AtomicIntegerFieldUpdater<ConcurrentStoredList> sizeUpdater = AtomicIntegerFieldUpdater.newUpdater(ConcurrentStoredList.class, "_size");
 
 
@@ -257,14 +252,9 @@ public class ConcurrentStoredList<T>
     }
 
 
-    //draw a segment number for insertions/scans
-    private int drawSegmentNumber(boolean add) {
-        if (getNumSegments() == 1)
-            return 0;
-        int tnum = (int) Thread.currentThread().getId();
-        if (tnum % getNumSegments() == 0)
-            tnum++;
-        return add ? Math.abs(((tnum * addCounter++) % getNumSegments())) : Math.abs(((tnum * scanCounter++) % getNumSegments()));
+    //draw a segment number for insertions/scans, overridden by multi segment lists
+    protected int drawSegmentNumber(boolean add) {
+        return 0;
     }
 
 
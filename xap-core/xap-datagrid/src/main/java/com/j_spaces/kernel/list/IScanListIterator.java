@@ -93,4 +93,9 @@ public interface IScanListIterator<T>
      */
     default boolean hasSize() { return false;}
     default int size() { return Integer.MAX_VALUE;}
+
+    /**
+     * @return the expected number of entries the iterator returns, -1 if unknown
+     */
+    default int getEstimatedSize() { return hasSize() ? size() : -1;}
 }
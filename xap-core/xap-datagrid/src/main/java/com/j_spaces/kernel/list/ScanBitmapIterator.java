@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.kernel.list;
+
+import com.gigaspaces.internal.utils.collections.CompressedBitmap;
+import com.j_spaces.core.cache.EntryOrdinalTable;
+import com.j_spaces.core.cache.IEntryCacheInfo;
+
+/**
+ * Scan iterator over the entries whose ordinals are set in a bitmap evaluated from bitmap indexes.
+ * An ordinal may have been reassigned since the bitmap was evaluated, so the returned entries are
+ * always matched against the template. NOTE !!!- for single threaded use
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ScanBitmapIterator
+        implements IScanListIterator<IEntryCacheInfo> {
+
+    private final EntryOrdinalTable _ordinals;
+    private final int _size;
+    private CompressedBitmap.Cursor _cursor;
+    private IEntryCacheInfo _subject;
+
+    public ScanBitmapIterator(EntryOrdinalTable ordinals, CompressedBitmap bitmap) {
+        _ordinals = ordinals;
+        _size = bitmap.cardinality();
+        _cursor = bitmap.cursor();
+    }
+
+    public boolean hasNext() {
+        if (_subject != null)
+            return true;
+        if (_cursor == null)
+            return false;
+        for (int ordinal = _cursor.next(); ordinal >= 0; ordinal = _cursor.next()) {
+            _subject = _ordinals.getEntry(ordinal);
+            if (_subject != null)
+                return true;
+        }
+        _cursor = null;
+        return false;
+    }
+
+    public IEntryCacheInfo next() {
+        IEntryCacheInfo res = _subject;
+        _subject = null;
+        return res;
+    }
+
+    public void releaseScan() {
+    }
+
+    public int getAlreadyMatchedFixedPropertyIndexPos() {
+        return -1;
+    }
+
+    public boolean isAlreadyMatched() {
+        return false;
+    }
+
+    public boolean isIterator() {
+        return true;
+    }
+
+    @Override
+    public boolean hasSize() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+}
@@ -42,6 +42,8 @@ public class StoredListChainSegment<T> {
     private final ConcurrentSLObjectInfo<T> _head;  //start scan from
 
     private int _iterCount;
+    //number of insertions which lost the race on the insert point, updated racily
+    private int _insertContention;
     private final short _segment;
 
     private static final byte SUPPORT_FIFO = ((byte) 1) << 0;
@@ -228,10 +230,19 @@ public class StoredListChainSegment<T> {
                 newnode.nodeInsertionEnded();
                 break;
             }
+            _insertContention++;
         }
 
     }
 
+    /**
+     * @return the (approximate) number of insertions which had to retry since another insertion
+     * took the insert point concurrently
+     */
+    int getInsertContention() {
+        return _insertContention;
+    }
+
 
     private void adjustInsertsPtrs(final ConcurrentSLObjectInfo cur_first) {
         ConcurrentSLObjectInfo base = cur_first.getFwd();
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.j_spaces.kernel.list;
+
+import com.j_spaces.kernel.IObjectInfo;
+import com.j_spaces.kernel.IStoredListIterator;
+import com.j_spaces.kernel.SystemProperties;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent stored list which starts as a single chain segment and is split to per-core
+ * stripes once insertions to it become contended. Each thread inserts to its own stripe, readers
+ * traverse the stripes lock-free, and an element is removed from the stripe it was inserted to.
+ * Unlike {@link ConcurrentSegmentedStoredList} the list can be invalidated, so it can serve as an
+ * index value list which is removed from the index when it becomes empty.
+ *
+ * Until it is split the list keeps the single segment and size of {@link ConcurrentStoredList},
+ * the stripes and the striped size counter are allocated only when it is split.
+ *
+ * A list which supports fifo is never split since fifo order is kept only inside a segment.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class StripedStoredList<T>
+        extends ConcurrentStoredList<T> {
+    private static final int NUM_OF_STRIPES = numOfStripes(Runtime.getRuntime().availableProcessors());
+    private static final int STRIPING_THRESHOLD = Integer.getInteger(SystemProperties.ENGINE_STORED_LIST_STRIPING_THRESHOLD,
+            SystemProperties.ENGINE_STORED_LIST_STRIPING_THRESHOLD_DEFAULT);
+
+    //invalidation states
+    private static final int VALID = 0;
+    private static final int INVALIDATING = 1;
+    private static final int INVALID = 2;
+
+    private static final AtomicReferenceFieldUpdater<StripedStoredList, StoredListChainSegment[]> stripesUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(StripedStoredList.class, StoredListChainSegment[].class, "_stripes");
+    private static final AtomicIntegerFieldUpdater<StripedStoredList> stateUpdater =
+            AtomicIntegerFieldUpdater.newUpdater(StripedStoredList.class, "_state");
+
+    //null until the list is split, the first stripe is the segment of the unsplit list
+    private volatile StoredListChainSegment<T>[] _stripes;
+    //counts the size changes made after the list was split, in addition to the inherited size
+    private volatile LongAdder _stripedSize;
+    private final int _stripingThreshold;
+    private volatile int _state;
+
+    public StripedStoredList(boolean supportFifo) {
+        this(supportFifo, STRIPING_THRESHOLD);
+    }
+
+    public StripedStoredList(boolean supportFifo, int stripingThreshold) {
+        super(false /*segmented*/, supportFifo);
+        _stripingThreshold = stripingThreshold;
+    }
+
+    /**
+     * @return the number of stripes for the given number of cores- a power of 2 which is not
+     * smaller than the number of cores
+     */
+    static int numOfStripes(int cores) {
+        int stripes = 2;
+        while (stripes < cores)
+            stripes <<= 1;
+        return stripes;
+    }
+
+    /**
+     * @return true if the list was split to per-core stripes
+     */
+    public boolean isStriped() {
+        return _stripes != null;
+    }
+
+    @Override
+    public int size() {
+        long res = sumSize();
+        return res < 0 ? 0 : (int) res;
+    }
+
+    private long sumSize() {
+        LongAdder stripedSize = _stripedSize;
+        return stripedSize == null ? super.size() : super.size() + stripedSize.sum();
+    }
+
+    @Override
+    public IObjectInfo<T> add(T subject) {
+        return addImpl(subject);
+    }
+
+    @Override
+    public IObjectInfo<T> add(T subject, Object segmentHint) {
+        //a thread always inserts to its own stripe
+        return addImpl(subject);
+    }
+
+    @Override
+    public IObjectInfo<T> addUnlocked(T subject) {
+        return addImpl(subject);
+    }
+
+    private IObjectInfo<T> addImpl(T subject) {
+        if (incremenetAndGetSize() < 0)
+            return null; // list was invalidated
+
+        StoredListChainSegment<T>[] stripes = _stripes;
+        StoredListChainSegment<T> stripe = stripes == null ? super.getSegment(0) : stripes[drawStripe(stripes.length)];
+        IObjectInfo<T> res = stripe.add(subject);
+        if (stripes == null && stripe.getInsertContention() >= _stripingThreshold && !stripe.isSupportFifo())
+            split(stripe);
+        return res;
+    }
+
+    private static int drawStripe(int numOfStripes) {
+        int h = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (numOfStripes - 1);
+    }
+
+    /**
+     * replace the single segment by per-core stripes. the existing segment is kept as the first
+     * stripe so the elements already inserted to it can still be reached and removed
+     */
+    private void split(StoredListChainSegment<T> segment) {
+        StoredListChainSegment<T>[] stripes = new StoredListChainSegment[NUM_OF_STRIPES];
+        stripes[0] = segment;
+        for (int i = 1; i < stripes.length; i++)
+            stripes[i] = new StoredListChainSegment<T>((short) i, false /*supportFifo*/, true /*padded*/);
+        if (stripesUpdater.compareAndSet(this, null, stripes))
+            _stripedSize = new LongAdder();
+    }
+
+    @Override
+    protected int getNumSegments() {
+        StoredListChainSegment<T>[] stripes = _stripes;
+        return stripes == null ? 1 : stripes.length;
+    }
+
+    @Override
+    protected StoredListChainSegment<T> getSegment(int seg) {
+        StoredListChainSegment<T>[] stripes = _stripes;
+        return stripes == null ? super.getSegment(0) : stripes[seg];
+    }
+
+    @Override
+    protected int drawSegmentNumber(boolean add) {
+        StoredListChainSegment<T>[] stripes = _stripes;
+        return stripes == null ? 0 : drawStripe(stripes.length);
+    }
+
+    /**
+     * an insertion is counted before it is checked against the invalidation state, so an
+     * invalidation which sees an empty list after it blocked insertions can be trusted
+     */
+    @Override
+    protected int incremenetAndGetSize() {
+        incrementSize();
+        int state;
+        while ((state = _state) == INVALIDATING)
+            Thread.yield();
+        if (state == INVALID) {
+            decrementSize();
+            return -1;
+        }
+        return 1;
+    }
+
+    @Override
+    protected void incrementSize() {
+        LongAdder stripedSize = _stripedSize;
+        if (stripedSize == null)
+            super.incrementSize();
+        else
+            stripedSize.increment();
+    }
+
+    @Override
+    protected void decrementSize() {
+        LongAdder stripedSize = _stripedSize;
+        if (stripedSize == null)
+            super.decrementSize();
+        else
+            stripedSize.decrement();
+    }
+
+    @Override
+    public boolean invalidate() {
+        if (sumSize() != 0)
+            return false;
+        if (!stateUpdater.compareAndSet(this, VALID, INVALIDATING))
+            return false;
+        if (sumSize() != 0) {
+            _state = VALID;
+            return false;
+        }
+        _state = INVALID;
+        return true;
+    }
+
+    @Override
+    public boolean removeByObject(T obj) {
+        for (int seg = 0; seg < getNumSegments(); seg++) {
+            if (getSegment(seg).removeByObject(obj)) {
+                decrementSize();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * a striped list has no global order, so its scans are always random
+     */
+    @Override
+    public IStoredListIterator<T> establishListScan(boolean randomScan, boolean alternatingThread) {
+        return super.establishListScan(randomScan || isStriped(), alternatingThread);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.kernel.threadpool;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates virtual threads, available when running on a JVM which supports them (Java 21 and on).
+ * The virtual thread builder is looked up reflectively since the code is compiled for older
+ * versions.
+ *
+ * @since 16.5
+ */
+@com.gigaspaces.api.InternalApi
+public class VirtualThreadFactory implements ThreadFactory {
+
+    static final private AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+    static final private Method OF_VIRTUAL;
+    static final private Method NAME;
+    static final private Method FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+        } catch (Exception e) {
+            // virtual threads are not supported by this JVM
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+    }
+
+    final ThreadFactory _factory;
+
+    public VirtualThreadFactory(String namePrefix) {
+        if (!isSupported())
+            throw new UnsupportedOperationException("Virtual threads are not supported by this JVM [" + System.getProperty("java.version") + "]");
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = NAME.invoke(builder, namePrefix + "-vpool-" + POOL_NUMBER.getAndIncrement() + "-thread-", 1L);
+            _factory = (ThreadFactory) FACTORY.invoke(builder);
+        } catch (Exception e) {
+            throw new UnsupportedOperationException("Failed to create a virtual thread factory", e);
+        }
+    }
+
+    /**
+     * @return true if virtual threads are supported by this JVM
+     */
+    public static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    public Thread newThread(Runnable r) {
+        return _factory.newThread(r);
+    }
+}
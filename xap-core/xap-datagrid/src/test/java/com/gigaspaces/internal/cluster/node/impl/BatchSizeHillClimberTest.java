@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchSizeHillClimberTest {
+
+    @Test
+    public void testHillClimbing() {
+        BatchSizeHillClimber climber = new BatchSizeHillClimber(100, 100, 1600);
+        Assert.assertEquals(100, climber.getBatchSize());
+        // partial batches and unmeasured batches are ignored
+        Assert.assertEquals(100, climber.onBatch(40, 100000));
+        Assert.assertEquals(100, climber.onBatch(100, 0));
+
+        // grows while the throughput improves, up to the upper bound
+        Assert.assertEquals(200, climber.onBatch(100, 100000));
+        Assert.assertEquals(400, climber.onBatch(200, 150000));
+        Assert.assertEquals(800, climber.onBatch(400, 250000));
+        Assert.assertEquals(1600, climber.onBatch(800, 450000));
+        Assert.assertEquals(1600, climber.onBatch(1600, 850000));
+
+        // throughput dropped, direction reverses down to the lower bound
+        Assert.assertEquals(800, climber.onBatch(1600, 3200000));
+        Assert.assertEquals(400, climber.onBatch(800, 1500000));
+        Assert.assertEquals(200, climber.onBatch(400, 700000));
+        Assert.assertEquals(100, climber.onBatch(200, 300000));
+        Assert.assertEquals(100, climber.onBatch(100, 100000));
+
+        // throughput dropped again, grows back
+        Assert.assertEquals(200, climber.onBatch(100, 200000));
+
+        // a forced shrink keeps shrinking as long as the throughput does not drop
+        Assert.assertEquals(100, climber.shrink());
+        Assert.assertEquals(100, climber.onBatch(100, 100000));
+    }
+}
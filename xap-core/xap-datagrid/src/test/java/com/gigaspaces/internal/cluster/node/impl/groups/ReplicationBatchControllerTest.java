@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.groups;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class ReplicationBatchControllerTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testNotAdaptiveKeepsConfiguration() {
+        ReplicationBatchController controller = new ReplicationBatchController(500, 3000);
+        controller.onBatchReplicated(500, 2 * MILLIS);
+        controller.onBatchReplicated(500, 4 * MILLIS);
+        controller.onIdleCycle();
+        Assert.assertFalse(controller.isAdaptive());
+        Assert.assertEquals(500, controller.getBatchSize());
+        Assert.assertEquals(3000, controller.getIdleDelay());
+        Assert.assertEquals(2250, controller.getAverageRoundTripMicros());
+    }
+
+    @Test
+    public void testShrinksWhenTargetFallsBehind() {
+        ReplicationBatchController controller = new ReplicationBatchController(true, 400, 50, 800, 3000, 100);
+        controller.onBatchReplicated(10, MILLIS);
+        Assert.assertEquals(400, controller.getBatchSize());
+        // beyond the fastest round trip by more than the apply time
+        controller.onBatchReplicated(400, 150 * MILLIS);
+        Assert.assertEquals(200, controller.getBatchSize());
+        controller.onBatchReplicated(200, 120 * MILLIS);
+        Assert.assertEquals(100, controller.getBatchSize());
+        controller.onBatchReplicated(100, 110 * MILLIS);
+        Assert.assertEquals(50, controller.getBatchSize());
+        controller.onBatchReplicated(50, 110 * MILLIS);
+        Assert.assertEquals(50, controller.getBatchSize());
+    }
+
+    @Test
+    public void testFastestRoundTripAgesOut() {
+        ReplicationBatchController controller = new ReplicationBatchController(true, 400, 50, 800, 3000, 100);
+        controller.onBatchReplicated(10, MILLIS);
+        // the round trip became slower, once the fast one ages out it is no longer compared to it
+        for (int i = 0; i < 2 * ReplicationBatchController.ROUND_TRIP_WINDOW; i++)
+            controller.onBatchReplicated(10, 50 * MILLIS);
+        controller.onBatchReplicated(400, 140 * MILLIS);
+        Assert.assertEquals(800, controller.getBatchSize());
+        controller.onBatchReplicated(800, 160 * MILLIS);
+        Assert.assertEquals(400, controller.getBatchSize());
+    }
+
+    @Test
+    public void testPartialBatchKeepsSize() {
+        ReplicationBatchController controller = new ReplicationBatchController(true, 100, 10, 800, 3000, 100);
+        controller.onBatchReplicated(40, 2 * MILLIS);
+        Assert.assertEquals(100, controller.getBatchSize());
+        controller.onBatchReplicated(100, 0);
+        Assert.assertEquals(100, controller.getBatchSize());
+    }
+
+    @Test
+    public void testIdleDelayFollowsRoundTrip() {
+        ReplicationBatchController controller = new ReplicationBatchController(true, 100, 10, 800, 3000, 100);
+        Assert.assertEquals(3000, controller.getIdleDelay());
+        controller.onBatchReplicated(10, 20 * MILLIS);
+        Assert.assertEquals(20, controller.getIdleDelay());
+        // backs off towards the configured interval while idle
+        controller.onIdleCycle();
+        Assert.assertEquals(40, controller.getIdleDelay());
+        for (int i = 0; i < 10; i++)
+            controller.onIdleCycle();
+        Assert.assertEquals(3000, controller.getIdleDelay());
+        // never below one millisecond
+        controller.onBatchReplicated(10, 1000);
+        controller.onBatchReplicated(10, 1000);
+        Assert.assertTrue(controller.getIdleDelay() >= 1);
+    }
+}
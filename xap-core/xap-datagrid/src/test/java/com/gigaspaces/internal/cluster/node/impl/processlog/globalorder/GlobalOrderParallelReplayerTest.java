@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.processlog.globalorder;
+
+import com.gigaspaces.internal.cluster.node.impl.ReplicationMultipleOperationType;
+import com.gigaspaces.internal.cluster.node.impl.ReplicationSingleOperationType;
+import com.gigaspaces.internal.cluster.node.impl.backlog.globalorder.GlobalOrderDiscardedReplicationPacket;
+import com.gigaspaces.internal.cluster.node.impl.backlog.globalorder.GlobalOrderOperationPacket;
+import com.gigaspaces.internal.cluster.node.impl.packets.IReplicationOrderedPacket;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketData;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketEntryData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GlobalOrderParallelReplayerTest {
+
+    private final GlobalOrderParallelReplayer replayer = new GlobalOrderParallelReplayer(4, 1);
+
+    @Test
+    public void testPerUidOrder() {
+        final List<IReplicationOrderedPacket> packets = new ArrayList<IReplicationOrderedPacket>();
+        for (int i = 0; i < 1000; i++)
+            packets.add(i % 100 == 99 ? new GlobalOrderDiscardedReplicationPacket(i) : packet(i, entry("uid" + (i % 17), ReplicationSingleOperationType.WRITE)));
+
+        final Map<String, List<Long>> replayed = new HashMap<String, List<Long>>();
+        GlobalOrderParallelReplayer.Result result = replayer.replay(packets, new GlobalOrderParallelReplayer.LaneConsumer() {
+            @Override
+            public void consume(int lane, IReplicationOrderedPacket packet) {
+                String uid = packet.getData().getSingleEntryData().getUid();
+                synchronized (replayed) {
+                    List<Long> keys = replayed.get(uid);
+                    if (keys == null)
+                        replayed.put(uid, keys = new ArrayList<Long>());
+                    keys.add(packet.getKey());
+                }
+            }
+        });
+        Assert.assertNull(result.getError());
+        Assert.assertEquals(1000, result.getConsumedPackets());
+        Assert.assertEquals(17, replayed.size());
+        int total = 0;
+        for (List<Long> keys : replayed.values()) {
+            for (int i = 1; i < keys.size(); i++)
+                Assert.assertTrue(keys.get(i - 1) < keys.get(i));
+            total += keys.size();
+        }
+        Assert.assertEquals(990, total);
+    }
+
+    @Test
+    public void testBarrier() {
+        final List<IReplicationOrderedPacket> packets = new ArrayList<IReplicationOrderedPacket>();
+        for (int i = 0; i < 200; i++)
+            packets.add(packet(i, entry("uid" + i, ReplicationSingleOperationType.WRITE)));
+        packets.add(packet(200, entry("type", ReplicationSingleOperationType.DATA_TYPE_INTRODUCE)));
+        for (int i = 201; i < 400; i++)
+            packets.add(packet(i, entry("uid" + i, ReplicationSingleOperationType.WRITE)));
+
+        final AtomicInteger consumed = new AtomicInteger();
+        GlobalOrderParallelReplayer.Result result = replayer.replay(packets, new GlobalOrderParallelReplayer.LaneConsumer() {
+            @Override
+            public void consume(int lane, IReplicationOrderedPacket packet) {
+                if (packet.getKey() == 200)
+                    Assert.assertEquals(200, consumed.get());
+                else if (packet.getKey() > 200)
+                    Assert.assertTrue(consumed.get() > 200);
+                consumed.incrementAndGet();
+            }
+        });
+        Assert.assertNull(result.getError());
+        Assert.assertEquals(400, result.getConsumedPackets());
+    }
+
+    @Test
+    public void testFailure() {
+        final List<IReplicationOrderedPacket> packets = new ArrayList<IReplicationOrderedPacket>();
+        for (int i = 0; i < 500; i++)
+            packets.add(packet(i, entry("uid" + i, ReplicationSingleOperationType.UPDATE)));
+
+        final IllegalStateException error = new IllegalStateException("failed");
+        final Set<Long> consumed = Collections.synchronizedSet(new HashSet<Long>());
+        GlobalOrderParallelReplayer.Result result = replayer.replay(packets, new GlobalOrderParallelReplayer.LaneConsumer() {
+            @Override
+            public void consume(int lane, IReplicationOrderedPacket packet) {
+                if (packet.getKey() == 250)
+                    throw error;
+                consumed.add(packet.getKey());
+            }
+        });
+        Assert.assertSame(error, result.getError());
+        Assert.assertTrue(result.getConsumedPackets() <= 250);
+        // packets after the failure may have been consumed by other lanes, they are reported so
+        // they are not consumed again
+        for (int i = 0; i < packets.size(); i++)
+            Assert.assertEquals(consumed.contains((long) i), result.isConsumed(i));
+        Assert.assertFalse(result.isConsumed(250));
+    }
+
+    @Test
+    public void testTransactionLane() {
+        IReplicationPacketData<?> sameLane = transaction(entry("a", ReplicationSingleOperationType.WRITE), entry("a", ReplicationSingleOperationType.UPDATE));
+        Assert.assertTrue(replayer.laneOf(sameLane) >= 0);
+
+        IReplicationPacketData<?> crossLanes = transaction(entry("a", ReplicationSingleOperationType.WRITE), entry("b", ReplicationSingleOperationType.WRITE));
+        Assert.assertEquals(-1, replayer.laneOf(crossLanes));
+    }
+
+    private static IReplicationOrderedPacket packet(long key, IReplicationPacketEntryData entry) {
+        IReplicationPacketData data = mock(IReplicationPacketData.class);
+        when(data.isSingleEntryData()).thenReturn(true);
+        when(data.getSingleEntryData()).thenReturn(entry);
+        return new GlobalOrderOperationPacket(key, data);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IReplicationPacketData<?> transaction(IReplicationPacketEntryData... entries) {
+        IReplicationPacketData data = mock(IReplicationPacketData.class);
+        when(data.getMultipleOperationType()).thenReturn(ReplicationMultipleOperationType.TRANSACTION_ONE_PHASE);
+        when(data.iterator()).thenReturn(Arrays.asList(entries).iterator());
+        return data;
+    }
+
+    private static IReplicationPacketEntryData entry(String uid, ReplicationSingleOperationType operationType) {
+        IReplicationPacketEntryData entry = mock(IReplicationPacketEntryData.class);
+        when(entry.getUid()).thenReturn(uid);
+        when(entry.getOperationType()).thenReturn(operationType);
+        return entry;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.processlog.globalorder;
+
+import com.gigaspaces.internal.cluster.node.handlers.IReplicationInFacade;
+import com.gigaspaces.internal.cluster.node.impl.ReplicationSingleOperationType;
+import com.gigaspaces.internal.cluster.node.impl.backlog.globalorder.GlobalOrderBacklogHandshakeRequest;
+import com.gigaspaces.internal.cluster.node.impl.backlog.globalorder.GlobalOrderOperationPacket;
+import com.gigaspaces.internal.cluster.node.impl.groups.IReplicationGroupHistory;
+import com.gigaspaces.internal.cluster.node.impl.packets.IReplicationOrderedPacket;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IDataConsumeResult;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketData;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketDataConsumer;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketEntryData;
+import com.gigaspaces.internal.cluster.node.impl.processlog.IReplicationProcessLogExceptionHandler;
+import com.j_spaces.kernel.SystemProperties;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GlobalOrderTargetProcessLogTest {
+
+    private static final int LANES = 2;
+    private static final long FAILED_KEY = 5;
+    private static final long LAST_KEY = 20;
+
+    private final Map<IReplicationPacketData<?>, Long> _keys = new IdentityHashMap<IReplicationPacketData<?>, Long>();
+    private final Map<Long, AtomicInteger> _consumed = new ConcurrentHashMap<Long, AtomicInteger>();
+    private final CountDownLatch _lastKeyConsumed = new CountDownLatch(1);
+    private volatile boolean _fail = true;
+
+    @Test
+    public void testPacketsConsumedAheadAreReplayedAfterHandshakeReset() throws Exception {
+        GlobalOrderTargetProcessLog processLog = createProcessLog();
+
+        // the failed packet is replayed by the caller lane while the other lane consumes all the
+        // packets after it
+        GlobalOrderProcessResult result = processLog.processBatch("source", createPackets(), null);
+        Assert.assertFalse(result.isProcessed());
+        Assert.assertEquals(FAILED_KEY - 1, processLog.getLastProcessedKey());
+        for (long key = FAILED_KEY + 1; key <= LAST_KEY; key++)
+            Assert.assertEquals(1, consumedCount(key));
+
+        // a new source starts over from the same keys, none of its packets were consumed before
+        _fail = false;
+        processLog.performHandshake("source", new GlobalOrderBacklogHandshakeRequest(true, 0));
+        Assert.assertEquals(0, processLog.getLastProcessedKey());
+
+        result = processLog.processBatch("source", createPackets(), null);
+        Assert.assertTrue(result.isProcessed());
+        Assert.assertEquals(LAST_KEY, processLog.getLastProcessedKey());
+        for (long key = 1; key <= LAST_KEY; key++) {
+            if (key != FAILED_KEY)
+                Assert.assertEquals("packet " + key, 2, consumedCount(key));
+        }
+        Assert.assertEquals(1, consumedCount(FAILED_KEY));
+    }
+
+    @SuppressWarnings("unchecked")
+    private GlobalOrderTargetProcessLog createProcessLog() {
+        IReplicationPacketDataConsumer<IReplicationPacketData<?>> dataConsumer = mock(IReplicationPacketDataConsumer.class);
+        when(dataConsumer.consume(any(), any(), any(), any())).thenAnswer(new Answer<IDataConsumeResult>() {
+            @Override
+            public IDataConsumeResult answer(InvocationOnMock invocation) throws Throwable {
+                long key = _keys.get(invocation.getArguments()[1]);
+                if (key == FAILED_KEY && _fail) {
+                    Assert.assertTrue(_lastKeyConsumed.await(10, TimeUnit.SECONDS));
+                    throw new IllegalStateException("failed to consume packet " + key);
+                }
+                _consumed.get(key).incrementAndGet();
+                if (key == LAST_KEY)
+                    _lastKeyConsumed.countDown();
+                return mock(IDataConsumeResult.class);
+            }
+        });
+
+        String previousLanes = System.setProperty(SystemProperties.REPLICATION_PARALLEL_REPLAY_THREADS, String.valueOf(LANES));
+        String previousMinPackets = System.setProperty(SystemProperties.REPLICATION_PARALLEL_REPLAY_MIN_PACKETS, "1");
+        try {
+            return new GlobalOrderTargetProcessLog(new GlobalOrderProcessLogConfig(),
+                    dataConsumer,
+                    mock(IReplicationProcessLogExceptionHandler.class),
+                    mock(IReplicationInFacade.class),
+                    "name",
+                    "group",
+                    "source",
+                    0,
+                    false,
+                    false,
+                    mock(IReplicationGroupHistory.class));
+        } finally {
+            restoreProperty(SystemProperties.REPLICATION_PARALLEL_REPLAY_THREADS, previousLanes);
+            restoreProperty(SystemProperties.REPLICATION_PARALLEL_REPLAY_MIN_PACKETS, previousMinPackets);
+        }
+    }
+
+    /**
+     * @return the packets of keys 1 to {@link #LAST_KEY}, the ones up to the failed key are in the
+     * caller lane and the rest in the other lane
+     */
+    private List<IReplicationOrderedPacket> createPackets() {
+        List<IReplicationOrderedPacket> packets = new ArrayList<IReplicationOrderedPacket>();
+        for (long key = 1; key <= LAST_KEY; key++) {
+            IReplicationPacketData<?> data = data(uidOfLane(key <= FAILED_KEY ? 0 : 1, key));
+            _keys.put(data, key);
+            if (!_consumed.containsKey(key))
+                _consumed.put(key, new AtomicInteger());
+            packets.add(new GlobalOrderOperationPacket(key, data));
+        }
+        return packets;
+    }
+
+    private int consumedCount(long key) {
+        return _consumed.get(key).get();
+    }
+
+    private static String uidOfLane(int lane, long key) {
+        for (int i = 0; ; i++) {
+            String uid = "uid" + key + "_" + i;
+            if ((uid.hashCode() & Integer.MAX_VALUE) % LANES == lane)
+                return uid;
+        }
+    }
+
+    private static IReplicationPacketData<?> data(String uid) {
+        IReplicationPacketEntryData entry = mock(IReplicationPacketEntryData.class);
+        when(entry.getUid()).thenReturn(uid);
+        when(entry.getOperationType()).thenReturn(ReplicationSingleOperationType.UPDATE);
+        IReplicationPacketData data = mock(IReplicationPacketData.class);
+        when(data.isSingleEntryData()).thenReturn(true);
+        when(data.getSingleEntryData()).thenReturn(entry);
+        return data;
+    }
+
+    private static void restoreProperty(String name, String value) {
+        if (value == null)
+            System.clearProperty(name);
+        else
+            System.setProperty(name, value);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.replica;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SpaceCopyProgressTest {
+
+    @Test
+    public void testProgress() {
+        SpaceCopyProgress progress = new SpaceCopyProgress();
+        progress.onEntryCopied("a");
+        progress.onEntryCopied("b");
+        progress.onEntryCopied("a");
+        Assert.assertEquals(3, progress.getTotalCopied());
+        Assert.assertEquals(2, progress.getCopied("a"));
+        Assert.assertEquals(1, progress.getCopied("b"));
+        Assert.assertEquals(0, progress.getCopied("c"));
+        Assert.assertTrue(progress.toString().contains("a=2, b=1"));
+    }
+}
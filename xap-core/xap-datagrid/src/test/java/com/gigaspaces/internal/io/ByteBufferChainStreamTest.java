@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.io;
+
+import com.gigaspaces.lrmi.DirectByteBufferPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ByteBufferChainStreamTest {
+
+    @Test
+    public void testRoundTripAcrossChunks() throws Exception {
+        DirectByteBufferPool pool = new DirectByteBufferPool(64, 16);
+        ByteBufferChainOutputStream bos = new ByteBufferChainOutputStream(pool, 4);
+        MarshalOutputStream mos = new MarshalOutputStream(bos, false);
+        List<String> values = new ArrayList<String>();
+        for (int i = 0; i < 100; i++)
+            values.add("value-" + i);
+        mos.writeObject(values);
+        mos.writeLong(42L);
+        mos.flush();
+
+        int length = bos.size();
+        ByteBuffer[] buffers = bos.toBuffers();
+        Assert.assertTrue(buffers.length > 1);
+        buffers[0].putInt(0, length - 4);
+        Assert.assertEquals(length - 4, buffers[0].getInt());
+
+        MarshalInputStream mis = new MarshalInputStream(new ByteBufferChainInputStream(buffers));
+        Assert.assertEquals(values, mis.readObject());
+        Assert.assertEquals(42L, mis.readLong());
+        Assert.assertEquals(-1, mis.read());
+
+        bos.release();
+        Assert.assertEquals(Math.min(buffers.length, 16), pool.getPooledChunks());
+    }
+
+    @Test
+    public void testPoolAcquireLength() {
+        DirectByteBufferPool pool = new DirectByteBufferPool(64, 2);
+        ByteBuffer[] chunks = pool.acquire(150);
+        Assert.assertEquals(3, chunks.length);
+        Assert.assertEquals(64, chunks[0].limit());
+        Assert.assertEquals(64, chunks[1].limit());
+        Assert.assertEquals(22, chunks[2].limit());
+
+        pool.release(chunks);
+        //the pool keeps up to its capacity
+        Assert.assertEquals(2, pool.getPooledChunks());
+        Assert.assertEquals(64, pool.acquire().remaining());
+        Assert.assertEquals(1, pool.getPooledChunks());
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.query;
+
+import com.gigaspaces.internal.utils.collections.CompressedBitmap;
+import com.j_spaces.core.cache.BitmapIndex;
+import com.j_spaces.core.cache.EntryOrdinalTable;
+import com.j_spaces.core.cache.IEntryCacheInfo;
+import com.j_spaces.core.cache.TypeData;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.regex.Pattern;
+
+public class BitmapIndexEvaluatorTest {
+
+    @Test
+    public void testNotRegexOverNonStringValues() {
+        TypeData typeData = Mockito.mock(TypeData.class);
+        Mockito.when(typeData.getEntryOrdinals()).thenReturn(new EntryOrdinalTable());
+        BitmapIndex bitmapIndex = new BitmapIndex();
+        IEntryCacheInfo[] entries = new IEntryCacheInfo[30];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = Mockito.mock(IEntryCacheInfo.class);
+            bitmapIndex.insert(i, entries[i], typeData);
+        }
+        bitmapIndex.insert(null, Mockito.mock(IEntryCacheInfo.class), typeData);
+
+        // all the values but the ones starting with 1
+        CompressedBitmap res = BitmapIndexEvaluator.notMatching(bitmapIndex, Pattern.compile("1.*"));
+
+        Assert.assertEquals(entries.length - 11, res.cardinality());
+        EntryOrdinalTable ordinals = bitmapIndex.getOrdinals();
+        for (int i = 0; i < entries.length; i++)
+            Assert.assertEquals("value " + i, !String.valueOf(i).startsWith("1"), res.contains(ordinals.getOrdinal(entries[i])));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.query;
+
+import com.j_spaces.core.cache.CompoundCustomTypeDataIndex;
+import com.j_spaces.core.cache.CompoundIndexValueHolder;
+import com.j_spaces.core.cache.ICompoundIndexValueHolder;
+import com.j_spaces.core.cache.SimpleCompoundIndexValueHolder;
+import com.j_spaces.jdbc.builder.range.EqualValueRange;
+import com.j_spaces.jdbc.builder.range.Range;
+import com.j_spaces.jdbc.builder.range.SegmentRange;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+public class PrefixRangeCompoundIndexScannerTest {
+    @Test
+    public void testBuild() {
+        Assert.assertNotNull(PrefixRangeCompoundIndexScanner.build("idx", Arrays.<Range>asList(
+                new EqualValueRange("customerId", 7), new SegmentRange("timestamp", 10L, true, 20L, false))));
+        //all segments but the last must be equalities, and the last one a range
+        Assert.assertNull(PrefixRangeCompoundIndexScanner.build("idx", Arrays.<Range>asList(
+                new SegmentRange("customerId", 7, true, null, false), new SegmentRange("timestamp", 10L, true, 20L, false))));
+        Assert.assertNull(PrefixRangeCompoundIndexScanner.build("idx", Arrays.<Range>asList(
+                new EqualValueRange("customerId", 7), new EqualValueRange("timestamp", 10L))));
+        Assert.assertNull(PrefixRangeCompoundIndexScanner.build("idx", Collections.<Range>singletonList(
+                new SegmentRange("timestamp", 10L, true, 20L, false))));
+    }
+
+    @Test
+    public void testTwoSegmentsRange() {
+        ConcurrentSkipListMap<ICompoundIndexValueHolder, String> store = new ConcurrentSkipListMap<ICompoundIndexValueHolder, String>();
+        for (int customer = 1; customer <= 3; customer++)
+            for (long ts = 1; ts <= 10; ts++)
+                store.put(new SimpleCompoundIndexValueHolder(customer, ts), customer + ":" + ts);
+
+        //customerId = 2 AND timestamp > 3 AND timestamp <= 6
+        List<String> res = scan(store, new CompoundIndexValueHolder(new Object[]{2, 3L}), false,
+                new CompoundIndexValueHolder(new Object[]{2, 6L}), true);
+        Assert.assertEquals(Arrays.asList("2:4", "2:5", "2:6"), res);
+
+        //customerId = 2 AND timestamp >= 8, the missing bound is an edge
+        res = scan(store, new CompoundIndexValueHolder(new Object[]{2, 8L}), true,
+                new CompoundIndexValueHolder(new Object[]{2, CompoundCustomTypeDataIndex._highEdge}), true);
+        Assert.assertEquals(Arrays.asList("2:8", "2:9", "2:10"), res);
+    }
+
+    @Test
+    public void testTrailingSegmentsFilledWithEdges() {
+        ConcurrentSkipListMap<ICompoundIndexValueHolder, String> store = new ConcurrentSkipListMap<ICompoundIndexValueHolder, String>();
+        for (int customer = 1; customer <= 2; customer++)
+            for (long ts = 1; ts <= 5; ts++)
+                for (int line = 1; line <= 2; line++)
+                    store.put(new CompoundIndexValueHolder(new Object[]{customer, ts, line}), customer + ":" + ts + ":" + line);
+
+        //customerId = 1 AND timestamp > 2 AND timestamp < 4, the third segment is not constrained
+        List<String> res = scan(store,
+                new CompoundIndexValueHolder(new Object[]{1, 2L, CompoundCustomTypeDataIndex._highEdge}), true,
+                new CompoundIndexValueHolder(new Object[]{1, 4L, CompoundCustomTypeDataIndex._lowEdge}), true);
+        Assert.assertEquals(Arrays.asList("1:3:1", "1:3:2"), res);
+
+        //customerId = 1 AND timestamp >= 4 AND timestamp <= 4
+        res = scan(store,
+                new CompoundIndexValueHolder(new Object[]{1, 4L, CompoundCustomTypeDataIndex._lowEdge}), true,
+                new CompoundIndexValueHolder(new Object[]{1, 4L, CompoundCustomTypeDataIndex._highEdge}), true);
+        Assert.assertEquals(Arrays.asList("1:4:1", "1:4:2"), res);
+    }
+
+    private static List<String> scan(ConcurrentSkipListMap<ICompoundIndexValueHolder, String> store,
+                                     ICompoundIndexValueHolder min, boolean includeMin,
+                                     ICompoundIndexValueHolder max, boolean includeMax) {
+        return new ArrayList<String>(store.subMap(min, includeMin, max, includeMax).values());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space;
+
+import com.gigaspaces.client.iterator.internal.SpaceIteratorAggregator;
+import com.gigaspaces.query.aggregators.CountAggregator;
+import com.gigaspaces.query.aggregators.GroupByAggregator;
+import com.gigaspaces.query.aggregators.OrderByAggregator;
+import com.gigaspaces.query.aggregators.OrderBy;
+import com.gigaspaces.query.aggregators.SpaceEntriesAggregator;
+import com.gigaspaces.query.aggregators.SpaceEntriesAggregatorContext;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ParallelScanHandlerTest {
+
+    @Test
+    public void testMergeable() {
+        Assert.assertTrue(ParallelScanHandler.isMergeable(Collections.<SpaceEntriesAggregator>singletonList(new CountAggregator())));
+        Assert.assertTrue(ParallelScanHandler.isMergeable(Collections.<SpaceEntriesAggregator>singletonList(
+                new GroupByAggregator().groupBy("city").selectCount())));
+        Assert.assertTrue(ParallelScanHandler.isMergeable(Collections.<SpaceEntriesAggregator>singletonList(
+                new OrderByAggregator(100).orderBy("age", OrderBy.ASC))));
+        Assert.assertFalse(ParallelScanHandler.isMergeable(Collections.<SpaceEntriesAggregator>singletonList(new SpaceIteratorAggregator())));
+        Assert.assertFalse(ParallelScanHandler.isMergeable(Collections.<SpaceEntriesAggregator>singletonList(
+                new GroupByAggregator().groupBy("city").select(new CountAggregator() {
+                }))));
+    }
+
+    @Test
+    public void testMergeAggregators() {
+        List<SpaceEntriesAggregator> aggregators = Collections.<SpaceEntriesAggregator>singletonList(new CountAggregator());
+        for (int lane = 1; lane <= 3; lane++) {
+            CountAggregator count = new CountAggregator();
+            for (int i = 0; i < lane; i++)
+                count.aggregate((SpaceEntriesAggregatorContext) null);
+            ParallelScanHandler.mergeAggregators(aggregators, Collections.<SpaceEntriesAggregator>singletonList(count));
+        }
+        Assert.assertEquals(Long.valueOf(6), aggregators.get(0).getIntermediateResult());
+    }
+
+    @Test
+    public void testSharedBatchContext() {
+        AggregateOperationContext operationContext = new AggregateOperationContext(null, 5, 1);
+        operationContext.addResult(null);
+        operationContext.addToProcessedUidsIfNeeded("uid0");
+        ParallelScanHandler.ParallelScanBatchContext shared = new ParallelScanHandler.ParallelScanBatchContext(null, operationContext);
+        ParallelScanHandler.ParallelScanBatchContext lane1 = new ParallelScanHandler.ParallelScanBatchContext(null, shared);
+        ParallelScanHandler.ParallelScanBatchContext lane2 = new ParallelScanHandler.ParallelScanBatchContext(null, shared);
+
+        Assert.assertTrue(lane1.isInProcessedUids("uid0"));
+        lane1.addToProcessedUidsIfNeeded("uid1");
+        Assert.assertTrue(lane2.isInProcessedUids("uid1"));
+
+        //the operation context already has one of its five results
+        for (int i = 0; i < 2; i++) {
+            lane1.addResult(null);
+            lane2.addResult(null);
+        }
+        Assert.assertTrue(lane1.reachedMaxEntries());
+        Assert.assertTrue(shared.reachedMaxEntries());
+        Assert.assertEquals(4, shared.getNumResults());
+        Assert.assertTrue(lane1.getResults().isEmpty());
+        Assert.assertEquals(Arrays.asList("uid1"), Arrays.asList(shared.getProcessedUids().toArray()));
+    }
+}
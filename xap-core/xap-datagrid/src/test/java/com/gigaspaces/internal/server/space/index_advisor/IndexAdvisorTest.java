@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.index_advisor;
+
+import com.gigaspaces.management.space.IndexRecommendation;
+import com.gigaspaces.metadata.index.SpaceIndex;
+import com.gigaspaces.metadata.index.SpaceIndexFactory;
+import com.gigaspaces.metadata.index.SpaceIndexType;
+import com.j_spaces.core.client.TemplateMatchCodes;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class IndexAdvisorTest {
+    private final QueryWorkloadRecorder recorder = new QueryWorkloadRecorder(true, 1);
+    private final Map<String, SpaceIndex> indexes = new HashMap<String, SpaceIndex>();
+
+    @Test
+    public void testSelectiveEqualityAndRange() {
+        for (int i = 0; i < 10; i++) {
+            //id % 100 == 7 matches 1 of 100 entries
+            record("Person", 100000, equality("id", 7, 100, 100), range("age", 90, 100));
+            //a non selective condition is not recommended
+            record("Person", 100000, equality("active", true, 2, 100));
+        }
+        List<IndexRecommendation> recommendations = recommend();
+        Assert.assertEquals(2, recommendations.size());
+        //the equality condition saves more scanned entries
+        assertRecommendation(recommendations.get(0), "Person", SpaceIndexType.EQUAL, "id");
+        Assert.assertEquals(10, recommendations.get(0).getOccurrences());
+        Assert.assertEquals(100000, recommendations.get(0).getAverageScannedEntries());
+        Assert.assertEquals(0.01, recommendations.get(0).getSelectivity(), 0.001);
+        assertRecommendation(recommendations.get(1), "Person", SpaceIndexType.ORDERED, "age");
+    }
+
+    @Test
+    public void testExistingIndexAndRareQueries() {
+        for (int i = 0; i < 10; i++)
+            record("Person", 5000, equality("id", 7, 100, 100));
+        for (int i = 0; i < IndexAdvisor.MIN_OCCURRENCES - 1; i++)
+            record("Person", 5000, equality("name", "x", 100, 100));
+        indexes.put("id", SpaceIndexFactory.createPropertyIndex("id", SpaceIndexType.EQUAL));
+        Assert.assertTrue(recommend().isEmpty());
+
+        //types which are no longer defined are ignored
+        for (int i = 0; i < 10; i++)
+            record("Removed", 5000, equality("id", 7, 100, 100));
+        Assert.assertTrue(IndexAdvisor.recommend(recorder.getWorkload(), typeName -> null).isEmpty());
+    }
+
+    @Test
+    public void testRangeOverEqualityIndex() {
+        for (int i = 0; i < 10; i++)
+            record("Person", 100000, range("age", 90, 100));
+        indexes.put("age", SpaceIndexFactory.createPropertyIndex("age", SpaceIndexType.EQUAL));
+        List<IndexRecommendation> recommendations = recommend();
+        Assert.assertEquals(1, recommendations.size());
+        assertRecommendation(recommendations.get(0), "Person", SpaceIndexType.EQUAL_AND_ORDERED, "age");
+
+        indexes.put("age", SpaceIndexFactory.createPropertyIndex("age", SpaceIndexType.ORDERED));
+        Assert.assertTrue(recommend().isEmpty());
+    }
+
+    @Test
+    public void testCompound() {
+        for (int i = 0; i < 10; i++) {
+            QueryWorkloadRecorder.PredicateSample city = equality("city", "a", 4, 100);
+            QueryWorkloadRecorder.PredicateSample street = equality("street", "b", 4, 100);
+            //city and street are each matched by a quarter of the entries, and together by 2 of 100
+            recorder.getOrCreate("Address").record(Arrays.asList(street, city), 20000, 100, 2);
+        }
+        List<IndexRecommendation> recommendations = recommend();
+        Assert.assertEquals(1, recommendations.size());
+        assertRecommendation(recommendations.get(0), "Address", SpaceIndexType.EQUAL, "city", "street");
+        Assert.assertTrue(recommendations.get(0).isCompound());
+        Assert.assertEquals(0.02, recommendations.get(0).getSelectivity(), 0.001);
+        SpaceIndex index = IndexAdvisor.toSpaceIndex(recommendations.get(0));
+        Assert.assertEquals(SpaceIndexFactory.createCompoundIndexName(new String[]{"city", "street"}), index.getName());
+
+        indexes.put(index.getName(), index);
+        Assert.assertTrue(recommend().isEmpty());
+    }
+
+    private List<IndexRecommendation> recommend() {
+        return IndexAdvisor.recommend(recorder.getWorkload(), typeName -> indexes);
+    }
+
+    private void record(String typeName, long scanned, QueryWorkloadRecorder.PredicateSample... predicates) {
+        recorder.getOrCreate(typeName).record(Arrays.asList(predicates), scanned, 0, 0);
+    }
+
+    /**
+     * an equality condition sampled against entries with values 0..sampled-1 modulo the given
+     * modulus
+     */
+    private static QueryWorkloadRecorder.PredicateSample equality(String property, Object value, int modulus, int sampled) {
+        QueryWorkloadRecorder.PredicateSample res = new QueryWorkloadRecorder.PredicateSample(property, 0, TemplateMatchCodes.EQ, value, null, false);
+        for (int i = 0; i < sampled; i++) {
+            int key = i % modulus;
+            res.sample(value instanceof Integer ? (Object) key : value instanceof Boolean ? (Object) (key == 0) : key == 0 ? value : "other");
+        }
+        return res;
+    }
+
+    /**
+     * a greater-or-equal condition sampled against the values 0..sampled-1
+     */
+    private static QueryWorkloadRecorder.PredicateSample range(String property, int from, int sampled) {
+        QueryWorkloadRecorder.PredicateSample res = new QueryWorkloadRecorder.PredicateSample(property, 1, TemplateMatchCodes.GE, from, null, false);
+        for (int i = 0; i < sampled; i++)
+            res.sample(i);
+        return res;
+    }
+
+    private static void assertRecommendation(IndexRecommendation recommendation, String typeName, SpaceIndexType indexType, String... properties) {
+        Assert.assertEquals(typeName, recommendation.getTypeName());
+        Assert.assertEquals(indexType, recommendation.getIndexType());
+        Assert.assertEquals(new ArrayList<String>(Arrays.asList(properties)), Arrays.asList(recommendation.getProperties()));
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.recovery.checkpoint;
+
+import com.gigaspaces.internal.cluster.node.impl.groups.ReplicationCheckpoint;
+import com.gigaspaces.internal.cluster.node.impl.replica.ISpaceReplicaData;
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class SpaceCheckpointWriterReaderTest {
+
+    private static final int[] STAGE_SIZES = {3, 2000, 0, 10};
+
+    private ExecutorService _executor;
+
+    @Before
+    public void setUp() {
+        _executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        _executor.shutdownNow();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ReplicationCheckpoint checkpoint = new ReplicationCheckpoint("group", "primary", "uid-1", 42);
+        SpaceCheckpointReader reader = new SpaceCheckpointReader(new ByteArrayInputStream(writeCheckpoint(checkpoint)));
+
+        Assert.assertEquals(PlatformLogicalVersion.getLogicalVersion(), reader.getLogicalVersion());
+        Assert.assertEquals("group", reader.getCheckpoint().getGroupName());
+        Assert.assertEquals(42, reader.getCheckpoint().getLastProcessedKey());
+        Assert.assertTrue(reader.getCheckpoint().isTakenFrom("primary", "uid-1"));
+        Assert.assertFalse(reader.getCheckpoint().isTakenFrom("primary", "uid-2"));
+
+        final List<TestReplicaData> consumed = Collections.synchronizedList(new ArrayList<TestReplicaData>());
+        long count = reader.readAll(_executor, 8, new SpaceCheckpointReader.IDataConsumer() {
+            @Override
+            public void consume(ISpaceReplicaData data) {
+                consumed.add((TestReplicaData) data);
+            }
+        });
+
+        Assert.assertEquals(2013, count);
+        Assert.assertEquals(2013, consumed.size());
+        Set<String> uids = new HashSet<String>();
+        int stage = 0;
+        for (TestReplicaData data : consumed) {
+            // the data of a stage is consumed only once all the data of the previous stage was
+            Assert.assertTrue(data.getStage() >= stage);
+            stage = data.getStage();
+            uids.add(data.getUid());
+        }
+        Assert.assertEquals(2013, uids.size());
+    }
+
+    @Test
+    public void testOrderedBlocksConsumedInWrittenOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SpaceCheckpointWriter writer = new SpaceCheckpointWriter(out, new ReplicationCheckpoint("group", "primary", "uid-1", 42));
+        char[] payload = new char[2048];
+        Arrays.fill(payload, 'x');
+        for (int stage = 0; stage < 2; stage++) {
+            writer.beginStage();
+            // a block holds about 120 items, ordered data spans several blocks
+            for (int i = 0; i < 1000; i++)
+                writer.write(new TestReplicaData(stage + "-" + i, stage, new String(payload)), isOrdered(i));
+            writer.endStage("stage-" + stage);
+        }
+        writer.finish();
+        writer.close();
+
+        final List<TestReplicaData> consumed = Collections.synchronizedList(new ArrayList<TestReplicaData>());
+        SpaceCheckpointReader reader = new SpaceCheckpointReader(new ByteArrayInputStream(out.toByteArray()));
+        long count = reader.readAll(_executor, 8, new SpaceCheckpointReader.IDataConsumer() {
+            @Override
+            public void consume(ISpaceReplicaData data) throws Exception {
+                // the first block of a stage is the slowest to consume
+                if (indexOf((TestReplicaData) data) < 100)
+                    Thread.sleep(1);
+                consumed.add((TestReplicaData) data);
+            }
+        });
+
+        Assert.assertEquals(2000, count);
+        Assert.assertEquals(2000, consumed.size());
+        int stage = 0;
+        int lastOrderedIndex = -1;
+        for (TestReplicaData data : consumed) {
+            if (data.getStage() != stage) {
+                Assert.assertTrue(data.getStage() > stage);
+                stage = data.getStage();
+                lastOrderedIndex = -1;
+            }
+            int index = indexOf(data);
+            if (isOrdered(index)) {
+                Assert.assertTrue("stage " + stage + " consumed " + index + " after " + lastOrderedIndex, index > lastOrderedIndex);
+                lastOrderedIndex = index;
+            }
+        }
+    }
+
+    @Test
+    public void testCorruptedBlockRejected() throws Exception {
+        byte[] bytes = writeCheckpoint(new ReplicationCheckpoint("group", "primary", "uid-1", 42));
+        bytes[bytes.length / 2] ^= 0x5A;
+        assertReadFails(bytes);
+    }
+
+    @Test
+    public void testIncompleteCheckpointRejected() throws Exception {
+        byte[] bytes = writeCheckpoint(new ReplicationCheckpoint("group", "primary", "uid-1", 42));
+        assertReadFails(Arrays.copyOf(bytes, bytes.length - 100));
+    }
+
+    private void assertReadFails(byte[] bytes) throws Exception {
+        SpaceCheckpointReader reader = new SpaceCheckpointReader(new ByteArrayInputStream(bytes));
+        try {
+            reader.readAll(_executor, 8, new SpaceCheckpointReader.IDataConsumer() {
+                @Override
+                public void consume(ISpaceReplicaData data) {
+                }
+            });
+            Assert.fail("Expected corrupted checkpoint to be rejected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static boolean isOrdered(int index) {
+        return (index / 300) % 2 == 0;
+    }
+
+    private static int indexOf(TestReplicaData data) {
+        return Integer.parseInt(data.getUid().substring(data.getUid().indexOf('-') + 1));
+    }
+
+    private static byte[] writeCheckpoint(ReplicationCheckpoint checkpoint) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SpaceCheckpointWriter writer = new SpaceCheckpointWriter(out, checkpoint);
+        char[] payload = new char[512];
+        Arrays.fill(payload, 'x');
+        for (int stage = 0; stage < STAGE_SIZES.length; stage++) {
+            writer.beginStage();
+            for (int i = 0; i < STAGE_SIZES[stage]; i++)
+                writer.write(new TestReplicaData(stage + "-" + i, stage, new String(payload)));
+            writer.endStage("stage-" + stage);
+        }
+        writer.finish();
+        Assert.assertEquals(2013, writer.getTotalCount());
+        writer.close();
+        return out.toByteArray();
+    }
+
+    public static class TestReplicaData implements ISpaceReplicaData {
+        private static final long serialVersionUID = 1L;
+
+        private String _uid;
+        private int _stage;
+        private String _payload;
+
+        public TestReplicaData() {
+        }
+
+        public TestReplicaData(String uid, int stage, String payload) {
+            _uid = uid;
+            _stage = stage;
+            _payload = payload;
+        }
+
+        public int getStage() {
+            return _stage;
+        }
+
+        @Override
+        public String getUid() {
+            return _uid;
+        }
+
+        @Override
+        public boolean supportsReplicationFilter() {
+            return false;
+        }
+
+        @Override
+        public boolean isEntryReplicaData() {
+            return true;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeUTF(_uid);
+            out.writeInt(_stage);
+            out.writeUTF(_payload);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            _uid = in.readUTF();
+            _stage = in.readInt();
+            _payload = in.readUTF();
+        }
+    }
+}
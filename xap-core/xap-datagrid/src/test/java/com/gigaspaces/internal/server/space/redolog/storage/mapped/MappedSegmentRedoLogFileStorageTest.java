@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.redolog.storage.mapped;
+
+import com.gigaspaces.internal.cluster.node.impl.backlog.BacklogWeightPolicyFactory;
+import com.gigaspaces.internal.cluster.node.impl.backlog.globalorder.GlobalOrderDiscardedReplicationPacket;
+import com.gigaspaces.internal.cluster.node.impl.packets.IReplicationOrderedPacket;
+import com.gigaspaces.internal.server.space.redolog.RedoLogFileCompromisedException;
+import com.gigaspaces.internal.server.space.redolog.storage.StorageFullException;
+import com.gigaspaces.internal.server.space.redolog.storage.StorageReadOnlyIterator;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferRedoLogFileConfig;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.WeightedBatch;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MappedSegmentRedoLogFileStorageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MappedSegmentRedoLogFileStorage<IReplicationOrderedPacket> storage;
+
+    @Before
+    public void setUp() {
+        ByteBufferRedoLogFileConfig<IReplicationOrderedPacket> config = new ByteBufferRedoLogFileConfig<IReplicationOrderedPacket>();
+        config.setMaxSizePerSegment(4 * 1024);
+        config.setMaxScanLength(256);
+        storage = new MappedSegmentRedoLogFileStorage<IReplicationOrderedPacket>(folder.getRoot(), "redolog_test", config,
+                BacklogWeightPolicyFactory.create("fixed"));
+    }
+
+    @After
+    public void tearDown() {
+        storage.close();
+    }
+
+    @Test
+    public void testAppendAndIterate() throws Exception {
+        append(0, 1000);
+        Assert.assertEquals(1000, storage.size());
+        Assert.assertTrue(segmentFiles() > 1);
+        storage.validateIntegrity();
+
+        assertIteration(0, 0, 1000);
+        // iterators which start in the middle of a segment use the sparse index
+        for (int i = 0; i < 1000; i += 37)
+            assertIteration(0, i, 1000);
+        Assert.assertFalse(storage.readOnlyIterator(1000).hasNext());
+    }
+
+    @Test
+    public void testDeleteOldestPackets() throws Exception {
+        append(0, 1000);
+        int segments = segmentFiles();
+        storage.deleteOldestPackets(700);
+        Assert.assertEquals(300, storage.size());
+        Assert.assertTrue(segmentFiles() < segments);
+        storage.validateIntegrity();
+        assertIteration(700, 0, 300);
+        assertIteration(700, 150, 300);
+
+        storage.deleteOldestPackets(300);
+        Assert.assertTrue(storage.isEmpty());
+        Assert.assertEquals(1, segmentFiles());
+
+        append(1000, 10);
+        Assert.assertEquals(10, storage.size());
+        assertIteration(1000, 0, 10);
+    }
+
+    @Test
+    public void testRemoveFirstBatch() throws Exception {
+        append(0, 500);
+        long removed = 0;
+        while (!storage.isEmpty()) {
+            WeightedBatch<IReplicationOrderedPacket> batch = storage.removeFirstBatch(30, -1);
+            for (IReplicationOrderedPacket packet : batch.getBatch())
+                Assert.assertEquals(removed++, packet.getKey());
+        }
+        Assert.assertEquals(500, removed);
+        Assert.assertEquals(1, segmentFiles());
+        storage.validateIntegrity();
+    }
+
+    @Test
+    public void testIteratorOutlivesDeletedSegment() throws Exception {
+        append(0, 1000);
+        StorageReadOnlyIterator<IReplicationOrderedPacket> iterator = storage.readOnlyIterator(0);
+        Assert.assertEquals(0, iterator.next().getKey());
+        storage.deleteOldestPackets(900);
+        // the segment of the iterator is still mapped until the iterator moves on
+        Assert.assertEquals(1, iterator.next().getKey());
+        iterator.close();
+    }
+
+    @Test
+    public void testStorageFull() throws Exception {
+        ByteBufferRedoLogFileConfig<IReplicationOrderedPacket> config = new ByteBufferRedoLogFileConfig<IReplicationOrderedPacket>();
+        config.setMaxSizePerSegment(1024);
+        config.setMaxSwapSize(2048);
+        MappedSegmentRedoLogFileStorage<IReplicationOrderedPacket> limited = new MappedSegmentRedoLogFileStorage<IReplicationOrderedPacket>(
+                folder.newFolder(), "redolog_full", config, BacklogWeightPolicyFactory.create("fixed"));
+        try {
+            limited.appendBatch(packets(0, 1000));
+            Assert.fail("expected StorageFullException");
+        } catch (StorageFullException e) {
+            Assert.assertEquals(1000, limited.size() + e.getDeniedPackets().size());
+            Assert.assertEquals(limited.size(), ((IReplicationOrderedPacket) e.getDeniedPackets().get(0)).getKey());
+        } finally {
+            limited.close();
+        }
+    }
+
+    @Test
+    public void testCorruptedRecordDetected() throws Exception {
+        append(0, 10);
+        File[] files = folder.getRoot().listFiles();
+        Assert.assertEquals(1, files.length);
+        try (RandomAccessFile raf = new RandomAccessFile(files[0], "rw")) {
+            raf.seek(MappedSegment.HEADER_LENGTH + 2);
+            int value = raf.read();
+            raf.seek(MappedSegment.HEADER_LENGTH + 2);
+            raf.write(value ^ 0xFF);
+        }
+        try {
+            storage.validateIntegrity();
+            Assert.fail("expected RedoLogFileCompromisedException");
+        } catch (RedoLogFileCompromisedException e) {
+            // expected
+        }
+    }
+
+    private void append(long fromKey, int count) {
+        storage.appendBatch(packets(fromKey, count));
+    }
+
+    private static List<IReplicationOrderedPacket> packets(long fromKey, int count) {
+        List<IReplicationOrderedPacket> packets = new ArrayList<IReplicationOrderedPacket>(count);
+        for (int i = 0; i < count; i++)
+            packets.add(new GlobalOrderDiscardedReplicationPacket(fromKey + i));
+        return packets;
+    }
+
+    private void assertIteration(long firstKey, long fromIndex, long size) {
+        StorageReadOnlyIterator<IReplicationOrderedPacket> iterator = storage.readOnlyIterator(fromIndex);
+        long expected = fromIndex;
+        while (iterator.hasNext())
+            Assert.assertEquals(firstKey + expected++, iterator.next().getKey());
+        Assert.assertEquals(size, expected);
+    }
+
+    private int segmentFiles() {
+        return folder.getRoot().listFiles().length;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class CompressedBitmapTest {
+    @Test
+    public void testAddRemoveAgainstBitSet() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+        Random random = new Random(11);
+        for (int i = 0; i < 200000; i++) {
+            //dense values in the first chunks, sparse ones beyond
+            int value = random.nextBoolean() ? random.nextInt(3 * 65536) : random.nextInt(1 << 24);
+            if (random.nextInt(3) == 0)
+                Assert.assertEquals(expected.get(value), bitmap.remove(value));
+            else
+                Assert.assertEquals(!expected.get(value), bitmap.add(value));
+            expected.set(value, bitmap.contains(value));
+        }
+        assertSame(expected, bitmap);
+
+        for (int value = expected.nextSetBit(0); value >= 0; value = expected.nextSetBit(value + 1))
+            Assert.assertTrue(bitmap.remove(value));
+        Assert.assertTrue(bitmap.isEmpty());
+        Assert.assertEquals(-1, bitmap.cursor().next());
+    }
+
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(5);
+        for (int round = 0; round < 20; round++) {
+            BitSet a = randomBitSet(random);
+            BitSet b = randomBitSet(random);
+            CompressedBitmap ba = toBitmap(a);
+            CompressedBitmap bb = toBitmap(b);
+
+            BitSet and = (BitSet) a.clone();
+            and.and(b);
+            CompressedBitmap bAnd = ba.copy();
+            bAnd.and(bb);
+            assertSame(and, bAnd);
+
+            BitSet or = (BitSet) a.clone();
+            or.or(b);
+            CompressedBitmap bOr = ba.copy();
+            bOr.or(bb);
+            assertSame(or, bOr);
+
+            BitSet andNot = (BitSet) a.clone();
+            andNot.andNot(b);
+            CompressedBitmap bAndNot = ba.copy();
+            bAndNot.andNot(bb);
+            assertSame(andNot, bAndNot);
+
+            //operands are not modified
+            assertSame(a, ba);
+            assertSame(b, bb);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeValue() {
+        new CompressedBitmap().add(-1);
+    }
+
+    private static BitSet randomBitSet(Random random) {
+        BitSet res = new BitSet();
+        //per chunk density ranges from sparse to full
+        for (int chunk = 0; chunk < 6; chunk++) {
+            int density = random.nextInt(4);
+            int count = density == 0 ? 0 : density == 1 ? 100 : density == 2 ? 6000 : 60000;
+            for (int i = 0; i < count; i++)
+                res.set(chunk * 65536 + random.nextInt(65536));
+        }
+        return res;
+    }
+
+    private static CompressedBitmap toBitmap(BitSet bits) {
+        CompressedBitmap res = new CompressedBitmap();
+        for (int value = bits.nextSetBit(0); value >= 0; value = bits.nextSetBit(value + 1))
+            res.add(value);
+        return res;
+    }
+
+    private static void assertSame(BitSet expected, CompressedBitmap actual) {
+        Assert.assertEquals(expected.cardinality(), actual.cardinality());
+        CompressedBitmap.Cursor cursor = actual.cursor();
+        for (int value = expected.nextSetBit(0); value >= 0; value = expected.nextSetBit(value + 1))
+            Assert.assertEquals(value, cursor.next());
+        Assert.assertEquals(-1, cursor.next());
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrentBTreeMapTest {
+    @Test
+    public void testRandomOperationsAgainstTreeMap() {
+        ConcurrentBTreeMap<Integer, String> map = new ConcurrentBTreeMap<Integer, String>(8);
+        TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+        Random random = new Random(17);
+        for (int i = 0; i < 50000; i++) {
+            Integer key = random.nextInt(2000);
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    Assert.assertEquals(expected.putIfAbsent(key, "v" + i), map.putIfAbsent(key, "v" + i));
+                    break;
+                case 2:
+                    Assert.assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    Assert.assertEquals(expected.get(key), map.get(key));
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        assertSameContent(expected, map);
+        assertSameContent(expected.descendingMap(), map.descendingMap());
+        assertSameContent(expected.subMap(100, true, 900, false), map.subMap(100, true, 900, false));
+        assertSameContent(expected.headMap(555, true).descendingMap(), map.headMap(555, true).descendingMap());
+        assertSameContent(expected.tailMap(1500, false), map.tailMap(1500, false));
+        assertSameContent(expected.descendingMap().subMap(1200, false, 300, true), map.descendingMap().subMap(1200, false, 300, true));
+
+        for (int key = -1; key <= 2001; key += 7) {
+            Assert.assertEquals(expected.floorKey(key), map.floorKey(key));
+            Assert.assertEquals(expected.lowerKey(key), map.lowerKey(key));
+            Assert.assertEquals(expected.ceilingKey(key), map.ceilingKey(key));
+            Assert.assertEquals(expected.higherKey(key), map.higherKey(key));
+        }
+        Assert.assertEquals(expected.firstKey(), map.firstKey());
+        Assert.assertEquals(expected.lastKey(), map.lastKey());
+    }
+
+    @Test
+    public void testEmptiedLeavesAreUnlinked() {
+        ConcurrentBTreeMap<Long, Long> map = new ConcurrentBTreeMap<Long, Long>(4);
+        for (long i = 0; i < 1000; i++)
+            map.put(i, i);
+        for (long i = 0; i < 1000; i++)
+            if (i % 100 != 0)
+                Assert.assertEquals(Long.valueOf(i), map.remove(i));
+        Assert.assertEquals(10, map.size());
+        List<Long> keys = new ArrayList<Long>(map.keySet());
+        for (int i = 0; i < keys.size(); i++)
+            Assert.assertEquals(Long.valueOf(i * 100), keys.get(i));
+        Assert.assertEquals(Long.valueOf(900), map.lastKey());
+        Assert.assertEquals(Long.valueOf(200), map.floorKey(299L));
+        Assert.assertEquals(Long.valueOf(300), map.ceilingKey(201L));
+
+        Iterator<Long> iter = map.keySet().iterator();
+        while (iter.hasNext()) {
+            iter.next();
+            iter.remove();
+        }
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.firstEntry());
+        Assert.assertEquals(1, map.leafCount());
+    }
+
+    @Test
+    public void testConcurrentlyEmptiedNeighbourLeavesAreUnlinked() throws Exception {
+        final ConcurrentBTreeMap<Integer, Integer> map = new ConcurrentBTreeMap<Integer, Integer>(4);
+        final int keys = 40000;
+        final int removers = 4;
+        for (int i = 0; i < keys; i++)
+            map.put(i, i);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int r = 0; r < removers; r++) {
+            final int offset = r;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        //interleaved keys, so neighbour leaves are emptied at the same time
+                        for (int i = offset; i < keys; i += removers)
+                            if (map.remove(i) == null)
+                                throw new AssertionError("failed removing " + i);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        if (failure.get() != null)
+            throw new AssertionError(failure.get());
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertEquals(1, map.leafCount());
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void testNonComparableKey() {
+        new ConcurrentBTreeMap<Object, String>().put(new Object(), "value");
+    }
+
+    @Test
+    public void testConcurrentReadersAndWriters() throws Exception {
+        final ConcurrentBTreeMap<Integer, Integer> map = new ConcurrentBTreeMap<Integer, Integer>(8);
+        //even keys are stable, odd keys are added and removed concurrently
+        for (int i = 0; i < 20000; i += 2)
+            map.put(i, i);
+        final int writers = 2;
+        final int readers = 2;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int w = 0; w < writers; w++) {
+            final int offset = w;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int round = 0; round < 5; round++) {
+                            for (int i = 1 + 2 * offset; i < 20000; i += 2 * writers)
+                                map.put(i, i);
+                            for (int i = 1 + 2 * offset; i < 20000; i += 2 * writers)
+                                if (!map.remove(i, i))
+                                    throw new AssertionError("failed removing " + i);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int round = 0; round < 20; round++) {
+                            int stable = 0;
+                            Integer previous = null;
+                            for (Integer key : map.subMap(1000, true, 15000, false).keySet()) {
+                                if (previous != null && previous >= key)
+                                    throw new AssertionError("out of order " + previous + ", " + key);
+                                previous = key;
+                                if (key % 2 == 0)
+                                    stable++;
+                            }
+                            if (stable != 7000)
+                                throw new AssertionError("missed stable keys: " + stable);
+                            for (int i = 0; i < 20000; i += 2)
+                                if (map.get(i) == null)
+                                    throw new AssertionError("missing key " + i);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        if (failure.get() != null)
+            throw new AssertionError(failure.get());
+        Assert.assertEquals(10000, map.size());
+    }
+
+    private static void assertSameContent(NavigableMap<Integer, String> expected, NavigableMap<Integer, String> actual) {
+        Assert.assertEquals(new ArrayList<Integer>(expected.keySet()), new ArrayList<Integer>(actual.keySet()));
+        Assert.assertEquals(new ArrayList<String>(expected.values()), new ArrayList<String>(actual.values()));
+        if (!expected.isEmpty()) {
+            Assert.assertEquals(expected.firstKey(), actual.firstKey());
+            Assert.assertEquals(expected.lastKey(), actual.lastKey());
+        }
+    }
+}
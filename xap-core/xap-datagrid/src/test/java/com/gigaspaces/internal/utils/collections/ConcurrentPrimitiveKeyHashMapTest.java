@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrentPrimitiveKeyHashMapTest {
+    @Test
+    public void testLongKeys() {
+        ConcurrentLongKeyHashMap<String> map = new ConcurrentLongKeyHashMap<String>(4, 4);
+        for (long i = 0; i < 10000; i++)
+            Assert.assertNull(map.putIfAbsent(i * 31, "v" + i));
+        Assert.assertEquals(10000, map.size());
+        Assert.assertEquals("v7", map.get(7L * 31));
+        Assert.assertEquals("v7", map.get(Long.valueOf(7 * 31)));
+        // equals semantics of boxed keys are preserved
+        Assert.assertNull(map.get(Integer.valueOf(7 * 31)));
+        Assert.assertEquals("v3", map.putIfAbsent(3L * 31, "other"));
+
+        Assert.assertFalse(map.remove(5L * 31, "wrong"));
+        Assert.assertTrue(map.remove(5L * 31, "v5"));
+        Assert.assertNull(map.get(5L * 31));
+        Assert.assertTrue(map.replace(6L * 31, "v6", "new6"));
+        Assert.assertFalse(map.replace(6L * 31, "v6", "newer6"));
+        Assert.assertEquals("new6", map.get(6L * 31));
+        Assert.assertEquals(9999, map.size());
+
+        for (long i = 0; i < 10000; i++)
+            map.remove(i * 31);
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testIntKeysWithForeignKeys() {
+        ConcurrentIntKeyHashMap<String> map = new ConcurrentIntKeyHashMap<String>();
+        map.put(1, "one");
+        map.put(Long.valueOf(1), "long-one");
+        map.put("1", "string-one");
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals("one", map.get(1));
+        Assert.assertEquals("long-one", map.get(1L));
+        Assert.assertEquals("string-one", map.get("1"));
+
+        Set<Object> keys = new HashSet<Object>();
+        for (Map.Entry<Object, String> entry : map.entrySet())
+            keys.add(entry.getKey());
+        Assert.assertTrue(keys.contains(1));
+        Assert.assertTrue(keys.contains(1L));
+        Assert.assertTrue(keys.contains("1"));
+
+        map.keySet().remove(1);
+        Assert.assertNull(map.get(1));
+        Assert.assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testRemovedSlotsAreReclaimed() {
+        ConcurrentLongKeyHashMap<Long> map = new ConcurrentLongKeyHashMap<Long>(2, 1);
+        for (long i = 0; i < 100000; i++) {
+            Assert.assertNull(map.putIfAbsent(i, i));
+            if (i > 0)
+                Assert.assertTrue(map.remove(i - 1, i - 1));
+        }
+        Assert.assertEquals(1, map.size());
+        Assert.assertEquals(Long.valueOf(99999), map.get(99999L));
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        final ConcurrentMap<Object, Object> map = new ConcurrentLongKeyHashMap<Object>(16, 4);
+        final int threads = 4;
+        final int keysPerThread = 20000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final long base = (long) t * keysPerThread;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (long i = base; i < base + keysPerThread; i++) {
+                            Object value = "v" + i;
+                            if (map.putIfAbsent(i, value) != null)
+                                throw new AssertionError("unexpected mapping for " + i);
+                            if (map.get(i) != value)
+                                throw new AssertionError("missing mapping for " + i);
+                            if ((i & 1) == 0 && !map.remove(i, value))
+                                throw new AssertionError("failed removing " + i);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers)
+            worker.join();
+        if (failure.get() != null)
+            throw new AssertionError(failure.get());
+        Assert.assertEquals(threads * keysPerThread / 2, map.size());
+    }
+}
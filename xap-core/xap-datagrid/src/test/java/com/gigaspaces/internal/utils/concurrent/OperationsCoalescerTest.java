@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.concurrent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class OperationsCoalescerTest {
+
+    private static class RecordingExecutor implements OperationsCoalescer.BatchExecutor<Integer, Integer> {
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<Integer>();
+        private final long latency;
+
+        private RecordingExecutor(long latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public void execute(List<OperationsCoalescer.Operation<Integer, Integer>> operations) throws InterruptedException {
+            batchSizes.add(operations.size());
+            // simulates the remote call round trip
+            Thread.sleep(latency);
+            for (OperationsCoalescer.Operation<Integer, Integer> operation : operations) {
+                if (operation.getInput() < 0)
+                    operation.setError(new IllegalArgumentException("negative " + operation.getInput()));
+                else
+                    operation.setResult(operation.getInput() * 2);
+            }
+        }
+    }
+
+    @Test
+    public void testSingleOperationIsNotDelayed() throws Exception {
+        RecordingExecutor executor = new RecordingExecutor(0);
+        OperationsCoalescer<String, Integer, Integer> coalescer = new OperationsCoalescer<String, Integer, Integer>(executor, 10, TimeUnit.SECONDS, 10);
+        long start = System.nanoTime();
+        Assert.assertEquals(Integer.valueOf(42), coalescer.execute("a", 21));
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        try {
+            coalescer.execute("a", -1);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+        Assert.assertEquals(2, executor.batchSizes.size());
+    }
+
+    @Test
+    public void testConcurrentOperationsAreBatched() throws Exception {
+        final RecordingExecutor executor = new RecordingExecutor(50);
+        final OperationsCoalescer<String, Integer, Integer> coalescer = new OperationsCoalescer<String, Integer, Integer>(executor, 100, TimeUnit.MILLISECONDS, 8);
+        final int threads = 16;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < threads; i++) {
+                final int input = i;
+                futures.add(pool.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        return coalescer.execute(input % 2 == 0 ? "even" : "odd", input);
+                    }
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < threads; i++)
+                Assert.assertEquals(Integer.valueOf(i * 2), futures.get(i).get(30, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int total = 0;
+        for (int size : executor.batchSizes) {
+            Assert.assertTrue(size <= 8);
+            total += size;
+        }
+        Assert.assertEquals(threads, total);
+        Assert.assertTrue("Expected operations to be batched: " + executor.batchSizes, executor.batchSizes.size() < threads);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio;
+
+import com.gigaspaces.internal.io.MarshalInputStream;
+import com.gigaspaces.internal.io.MarshalOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+public class ReplyPacketTest {
+
+    @Test
+    public void testUncorrelatedReply() throws Exception {
+        CorrelationRecordingReplyPacket res = roundTrip(new ReplyPacket<Object>("result", null));
+        Assert.assertEquals("result", res.getResult());
+        Assert.assertEquals(0, res.getCorrelationId());
+        Assert.assertEquals(0, res.notifiedCorrelationId);
+    }
+
+    @Test
+    public void testCorrelatedReply() throws Exception {
+        ReplyPacket<Object> reply = new ReplyPacket<Object>("result", null);
+        reply.setCorrelationId(42);
+        CorrelationRecordingReplyPacket res = roundTrip(reply);
+        Assert.assertEquals("result", res.getResult());
+        Assert.assertEquals(42, res.getCorrelationId());
+        //the correlation id is known before the result is unmarshalled
+        Assert.assertEquals(42, res.notifiedCorrelationId);
+    }
+
+    private static CorrelationRecordingReplyPacket roundTrip(ReplyPacket<Object> reply) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MarshalOutputStream out = new MarshalOutputStream(bytes);
+        reply.writeExternal(out);
+        out.flush();
+
+        CorrelationRecordingReplyPacket res = new CorrelationRecordingReplyPacket();
+        res.readExternal(new MarshalInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        return res;
+    }
+
+    private static class CorrelationRecordingReplyPacket extends ReplyPacket<Object> {
+        private int notifiedCorrelationId;
+
+        @Override
+        protected void onCorrelationId(int correlationId) {
+            notifiedCorrelationId = correlationId;
+            Assert.assertNull(getResult());
+        }
+    }
+}
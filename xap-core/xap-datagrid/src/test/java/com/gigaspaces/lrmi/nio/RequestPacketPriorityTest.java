@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio;
+
+import com.gigaspaces.lrmi.OperationPriority;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RequestPacketPriorityTest {
+
+    private static final byte DEDICATED_LANE = (byte) (1 << 7);
+
+    private static byte[] requestBytes(byte flags) {
+        return new byte[]{0, 0, 0, flags};
+    }
+
+    @Test
+    public void testPriorityRoundTrip() {
+        for (OperationPriority priority : OperationPriority.values()) {
+            byte flags = RequestPacket.encodePriority(priority, (byte) 0);
+            Assert.assertEquals(priority, RequestPacket.decodePriority(flags));
+            Assert.assertEquals(priority, RequestPacket.getOperationPriorityFromBytes(requestBytes(flags)));
+        }
+    }
+
+    @Test
+    public void testDedicatedLane() {
+        byte replication = RequestPacket.encodePriority(OperationPriority.REPLICATION, (byte) 0);
+        Assert.assertTrue(RequestPacket.isDedicatedLaneFromBytes(requestBytes(replication)));
+        Assert.assertFalse(RequestPacket.isDedicatedLaneFromBytes(requestBytes(RequestPacket.encodePriority(OperationPriority.REGULAR, (byte) 0))));
+
+        // other priority classes sent over dedicated connections keep their priority
+        for (OperationPriority priority : new OperationPriority[]{OperationPriority.LIVENESS, OperationPriority.MONITORING}) {
+            byte flags = RequestPacket.encodePriority(priority, DEDICATED_LANE);
+            Assert.assertEquals(priority, RequestPacket.decodePriority(flags));
+            Assert.assertTrue(RequestPacket.isDedicatedLaneFromBytes(requestBytes(flags)));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+public class UnixDomainSocketsTest {
+
+    @Test
+    public void testTcpChannel() throws Exception {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            Assert.assertFalse(UnixDomainSockets.isUnixDomain(channel));
+        } finally {
+            channel.close();
+        }
+        Assert.assertFalse(UnixDomainSockets.isUnixDomain(channel));
+
+        ServerSocketChannel server = ServerSocketChannel.open();
+        try {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            SocketChannel client = SocketChannel.open(server.getLocalAddress());
+            SocketChannel accepted = server.accept();
+            try {
+                Assert.assertFalse(UnixDomainSockets.isUnixDomain(client));
+                Assert.assertFalse(UnixDomainSockets.isUnixDomain(accepted));
+            } finally {
+                client.close();
+                accepted.close();
+            }
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testConnect() throws Exception {
+        Assume.assumeTrue(UnixDomainSockets.isSupported());
+        final long runtimeId = System.nanoTime();
+        final int port = 4174;
+        File file = UnixDomainSockets.getSocketFile(runtimeId, port);
+        ServerSocketChannel server = UnixDomainSockets.bind(runtimeId, port);
+        try {
+            Assert.assertTrue(file.exists());
+            SocketChannel client = UnixDomainSockets.open();
+            client.connect(server.getLocalAddress());
+            SocketChannel accepted = server.accept();
+            try {
+                Assert.assertTrue(UnixDomainSockets.isUnixDomain(client));
+                Assert.assertTrue(UnixDomainSockets.isUnixDomain(accepted));
+                Assert.assertEquals(server.getLocalAddress(), NIOUtils.getRemoteSocketAddress(client));
+                Assert.assertNull(NIOUtils.getRemoteInetSocketAddress(accepted));
+
+                client.write(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+                ByteBuffer buffer = ByteBuffer.allocate(3);
+                while (buffer.hasRemaining())
+                    accepted.read(buffer);
+                Assert.assertArrayEquals(new byte[]{1, 2, 3}, buffer.array());
+            } finally {
+                client.close();
+                accepted.close();
+            }
+            Assert.assertTrue(UnixDomainSockets.isUnixDomain(client));
+        } finally {
+            UnixDomainSockets.close(server, runtimeId, port);
+        }
+        Assert.assertFalse(file.exists());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio.filters;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+public class IOFastCompressionFilterTest {
+
+    private static byte[] compressible(int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < length; i++)
+            sb.append("com.gigaspaces.Entry{id=").append(i % 100).append(", name='value").append(i % 7).append("'}");
+        return sb.substring(0, length).getBytes();
+    }
+
+    private static byte[] random(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testCodecRoundTrip() throws Exception {
+        int[] hashTable = new int[LZ4BlockCodec.HASH_TABLE_SIZE];
+        for (int length : new int[]{0, 1, 12, 13, 100, 5000, 200000}) {
+            for (byte[] src : new byte[][]{compressible(length), random(length), new byte[length]}) {
+                byte[] compressed = new byte[LZ4BlockCodec.maxCompressedLength(length) + 3];
+                int compressedLength = LZ4BlockCodec.compress(src, 0, length, compressed, 3, hashTable);
+                byte[] res = new byte[length];
+                LZ4BlockCodec.decompress(compressed, 3, compressedLength, res, 0, length);
+                Assert.assertArrayEquals(src, res);
+            }
+        }
+    }
+
+    @Test
+    public void testFilterRoundTrip() throws Exception {
+        IOFastCompressionFilter writer = new IOFastCompressionFilter(1024, 0.9);
+        IOFastCompressionFilter reader = new IOFastCompressionFilter(1024, 0.9);
+
+        byte[] small = compressible(100);
+        byte[] wrapped = writer.wrap(ByteBuffer.wrap(small));
+        Assert.assertEquals(small.length + 1, wrapped.length);
+        Assert.assertArrayEquals(small, reader.unrwap(ByteBuffer.wrap(wrapped)));
+
+        byte[] large = compressible(10000);
+        ByteBuffer buf = ByteBuffer.wrap(large);
+        wrapped = writer.wrap(buf);
+        Assert.assertFalse(buf.hasRemaining());
+        Assert.assertTrue(wrapped.length < large.length / 2);
+        Assert.assertArrayEquals(large, reader.unrwap(ByteBuffer.wrap(wrapped)));
+        Assert.assertTrue(writer.getCompressionRatio() > 1);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(large.length);
+        direct.put(large).flip();
+        Assert.assertArrayEquals(large, reader.unrwap(ByteBuffer.wrap(writer.wrap(direct))));
+    }
+
+    @Test
+    public void testIncompressibleBackoff() throws Exception {
+        IOFastCompressionFilter writer = new IOFastCompressionFilter(16, 0.9);
+        IOFastCompressionFilter reader = new IOFastCompressionFilter(16, 0.9);
+        byte[] compressible = compressible(4096);
+        // after a streak of incompressible messages compression is skipped for a while
+        for (int i = 0; i < 8; i++) {
+            byte[] src = random(4096 + i);
+            Assert.assertArrayEquals(src, reader.unrwap(ByteBuffer.wrap(writer.wrap(ByteBuffer.wrap(src)))));
+        }
+        byte[] wrapped = writer.wrap(ByteBuffer.wrap(compressible));
+        Assert.assertEquals(compressible.length + 1, wrapped.length);
+        Assert.assertArrayEquals(compressible, reader.unrwap(ByteBuffer.wrap(wrapped)));
+        // and probed again after the backoff
+        for (int i = 0; i < 15; i++)
+            writer.wrap(ByteBuffer.wrap(compressible));
+        Assert.assertTrue(writer.wrap(ByteBuffer.wrap(compressible)).length < compressible.length / 2);
+    }
+
+    @Test
+    public void testCorruptInput() throws Exception {
+        IOFastCompressionFilter filter = new IOFastCompressionFilter(16, 0.9);
+        byte[] wrapped = filter.wrap(ByteBuffer.wrap(compressible(4096)));
+        byte[] truncated = new byte[wrapped.length / 2];
+        System.arraycopy(wrapped, 0, truncated, 0, truncated.length);
+        try {
+            filter.unrwap(ByteBuffer.wrap(truncated));
+            Assert.fail("Expected DataFormatException");
+        } catch (DataFormatException e) {
+        }
+        try {
+            filter.unrwap(ByteBuffer.wrap(new byte[]{7, 1, 2}));
+            Assert.fail("Expected DataFormatException");
+        } catch (DataFormatException e) {
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio.info;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+public class NIOStatisticsTest {
+
+    @Test
+    public void testSerialization() throws Exception {
+        NIOStatistics statistics = new NIOStatistics(1000, 20, 3, 4, 500, 100,
+                new long[]{7, 0, 12}, new int[]{2, 0, 5});
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        statistics.writeExternal(out);
+        out.flush();
+        NIOStatistics copy = new NIOStatistics();
+        copy.readExternal(new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(statistics.getTimestamp(), copy.getTimestamp());
+        Assert.assertEquals(statistics.getQueueSize(), copy.getQueueSize());
+        Assert.assertEquals(5.0, copy.getCompressionRatio(), 0);
+        Assert.assertArrayEquals(statistics.getReadSelectorsBusyTime(), copy.getReadSelectorsBusyTime());
+        Assert.assertArrayEquals(statistics.getReadSelectorsChannels(), copy.getReadSelectorsChannels());
+    }
+
+    @Test
+    public void testNoReadSelectors() {
+        NIOStatistics statistics = new NIOStatistics(1000, 20, 3, 4);
+        Assert.assertEquals(0, statistics.getReadSelectorsBusyTime().length);
+        Assert.assertEquals(0, statistics.getReadSelectorsChannels().length);
+    }
+}
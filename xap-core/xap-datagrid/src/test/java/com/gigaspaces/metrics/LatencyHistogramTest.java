@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        long previousHighest = -1;
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS - 1; bucket++) {
+            long highest = LatencyHistogram.highestValueOf(bucket);
+            Assert.assertTrue("bucket " + bucket, highest > previousHighest);
+            Assert.assertEquals(bucket, LatencyHistogram.bucketOf(previousHighest + 1));
+            Assert.assertEquals(bucket, LatencyHistogram.bucketOf(highest));
+            // relative error is bounded by the sub buckets resolution
+            Assert.assertTrue("bucket " + bucket, highest - previousHighest - 1 <= Math.max(0, highest / 16));
+            previousHighest = highest;
+        }
+        Assert.assertEquals(0, LatencyHistogram.bucketOf(-5));
+        Assert.assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.getSnapshot().getValueAtPercentile(99));
+        for (int i = 1; i <= 1000; i++)
+            histogram.recordMicros(i);
+        LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+        Assert.assertEquals(1000, snapshot.getCount());
+        assertApproximately(500, snapshot.getValueAtPercentile(50));
+        assertApproximately(990, snapshot.getValueAtPercentile(99));
+        assertApproximately(1000, snapshot.getMax());
+        Assert.assertEquals(500, snapshot.getMean(), 500 / 16);
+    }
+
+    @Test
+    public void testIntervalSnapshot() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(2, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(1, histogram.getIntervalSnapshot(0).getCount());
+        assertApproximately(2000, histogram.getSnapshot().getMax());
+
+        histogram.record(10, TimeUnit.MICROSECONDS);
+        histogram.record(20, TimeUnit.MICROSECONDS);
+        LatencyHistogram.Snapshot interval = histogram.getIntervalSnapshot(0);
+        Assert.assertEquals(2, interval.getCount());
+        Assert.assertEquals(20, interval.getMax());
+        // within the minimal interval the same snapshot is returned
+        histogram.recordMicros(30);
+        Assert.assertSame(interval, histogram.getIntervalSnapshot(TimeUnit.HOURS.toMillis(1)));
+        Assert.assertEquals(1, histogram.getIntervalSnapshot(0).getCount());
+        Assert.assertEquals(4, histogram.getSnapshot().getCount());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final int threads = 4;
+        final int samples = 10000;
+        Thread[] recorders = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            recorders[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < samples; i++)
+                        histogram.recordMicros(i % 100);
+                }
+            });
+            recorders[t].start();
+        }
+        for (Thread recorder : recorders)
+            recorder.join();
+        Assert.assertEquals(threads * samples, histogram.getSnapshot().getCount());
+    }
+
+    private static void assertApproximately(long expected, long actual) {
+        Assert.assertTrue("expected " + expected + " but was " + actual, actual >= expected && actual <= expected + expected / 16);
+    }
+}
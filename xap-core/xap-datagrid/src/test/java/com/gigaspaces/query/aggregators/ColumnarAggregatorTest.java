@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.query.aggregators;
+
+import com.gigaspaces.internal.metadata.EntryType;
+import com.gigaspaces.internal.metadata.EntryTypeDesc;
+import com.gigaspaces.internal.metadata.ITypeDesc;
+import com.gigaspaces.internal.server.storage.HybridEntryData;
+import com.gigaspaces.metadata.ClassBinaryStorageLayout;
+import com.gigaspaces.metadata.SpaceTypeDescriptorBuilder;
+import com.gigaspaces.metadata.StorageType;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ColumnarAggregatorTest {
+
+    @Test
+    public void testSupportedAggregators() {
+        Assert.assertNotNull(ColumnarAggregator.createIfSupported(Arrays.<SpaceEntriesAggregator>asList(
+                new CountAggregator(), new SumAggregator().setPath("amount"), new AverageAggregator().setPath("price"))));
+        Assert.assertNull(ColumnarAggregator.createIfSupported(Collections.<SpaceEntriesAggregator>singletonList(
+                new SumAggregator().setWidest(false).setPath("amount"))));
+        Assert.assertNull(ColumnarAggregator.createIfSupported(Collections.<SpaceEntriesAggregator>singletonList(
+                new MaxValueAggregator().setPath("amount"))));
+        Assert.assertNull(ColumnarAggregator.createIfSupported(Collections.<SpaceEntriesAggregator>singletonList(
+                new SumAggregator().setPath("nested.amount"))));
+    }
+
+    @Test
+    public void testDirectBinaryStorage() {
+        testAggregation(ClassBinaryStorageLayout.DIRECT);
+    }
+
+    @Test
+    public void testSequentialBinaryStorage() {
+        testAggregation(ClassBinaryStorageLayout.DEFAULT);
+    }
+
+    private void testAggregation(ClassBinaryStorageLayout layout) {
+        ITypeDesc typeDesc = (ITypeDesc) new SpaceTypeDescriptorBuilder("Trade")
+                .addFixedProperty("id", String.class, StorageType.OBJECT)
+                .addFixedProperty("amount", Long.class, StorageType.BINARY)
+                .addFixedProperty("quantity", int.class, StorageType.BINARY)
+                .addFixedProperty("price", double.class, StorageType.BINARY)
+                .idProperty("id")
+                .binaryStorage(layout)
+                .create();
+        EntryTypeDesc entryTypeDesc = new EntryTypeDesc(EntryType.DOCUMENT_JAVA, typeDesc);
+
+        SumAggregator sumAmount = (SumAggregator) new SumAggregator().setPath("amount");
+        CountAggregator countAmount = (CountAggregator) new CountAggregator().setPath("amount");
+        CountAggregator count = new CountAggregator();
+        SumAggregator sumQuantity = (SumAggregator) new SumAggregator().setPath("quantity");
+        AverageAggregator averagePrice = (AverageAggregator) new AverageAggregator().setPath("price");
+        List<SpaceEntriesAggregator> aggregators = Arrays.<SpaceEntriesAggregator>asList(sumAmount, countAmount, count, sumQuantity, averagePrice);
+        ColumnarAggregator columnarAggregator = ColumnarAggregator.createIfSupported(aggregators);
+
+        int entries = ColumnarAggregator.BATCH_SIZE * 2 + 7;
+        long expectedAmount = 0;
+        long expectedAmounts = 0;
+        long expectedQuantity = 0;
+        double expectedPrice = 0;
+        for (int i = 0; i < entries; i++) {
+            //every third amount is null, and every fourth quantity has the default value
+            Long amount = i % 3 == 0 ? null : Long.valueOf(i * 1000000000L);
+            int quantity = i % 4 == 0 ? 0 : i;
+            double price = i / 4d;
+            if (amount != null) {
+                expectedAmount += amount;
+                expectedAmounts++;
+            }
+            expectedQuantity += quantity;
+            expectedPrice += price;
+            Object[] values = new Object[typeDesc.getNumOfFixedProperties()];
+            values[typeDesc.getFixedPropertyPosition("id")] = "id" + i;
+            values[typeDesc.getFixedPropertyPosition("amount")] = amount;
+            values[typeDesc.getFixedPropertyPosition("quantity")] = quantity;
+            values[typeDesc.getFixedPropertyPosition("price")] = price;
+            HybridEntryData entryData = new HybridEntryData(values, null, entryTypeDesc, 1, Long.MAX_VALUE, null);
+            Assert.assertTrue(columnarAggregator.aggregate(entryData));
+        }
+        columnarAggregator.flush();
+
+        Assert.assertEquals(expectedAmount, sumAmount.getFinalResult());
+        Assert.assertEquals(expectedAmounts, countAmount.getFinalResult());
+        Assert.assertEquals((long) entries, count.getFinalResult());
+        Assert.assertEquals(expectedQuantity, sumQuantity.getFinalResult());
+        Assert.assertEquals(expectedPrice / entries, ((Number) averagePrice.getFinalResult()).doubleValue(), 0.0001);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.query.aggregators;
+
+import com.gigaspaces.internal.query.RawEntry;
+import com.gigaspaces.server.ServerEntry;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class OrderByAggregatorTest {
+
+    @Test
+    public void testSortedScanEligibility() {
+        Assert.assertTrue(new OrderByAggregator(10).orderBy("ts").beginSortedScan("ts"));
+        Assert.assertFalse(new OrderByAggregator(10).orderBy("ts").beginSortedScan("id"));
+        Assert.assertFalse(new OrderByAggregator(10).orderBy("ts", OrderBy.DESC).beginSortedScan("ts"));
+        //without a limit all the entries are needed
+        Assert.assertFalse(new OrderByAggregator().orderBy("ts").beginSortedScan("ts"));
+    }
+
+    @Test
+    public void testSortedScanSaturation() {
+        OrderByAggregator aggregator = new OrderByAggregator(3).orderBy("ts").orderBy("id");
+        ValueContext context = new ValueContext(aggregator);
+        Assert.assertTrue(aggregator.beginSortedScan("ts"));
+
+        context.aggregate(1L, 1);
+        context.aggregate(2L, 2);
+        context.aggregate(3L, 3);
+        Assert.assertFalse(aggregator.isSortedScanSaturated());
+        //a tie with the highest kept value can still replace it by the second path
+        context.aggregate(3L, 0);
+        Assert.assertFalse(aggregator.isSortedScanSaturated());
+        context.aggregate(4L, 4);
+        Assert.assertTrue(aggregator.isSortedScanSaturated());
+        Assert.assertEquals(3, aggregator.getIntermediateResult().getResultList().size());
+
+        aggregator.endSortedScan();
+        Assert.assertFalse(aggregator.isSortedScanSaturated());
+    }
+
+    private static class ValueContext extends SpaceEntriesAggregatorContext {
+        private Object ts;
+        private Object id;
+
+        private ValueContext(SpaceEntriesAggregator aggregator) {
+            super(Collections.singletonList(aggregator));
+        }
+
+        void aggregate(Object ts, Object id) {
+            this.ts = ts;
+            this.id = id;
+            aggregate();
+        }
+
+        @Override
+        protected Object getPathValueImpl(String path) {
+            return path.equals("ts") ? ts : id;
+        }
+
+        @Override
+        public int getPartitionId() {
+            return 0;
+        }
+
+        @Override
+        public String getEntryUid() {
+            return String.valueOf(id);
+        }
+
+        @Override
+        public RawEntry getRawEntry() {
+            return null;
+        }
+
+        @Override
+        public void applyProjectionTemplate(RawEntry entry) {
+        }
+
+        @Override
+        public ServerEntry getServerEntry() {
+            return null;
+        }
+    }
+}
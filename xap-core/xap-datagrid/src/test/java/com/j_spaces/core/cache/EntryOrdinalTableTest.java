@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.core.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class EntryOrdinalTableTest {
+
+    @Test
+    public void testRandomOperationsAgainstIdentityMap() {
+        EntryOrdinalTable table = new EntryOrdinalTable();
+        IEntryCacheInfo[] entries = new IEntryCacheInfo[3000];
+        for (int i = 0; i < entries.length; i++)
+            entries[i] = Mockito.mock(IEntryCacheInfo.class);
+        Map<IEntryCacheInfo, Integer> refs = new IdentityHashMap<IEntryCacheInfo, Integer>();
+        Map<IEntryCacheInfo, Integer> ordinals = new IdentityHashMap<IEntryCacheInfo, Integer>();
+        Random random = new Random(11);
+        for (int i = 0; i < 100000; i++) {
+            IEntryCacheInfo entry = entries[random.nextInt(entries.length)];
+            Integer count = refs.get(entry);
+            if (random.nextInt(3) != 0) {
+                int ordinal = table.acquire(entry);
+                if (count == null) {
+                    Assert.assertFalse(ordinals.containsValue(ordinal));
+                    ordinals.put(entry, ordinal);
+                } else {
+                    Assert.assertEquals(ordinals.get(entry).intValue(), ordinal);
+                }
+                refs.put(entry, count == null ? 1 : count + 1);
+            } else {
+                table.release(entry);
+                if (count == null)
+                    continue;
+                if (count == 1) {
+                    refs.remove(entry);
+                    Assert.assertNull(table.getEntry(ordinals.remove(entry)));
+                } else {
+                    refs.put(entry, count - 1);
+                }
+            }
+        }
+
+        Assert.assertEquals(ordinals.size(), table.size());
+        Set<Integer> used = new HashSet<Integer>();
+        for (IEntryCacheInfo entry : entries) {
+            Integer ordinal = ordinals.get(entry);
+            Assert.assertEquals(ordinal == null ? -1 : ordinal.intValue(), table.getOrdinal(entry));
+            if (ordinal != null) {
+                Assert.assertSame(entry, table.getEntry(ordinal));
+                used.add(ordinal);
+            }
+        }
+        // released ordinals are recycled, so the ordinals stay within the entries count
+        for (int ordinal : used)
+            Assert.assertTrue(ordinal < entries.length);
+    }
+}
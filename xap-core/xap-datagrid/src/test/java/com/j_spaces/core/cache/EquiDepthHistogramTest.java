@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.core.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class EquiDepthHistogramTest {
+    @Test
+    public void testEmpty() {
+        EquiDepthHistogram histogram = new EquiDepthHistogram.Builder(0, 64).build();
+        Assert.assertEquals(0, histogram.getTotal());
+        Assert.assertEquals(0, histogram.estimate(1, true, 10, true));
+        Assert.assertEquals(0, histogram.estimate(null, false, null, false));
+    }
+
+    @Test
+    public void testUniformRanges() {
+        EquiDepthHistogram.Builder builder = new EquiDepthHistogram.Builder(10000, 64);
+        for (int i = 0; i < 10000; i++)
+            builder.add(i, 1);
+        EquiDepthHistogram histogram = builder.build();
+        Assert.assertEquals(10000, histogram.getTotal());
+        Assert.assertTrue(histogram.getNumOfBuckets() <= 65);
+
+        Assert.assertEquals(10000, histogram.estimate(null, false, null, false));
+        Assert.assertEquals(0, histogram.estimate(20000, true, null, false));
+        Assert.assertEquals(0, histogram.estimate(null, false, -5, true));
+        assertClose(1000, histogram.estimate(2000, true, 3000, false), 0.02);
+        assertClose(5000, histogram.estimate(5000, true, null, false), 0.02);
+        assertClose(100, histogram.estimate(null, false, 100, false), 0.1);
+    }
+
+    @Test
+    public void testSkewedRanges() {
+        //a heavy hitter value and a long tail, compared with exact counts
+        TreeMap<Integer, Integer> counts = new TreeMap<Integer, Integer>();
+        Random random = new Random(7);
+        int total = 0;
+        for (int i = 0; i < 50000; i++) {
+            int value = random.nextInt(4) == 0 ? 500 : (int) Math.abs(random.nextGaussian() * 2000);
+            Integer count = counts.get(value);
+            counts.put(value, count == null ? 1 : count + 1);
+            total++;
+        }
+        EquiDepthHistogram.Builder builder = new EquiDepthHistogram.Builder(total, 64);
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet())
+            builder.add(entry.getKey(), entry.getValue());
+        EquiDepthHistogram histogram = builder.build();
+        Assert.assertEquals(total, histogram.getTotal());
+
+        int[][] ranges = {{0, 1000}, {400, 600}, {1000, 4000}, {3000, 9000}, {500, 500}};
+        for (int[] range : ranges) {
+            long expected = 0;
+            for (int count : counts.subMap(range[0], true, range[1], true).values())
+                expected += count;
+            long estimate = histogram.estimate(range[0], true, range[1], true);
+            //within 5% of the total number of entries
+            Assert.assertTrue("range " + range[0] + ".." + range[1] + " expected " + expected + " estimated " + estimate,
+                    Math.abs(estimate - expected) <= total / 20);
+        }
+    }
+
+    @Test
+    public void testNonNumericValues() {
+        EquiDepthHistogram.Builder builder = new EquiDepthHistogram.Builder(26 * 10, 8);
+        for (char c = 'a'; c <= 'z'; c++)
+            builder.add(String.valueOf(c), 10);
+        EquiDepthHistogram histogram = builder.build();
+        assertClose(100, histogram.estimate("a", true, "j", true), 0.15);
+        Assert.assertEquals(0, histogram.estimate("zz", true, null, false));
+    }
+
+    private static void assertClose(long expected, long actual, double tolerance) {
+        Assert.assertTrue("expected " + expected + " actual " + actual, Math.abs(expected - actual) <= Math.max(1, expected * tolerance));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.core.cluster.startup;
+
+import com.gigaspaces.internal.cluster.node.impl.ReplicationSingleOperationType;
+import com.gigaspaces.internal.cluster.node.impl.backlog.globalorder.GlobalOrderOperationPacket;
+import com.gigaspaces.internal.cluster.node.impl.packets.IReplicationOrderedPacket;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketData;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketEntryData;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.operations.PartialUpdateReplicationPacketData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RedoLogCompactionUtilTest {
+
+    @Test
+    public void testUpdatesCoalesced() {
+        List<IReplicationOrderedPacket> packets = new LinkedList<IReplicationOrderedPacket>();
+        packets.add(packet(0, "a", ReplicationSingleOperationType.WRITE));
+        packets.add(packet(1, "a", ReplicationSingleOperationType.UPDATE));
+        packets.add(packet(2, "b", ReplicationSingleOperationType.WRITE));
+        packets.add(packet(3, "a", ReplicationSingleOperationType.CHANGE));
+        packets.add(packet(4, "a", ReplicationSingleOperationType.UPDATE));
+        packets.add(packet(5, "b", ReplicationSingleOperationType.UPDATE));
+
+        CompactionResult result = RedoLogCompactionUtil.coalesce(0, 5, packets);
+        Assert.assertEquals(2, result.getDiscardedCount());
+        assertDiscarded(packets, 1, 3);
+    }
+
+    @Test
+    public void testRemoveSupersedesWrite() {
+        List<IReplicationOrderedPacket> packets = new LinkedList<IReplicationOrderedPacket>();
+        packets.add(packet(0, "a", ReplicationSingleOperationType.WRITE));
+        packets.add(packet(1, "a", ReplicationSingleOperationType.UPDATE));
+        packets.add(packet(2, "a", ReplicationSingleOperationType.REMOVE_ENTRY));
+        packets.add(packet(3, "a", ReplicationSingleOperationType.WRITE));
+
+        RedoLogCompactionUtil.coalesce(0, 3, packets);
+        assertDiscarded(packets, 0, 1);
+    }
+
+    @Test
+    public void testNoCoalescingAcrossBarriers() {
+        List<IReplicationOrderedPacket> packets = new LinkedList<IReplicationOrderedPacket>();
+        packets.add(packet(0, "a", ReplicationSingleOperationType.UPDATE));
+        packets.add(packet(1, "a", ReplicationSingleOperationType.EXTEND_ENTRY_LEASE));
+        packets.add(packet(2, "a", ReplicationSingleOperationType.UPDATE));
+        packets.add(packet(3, "b", ReplicationSingleOperationType.UPDATE));
+        packets.add(transaction(4, entry("b", ReplicationSingleOperationType.UPDATE)));
+        packets.add(packet(5, "b", ReplicationSingleOperationType.UPDATE));
+        // a partial update does not supersede the preceding update
+        packets.add(packet(6, "c", ReplicationSingleOperationType.UPDATE));
+        packets.add(new GlobalOrderOperationPacket(7, partialUpdate("c")));
+
+        CompactionResult result = RedoLogCompactionUtil.coalesce(0, 7, packets);
+        Assert.assertTrue(result.isEmpty());
+        assertDiscarded(packets);
+    }
+
+    @Test
+    public void testRange() {
+        List<IReplicationOrderedPacket> packets = new LinkedList<IReplicationOrderedPacket>();
+        packets.add(packet(0, "a", ReplicationSingleOperationType.UPDATE));
+        packets.add(packet(1, "a", ReplicationSingleOperationType.UPDATE));
+        packets.add(packet(2, "a", ReplicationSingleOperationType.UPDATE));
+        packets.add(packet(3, "a", ReplicationSingleOperationType.UPDATE));
+
+        RedoLogCompactionUtil.coalesce(1, 2, packets);
+        assertDiscarded(packets, 1);
+    }
+
+    private static void assertDiscarded(List<IReplicationOrderedPacket> packets, long... keys) {
+        int index = 0;
+        for (IReplicationOrderedPacket packet : packets) {
+            boolean expected = Arrays.binarySearch(keys, packet.getKey()) >= 0;
+            Assert.assertEquals("packet " + packet.getKey(), expected, packet.isDiscardedPacket());
+            Assert.assertEquals(index++, packet.getKey());
+        }
+    }
+
+    private static IReplicationOrderedPacket packet(long key, String uid, ReplicationSingleOperationType operationType) {
+        IReplicationPacketEntryData entry = entry(uid, operationType);
+        IReplicationPacketData data = mock(IReplicationPacketData.class);
+        when(data.isSingleEntryData()).thenReturn(true);
+        when(data.getSingleEntryData()).thenReturn(entry);
+        return new GlobalOrderOperationPacket(key, data);
+    }
+
+    private static IReplicationOrderedPacket transaction(long key, IReplicationPacketEntryData... entries) {
+        IReplicationPacketData data = mock(IReplicationPacketData.class);
+        when(data.iterator()).thenReturn(Arrays.asList(entries).iterator());
+        return new GlobalOrderOperationPacket(key, data);
+    }
+
+    private static IReplicationPacketData partialUpdate(String uid) {
+        PartialUpdateReplicationPacketData data = mock(PartialUpdateReplicationPacketData.class);
+        when(data.isSingleEntryData()).thenReturn(true);
+        when(data.getSingleEntryData()).thenReturn(data);
+        when(data.getUid()).thenReturn(uid);
+        when(data.getOperationType()).thenReturn(ReplicationSingleOperationType.UPDATE);
+        return data;
+    }
+
+    private static IReplicationPacketEntryData entry(String uid, ReplicationSingleOperationType operationType) {
+        IReplicationPacketEntryData entry = mock(IReplicationPacketEntryData.class);
+        when(entry.getUid()).thenReturn(uid);
+        when(entry.getOperationType()).thenReturn(operationType);
+        return entry;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.kernel.list;
+
+import com.j_spaces.kernel.IObjectInfo;
+import com.j_spaces.kernel.IStoredListIterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class StripedStoredListTest {
+    @Test
+    public void testNumOfStripes() {
+        Assert.assertEquals(2, StripedStoredList.numOfStripes(1));
+        Assert.assertEquals(4, StripedStoredList.numOfStripes(3));
+        Assert.assertEquals(8, StripedStoredList.numOfStripes(8));
+    }
+
+    @Test
+    public void testSplitKeepsExistingElements() throws Exception {
+        //a zero threshold splits the list on the next insertion
+        final StripedStoredList<Integer> striped = new StripedStoredList<Integer>(false, 0);
+        IObjectInfo<Integer> before = striped.add(-1);
+        Assert.assertTrue(striped.isStriped());
+        final List<IObjectInfo<Integer>> infos = new ArrayList<IObjectInfo<Integer>>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int base = t * 100;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 100; i++) {
+                        IObjectInfo<Integer> oi = striped.add(base + i);
+                        synchronized (infos) {
+                            infos.add(oi);
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        Assert.assertEquals(401, striped.size());
+        Assert.assertEquals(401, scan(striped).size());
+
+        striped.remove(before);
+        for (IObjectInfo<Integer> oi : infos.subList(0, 200))
+            striped.remove(oi);
+        Set<Integer> remaining = scan(striped);
+        Assert.assertEquals(200, striped.size());
+        Assert.assertEquals(200, remaining.size());
+        Assert.assertFalse(remaining.contains(-1));
+    }
+
+    @Test
+    public void testFifoListIsNotSplit() {
+        StripedStoredList<Integer> list = new StripedStoredList<Integer>(true, 0);
+        for (int i = 0; i < 10; i++)
+            list.add(i);
+        Assert.assertFalse(list.isStriped());
+        Assert.assertEquals(Integer.valueOf(0), list.getObjectFromHead());
+    }
+
+    @Test
+    public void testUncontendedListIsNotSplit() {
+        StripedStoredList<Integer> list = new StripedStoredList<Integer>(false, Integer.MAX_VALUE);
+        IObjectInfo<Integer> oi = list.add(1);
+        list.add(2);
+        Assert.assertFalse(list.isStriped());
+        Assert.assertEquals(2, list.size());
+        Assert.assertEquals(2, scan(list).size());
+        list.remove(oi);
+        Assert.assertTrue(list.removeByObject(2));
+        Assert.assertTrue(list.invalidate());
+    }
+
+    @Test
+    public void testRemoveByObject() {
+        StripedStoredList<Integer> list = new StripedStoredList<Integer>(false, 0);
+        for (int i = 0; i < 10; i++)
+            list.add(i);
+        Assert.assertTrue(list.removeByObject(7));
+        Assert.assertFalse(list.removeByObject(7));
+        Assert.assertEquals(9, list.size());
+        Assert.assertFalse(scan(list).contains(7));
+    }
+
+    @Test
+    public void testInvalidate() {
+        StripedStoredList<Integer> list = new StripedStoredList<Integer>(false, 0);
+        IObjectInfo<Integer> oi = list.add(1);
+        Assert.assertFalse(list.invalidate());
+        list.remove(oi);
+        Assert.assertTrue(list.invalidate());
+        Assert.assertFalse(list.invalidate());
+        Assert.assertNull(list.add(2));
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentAddAndInvalidate() throws Exception {
+        //an add which is not rejected must never be lost by an invalidation
+        for (int round = 0; round < 200; round++) {
+            final StripedStoredList<Integer> list = new StripedStoredList<Integer>(false, 0);
+            final CountDownLatch start = new CountDownLatch(1);
+            final AtomicReference<IObjectInfo<Integer>> added = new AtomicReference<IObjectInfo<Integer>>();
+            Thread adder = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    added.set(list.add(1));
+                }
+            });
+            adder.start();
+            start.countDown();
+            boolean invalidated = list.invalidate();
+            adder.join();
+            Assert.assertTrue(invalidated ^ added.get() != null);
+        }
+    }
+
+    private static Set<Integer> scan(StripedStoredList<Integer> list) {
+        Set<Integer> res = new HashSet<Integer>();
+        IStoredListIterator<Integer> slh = null;
+        try {
+            for (slh = list.establishListScan(false); slh != null; slh = list.next(slh)) {
+                Integer subject = slh.getSubject();
+                if (subject != null)
+                    res.add(subject);
+            }
+        } finally {
+            if (slh != null)
+                slh.release();
+        }
+        return res;
+    }
+}
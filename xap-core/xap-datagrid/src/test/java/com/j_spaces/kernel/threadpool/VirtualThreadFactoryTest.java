@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.kernel.threadpool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class VirtualThreadFactoryTest {
+
+    @Test
+    public void testNewThread() throws Exception {
+        if (!VirtualThreadFactory.isSupported()) {
+            try {
+                new VirtualThreadFactory("test");
+                Assert.fail("Expected UnsupportedOperationException");
+            } catch (UnsupportedOperationException e) {
+                //expected on JVMs without virtual threads
+            }
+            return;
+        }
+
+        final CountDownLatch ran = new CountDownLatch(1);
+        Thread thread = new VirtualThreadFactory("test").newThread(new Runnable() {
+            @Override
+            public void run() {
+                ran.countDown();
+            }
+        });
+        Assert.assertTrue(thread.getName().startsWith("test-vpool-"));
+        Assert.assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+        thread.start();
+        Assert.assertTrue(ran.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testVirtualThreadPool() throws Exception {
+        if (!VirtualThreadFactory.isSupported())
+            return;
+
+        DynamicThreadPoolExecutor executor = (DynamicThreadPoolExecutor) DynamicExecutors.newScalingThreadPool(500, 1000, 1000,
+                new VirtualThreadFactory("test"));
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(500);
+        try {
+            //blocking tasks each park a thread, which is cheap for virtual threads
+            for (int i = 0; i < 500; i++) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        started.countDown();
+                        try {
+                            blocked.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+            }
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(500, executor.getActiveCount());
+        } finally {
+            blocked.countDown();
+            executor.shutdown();
+        }
+    }
+}